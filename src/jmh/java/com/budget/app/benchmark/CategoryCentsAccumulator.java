@@ -0,0 +1,72 @@
+package com.budget.app.benchmark;
+
+import com.budget.app.model.Money;
+import com.budget.app.service.TransactionService.CategoryTotal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Adds up cents per category with plain long arrays indexed by category id
+// (see CategoryIds), instead of a HashMap<String, Double>.
+// add() doesn’t allocate, box or hash anything, and the sums are exact.
+final class CategoryCentsAccumulator {
+
+    private final CategoryIds categories;
+    private long[] cents;
+    private long[] counts;
+
+    CategoryCentsAccumulator(CategoryIds categories) {
+        this.categories = categories;
+        this.cents = new long[Math.max(categories.size(), 8)];
+        this.counts = new long[cents.length];
+    }
+
+    void add(int categoryId, long amountCents) {
+        if (categoryId >= cents.length) {
+            // A category that showed up after this accumulator was created.
+            int size = Math.max(categoryId + 1, cents.length * 2);
+            cents = Arrays.copyOf(cents, size);
+            counts = Arrays.copyOf(counts, size);
+        }
+        cents[categoryId] += amountCents;
+        counts[categoryId]++;
+    }
+
+    long centsOf(int categoryId) {
+        return categoryId < cents.length ? cents[categoryId] : 0;
+    }
+
+    long countOf(int categoryId) {
+        return categoryId < counts.length ? counts[categoryId] : 0;
+    }
+
+    // Start over without giving the arrays back, so one accumulator can be reused.
+    void clear() {
+        Arrays.fill(cents, 0);
+        Arrays.fill(counts, 0);
+    }
+
+    // The "limit" biggest categories (ones with no rows are skipped), biggest first.
+    // There are only a few dozen categories, so picking the max "limit" times
+    // is cheaper than sorting, and only the returned rows are allocated.
+    List<CategoryTotal> top(int limit) {
+        List<CategoryTotal> result = new ArrayList<>(Math.max(limit, 0));
+        boolean[] taken = new boolean[cents.length];
+
+        while (result.size() < limit) {
+            int best = -1;
+            for (int id = 0; id < cents.length; id++) {
+                if (!taken[id] && counts[id] > 0 && (best < 0 || cents[id] > cents[best])) {
+                    best = id;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            taken[best] = true;
+            result.add(new CategoryTotal(categories.name(best), Money.ofCents(cents[best])));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,38 @@
+package com.budget.app.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Gives every distinct category name a small number (0, 1, 2, ...), for InMemoryLedger.
+// The app gets its ids from the per-user dictionary (CategoryDictionary); the synthetic
+// ledger has no database, so this hands them out by name while it loads the rows.
+// After that the hot loops index into arrays instead of hashing strings.
+final class CategoryIds {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    // The id for this name, handing out the next free one the first time it’s seen.
+    // null is treated as "Other", same as the rollup.
+    int idOf(String category) {
+        String name = category == null ? "Other" : category;
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    String name(int id) {
+        return names.get(id);
+    }
+
+    // How many ids have been handed out (valid ids are 0 .. size - 1).
+    int size() {
+        return names.size();
+    }
+}
@@ -0,0 +1,120 @@
+package com.budget.app.benchmark;
+
+import com.budget.app.BudgetBuddyApplication;
+import com.budget.app.model.Money;
+import com.budget.app.model.Transaction;
+import com.budget.app.service.CategoryDictionary;
+import com.budget.app.service.MonthlyRollupService;
+import com.budget.app.service.TransactionService;
+import com.budget.app.service.TransactionService.CategoryTotal;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The real TransactionService (repositories, rollup, Hibernate) against an
+// embedded H2 database in MySQL mode, so these numbers include the SQL.
+//
+// The ledger cache is turned off here, otherwise every call after the first
+// would just be a cache hit and the benchmark wouldn't measure the queries.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class H2LedgerBenchmark {
+
+    private static final int INSERT_BATCH = 5_000;
+
+    @Param({ "1000", "100000", "1000000" })
+    public int rows;
+
+    // Every row belongs to this one user (the service always works on one user's ledger).
+    private static final long USER_ID = 1L;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Command-line style args so they win over application.properties.
+        context = new SpringApplicationBuilder(BudgetBuddyApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench" + rows
+                                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.cache.type=none",
+                        "--budget.rollup.verify-on-startup=false",
+                        "--logging.level.root=WARN");
+
+        load(context.getBean(JdbcTemplate.class), context.getBean(CategoryDictionary.class));
+        // Fill the rollup the same way the app does for an existing database.
+        context.getBean(MonthlyRollupService.class).rebuild();
+
+        service = context.getBean(TransactionService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Plain JDBC batches: going through JPA would take minutes for a million rows
+    // and isn't what's being measured.
+    // Category names go through the dictionary first (a handful of rows), same as a save.
+    private void load(JdbcTemplate jdbc, CategoryDictionary categories) {
+        jdbc.update("insert into users (id, name, email, password) values (?, 'Bench', 'bench@example.com', 'x')",
+                USER_ID);
+
+        String sql = "insert into transactions (id, user_id, name, amount_cents, type_code, category_id, date, note) "
+                + "values (?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+
+        SyntheticLedger.generate(rows, (Transaction t) -> {
+            batch.add(new Object[] { t.getId(), USER_ID, t.getName(), t.getAmountCents(), t.getType().getCode(),
+                    categories.resolve(USER_ID, t.getCategory()).getId(), Date.valueOf(t.getDate()), t.getNote() });
+            if (batch.size() == INSERT_BATCH) {
+                jdbc.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(sql, batch);
+        }
+    }
+
+    @Benchmark
+    public Money getTotalIncome() {
+        return service.getTotalIncome(USER_ID);
+    }
+
+    @Benchmark
+    public Money getMonthlyExpenses() {
+        return service.getMonthlyExpenses(USER_ID, SyntheticLedger.BENCH_MONTH);
+    }
+
+    @Benchmark
+    public List<CategoryTotal> getTopExpenseCategories() {
+        return service.getTopExpenseCategories(USER_ID, SyntheticLedger.BENCH_MONTH, 3);
+    }
+
+    @Benchmark
+    public List<Transaction> getByType() {
+        return service.getByType(USER_ID, "EXPENSE");
+    }
+
+    @Benchmark
+    public List<Transaction> getRecent() {
+        return service.getRecent(USER_ID, 5);
+    }
+}
@@ -0,0 +1,99 @@
+package com.budget.app.benchmark;
+
+import com.budget.app.model.Money;
+import com.budget.app.model.MonthlyCategoryTotal;
+import com.budget.app.model.Transaction;
+import com.budget.app.model.TransactionType;
+import com.budget.app.service.TransactionService.CategoryTotal;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// The same five reads as TransactionService, done in memory with no database at all.
+// This is the "no I/O" floor the database-backed numbers can be compared against.
+//
+// The numbers the totals need are copied into primitive arrays once (cents, month key,
+// type, category id), so the aggregate loops are plain long additions over arrays:
+// no unboxing, no null checks, no string comparisons and no HashMap per call.
+public class InMemoryLedger {
+
+    // Newest first (date desc, id desc), the same order the repository returns.
+    private final List<Transaction> rows;
+
+    // Column copies of "rows", same order.
+    private final long[] cents;
+    private final int[] monthKeys;
+    private final boolean[] income;
+    private final int[] categoryIds;
+
+    private final CategoryIds categories = new CategoryIds();
+
+    public InMemoryLedger(List<Transaction> rows) {
+        this.rows = new ArrayList<>(rows);
+        this.rows.sort(Comparator.comparing(Transaction::getDate).reversed()
+                .thenComparing(Comparator.comparing(Transaction::getId).reversed()));
+
+        int n = this.rows.size();
+        cents = new long[n];
+        monthKeys = new int[n];
+        income = new boolean[n];
+        categoryIds = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            Transaction t = this.rows.get(i);
+            cents[i] = t.getAmountCents();
+            monthKeys[i] = MonthlyCategoryTotal.monthKey(t.getDate());
+            income[i] = t.getType() == TransactionType.INCOME;
+            categoryIds[i] = categories.idOf(t.getCategory());
+        }
+    }
+
+    public Money getTotalIncome() {
+        long total = 0;
+        for (int i = 0; i < cents.length; i++) {
+            if (income[i]) {
+                total += cents[i];
+            }
+        }
+        return Money.ofCents(total);
+    }
+
+    public Money getMonthlyExpenses(YearMonth month) {
+        int key = MonthlyCategoryTotal.monthKey(month);
+        long total = 0;
+        for (int i = 0; i < cents.length; i++) {
+            if (!income[i] && monthKeys[i] == key) {
+                total += cents[i];
+            }
+        }
+        return Money.ofCents(total);
+    }
+
+    public List<CategoryTotal> getTopExpenseCategories(YearMonth month, int limit) {
+        int key = MonthlyCategoryTotal.monthKey(month);
+        CategoryCentsAccumulator byCategory = new CategoryCentsAccumulator(categories);
+        for (int i = 0; i < cents.length; i++) {
+            if (!income[i] && monthKeys[i] == key) {
+                byCategory.add(categoryIds[i], cents[i]);
+            }
+        }
+        return byCategory.top(limit);
+    }
+
+    public List<Transaction> getByType(String type) {
+        boolean wantIncome = "INCOME".equals(type);
+        List<Transaction> matches = new ArrayList<>();
+        for (int i = 0; i < income.length; i++) {
+            if (income[i] == wantIncome) {
+                matches.add(rows.get(i));
+            }
+        }
+        return matches;
+    }
+
+    public List<Transaction> getRecent(int limit) {
+        return new ArrayList<>(rows.subList(0, Math.min(limit, rows.size())));
+    }
+}
@@ -0,0 +1,54 @@
+package com.budget.app.benchmark;
+
+import com.budget.app.model.Money;
+import com.budget.app.model.Transaction;
+import com.budget.app.service.TransactionService.CategoryTotal;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// TransactionService's read paths over an in-memory list (see InMemoryLedger).
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class InMemoryLedgerBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int rows;
+
+    private InMemoryLedger ledger;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ledger = new InMemoryLedger(SyntheticLedger.generate(rows));
+    }
+
+    @Benchmark
+    public Money getTotalIncome() {
+        return ledger.getTotalIncome();
+    }
+
+    @Benchmark
+    public Money getMonthlyExpenses() {
+        return ledger.getMonthlyExpenses(SyntheticLedger.BENCH_MONTH);
+    }
+
+    @Benchmark
+    public List<CategoryTotal> getTopExpenseCategories() {
+        return ledger.getTopExpenseCategories(SyntheticLedger.BENCH_MONTH, 3);
+    }
+
+    @Benchmark
+    public List<Transaction> getByType() {
+        return ledger.getByType("EXPENSE");
+    }
+
+    @Benchmark
+    public List<Transaction> getRecent() {
+        return ledger.getRecent(5);
+    }
+}
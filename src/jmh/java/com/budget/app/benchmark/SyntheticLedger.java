@@ -0,0 +1,72 @@
+package com.budget.app.benchmark;
+
+import com.budget.app.model.Transaction;
+import com.budget.app.model.TransactionType;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+// Builds fake ledgers for the benchmarks.
+// The same seed and row count always give exactly the same rows, so runs on
+// different machines (or before/after a change) measure the same data.
+public final class SyntheticLedger {
+
+    public static final long SEED = 452L;
+
+    // The ledger covers the 36 months up to and including this one.
+    public static final YearMonth LAST_MONTH = YearMonth.of(2025, 12);
+    public static final int MONTHS = 36;
+
+    // The month the "monthly" benchmarks ask about.
+    public static final YearMonth BENCH_MONTH = LAST_MONTH;
+
+    private static final String[] EXPENSE_CATEGORIES = {
+            "Bills", "Rent", "Food", "Shopping", "Travel", "Fun", "Health", "Transport", "Other"
+    };
+    private static final String[] INCOME_CATEGORIES = { "Income", "Gift", "Refund" };
+
+    private SyntheticLedger() {
+    }
+
+    // Hands the rows to "sink" one at a time, so a million rows can be loaded
+    // into the database without holding them all in memory. Ids start at 1.
+    public static void generate(int rows, Consumer<Transaction> sink) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        LocalDate first = LAST_MONTH.minusMonths(MONTHS - 1).atDay(1);
+        int days = (int) (LAST_MONTH.atEndOfMonth().toEpochDay() - first.toEpochDay()) + 1;
+
+        for (int i = 1; i <= rows; i++) {
+            Transaction t = new Transaction();
+            t.setId((long) i);
+
+            // Roughly 1 in 5 rows is income, like a normal checking account.
+            boolean income = random.nextInt(5) == 0;
+            if (income) {
+                t.setType(TransactionType.INCOME);
+                t.setCategory(INCOME_CATEGORIES[random.nextInt(INCOME_CATEGORIES.length)]);
+                t.setAmountCents(50_000 + random.nextInt(300_000));
+                t.setName("Deposit " + i);
+            } else {
+                t.setType(TransactionType.EXPENSE);
+                t.setCategory(EXPENSE_CATEGORIES[random.nextInt(EXPENSE_CATEGORIES.length)]);
+                t.setAmountCents(100 + random.nextInt(25_000));
+                t.setName("Purchase " + i);
+            }
+
+            t.setDate(first.plusDays(random.nextInt(days)));
+            // A note on about one row in ten.
+            t.setNote(random.nextInt(10) == 0 ? "note " + i : null);
+            sink.accept(t);
+        }
+    }
+
+    public static List<Transaction> generate(int rows) {
+        List<Transaction> list = new ArrayList<>(rows);
+        generate(rows, list::add);
+        return list;
+    }
+}
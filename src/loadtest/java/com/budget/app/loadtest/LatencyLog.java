@@ -0,0 +1,39 @@
+package com.budget.app.loadtest;
+
+import java.util.Arrays;
+
+// Every latency of one kind of request, in nanoseconds. Only ever touched by one thread
+// while the test runs (each virtual user has its own); merged at the end.
+final class LatencyLog {
+
+    private long[] values = new long[1024];
+    private int size;
+
+    void add(long nanos) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = nanos;
+    }
+
+    void addAll(LatencyLog other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.values[i]);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Nearest-rank percentile in milliseconds (p = 0.99 for p99).
+    double percentileMillis(double p) {
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(values, size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(p * size);
+        return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,183 @@
+package com.budget.app.loadtest;
+
+import com.budget.app.model.TransactionType;
+import com.budget.app.search.TransactionSearchIndex;
+import com.budget.app.service.CategoryDictionary;
+import com.budget.app.service.MonthlyRollupService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Gives every virtual user an account and a ledger that looks like a real one: two years
+// of rent, bills, groceries, eating out and the odd trip, plus a salary and some side
+// income, with the newest rows in the current month (so the dashboard has something to add
+// up).
+//
+// Accounts go through the real /register and /login pages (so the passwords are hashed the
+// way the app does it and each user gets a signed-in session). The rows go in with plain
+// JDBC batches like H2LedgerBenchmark does; saving tens of thousands through the form
+// would take longer than the test itself and isn't what's being measured. Afterwards the
+// rollup and search index are rebuilt, same as a start on an existing database.
+final class LedgerSeeder {
+
+    static final String PASSWORD = "loadtest-password";
+
+    private static final int INSERT_BATCH = 5_000;
+    private static final int HISTORY_DAYS = 730;
+
+    private static final String[][] EXPENSES = {
+            // category, then names
+            { "Rent", "Monthly rent", "Rent - apartment" },
+            { "Bills", "Electricity", "Internet", "Phone plan", "Water bill", "Streaming subscription" },
+            { "Groceries", "Trader Joe's", "Whole Foods", "Costco", "Corner market", "Farmers market" },
+            { "Food", "Chipotle", "Coffee", "Pizza night", "Lunch with team", "Sushi", "Food delivery" },
+            { "Transportation", "Gas", "Bus pass", "Uber", "Parking", "Car maintenance" },
+            { "Shopping", "Amazon", "Target", "Clothes", "Books", "Electronics" },
+            { "Travel", "Flight", "Hotel", "Train tickets", "Airbnb" },
+            { "Other", "Gym membership", "Haircut", "Gift", "Doctor visit", "Pharmacy" }
+    };
+    private static final int[] EXPENSE_WEIGHTS = { 2, 8, 25, 30, 12, 14, 3, 6 };
+
+    private static final String[] INCOME_NAMES = { "Salary", "Freelance invoice", "Refund", "Interest", "Sold old bike" };
+
+    // One generated transaction, in the shape both the seeder and the form posts need.
+    record Row(String name, long amountCents, String type, String category, LocalDate date, String note) {
+    }
+
+    private final ConfigurableApplicationContext context;
+    private final HttpClient http;
+    private final int port;
+    private final long seed;
+
+    LedgerSeeder(ConfigurableApplicationContext context, HttpClient http, int port, long seed) {
+        this.context = context;
+        this.http = http;
+        this.port = port;
+        this.seed = seed;
+    }
+
+    List<VirtualUser> seed(int users, int rowsPerUser) throws IOException, InterruptedException {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        CategoryDictionary categories = context.getBean(CategoryDictionary.class);
+
+        String sql = "insert into transactions (id, user_id, name, amount_cents, type_code, category_id, date, note) "
+                + "values (?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        long nextId = 1;
+
+        List<VirtualUser> virtualUsers = new ArrayList<>(users);
+        for (int u = 0; u < users; u++) {
+            String email = "user" + u + "@loadtest.local";
+            register("Load Test " + u, email);
+            String session = login(email);
+            Long userId = jdbc.queryForObject("select id from users where email = ?", Long.class, email);
+
+            SplittableRandom random = new SplittableRandom(seed + u);
+            List<Long> ids = new ArrayList<>(rowsPerUser);
+            for (int i = 0; i < rowsPerUser; i++) {
+                Row row = row(random);
+                long id = nextId++;
+                ids.add(id);
+                batch.add(new Object[] { id, userId, row.name(), row.amountCents(),
+                        TransactionType.valueOf(row.type()).getCode(),
+                        categories.resolve(userId, row.category()).getId(), Date.valueOf(row.date()), row.note() });
+                if (batch.size() == INSERT_BATCH) {
+                    jdbc.batchUpdate(sql, batch);
+                    batch.clear();
+                }
+            }
+            // The virtual user gets its own stream of random numbers, apart from its data.
+            virtualUsers.add(new VirtualUser(http, port, email, PASSWORD, session, ids, random.nextLong()));
+        }
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(sql, batch);
+        }
+
+        // Rows went in with their own ids: move the id sequence past them (the pooled
+        // generator hands out the 50 ids below the value it gets, hence the extra 50).
+        jdbc.execute("alter sequence transactions_seq restart with " + (nextId + 50));
+
+        context.getBean(MonthlyRollupService.class).rebuild();
+        context.getBean(TransactionSearchIndex.class).build();
+        return virtualUsers;
+    }
+
+    // ======================= ACCOUNTS =======================
+
+    private void register(String name, String email) throws IOException, InterruptedException {
+        HttpResponse<Void> response = post("/register", "name=" + VirtualUser.encode(name)
+                + "&email=" + VirtualUser.encode(email) + "&password=" + VirtualUser.encode(PASSWORD));
+        String location = VirtualUser.redirectPath(response);
+        if (response.statusCode() != 302 || !location.equals("/login")) {
+            throw new IllegalStateException("Registering " + email + " failed: " + response.statusCode() + " " + location);
+        }
+    }
+
+    private String login(String email) throws IOException, InterruptedException {
+        HttpResponse<Void> response = post("/login", "email=" + VirtualUser.encode(email)
+                + "&password=" + VirtualUser.encode(PASSWORD));
+        String location = VirtualUser.redirectPath(response);
+        String session = VirtualUser.sessionCookie(response);
+        if (response.statusCode() != 302 || !location.equals("/") || session == null) {
+            throw new IllegalStateException("Logging in " + email + " failed: " + response.statusCode() + " " + location);
+        }
+        return session;
+    }
+
+    private HttpResponse<Void> post(String path, String form) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    // ======================= ROWS =======================
+
+    // A random transaction from the last two years; about one in seven is income.
+    static Row row(SplittableRandom random) {
+        LocalDate date = LocalDate.now().minusDays(random.nextInt(HISTORY_DAYS));
+        String note = random.nextInt(10) == 0 ? "split with " + (random.nextBoolean() ? "Sam" : "Alex") : null;
+
+        if (random.nextInt(7) == 0) {
+            String name = INCOME_NAMES[random.nextInt(INCOME_NAMES.length)];
+            long cents = name.equals("Salary") ? 250_000 + random.nextInt(150_000) : 2_000 + random.nextInt(80_000);
+            return new Row(name, cents, "INCOME", "Income", date, note);
+        }
+
+        String[] category = EXPENSES[pickExpense(random)];
+        String name = category[1 + random.nextInt(category.length - 1)];
+        long cents = switch (category[0]) {
+            case "Rent" -> 120_000 + random.nextInt(60_000);
+            case "Travel" -> 8_000 + random.nextInt(60_000);
+            case "Bills" -> 2_000 + random.nextInt(15_000);
+            default -> 300 + random.nextInt(12_000);
+        };
+        return new Row(name, cents, "EXPENSE", category[0], date, note);
+    }
+
+    private static int pickExpense(SplittableRandom random) {
+        int total = 0;
+        for (int w : EXPENSE_WEIGHTS) {
+            total += w;
+        }
+        int n = random.nextInt(total);
+        for (int i = 0; i < EXPENSE_WEIGHTS.length; i++) {
+            n -= EXPENSE_WEIGHTS[i];
+            if (n < 0) {
+                return i;
+            }
+        }
+        throw new IllegalStateException();
+    }
+}
@@ -0,0 +1,211 @@
+package com.budget.app.loadtest;
+
+import com.budget.app.BudgetBuddyApplication;
+import com.budget.app.metrics.SqlStatementCountingFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+
+// End-to-end load test: boots the whole app (Tomcat, controllers, Thymeleaf, Hibernate,
+// caches) on an embedded H2 database in MySQL mode, seeds every virtual user a ledger, and
+// has them all hit the real endpoints at once (see Operation for the mix). Each virtual
+// user sends its next request as soon as the last one is answered.
+//
+// Results (throughput, p50/p95/p99 latency per request, SQL statements per request from
+// SqlStatementCountingFilter) go to target/loadtest-result.json and are compared with the
+// checked-in baseline; the run fails (exit code 1) if anything got worse than the
+// baseline's thresholds allow.
+//
+// mvn -Ploadtest compile exec:exec
+// mvn -Ploadtest compile exec:exec -Dloadtest.args="--users=32 --duration=60s"
+// mvn -Ploadtest compile exec:exec -Dloadtest.args="--write-baseline"
+//
+// Options: --users (16), --rows (transactions per user, 5000), --warmup (15s),
+// --duration (30s, measured), --seed (452), --baseline (src/loadtest/baseline.json),
+// --write-baseline (save this run as the new baseline, keeping the thresholds).
+public final class LoadTest {
+
+    private static final Path WORK_DIR = Path.of("target", "loadtest");
+    private static final Path RESULT = Path.of("target", "loadtest-result.json");
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int users = Integer.parseInt(options.getOrDefault("users", "16"));
+        int rows = Integer.parseInt(options.getOrDefault("rows", "5000"));
+        Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "15s"));
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "30s"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "452"));
+        Path baselineFile = Path.of(options.getOrDefault("baseline", "src/loadtest/baseline.json"));
+
+        ObjectMapper json = new ObjectMapper()
+                .findAndRegisterModules()
+                .enable(SerializationFeature.INDENT_OUTPUT);
+
+        FileSystemUtils.deleteRecursively(WORK_DIR);
+        ConfigurableApplicationContext context = start();
+        Report report;
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient http = HttpClient.newBuilder()
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            System.out.printf("Seeding %d users x %d transactions...%n", users, rows);
+            List<VirtualUser> virtualUsers = new LedgerSeeder(context, http, port, seed).seed(users, rows);
+
+            System.out.printf("Running %d virtual users: %s warmup, %s measured%n", users, warmup, duration);
+            report = run(context, virtualUsers, users, rows, warmup, duration);
+        } finally {
+            context.close();
+        }
+
+        Files.createDirectories(RESULT.getParent());
+        json.writeValue(RESULT.toFile(), report);
+        report.print();
+        System.out.println("Results written to " + RESULT);
+
+        if (options.containsKey("write-baseline")) {
+            Report.Thresholds thresholds = Files.exists(baselineFile)
+                    ? json.readValue(baselineFile.toFile(), Baseline.class).thresholds()
+                    : Report.Thresholds.DEFAULT;
+            json.writeValue(baselineFile.toFile(), new Baseline(thresholds, report));
+            System.out.println("Baseline written to " + baselineFile);
+            return;
+        }
+
+        if (!Files.exists(baselineFile)) {
+            System.out.println("No baseline at " + baselineFile + " (run with --write-baseline to create one)");
+            return;
+        }
+        Baseline baseline = json.readValue(baselineFile.toFile(), Baseline.class);
+        List<String> failures = report.compareWith(baseline.results(), baseline.thresholds());
+        if (failures.isEmpty()) {
+            System.out.println("Within the baseline's thresholds (" + baselineFile + ")");
+            return;
+        }
+        System.out.println("REGRESSIONS against " + baselineFile + ":");
+        failures.forEach(f -> System.out.println("  " + f));
+        System.exit(1);
+    }
+
+    // The checked-in baseline: the thresholds plus the results of a reference run.
+    public record Baseline(Report.Thresholds thresholds, Report results) {
+    }
+
+    // ======================= APP =======================
+
+    // Command-line style args so they win over application.properties. Everything else
+    // (cache, pool sizes, bcrypt cost, ...) is the app's normal configuration.
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(BudgetBuddyApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.show-sql=false",
+                        "--budget.journal.dir=" + WORK_DIR.resolve("journal"),
+                        "--budget.ingest.journal-dir=" + WORK_DIR.resolve("ingest"),
+                        "--logging.level.root=WARN");
+    }
+
+    // ======================= RUN =======================
+
+    private static Report run(ConfigurableApplicationContext context, List<VirtualUser> virtualUsers,
+                              int users, int rows, Duration warmup, Duration duration) throws InterruptedException {
+        MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        CountDownLatch done = new CountDownLatch(virtualUsers.size());
+        List<Thread> threads = new ArrayList<>();
+        for (VirtualUser user : virtualUsers) {
+            Thread t = new Thread(() -> {
+                try {
+                    user.run(measureFrom, end);
+                } finally {
+                    done.countDown();
+                }
+            }, "virtual-user-" + threads.size());
+            threads.add(t);
+            t.start();
+        }
+
+        // SQL counts are cumulative in the app's registry: take them at the end of the
+        // warmup and subtract.
+        Thread.sleep(Math.max(0, (measureFrom - System.nanoTime()) / 1_000_000));
+        Map<String, double[]> sqlBefore = sqlCounts(registry);
+        done.await();
+        Map<String, double[]> sqlAfter = sqlCounts(registry);
+
+        Map<String, LatencyLog> latencies = new TreeMap<>();
+        for (VirtualUser user : virtualUsers) {
+            user.latencies().forEach((request, log) ->
+                    latencies.computeIfAbsent(request, r -> new LatencyLog()).addAll(log));
+        }
+        Map<String, Integer> errors = new TreeMap<>();
+        for (VirtualUser user : virtualUsers) {
+            user.errors().forEach((request, n) -> errors.merge(request, n, Integer::sum));
+        }
+
+        Map<String, Double> sqlPerRequest = new TreeMap<>();
+        sqlAfter.forEach((endpoint, after) -> {
+            double[] before = sqlBefore.getOrDefault(endpoint, new double[2]);
+            double count = after[0] - before[0];
+            if (count > 0) {
+                sqlPerRequest.put(endpoint, Math.round((after[1] - before[1]) / count * 100) / 100.0);
+            }
+        });
+
+        return Report.of(users, rows, duration, latencies, errors, sqlPerRequest);
+    }
+
+    // endpoint ("GET /transactions") -> {requests, statements}
+    private static Map<String, double[]> sqlCounts(MeterRegistry registry) {
+        Map<String, double[]> counts = new HashMap<>();
+        for (DistributionSummary s : registry.find(SqlStatementCountingFilter.METRIC).summaries()) {
+            String endpoint = s.getId().getTag("method") + " " + s.getId().getTag("uri");
+            counts.put(endpoint, new double[]{s.count(), s.totalAmount()});
+        }
+        return counts;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown argument '" + arg + "'");
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,43 @@
+package com.budget.app.loadtest;
+
+import java.util.SplittableRandom;
+
+// What a virtual user does next, with how often (out of 100). Roughly a person using the
+// site: mostly looking at the dashboard and lists, sometimes adding or fixing a
+// transaction, now and then signing in again.
+enum Operation {
+
+    DASHBOARD(30),  // GET /
+    LIST(30),       // GET /transactions?type=ALL|INCOME|EXPENSE
+    CREATE(15),     // POST /transactions
+    EDIT(10),       // GET /transactions/{id}/edit, then POST /transactions with the id
+    DELETE(5),      // POST /transactions/{id}/delete
+    LOGIN(10);      // POST /login (a new session)
+
+    private static final int TOTAL;
+
+    static {
+        int total = 0;
+        for (Operation op : values()) {
+            total += op.weight;
+        }
+        TOTAL = total;
+    }
+
+    private final int weight;
+
+    Operation(int weight) {
+        this.weight = weight;
+    }
+
+    static Operation pick(SplittableRandom random) {
+        int n = random.nextInt(TOTAL);
+        for (Operation op : values()) {
+            n -= op.weight;
+            if (n < 0) {
+                return op;
+            }
+        }
+        throw new IllegalStateException();
+    }
+}
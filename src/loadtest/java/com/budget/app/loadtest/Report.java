@@ -0,0 +1,130 @@
+package com.budget.app.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// What one load-test run measured (written as JSON to target/loadtest-result.json, and
+// kept in the baseline file), and the check against a baseline.
+public record Report(int users,
+                     int rowsPerUser,
+                     double seconds,
+                     long requests,
+                     long errors,
+                     double requestsPerSecond,
+                     Map<String, RequestStats> byRequest,
+                     Map<String, Double> sqlStatementsPerRequest) {
+
+    // Latencies in milliseconds.
+    public record RequestStats(long count, long errors, double perSecond,
+                               double p50, double p95, double p99, double max) {
+    }
+
+    // How much worse than the baseline a run may be before it fails. Latency limits are a
+    // fraction of the baseline's value plus some slack in ms, so a 2 ms page that takes
+    // 3 ms on a noisy run doesn't fail it. Any failed request fails the run.
+    public record Thresholds(double maxThroughputDrop,
+                             double maxP95Increase,
+                             double maxP99Increase,
+                             double latencySlackMillis,
+                             double maxExtraSqlStatements) {
+
+        static final Thresholds DEFAULT = new Thresholds(0.25, 0.5, 1.0, 5, 0.5);
+    }
+
+    static Report of(int users, int rowsPerUser, Duration duration, Map<String, LatencyLog> latencies,
+                     Map<String, Integer> errors, Map<String, Double> sqlStatementsPerRequest) {
+        double seconds = duration.toMillis() / 1000.0;
+        Map<String, RequestStats> byRequest = new TreeMap<>();
+        long requests = 0;
+        long errorCount = 0;
+
+        for (String name : union(latencies, errors)) {
+            LatencyLog log = latencies.getOrDefault(name, new LatencyLog());
+            int failed = errors.getOrDefault(name, 0);
+            byRequest.put(name, new RequestStats(log.size(), failed, round(log.size() / seconds),
+                    round(log.percentileMillis(0.50)), round(log.percentileMillis(0.95)),
+                    round(log.percentileMillis(0.99)), round(log.percentileMillis(1.0))));
+            requests += log.size();
+            errorCount += failed;
+        }
+        return new Report(users, rowsPerUser, seconds, requests, errorCount, round(requests / seconds),
+                byRequest, sqlStatementsPerRequest);
+    }
+
+    // ======================= CHECKING =======================
+
+    // One line per limit this run broke (empty = passed).
+    List<String> compareWith(Report baseline, Thresholds limits) {
+        List<String> failures = new ArrayList<>();
+
+        if (users != baseline.users() || rowsPerUser != baseline.rowsPerUser()) {
+            failures.add(String.format("ran %d users x %d rows, the baseline is %d x %d (not comparable)",
+                    users, rowsPerUser, baseline.users(), baseline.rowsPerUser()));
+            return failures;
+        }
+        if (errors > 0) {
+            failures.add(errors + " failed requests");
+        }
+
+        double minThroughput = baseline.requestsPerSecond() * (1 - limits.maxThroughputDrop());
+        if (requestsPerSecond < minThroughput) {
+            failures.add(String.format("throughput %.1f req/s, baseline %.1f (min %.1f)",
+                    requestsPerSecond, baseline.requestsPerSecond(), minThroughput));
+        }
+
+        baseline.byRequest().forEach((name, base) -> {
+            RequestStats now = byRequest.get(name);
+            if (now == null || now.count() == 0) {
+                failures.add(name + ": no successful requests");
+                return;
+            }
+            latency(failures, name, "p95", now.p95(), base.p95(), limits.maxP95Increase(), limits);
+            latency(failures, name, "p99", now.p99(), base.p99(), limits.maxP99Increase(), limits);
+        });
+
+        baseline.sqlStatementsPerRequest().forEach((endpoint, base) -> {
+            Double now = sqlStatementsPerRequest.get(endpoint);
+            if (now != null && now > base + limits.maxExtraSqlStatements()) {
+                failures.add(String.format("%s: %.2f SQL statements per request, baseline %.2f",
+                        endpoint, now, base));
+            }
+        });
+        return failures;
+    }
+
+    private static void latency(List<String> failures, String name, String which, double now, double base,
+                                double maxIncrease, Thresholds limits) {
+        double max = base * (1 + maxIncrease) + limits.latencySlackMillis();
+        if (now > max) {
+            failures.add(String.format("%s: %s %.1f ms, baseline %.1f (max %.1f)", name, which, now, base, max));
+        }
+    }
+
+    // ======================= PRINTING =======================
+
+    void print() {
+        System.out.printf("%n%d users x %d rows, %.0f s measured: %d requests, %.1f req/s, %d errors%n%n",
+                users, rowsPerUser, seconds, requests, requestsPerSecond, errors);
+        System.out.printf("%-12s %8s %7s %9s %9s %9s %9s %9s%n",
+                "request", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        byRequest.forEach((name, s) -> System.out.printf("%-12s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name, s.count(), s.errors(), s.perSecond(), s.p50(), s.p95(), s.p99(), s.max()));
+        System.out.printf("%nSQL statements per request:%n");
+        sqlStatementsPerRequest.forEach((endpoint, n) -> System.out.printf("  %-36s %6.2f%n", endpoint, n));
+        System.out.println();
+    }
+
+    private static List<String> union(Map<String, ?> a, Map<String, ?> b) {
+        TreeMap<String, Boolean> names = new TreeMap<>();
+        a.keySet().forEach(k -> names.put(k, true));
+        b.keySet().forEach(k -> names.put(k, true));
+        return new ArrayList<>(names.keySet());
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
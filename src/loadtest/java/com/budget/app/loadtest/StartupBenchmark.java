@@ -0,0 +1,288 @@
+package com.budget.app.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Startup benchmark: how long from launching a fresh JVM until the app answers its first
+// request (GET /login with a 200), for each way of starting it:
+//
+//   default      the normal profile (ddl-auto=update, every bean made at boot)
+//   fast-start   --spring.profiles.active=fast-start (Flyway, lazy beans)
+//   aot          fast-start + -Dspring.aot.enabled=true (bean definitions from the build)
+//   aot-cds      aot + the CDS archive (classes loaded from a pre-parsed archive)
+//
+// It runs the extracted jar from "mvn -Pfast-start package" (target/fast-start), so build
+// that first. The CDS archive is made here with a training run on exactly the classpath
+// the timed runs use (a CDS archive only works with the classpath it was made with).
+// Every variant gets one untimed run first (disk cache), then --runs timed ones, one at a
+// time. The median goes to target/startup-result.json and is compared with
+// src/loadtest/startup-baseline.json like LoadTest does.
+//
+// mvn -Pfast-start package
+// mvn -Ploadtest compile exec:exec -Dloadtest.main=com.budget.app.loadtest.StartupBenchmark
+//
+// Options: --runs (5), --variants (default,fast-start,aot,aot-cds), --jar (the extracted
+// jar), --db-url/--db-user/--db-password (an H2 file database under target/startup),
+// --baseline (src/loadtest/startup-baseline.json), --write-baseline.
+public final class StartupBenchmark {
+
+    private static final Path WORK_DIR = Path.of("target", "startup");
+    private static final Path RESULT = Path.of("target", "startup-result.json");
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(3);
+
+    // How much slower (median) a variant may start than in the baseline before it fails.
+    public record Thresholds(double maxIncrease) {
+        static final Thresholds DEFAULT = new Thresholds(0.25);
+    }
+
+    // Milliseconds from launch to the first 200.
+    public record VariantResult(int runs, double median, double min, double max) {
+    }
+
+    public record Result(Map<String, VariantResult> timeToFirstRequestMillis) {
+    }
+
+    public record Baseline(Thresholds thresholds, Result results) {
+    }
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        List<String> variants = Arrays.asList(
+                options.getOrDefault("variants", "default,fast-start,aot,aot-cds").split(","));
+        Path jar = Path.of(options.getOrDefault("jar", "target/fast-start/budgetbuddyfinal-0.0.1-SNAPSHOT.jar"));
+        Path baselineFile = Path.of(options.getOrDefault("baseline", "src/loadtest/startup-baseline.json"));
+        if (!Files.exists(jar)) {
+            throw new IllegalStateException(jar + " not found, build it with: mvn -Pfast-start package");
+        }
+
+        FileSystemUtils.deleteRecursively(WORK_DIR);
+        Files.createDirectories(WORK_DIR);
+        List<String> dbArgs = List.of(
+                "--spring.datasource.url=" + options.getOrDefault("db-url",
+                        "jdbc:h2:file:" + WORK_DIR.toAbsolutePath().resolve("db") + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE"),
+                "--spring.datasource.username=" + options.getOrDefault("db-user", "sa"),
+                "--spring.datasource.password=" + options.getOrDefault("db-password", ""));
+
+        // The extracted jar finds its libraries through its manifest; H2 is added for the
+        // default database (the jar only has it when built with -Plocal-h2).
+        String classpath = jar + File.pathSeparator + codeSource(org.h2.Driver.class);
+        Launcher launcher = new Launcher(classpath, dbArgs);
+
+        // The first start creates the schema (Flyway), so every timed run finds it ready.
+        launcher.timeToFirstRequest("fast-start", "setup");
+        if (variants.contains("aot-cds")) {
+            launcher.trainCds();
+        }
+
+        Map<String, VariantResult> results = new LinkedHashMap<>();
+        for (String variant : variants) {
+            launcher.timeToFirstRequest(variant, variant + "-warmup");
+            double[] millis = new double[runs];
+            for (int i = 0; i < runs; i++) {
+                millis[i] = launcher.timeToFirstRequest(variant, variant + "-" + i);
+                System.out.printf("  %-10s run %d: %.0f ms%n", variant, i + 1, millis[i]);
+            }
+            Arrays.sort(millis);
+            results.put(variant, new VariantResult(runs, millis[runs / 2], millis[0], millis[runs - 1]));
+        }
+        Result result = new Result(results);
+
+        System.out.printf("%n%-10s %6s %10s %10s %10s%n", "variant", "runs", "median ms", "min ms", "max ms");
+        results.forEach((variant, r) -> System.out.printf("%-10s %6d %10.0f %10.0f %10.0f%n",
+                variant, r.runs(), r.median(), r.min(), r.max()));
+
+        ObjectMapper json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        json.writeValue(RESULT.toFile(), result);
+        System.out.println("\nResults written to " + RESULT);
+
+        if (options.containsKey("write-baseline")) {
+            Thresholds thresholds = Files.exists(baselineFile)
+                    ? json.readValue(baselineFile.toFile(), Baseline.class).thresholds()
+                    : Thresholds.DEFAULT;
+            json.writeValue(baselineFile.toFile(), new Baseline(thresholds, result));
+            System.out.println("Baseline written to " + baselineFile);
+            return;
+        }
+        if (!Files.exists(baselineFile)) {
+            System.out.println("No baseline at " + baselineFile + " (run with --write-baseline to create one)");
+            return;
+        }
+
+        Baseline baseline = json.readValue(baselineFile.toFile(), Baseline.class);
+        List<String> failures = new ArrayList<>();
+        baseline.results().timeToFirstRequestMillis().forEach((variant, base) -> {
+            VariantResult now = results.get(variant);
+            double max = base.median() * (1 + baseline.thresholds().maxIncrease());
+            if (now != null && now.median() > max) {
+                failures.add(String.format("%s: %.0f ms to the first request, baseline %.0f (max %.0f)",
+                        variant, now.median(), base.median(), max));
+            }
+        });
+        if (failures.isEmpty()) {
+            System.out.println("Within the baseline's thresholds (" + baselineFile + ")");
+            return;
+        }
+        System.out.println("REGRESSIONS against " + baselineFile + ":");
+        failures.forEach(f -> System.out.println("  " + f));
+        System.exit(1);
+    }
+
+    // ======================= STARTING THE APP =======================
+
+    private static final class Launcher {
+
+        private final String classpath;
+        private final List<String> dbArgs;
+        private final Path cdsArchive = WORK_DIR.resolve("application.jsa");
+        private final HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+
+        Launcher(String classpath, List<String> dbArgs) {
+            this.classpath = classpath;
+            this.dbArgs = dbArgs;
+        }
+
+        // Same settings as the aot-cds runs, stopped right after the context is refreshed;
+        // the JVM writes the archive when it exits.
+        void trainCds() throws IOException, InterruptedException {
+            System.out.println("Making the CDS archive (training run)...");
+            List<String> command = command("aot", 0, List.of(
+                    "-XX:ArchiveClassesAtExit=" + cdsArchive, "-Dspring.context.exit=onRefresh"));
+            Process process = start(command, "cds-training");
+            if (!process.waitFor(START_TIMEOUT.toSeconds(), TimeUnit.SECONDS) || !Files.exists(cdsArchive)) {
+                process.destroyForcibly();
+                throw new IllegalStateException("The CDS training run failed, see " + WORK_DIR.resolve("cds-training.log"));
+            }
+        }
+
+        double timeToFirstRequest(String variant, String name) throws IOException, InterruptedException {
+            int port = freePort();
+            long started = System.nanoTime();
+            Process process = start(command(variant, port, List.of()), name);
+            try {
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/login"))
+                        .timeout(Duration.ofSeconds(5))
+                        .build();
+                long deadline = started + START_TIMEOUT.toNanos();
+                while (System.nanoTime() < deadline) {
+                    if (!process.isAlive()) {
+                        throw new IllegalStateException(name + " exited, see " + WORK_DIR.resolve(name + ".log"));
+                    }
+                    try {
+                        if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                            return (System.nanoTime() - started) / 1_000_000.0;
+                        }
+                    } catch (IOException notListeningYet) {
+                        // keep polling
+                    }
+                    Thread.sleep(10);
+                }
+                throw new IllegalStateException(name + " didn't answer within " + START_TIMEOUT);
+            } finally {
+                stop(process);
+            }
+        }
+
+        private List<String> command(String variant, int port, List<String> extraJvmArgs) {
+            List<String> command = new ArrayList<>();
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(extraJvmArgs);
+            switch (variant) {
+                case "default", "fast-start" -> {
+                }
+                case "aot" -> command.add("-Dspring.aot.enabled=true");
+                case "aot-cds" -> {
+                    command.add("-Dspring.aot.enabled=true");
+                    // on, not auto: an archive the JVM can't use should fail the run, not
+                    // quietly measure a start without it.
+                    command.add("-Xshare:on");
+                    command.add("-XX:SharedArchiveFile=" + cdsArchive);
+                }
+                default -> throw new IllegalArgumentException("Unknown variant '" + variant + "'");
+            }
+            command.add("-cp");
+            command.add(classpath);
+            command.add("com.budget.app.BudgetBuddyApplication");
+            command.add("--server.port=" + port);
+            if (!variant.equals("default")) {
+                command.add("--spring.profiles.active=fast-start");
+            }
+            command.addAll(dbArgs);
+            command.add("--budget.journal.dir=" + WORK_DIR.resolve("journal"));
+            command.add("--budget.ingest.journal-dir=" + WORK_DIR.resolve("ingest"));
+            return command;
+        }
+
+        private static Process start(List<String> command, String name) throws IOException {
+            return new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(WORK_DIR.resolve(name + ".log").toFile())
+                    .start();
+        }
+
+        // A normal shutdown (SIGTERM), so the journal and ingest queue close cleanly
+        // before the next run opens them.
+        private static void stop(Process process) throws InterruptedException {
+            process.destroy();
+            if (!process.waitFor(60, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    // ======================= HELPERS =======================
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String codeSource(Class<?> type) {
+        try {
+            return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (Exception e) {
+            throw new IllegalStateException("Can't find the jar of " + type.getName(), e);
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown argument '" + arg + "'");
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,219 @@
+package com.budget.app.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+// One signed-in person clicking through the site as fast as the server answers: picks an
+// Operation, sends the request(s) a browser would, checks the status, repeats.
+//
+// Requests are timed from send to the whole body being read. Redirects aren't followed
+// (a browser's follow-up GET would be its own request), so a form POST is timed up to its
+// 302, and a 302 to /login where a page was expected counts as an error.
+final class VirtualUser {
+
+    private static final String[] LIST_TYPES = { "ALL", "INCOME", "EXPENSE" };
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http;
+    private final String base;
+    private final String email;
+    private final String password;
+    private final SplittableRandom random;
+
+    // Ids of this user's rows that edit/delete can pick from (the seeded ones; deleted ids
+    // are taken out).
+    private final List<Long> ids;
+
+    private String session;
+
+    private final Map<String, LatencyLog> latencies = new TreeMap<>();
+    private final Map<String, Integer> errors = new TreeMap<>();
+    private final Map<String, String> firstErrors = new LinkedHashMap<>();
+    private boolean measuring;
+
+    VirtualUser(HttpClient http, int port, String email, String password, String session,
+                List<Long> ids, long seed) {
+        this.http = http;
+        this.base = "http://localhost:" + port;
+        this.email = email;
+        this.password = password;
+        this.session = session;
+        this.ids = new ArrayList<>(ids);
+        this.random = new SplittableRandom(seed);
+    }
+
+    Map<String, LatencyLog> latencies() {
+        return latencies;
+    }
+
+    Map<String, Integer> errors() {
+        return errors;
+    }
+
+    // ======================= THE LOOP =======================
+
+    // Works until "end"; only what starts after "measureFrom" is recorded.
+    void run(long measureFrom, long end) {
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            measuring = now >= measureFrom;
+            try {
+                step(Operation.pick(random));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        firstErrors.forEach((request, error) ->
+                System.out.printf("  %s: %s failed: %s%n", email, request, error));
+    }
+
+    private void step(Operation op) throws InterruptedException {
+        switch (op) {
+            case DASHBOARD -> send("dashboard", get("/"), 200);
+            case LIST -> send("list", get("/transactions?type=" + LIST_TYPES[random.nextInt(LIST_TYPES.length)]), 200);
+            case CREATE -> send("create", post("/transactions", form(null)), 302);
+            case EDIT -> {
+                if (ids.isEmpty()) {
+                    return;
+                }
+                Long id = ids.get(random.nextInt(ids.size()));
+                if (send("edit-form", get("/transactions/" + id + "/edit"), 200) != null) {
+                    send("edit-save", post("/transactions", form(id)), 302);
+                }
+            }
+            case DELETE -> {
+                if (ids.isEmpty()) {
+                    return;
+                }
+                Long id = ids.remove(random.nextInt(ids.size()));
+                send("delete", post("/transactions/" + id + "/delete", ""), 302);
+            }
+            case LOGIN -> login();
+        }
+    }
+
+    // A fresh sign-in (no cookie, so the server hands out a new session), like someone
+    // coming back in another browser. The new session is used from then on.
+    private void login() throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/login"))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "email=" + encode(email) + "&password=" + encode(password)))
+                .build();
+        HttpResponse<Void> response = send("login", request, 302);
+        if (response == null) {
+            return;
+        }
+        String location = redirectPath(response);
+        String cookie = sessionCookie(response);
+        if (!location.equals("/") || cookie == null) {
+            error("login", "redirected to '" + location + "'");
+            return;
+        }
+        session = cookie;
+    }
+
+    // ======================= REQUESTS =======================
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(base + path))
+                .timeout(TIMEOUT)
+                .header("Cookie", "JSESSIONID=" + session)
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String form) {
+        return HttpRequest.newBuilder(URI.create(base + path))
+                .timeout(TIMEOUT)
+                .header("Cookie", "JSESSIONID=" + session)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    // The transaction form's fields (see transaction_form.html); id only when editing.
+    private String form(Long id) {
+        LedgerSeeder.Row row = LedgerSeeder.row(random);
+        StringBuilder form = new StringBuilder();
+        if (id != null) {
+            form.append("id=").append(id).append('&');
+        }
+        form.append("name=").append(encode(row.name()))
+                .append("&amount=").append(row.amountCents() / 100).append('.')
+                .append(String.format("%02d", row.amountCents() % 100))
+                .append("&type=").append(row.type())
+                .append("&category=").append(encode(row.category()))
+                .append("&date=").append(row.date());
+        if (row.note() != null) {
+            form.append("&note=").append(encode(row.note()));
+        }
+        return form.toString();
+    }
+
+    // The response if it had the expected status, null (and an error counted) if not.
+    private HttpResponse<Void> send(String name, HttpRequest request, int expected) throws InterruptedException {
+        long started = System.nanoTime();
+        HttpResponse<Void> response;
+        try {
+            response = http.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            error(name, e.toString());
+            return null;
+        }
+        long took = System.nanoTime() - started;
+        if (response.statusCode() != expected) {
+            error(name, "status " + response.statusCode() + " "
+                    + response.headers().firstValue("Location").orElse(""));
+            return null;
+        }
+        if (measuring) {
+            latencies.computeIfAbsent(name, n -> new LatencyLog()).add(took);
+        }
+        return response;
+    }
+
+    private void error(String name, String message) {
+        if (measuring) {
+            errors.merge(name, 1, Integer::sum);
+        }
+        firstErrors.putIfAbsent(name, message);
+    }
+
+    static String sessionCookie(HttpResponse<?> response) {
+        for (String header : response.headers().allValues("Set-Cookie")) {
+            if (header.startsWith("JSESSIONID=")) {
+                int end = header.indexOf(';');
+                return header.substring("JSESSIONID=".length(), end < 0 ? header.length() : end);
+            }
+        }
+        return null;
+    }
+
+    // Where a 302 goes, without the host or a ";jsessionid=" Tomcat adds to a redirect
+    // before the browser has a cookie.
+    static String redirectPath(HttpResponse<?> response) {
+        String path = URI.create(response.headers().firstValue("Location").orElse("")).getPath();
+        int semicolon = path == null ? -1 : path.indexOf(';');
+        return path == null ? "" : semicolon < 0 ? path : path.substring(0, semicolon);
+    }
+
+    static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
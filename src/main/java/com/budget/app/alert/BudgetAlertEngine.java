@@ -0,0 +1,252 @@
+package com.budget.app.alert;
+
+import com.budget.app.datasource.ReadYourWrites;
+import com.budget.app.live.LiveDashboardHub;
+import com.budget.app.model.Budget;
+import com.budget.app.model.MonthlyCategoryTotal;
+import com.budget.app.model.TransactionType;
+import com.budget.app.repository.BudgetRepository;
+import com.budget.app.repository.MonthlyCategoryTotalRepository;
+import com.budget.app.repository.TransactionRepository.CategorySum;
+import com.budget.app.service.CategoryDictionary;
+import com.budget.app.service.LedgerChangedEvent;
+import com.budget.app.service.TransactionSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps every user's budgets and this month's spend per budgeted category in memory,
+// and raises an alert when a category crosses into NEAR (warn-percent of the limit) or OVER.
+//
+// The write path only marks what changed: after a save/delete commits, the transaction's
+// category id goes into that user's "dirty" set (a set, so a bulk edit of 500 grocery rows
+// marks "groceries" once). Every flush-interval, each dirty category's month-to-date total
+// is read straight from its rollup row (one small query per user, however many rows changed),
+// and an alert fires only when a category's level actually goes up to NEAR or OVER.
+// Nothing is recomputed from the transactions, and saves never wait for any of it.
+//
+// Users are loaded on first use (the dashboard or the budgets page) and only then tracked,
+// so people without budgets cost one empty map. A new month (or a rollup rebuild) simply
+// drops the loaded state and the next read loads it again.
+@Component
+public class BudgetAlertEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(BudgetAlertEngine.class);
+
+    // One user's budgets with their status, for one month. Replaced as a whole, never changed,
+    // so readers don't need a lock. Keyed by category dictionary id, which is what
+    // transactions carry (budgets store the name, matched the same way: ignoring case).
+    private record UserBudgets(int monthKey, Map<Integer, BudgetStatus> byCategory) {
+    }
+
+    private final BudgetRepository budgetRepo;
+    private final MonthlyCategoryTotalRepository rollupRepo;
+    private final LiveDashboardHub liveHub;
+    private final CategoryDictionary categories;
+    private final ReadYourWrites readYourWrites;
+
+    // NEAR starts at this share of the limit.
+    private final int warnPercent;
+
+    private final Map<Long, UserBudgets> states = new ConcurrentHashMap<>();
+
+    // Category ids changed since the last flush, per user.
+    private final Map<Long, Set<Integer>> dirty = new ConcurrentHashMap<>();
+
+    // Goes up on every ledger change. A load that sees it move while it was reading may
+    // have missed a change, so it marks everything dirty for the next flush to re-read.
+    private final AtomicLong changes = new AtomicLong();
+
+    private final Counter nearAlerts;
+    private final Counter overAlerts;
+
+    public BudgetAlertEngine(BudgetRepository budgetRepo,
+                             MonthlyCategoryTotalRepository rollupRepo,
+                             LiveDashboardHub liveHub,
+                             CategoryDictionary categories,
+                             ReadYourWrites readYourWrites,
+                             @Value("${budget.alerts.warn-percent:80}") int warnPercent,
+                             MeterRegistry registry) {
+        this.budgetRepo = budgetRepo;
+        this.rollupRepo = rollupRepo;
+        this.liveHub = liveHub;
+        this.categories = categories;
+        this.readYourWrites = readYourWrites;
+        this.warnPercent = warnPercent;
+
+        this.nearAlerts = Counter.builder("budget.alerts.fired").tag("level", "near")
+                .description("Budget alerts raised (a category crossed into this level)")
+                .register(registry);
+        this.overAlerts = Counter.builder("budget.alerts.fired").tag("level", "over")
+                .description("Budget alerts raised (a category crossed into this level)")
+                .register(registry);
+    }
+
+    // ======================= READ =======================
+
+    // Every budget of the user with this month's spend, in category order.
+    public List<BudgetStatus> statuses(Long userId) {
+        return new ArrayList<>(current(userId).byCategory().values());
+    }
+
+    // Just the NEAR/OVER ones, worst first (the dashboard's warnings).
+    public List<BudgetStatus> alerts(Long userId) {
+        return current(userId).byCategory().values().stream()
+                .filter(BudgetStatus::isAlert)
+                .sorted(Comparator.comparing(BudgetStatus::level).reversed()
+                        .thenComparing(Comparator.comparingDouble(BudgetStatus::getPercent).reversed()))
+                .toList();
+    }
+
+    // Called when the user's budgets change; the next read loads them again.
+    public void forget(Long userId) {
+        states.remove(userId);
+    }
+
+    private UserBudgets current(Long userId) {
+        int monthKey = MonthlyCategoryTotal.monthKey(YearMonth.now());
+        UserBudgets state = states.get(userId);
+        if (state != null && state.monthKey() == monthKey) {
+            return state;
+        }
+
+        long seen = changes.get();
+        state = load(userId, monthKey);
+        states.put(userId, state);
+        if (changes.get() != seen) {
+            dirty.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).addAll(state.byCategory().keySet());
+        }
+        return state;
+    }
+
+    // Two small queries: the user's budgets, then this month's totals of those categories.
+    // A budget on a category the user has never used gets a dictionary id like any other.
+    // Both read the primary (with a replica configured): the state is kept current from
+    // after-commit events, so it mustn't start out older than the events it will get.
+    private UserBudgets load(Long userId, int monthKey) {
+        return readYourWrites.onPrimary(() -> read(userId, monthKey));
+    }
+
+    private UserBudgets read(Long userId, int monthKey) {
+        Map<Integer, BudgetStatus> byCategory = new LinkedHashMap<>();
+        for (Budget b : budgetRepo.findByUserIdOrderByCategory(userId)) {
+            byCategory.put(categories.resolve(userId, b.getCategory()).getId(),
+                    BudgetStatus.of(b.getId(), b.getCategory(), b.getLimit(), 0, warnPercent));
+        }
+        if (!byCategory.isEmpty()) {
+            Map<Integer, Long> spent = spent(userId, monthKey, byCategory.keySet());
+            byCategory.replaceAll((k, s) -> s.withSpent(spent.getOrDefault(k, 0L), warnPercent));
+        }
+        return new UserBudgets(monthKey, byCategory);
+    }
+
+    private Map<Integer, Long> spent(Long userId, int monthKey, Set<Integer> categoryIds) {
+        Map<Integer, Long> spent = new HashMap<>();
+        List<CategorySum> rows = readYourWrites.onPrimary(() ->
+                rollupRepo.findCategories(userId, TransactionType.EXPENSE, monthKey, categoryIds));
+        for (CategorySum row : rows) {
+            if (row.getTotalCents() != null) {
+                spent.merge(row.getCategoryId(), row.getTotalCents(), Long::sum);
+            }
+        }
+        return spent;
+    }
+
+    // ======================= COLLECT =======================
+
+    // After the commit, so rolled-back saves never raise an alert. Only marks the category;
+    // users whose budgets aren't loaded are skipped (a load reads fresh totals anyway).
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLedgerChanged(LedgerChangedEvent event) {
+        changes.incrementAndGet();
+        if (event.getBefore() == null && event.getAfter() == null) {
+            // Rollup rebuilt: everything reloads on the next read.
+            states.clear();
+            return;
+        }
+        mark(event.getBefore());
+        mark(event.getAfter());
+    }
+
+    private void mark(TransactionSnapshot t) {
+        if (t == null || t.getUserId() == null || t.getType() != TransactionType.EXPENSE) {
+            return;
+        }
+        UserBudgets state = states.get(t.getUserId());
+        if (state == null || t.getCategoryId() == null) {
+            return;
+        }
+        if (state.byCategory().containsKey(t.getCategoryId())) {
+            dirty.computeIfAbsent(t.getUserId(), id -> ConcurrentHashMap.newKeySet()).add(t.getCategoryId());
+        }
+    }
+
+    // ======================= CHECK =======================
+
+    @Scheduled(fixedDelayString = "${budget.alerts.flush-interval-ms:1000}")
+    public void flush() {
+        int monthKey = MonthlyCategoryTotal.monthKey(YearMonth.now());
+
+        for (Long userId : dirty.keySet()) {
+            Set<Integer> changed = dirty.remove(userId);
+            UserBudgets state = states.get(userId);
+            if (changed == null || changed.isEmpty() || state == null) {
+                continue;
+            }
+            if (state.monthKey() != monthKey) {
+                states.remove(userId, state);
+                continue;
+            }
+
+            Map<Integer, Long> spent = spent(userId, monthKey, changed);
+            Map<Integer, BudgetStatus> updated = new LinkedHashMap<>(state.byCategory());
+            List<BudgetStatus> fired = new ArrayList<>();
+            boolean warningsChanged = false;
+            for (Integer key : changed) {
+                BudgetStatus old = updated.get(key);
+                if (old == null) {
+                    continue;
+                }
+                BudgetStatus now = old.withSpent(spent.getOrDefault(key, 0L), warnPercent);
+                updated.put(key, now);
+                // Only going up fires (OK -> NEAR, NEAR -> OVER); dropping back from OVER to
+                // NEAR after an edit isn't a new warning.
+                if (now.level().compareTo(old.level()) > 0) {
+                    fired.add(now);
+                }
+                // A warning appeared, went away, or its numbers moved.
+                warningsChanged |= (now.isAlert() || old.isAlert()) && !now.equals(old);
+            }
+
+            // If the budgets were changed (forget) or reloaded meanwhile, that copy is newer.
+            if (!states.replace(userId, state, new UserBudgets(monthKey, updated))) {
+                continue;
+            }
+            for (BudgetStatus s : fired) {
+                (s.level() == BudgetStatus.Level.OVER ? overAlerts : nearAlerts).increment();
+                log.info("Budget alert for user {}: {} is {} ({} of {})",
+                        userId, s.category(), s.level(), s.spent().toBigDecimal(), s.limit().toBigDecimal());
+            }
+            if (warningsChanged) {
+                // Open dashboards redraw their warnings (at most one event per user per flush).
+                liveHub.push(userId, "alerts", alerts(userId));
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.budget.app.alert;
+
+import com.budget.app.model.Money;
+
+// Where one budget stands this month: its limit, what's been spent, and the level
+// (OK, NEAR the limit, or OVER it). The dashboard shows the NEAR/OVER ones as alerts.
+public record BudgetStatus(Long budgetId, String category, Money limit, Money spent, Level level) {
+
+    // In order of severity; BudgetAlertEngine compares them to tell a level going up.
+    public enum Level {
+        OK, NEAR, OVER
+    }
+
+    // Share of the limit used, in percent (can go past 100).
+    public double getPercent() {
+        return spent.percentOf(limit);
+    }
+
+    // Left to spend this month (negative when over).
+    public Money getRemaining() {
+        return limit.minus(spent);
+    }
+
+    public boolean isAlert() {
+        return level != Level.OK;
+    }
+
+    static Level levelOf(long spentCents, long limitCents, int warnPercent) {
+        if (spentCents > limitCents) {
+            return Level.OVER;
+        }
+        // spent >= limit * warn% (in whole cents, no rounding)
+        return spentCents * 100 >= limitCents * warnPercent ? Level.NEAR : Level.OK;
+    }
+
+    static BudgetStatus of(Long budgetId, String category, Money limit, long spentCents, int warnPercent) {
+        return new BudgetStatus(budgetId, category, limit, Money.ofCents(spentCents),
+                levelOf(spentCents, limit.getCents(), warnPercent));
+    }
+
+    BudgetStatus withSpent(long spentCents, int warnPercent) {
+        return of(budgetId, category, limit, spentCents, warnPercent);
+    }
+}
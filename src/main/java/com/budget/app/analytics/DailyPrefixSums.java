@@ -0,0 +1,190 @@
+package com.budget.app.analytics;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Running totals per day for several series (income, expenses, each category), so the sum
+// over ANY range of days is two prefix lookups: sum(from..to) = prefix(to) - prefix(from - 1).
+//
+// Each series is a Fenwick tree (binary indexed tree) over day numbers: a plain long[] where
+// both adding an amount to one day and reading a prefix total touch about log2(days) slots.
+// A flat cumulative array would make reads one slot but every write O(days), because a new
+// transaction shifts every running total after it; with the tree ten years of days is ~12
+// slots either way.
+//
+// The trees only cover the days where the user's transactions actually are (see anchor).
+// A date far away from them (a typo like 0202 or 2205) goes into a small sorted map of its
+// own instead of stretching every tree over centuries of empty days; a range sum adds up
+// both, so an outlier still counts wherever it falls.
+//
+// Not thread-safe; TrendIndex locks around it.
+final class DailyPrefixSums {
+
+    // Days kept on each side when the range has to grow, so a run of new dates
+    // (one per day going forward) doesn't re-allocate every time.
+    private static final int GROW_MARGIN_DAYS = 366;
+
+    // A date more than this many days outside the trees' range is an outlier: kept in
+    // "outliers" rather than growing every tree to reach it.
+    static final int MAX_GAP_DAYS = 2 * 366;
+
+    // Epoch day of slot 1 (Fenwick trees are 1-based; slot 0 is unused).
+    private long firstDay;
+    private int days;
+    private long[][] trees = new long[0][];
+
+    // Per series: epoch day -> cents, for the days the trees don't cover (usually empty).
+    private final Map<Integer, TreeMap<Long, Long>> outliers = new HashMap<>();
+    private int outlierDays;
+
+    // ======================= WRITE =======================
+
+    void add(int series, LocalDate date, long cents) {
+        if (cents == 0) {
+            return;
+        }
+        ensureSeries(series);
+        long epochDay = date.toEpochDay();
+        if (!ensureDay(epochDay)) {
+            addOutlier(series, epochDay, cents);
+            return;
+        }
+        long[] tree = trees[series];
+        for (int i = (int) (epochDay - firstDay) + 1; i <= days; i += i & -i) {
+            tree[i] += cents;
+        }
+    }
+
+    // Lays the trees over where most of these dates are, before they're added: the run of
+    // dates around the median with no gap longer than MAX_GAP_DAYS. Otherwise the first date
+    // added would decide, and if that happened to be a typo, every real date would look
+    // like the outlier. Only for an empty index (TrendIndex calls it when loading a user).
+    void anchor(Collection<LocalDate> dates) {
+        if (days > 0 || dates.isEmpty()) {
+            return;
+        }
+        long[] sorted = dates.stream().mapToLong(LocalDate::toEpochDay).sorted().toArray();
+        int lo = sorted.length / 2;
+        int hi = lo;
+        while (lo > 0 && sorted[lo] - sorted[lo - 1] <= MAX_GAP_DAYS) {
+            lo--;
+        }
+        while (hi < sorted.length - 1 && sorted[hi + 1] - sorted[hi] <= MAX_GAP_DAYS) {
+            hi++;
+        }
+        firstDay = sorted[lo] - GROW_MARGIN_DAYS;
+        days = Math.toIntExact(sorted[hi] + GROW_MARGIN_DAYS - firstDay);
+        for (int s = 0; s < trees.length; s++) {
+            trees[s] = new long[days + 1];
+        }
+    }
+
+    private void addOutlier(int series, long epochDay, long cents) {
+        TreeMap<Long, Long> byDay = outliers.computeIfAbsent(series, s -> new TreeMap<>());
+        Long before = byDay.get(epochDay);
+        long total = (before == null ? 0 : before) + cents;
+        if (total == 0) {
+            // Edited or deleted away: drop the day so the map only holds live outliers.
+            byDay.remove(epochDay);
+            outlierDays--;
+        } else {
+            byDay.put(epochDay, total);
+            if (before == null) {
+                outlierDays++;
+            }
+        }
+    }
+
+    // ======================= READ =======================
+
+    // Total of one series from "from" to "to", both inclusive.
+    long sum(int series, LocalDate from, LocalDate to) {
+        long total = prefix(series, to.toEpochDay()) - prefix(series, from.toEpochDay() - 1);
+        TreeMap<Long, Long> far = outliers.get(series);
+        if (far != null) {
+            for (long cents : far.subMap(from.toEpochDay(), true, to.toEpochDay(), true).values()) {
+                total += cents;
+            }
+        }
+        return total;
+    }
+
+    // Total of the series for every day up to and including "epochDay".
+    private long prefix(int series, long epochDay) {
+        if (series >= trees.length || days == 0 || epochDay < firstDay) {
+            return 0;
+        }
+        long[] tree = trees[series];
+        long total = 0;
+        for (int i = (int) Math.min(epochDay - firstDay + 1, days); i > 0; i -= i & -i) {
+            total += tree[i];
+        }
+        return total;
+    }
+
+    int seriesCount() {
+        return trees.length;
+    }
+
+    // Bytes held by the trees (object headers ignored), plus roughly 80 per outlier
+    // (a TreeMap entry and its two boxed longs).
+    long footprint() {
+        return (long) trees.length * (days + 1) * 8 + outlierDays * 80L;
+    }
+
+    // ======================= GROWING =======================
+
+    private void ensureSeries(int series) {
+        if (series < trees.length) {
+            return;
+        }
+        int old = trees.length;
+        trees = Arrays.copyOf(trees, Math.max(series + 1, old * 2));
+        for (int s = old; s < trees.length; s++) {
+            trees[s] = new long[days + 1];
+        }
+    }
+
+    // Re-lays every tree over a wider day range. Rare: only when a date lands outside
+    // the current range (plus margin), e.g. the first transaction dated next year.
+    // Returns false, and leaves the trees alone, for a date too far away (an outlier).
+    private boolean ensureDay(long epochDay) {
+        if (days > 0 && epochDay >= firstDay && epochDay < firstDay + days) {
+            return true;
+        }
+        if (days > 0 && (epochDay < firstDay - MAX_GAP_DAYS || epochDay >= firstDay + days + MAX_GAP_DAYS)) {
+            return false;
+        }
+        long newFirst = days == 0 ? epochDay - GROW_MARGIN_DAYS : Math.min(firstDay, epochDay - GROW_MARGIN_DAYS);
+        long newEnd = days == 0 ? epochDay + GROW_MARGIN_DAYS : Math.max(firstDay + days, epochDay + GROW_MARGIN_DAYS);
+        int newDays = Math.toIntExact(newEnd - newFirst);
+
+        for (int s = 0; s < trees.length; s++) {
+            long[] values = new long[newDays + 1];
+            // Day values back out of the old tree, shifted to the new first day.
+            for (int d = 0; d < days; d++) {
+                long day = firstDay + d;
+                values[(int) (day - newFirst) + 1] = prefix(s, day) - prefix(s, day - 1);
+            }
+            trees[s] = build(values);
+        }
+        firstDay = newFirst;
+        days = newDays;
+        return true;
+    }
+
+    // Turns per-day values (1-based) into a Fenwick tree in place, in one pass.
+    private static long[] build(long[] values) {
+        for (int i = 1; i < values.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < values.length) {
+                values[parent] += values[i];
+            }
+        }
+        return values;
+    }
+}
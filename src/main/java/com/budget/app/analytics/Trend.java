@@ -0,0 +1,77 @@
+package com.budget.app.analytics;
+
+import com.budget.app.model.Money;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Locale;
+
+// Income/expense totals (and per-category totals) for a date range, cut into
+// day/week/month/year buckets. Built by TrendIndex; the /trends page and /api/trends show it.
+public record Trend(LocalDate from, LocalDate to, Granularity granularity,
+                    List<Bucket> buckets, List<CategorySeries> categories) {
+
+    private static final DateTimeFormatter MONTH_LABEL = DateTimeFormatter.ofPattern("MMM yyyy", Locale.ENGLISH);
+
+    // One label per bucket, in order (the x axis of the charts).
+    public List<String> getLabels() {
+        return buckets.stream().map(b -> granularity.label(granularity.bucketStart(b.start()))).toList();
+    }
+
+    public enum Granularity {
+        DAY, WEEK, MONTH, YEAR;
+
+        // "month", "Month", "MONTH" all work; anything else is an IllegalArgumentException.
+        public static Granularity parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Granularity must be DAY, WEEK, MONTH or YEAR");
+            }
+        }
+
+        // First day of the bucket "date" falls in (weeks start on Monday).
+        LocalDate bucketStart(LocalDate date) {
+            return switch (this) {
+                case DAY -> date;
+                case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> date.withDayOfMonth(1);
+                case YEAR -> date.withDayOfYear(1);
+            };
+        }
+
+        // How a bucket is named on the charts ("2025-03-14", "Wk of 2025-03-10", "Mar 2025", "2025").
+        public String label(LocalDate bucketStart) {
+            return switch (this) {
+                case DAY -> bucketStart.toString();
+                case WEEK -> "Wk of " + bucketStart;
+                case MONTH -> bucketStart.format(MONTH_LABEL);
+                case YEAR -> String.valueOf(bucketStart.getYear());
+            };
+        }
+
+        LocalDate next(LocalDate bucketStart) {
+            return switch (this) {
+                case DAY -> bucketStart.plusDays(1);
+                case WEEK -> bucketStart.plusWeeks(1);
+                case MONTH -> bucketStart.plusMonths(1);
+                case YEAR -> bucketStart.plusYears(1);
+            };
+        }
+    }
+
+    // One bucket. The first and last ones are cut to the requested range,
+    // so "start"/"end" are the days actually added up.
+    public record Bucket(LocalDate start, LocalDate end, Money income, Money expenses) {
+        public Money getNet() {
+            return income.minus(expenses);
+        }
+    }
+
+    // One category's total per bucket (same order as the buckets), and over the whole range.
+    public record CategorySeries(String type, String category, Money total, List<Money> values) {
+    }
+}
@@ -0,0 +1,291 @@
+package com.budget.app.analytics;
+
+import com.budget.app.analytics.Trend.Bucket;
+import com.budget.app.analytics.Trend.CategorySeries;
+import com.budget.app.analytics.Trend.Granularity;
+import com.budget.app.datasource.ReadYourWrites;
+import com.budget.app.model.Money;
+import com.budget.app.model.TransactionType;
+import com.budget.app.repository.TransactionRepository;
+import com.budget.app.repository.TransactionRepository.DayCategoryTotal;
+import com.budget.app.service.CategoryDictionary;
+import com.budget.app.service.LedgerChangedEvent;
+import com.budget.app.service.TransactionSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-user prefix sums over days (see DailyPrefixSums), so a trend over any date range at
+// any granularity costs two lookups per bucket and series, with no query at all.
+//
+// A user's index is loaded the first time they ask for a trend (one grouped query over their
+// own rows), kept in a size-limited cache, and from then on updated from the after-commit
+// LedgerChangedEvent: an edit subtracts the old amount on the old day and adds the new one.
+// Users who never open the trends page cost nothing.
+//
+// Series 0 is all income, 1 is all expenses, then one per (type, category id).
+@Component
+public class TrendIndex {
+
+    private static final int INCOME = 0;
+    private static final int EXPENSE = 1;
+
+    // One user's sums. Every method locks on the object itself.
+    private static final class UserTrends {
+        final DailyPrefixSums sums = new DailyPrefixSums();
+
+        // (type, category id) packed into one long (see key()) -> series - 2, and back.
+        final Map<Long, Integer> seriesOf = new HashMap<>();
+        final List<Long> keys = new ArrayList<>();
+
+        synchronized void add(TransactionType type, Integer categoryId, LocalDate date, long cents) {
+            // Far-off dates (typos like 0202) are fine: DailyPrefixSums keeps them aside.
+            if (date == null) {
+                return;
+            }
+            boolean income = type == TransactionType.INCOME;
+            sums.add(income ? INCOME : EXPENSE, date, cents);
+
+            long key = key(income, categoryId);
+            Integer id = seriesOf.get(key);
+            if (id == null) {
+                id = keys.size();
+                seriesOf.put(key, id);
+                keys.add(key);
+            }
+            sums.add(2 + id, date, cents);
+        }
+
+        // Lowest bit is the type, the rest is the category id (0 if there's none,
+        // which the dictionary names "Other").
+        static long key(boolean income, Integer categoryId) {
+            return ((long) (categoryId == null ? 0 : categoryId) << 1) | (income ? 1 : 0);
+        }
+
+        // Sizes the sums to where this user's dates are, before a load adds them.
+        synchronized void anchor(List<DayCategoryTotal> rows) {
+            List<LocalDate> dates = new ArrayList<>(rows.size());
+            for (DayCategoryTotal row : rows) {
+                if (row.getDate() != null) {
+                    dates.add(row.getDate());
+                }
+            }
+            sums.anchor(dates);
+        }
+
+        synchronized long footprint() {
+            return sums.footprint();
+        }
+    }
+
+    private final TransactionRepository repo;
+    private final CategoryDictionary categories;
+    private final ReadYourWrites readYourWrites;
+    private final int maxBuckets;
+
+    private final Cache<Long, UserTrends> users;
+
+    // Per user: changes committed so far, and changes made but not yet committed
+    // (or rolled back). A load only goes into the cache if neither moved while it ran,
+    // otherwise it might have read a commit whose event is still on its way (counted twice)
+    // or missed one whose event already went by (never counted).
+    private final Map<Long, AtomicLong> committed = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> inFlight = new ConcurrentHashMap<>();
+
+    public TrendIndex(TransactionRepository repo,
+                      CategoryDictionary categories,
+                      ReadYourWrites readYourWrites,
+                      @Value("${budget.trends.max-users:200}") int maxUsers,
+                      @Value("${budget.trends.idle-timeout:30m}") Duration idleTimeout,
+                      @Value("${budget.trends.max-buckets:1500}") int maxBuckets,
+                      MeterRegistry registry) {
+        this.repo = repo;
+        this.categories = categories;
+        this.readYourWrites = readYourWrites;
+        this.maxBuckets = maxBuckets;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(idleTimeout)
+                .build();
+
+        Gauge.builder("budget.trends.index.bytes", this, TrendIndex::footprint)
+                .description("Heap used by the loaded per-user trend indexes")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("budget.trends.index.users", users, c -> c.estimatedSize())
+                .description("Users whose trend index is loaded")
+                .register(registry);
+    }
+
+    // ======================= QUERY =======================
+
+    // Income, expenses and per-category totals from "from" to "to" (inclusive) in buckets.
+    // Categories come out biggest first, at most "maxCategories" of them.
+    public Trend trend(Long userId, LocalDate from, LocalDate to, Granularity granularity, int maxCategories) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("\"to\" is before \"from\"");
+        }
+
+        List<LocalDate[]> ranges = new ArrayList<>();
+        for (LocalDate start = granularity.bucketStart(from); !start.isAfter(to); start = granularity.next(start)) {
+            if (ranges.size() == maxBuckets) {
+                throw new IllegalArgumentException("That range has more than " + maxBuckets + " "
+                        + granularity.name().toLowerCase(Locale.ROOT) + "s; pick a bigger step");
+            }
+            LocalDate end = granularity.next(start).minusDays(1);
+            ranges.add(new LocalDate[] {
+                    start.isBefore(from) ? from : start,
+                    end.isAfter(to) ? to : end });
+        }
+
+        UserTrends t = load(userId);
+        synchronized (t) {
+            List<Bucket> buckets = new ArrayList<>(ranges.size());
+            for (LocalDate[] r : ranges) {
+                buckets.add(new Bucket(r[0], r[1],
+                        Money.ofCents(t.sums.sum(INCOME, r[0], r[1])),
+                        Money.ofCents(t.sums.sum(EXPENSE, r[0], r[1]))));
+            }
+
+            List<CategorySeries> series = new ArrayList<>();
+            for (int id = 0; id < t.keys.size(); id++) {
+                int s = 2 + id;
+                long total = t.sums.sum(s, from, to);
+                if (total == 0) {
+                    continue;
+                }
+                List<Money> values = new ArrayList<>(ranges.size());
+                for (LocalDate[] r : ranges) {
+                    values.add(Money.ofCents(t.sums.sum(s, r[0], r[1])));
+                }
+                long key = t.keys.get(id);
+                String type = (key & 1) == 1 ? TransactionType.INCOME.name() : TransactionType.EXPENSE.name();
+                series.add(new CategorySeries(type, categories.name((int) (key >> 1)),
+                        Money.ofCents(total), values));
+            }
+            series.sort(Comparator.comparing(CategorySeries::total).reversed());
+            return new Trend(from, to, granularity, buckets,
+                    series.size() > maxCategories ? series.subList(0, maxCategories) : series);
+        }
+    }
+
+    // ======================= LOADING =======================
+
+    private UserTrends load(Long userId) {
+        UserTrends cached = users.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        AtomicLong done = committed.computeIfAbsent(userId, id -> new AtomicLong());
+        AtomicLong pending = inFlight.computeIfAbsent(userId, id -> new AtomicLong());
+        UserTrends fresh = null;
+        for (int attempt = 0; attempt < 3; attempt++) {
+            long before = done.get();
+            fresh = new UserTrends();
+            // The primary even with a replica: a replica that's behind could be missing a
+            // commit whose event already went by, and the counters above wouldn't notice.
+            List<DayCategoryTotal> rows = readYourWrites.onPrimary(() -> repo.sumByDay(userId));
+            fresh.anchor(rows);
+            for (DayCategoryTotal row : rows) {
+                if (row.getTotalCents() != null) {
+                    fresh.add(row.getType(), row.getCategoryId(), row.getDate(), row.getTotalCents());
+                }
+            }
+            // Same lock the event listener applies changes under, so nothing slips in
+            // between this check and the put.
+            synchronized (done) {
+                if (pending.get() == 0 && done.get() == before) {
+                    users.put(userId, fresh);
+                    return fresh;
+                }
+            }
+        }
+        // Saves kept landing while loading: answer from this load, cache the next one.
+        return fresh;
+    }
+
+    // ======================= KEEP UP TO DATE =======================
+
+    // Only counts; runs on the saving thread as soon as the change is made. Only inside a
+    // transaction, since afterCompletion() below (which counts it back down) only runs there.
+    @EventListener
+    public void onChangeMade(LedgerChangedEvent event) {
+        Long userId = userOf(event);
+        if (userId != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            inFlight.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLedgerChanged(LedgerChangedEvent event) {
+        if (event.getBefore() == null && event.getAfter() == null) {
+            // Rollup rebuilt: load everyone again on their next trend.
+            users.invalidateAll();
+            return;
+        }
+        Long userId = userOf(event);
+        if (userId == null) {
+            return;
+        }
+        AtomicLong done = committed.computeIfAbsent(userId, id -> new AtomicLong());
+        synchronized (done) {
+            done.incrementAndGet();
+            UserTrends t = users.getIfPresent(userId);
+            if (t != null) {
+                TransactionSnapshot before = event.getBefore();
+                TransactionSnapshot after = event.getAfter();
+                if (before != null) {
+                    t.add(before.getType(), before.getCategoryId(), before.getDate(), -before.getAmountCents());
+                }
+                if (after != null) {
+                    t.add(after.getType(), after.getCategoryId(), after.getDate(), after.getAmountCents());
+                }
+            }
+        }
+    }
+
+    // Runs after commit AND after rollback, so a rolled-back save doesn't leave its
+    // "in flight" mark behind forever.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void afterCompletion(LedgerChangedEvent event) {
+        Long userId = userOf(event);
+        AtomicLong pending = userId == null ? null : inFlight.get(userId);
+        if (pending != null) {
+            pending.decrementAndGet();
+        }
+    }
+
+    // ======================= HELPERS =======================
+
+    public long footprint() {
+        long bytes = 0;
+        for (UserTrends t : users.asMap().values()) {
+            bytes += t.footprint();
+        }
+        return bytes;
+    }
+
+    private static Long userOf(LedgerChangedEvent event) {
+        TransactionSnapshot changed = event.getAfter() != null ? event.getAfter() : event.getBefore();
+        return changed == null ? null : changed.getUserId();
+    }
+}
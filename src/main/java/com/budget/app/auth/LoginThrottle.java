@@ -0,0 +1,98 @@
+package com.budget.app.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Counts failed logins per email and per client IP, and blocks further tries once
+// either count reaches its limit. A count is forgotten "window" after the first attempt.
+//
+// Every attempt is counted as a failure up front (tryAcquire) and only taken back once
+// it turns out it wasn't one. Checking the count and recording the failure after the
+// password check would let a burst of parallel attempts all see "4 failures so far"
+// and get through together, well past the limit.
+//
+// The counters live in a size-limited Caffeine cache, so someone trying thousands of
+// different emails can't make this grow without bound (old entries just get evicted).
+// Blocked attempts are turned away before any password hashing happens.
+@Component
+public class LoginThrottle {
+
+    private final Cache<String, AtomicInteger> failures;
+    private final int maxPerEmail;
+    private final int maxPerIp;
+
+    public LoginThrottle(@Value("${budget.auth.max-failures-per-email:5}") int maxPerEmail,
+                         @Value("${budget.auth.max-failures-per-ip:30}") int maxPerIp,
+                         @Value("${budget.auth.failure-window:15m}") Duration window,
+                         @Value("${budget.auth.throttle-max-keys:10000}") long maxKeys) {
+        this.maxPerEmail = maxPerEmail;
+        this.maxPerIp = maxPerIp;
+        this.failures = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    // Reserves one attempt for this email and IP, counting it as a failure for now.
+    // Returns false (and counts nothing) if either is already at its limit.
+    public boolean tryAcquire(String email, String ip) {
+        String emailKey = emailKey(email);
+        if (!reserve(emailKey, maxPerEmail)) {
+            return false;
+        }
+        if (!reserve(ipKey(ip), maxPerIp)) {
+            release(emailKey);
+            return false;
+        }
+        return true;
+    }
+
+    // A good login clears the email's count and takes back the IP's reservation
+    // (the IP's real failures just run out).
+    public void recordSuccess(String email, String ip) {
+        failures.invalidate(emailKey(email));
+        release(ipKey(ip));
+    }
+
+    // The attempt never got to check the password (the hashing pool was full),
+    // so it doesn't count against either limit.
+    public void cancel(String email, String ip) {
+        release(emailKey(email));
+        release(ipKey(ip));
+    }
+
+    // Only adds one if the count is still under the limit, so parallel attempts can't
+    // all slip in under the same count.
+    private boolean reserve(String key, int max) {
+        AtomicInteger n = failures.get(key, k -> new AtomicInteger());
+        int current;
+        do {
+            current = n.get();
+            if (current >= max) {
+                return false;
+            }
+        } while (!n.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void release(String key) {
+        AtomicInteger n = failures.getIfPresent(key);
+        if (n != null) {
+            n.updateAndGet(c -> Math.max(0, c - 1));
+        }
+    }
+
+    private static String emailKey(String email) {
+        return "email:" + email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String ipKey(String ip) {
+        return "ip:" + ip;
+    }
+}
@@ -0,0 +1,116 @@
+package com.budget.app.auth;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Hashes and checks passwords with bcrypt.
+//
+// bcrypt is slow on purpose (tens of milliseconds of CPU per check), so a burst of logins
+// hashing on Tomcat's request threads would take every core and the dashboard pages would
+// have to wait. Instead every hash/check goes to a small pool of its own with a bounded
+// queue: only hash-threads checks use CPU at once, and at most that many plus the queue
+// requests wait for one. When the queue is full the call fails right away
+// (RejectedExecutionException) and the login page says "try again", instead of requests
+// piling up without limit. The pool only hashes; callers do their queries themselves.
+//
+// The pool shows up in /actuator/metrics as executor.* with name=password.hash.
+@Component
+public class PasswordHasher {
+
+    // $2a$10$ + 53 characters of salt and hash
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$[./A-Za-z0-9]{53}$");
+
+    private final int strength;
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService monitoredPool;
+
+    // Checked when the email doesn't exist, so an unknown email takes as long as a wrong password.
+    private final String dummyHash;
+
+    public PasswordHasher(@Value("${budget.auth.bcrypt-strength:10}") int strength,
+                          @Value("${budget.auth.hash-threads:2}") int threads,
+                          @Value("${budget.auth.hash-queue:64}") int queueSize,
+                          MeterRegistry registry) {
+        this.strength = strength;
+        this.encoder = new BCryptPasswordEncoder(strength);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.monitoredPool = ExecutorServiceMetrics.monitor(registry, pool, "password.hash");
+
+        this.dummyHash = encoder.encode("budget-buddy-dummy-password");
+    }
+
+    // Result of a password check. If the password was right but the stored hash uses
+    // a different cost, newHash is the replacement to store.
+    public record Check(boolean matches, String newHash) {
+    }
+
+    public CompletableFuture<String> hash(String rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    // storedPassword can be null (no such user); the work done is the same either way.
+    // Anything that isn't a bcrypt hash never matches: PlainPasswordMigration hashes the
+    // plain passwords from before hashing on startup, so none should be left.
+    public CompletableFuture<Check> check(String rawPassword, String storedPassword) {
+        return submit(() -> {
+            int cost = storedPassword == null ? -1 : costOf(storedPassword);
+            if (cost < 0) {
+                encoder.matches(rawPassword, dummyHash);
+                return new Check(false, null);
+            }
+
+            boolean ok = encoder.matches(rawPassword, storedPassword);
+            boolean rehash = ok && cost != strength;
+            return new Check(ok, rehash ? encoder.encode(rawPassword) : null);
+        });
+    }
+
+    // True if the stored value is a bcrypt hash (and not a plain password from before hashing).
+    public static boolean isHash(String stored) {
+        return costOf(stored) >= 0;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, monitoredPool);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // The cost factor a bcrypt hash was made with, or -1 if the value isn't a bcrypt hash.
+    private static int costOf(String stored) {
+        Matcher m = BCRYPT.matcher(stored);
+        return m.matches() ? Integer.parseInt(m.group(1)) : -1;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
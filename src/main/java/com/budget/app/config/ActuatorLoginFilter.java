@@ -0,0 +1,42 @@
+package com.budget.app.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Keeps the actuator endpoints (metrics) for logged-in users. Only /actuator/health
+// stays open, for load balancers and uptime checks.
+//
+// This has to be a filter: the actuator endpoints have their own handler mapping, so the
+// LoginInterceptor from WebConfig never runs for them. Without this anyone could read the
+// per-endpoint metrics.
+// A login is all it checks (there are no admin accounts), so only read-only endpoints are
+// exposed (management.endpoints.web.exposure.include); nothing here can change state.
+@Component
+public class ActuatorLoginFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        boolean actuator = path.equals("/actuator") || path.startsWith("/actuator/");
+        return !actuator || path.equals("/actuator/health") || path.startsWith("/actuator/health/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        HttpSession session = request.getSession(false);
+        if (session == null || session.getAttribute("userId") == null) {
+            // Like /api: callers are scripts, so a plain 401 instead of the login page.
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,36 @@
+package com.budget.app.config;
+
+import com.budget.app.service.LedgerVersion;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Turns on Spring's @Cacheable support.
+// The cache itself (Caffeine: size, TTL, stats) is set up in application.properties.
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Name of the cache that holds dashboard totals and top categories.
+    public static final String LEDGER_CACHE = "ledger";
+
+    // Builds keys like (method name, ledger version, arguments...).
+    // Because the version changes after every save/delete, a cached value can
+    // only be found again while the data it was built from is still current.
+    // Cached ledger methods take the user id as their first argument; that picks
+    // the user's version (and, as an argument, keeps users' entries apart).
+    @Bean
+    public KeyGenerator ledgerKeyGenerator(LedgerVersion ledgerVersion) {
+        return (target, method, params) -> {
+            Long userId = params.length > 0 && params[0] instanceof Long id ? id : null;
+
+            Object[] parts = new Object[params.length + 2];
+            parts[0] = method.getName();
+            parts[1] = ledgerVersion.current(userId);
+            System.arraycopy(params, 0, parts, 2, params.length);
+            return new SimpleKey(parts);
+        };
+    }
+}
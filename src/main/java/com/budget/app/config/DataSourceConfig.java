@@ -0,0 +1,61 @@
+package com.budget.app.config;
+
+import com.budget.app.datasource.ReadWriteRoutingDataSource;
+import com.budget.app.datasource.ReadYourWrites;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// Only used when a read replica is configured (budget.datasource.replica.jdbc-url).
+// Without one, Spring Boot sets up its usual single pool from spring.datasource.* and
+// everything reads and writes the primary like before.
+//
+// With one there are two Hikari pools: the primary from spring.datasource.* (same
+// properties as always) and the replica from budget.datasource.replica.*. Hibernate, the
+// JdbcTemplate and everything else get the routing data source, which picks one of the
+// pools per transaction (see ReadWriteRoutingDataSource).
+@Configuration
+@ConditionalOnProperty("budget.datasource.replica.jdbc-url")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("primary");
+        return pool;
+    }
+
+    // Takes any Hikari setting under budget.datasource.replica (jdbc-url, username,
+    // password, maximum-pool-size, ...). Username and password default to the primary's.
+    @Bean
+    @ConfigurationProperties("budget.datasource.replica")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("replica");
+        pool.setUsername(properties.determineUsername());
+        pool.setPassword(properties.determinePassword());
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 HikariDataSource replicaDataSource,
+                                 ReadYourWrites readYourWrites,
+                                 MeterRegistry registry) {
+        ReadWriteRoutingDataSource routing =
+                new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, readYourWrites, registry);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
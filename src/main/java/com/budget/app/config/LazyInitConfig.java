@@ -0,0 +1,34 @@
+package com.budget.app.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+// Only matters with spring.main.lazy-initialization=true (the fast-start profile).
+//
+// Lazy beans are made the first time something asks for them. That's fine for a page or
+// a service, but some beans do their work without ever being asked: the @Scheduled jobs
+// (recurring transactions, journal snapshots, live dashboard and budget alert flushes)
+// and the ingest writer (SmartLifecycle). Left lazy, those would simply never start, so
+// I keep every bean like that eager.
+@Configuration
+public class LazyInitConfig {
+
+    // static: it's read while the bean definitions are post-processed, before any
+    // normal bean (including this configuration class) exists.
+    @Bean
+    public static LazyInitializationExcludeFilter runsOnItsOwn() {
+        return (beanName, definition, beanType) -> beanType != null
+                && (SmartLifecycle.class.isAssignableFrom(beanType) || hasScheduledMethods(beanType));
+    }
+
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        return !MethodIntrospector.selectMethods(beanType,
+                (MethodIntrospector.MetadataLookup<Scheduled>) method ->
+                        AnnotatedElementUtils.findMergedAnnotation(method, Scheduled.class)).isEmpty();
+    }
+}
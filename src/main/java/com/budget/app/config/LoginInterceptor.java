@@ -0,0 +1,31 @@
+package com.budget.app.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// Sends anyone who isn't logged in to /login before a page handler runs.
+// Every page after login reads "userId" from the session to load only that
+// user's transactions, so this also guarantees the value is there.
+// (Which paths are checked is set up in WebConfig.)
+public class LoginInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+                             Object handler) throws Exception {
+        HttpSession session = request.getSession(false);
+        if (session != null && session.getAttribute("userId") != null) {
+            return true;
+        }
+
+        // Scripts calling the JSON API get a plain 401 instead of the login page's HTML.
+        if (request.getRequestURI().startsWith(request.getContextPath() + "/api/")) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return false;
+        }
+
+        response.sendRedirect(request.getContextPath() + "/login");
+        return false;
+    }
+}
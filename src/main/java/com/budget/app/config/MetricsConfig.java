@@ -0,0 +1,20 @@
+package com.budget.app.config;
+
+import com.budget.app.metrics.SqlStatementCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Hooks my SQL statement counter into Hibernate.
+// (The timers/percentiles themselves are set up in application.properties.)
+@Configuration
+public class MetricsConfig {
+
+    // Passing the bean itself (instead of a class name in application.properties)
+    // so Hibernate uses the same counter instance the request filter reads.
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer(SqlStatementCounter counter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, counter);
+    }
+}
@@ -0,0 +1,10 @@
+package com.budget.app.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Turns on @Scheduled methods (ex: the live dashboard pushing its batched updates).
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
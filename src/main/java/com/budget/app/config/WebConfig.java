@@ -0,0 +1,21 @@
+package com.budget.app.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Spring MVC setup for my pages.
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    // Every page needs a logged-in user, except the login/register pages themselves,
+    // static files (css) and the error page. The actuator endpoints don't go through
+    // interceptors at all; ActuatorLoginFilter does the same check for them.
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new LoginInterceptor())
+                .addPathPatterns("/**")
+                .excludePathPatterns("/login", "/register", "/logout",
+                        "/css/**", "/error");
+    }
+}
@@ -0,0 +1,272 @@
+package com.budget.app.controller;
+
+import com.budget.app.alert.BudgetStatus;
+import com.budget.app.analytics.Trend;
+import com.budget.app.model.Money;
+import com.budget.app.model.Transaction;
+import com.budget.app.service.BudgetService;
+import com.budget.app.service.DashboardSummary;
+import com.budget.app.service.LedgerVersion;
+import com.budget.app.service.TransactionPage;
+import com.budget.app.service.TransactionService;
+import com.budget.app.service.TransactionService.CategoryTotal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.SessionAttribute;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+// JSON versions of the dashboard and transactions pages for scripts and the mobile app.
+// Clients log in through /login like the browser does and send the session cookie.
+//
+// Every response has an ETag built from the user's ledger version, which only changes
+// when one of their transactions is saved or deleted, and the request's parameters. A client that sends the ETag back
+// in If-None-Match gets a 304 with no body, and that check happens before any query runs,
+// so polling an unchanged ledger costs one counter lookup.
+@RestController
+@RequestMapping("/api")
+public class ApiController {
+
+    // Responses can be kept by the client but must be revalidated (with the ETag) every time.
+    // private: they hold one user's data, so shared proxies must not store them.
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private final TransactionService service;
+    private final LedgerVersion ledgerVersion;
+    private final BudgetService budgetService;
+
+    // Same page size settings as the transactions page.
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public ApiController(TransactionService service,
+                         LedgerVersion ledgerVersion,
+                         BudgetService budgetService,
+                         @Value("${budget.transactions.page-size:25}") int defaultPageSize,
+                         @Value("${budget.transactions.max-page-size:200}") int maxPageSize) {
+        this.service = service;
+        this.ledgerVersion = ledgerVersion;
+        this.budgetService = budgetService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    // ======================= JSON SHAPES =======================
+    // Small records instead of the entities, so the JSON only has the fields clients need.
+
+    public record TransactionJson(Long id, String name, Money amount, String type,
+                                  String category, LocalDate date, String note) {
+        static TransactionJson of(Transaction t) {
+            return new TransactionJson(t.getId(), t.getName(), t.getAmount(), t.getType().name(),
+                    t.getCategory(), t.getDate(), t.getNote());
+        }
+
+        static List<TransactionJson> of(List<Transaction> list) {
+            return list.stream().map(TransactionJson::of).toList();
+        }
+    }
+
+    public record TransactionPageJson(List<TransactionJson> items, String next, String previous) {
+    }
+
+    public record SummaryJson(YearMonth month,
+                              Money totalIncome, Money totalExpenses, Money balance, double savingsRate,
+                              Money monthlyIncome, Money monthlyExpenses, Money monthlyBalance,
+                              List<CategoryJson> topCategories, List<TransactionJson> recent) {
+    }
+
+    public record CategoryJson(String category, Money total) {
+        static List<CategoryJson> of(List<CategoryTotal> list) {
+            return list.stream().map(c -> new CategoryJson(c.getCategory(), c.getTotal())).toList();
+        }
+    }
+
+    // ======================= ENDPOINTS =======================
+
+    // One page of transactions, same filters and cursors as /transactions
+    // ("next"/"previous" go back in as "after"/"before").
+    @GetMapping("/transactions")
+    public ResponseEntity<TransactionPageJson> transactions(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false, defaultValue = "newest") String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) Integer size,
+            @SessionAttribute("userId") Long userId,
+            ServletWebRequest request) {
+
+        int pageSize = (size == null || size <= 0) ? defaultPageSize : Math.min(size, maxPageSize);
+
+        String key = key(type, from, to, sort.toLowerCase(), after, before, pageSize);
+        return conditional(userId, key, request, () -> {
+            TransactionPage page = service.getPage(userId, type, from, to, "oldest".equalsIgnoreCase(sort),
+                    TransactionPage.Cursor.parse(after), TransactionPage.Cursor.parse(before), pageSize);
+            return new TransactionPageJson(TransactionJson.of(page.getItems()),
+                    page.getNextCursor(), page.getPreviousCursor());
+        });
+    }
+
+    // Everything on the dashboard for one month (default: this month).
+    @GetMapping("/summary")
+    public ResponseEntity<SummaryJson> summary(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+            @RequestParam(required = false, defaultValue = "3") int top,
+            @RequestParam(required = false, defaultValue = "5") int recent,
+            @SessionAttribute("userId") Long userId,
+            ServletWebRequest request) {
+
+        YearMonth m = month != null ? month : YearMonth.now();
+        int topLimit = Math.min(Math.max(top, 0), 50);
+        int recentLimit = Math.min(Math.max(recent, 0), maxPageSize);
+
+        return conditional(userId, key(m, topLimit, recentLimit), request, () -> {
+            DashboardSummary s = service.getDashboardSummary(userId, m, topLimit, recentLimit);
+            return new SummaryJson(s.getMonth(),
+                    s.getTotalIncome(), s.getTotalExpenses(), s.getBalance(), s.getSavingsRate(),
+                    s.getMonthlyIncome(), s.getMonthlyExpenses(), s.getMonthlyBalance(),
+                    CategoryJson.of(s.getTopCategories()), TransactionJson.of(s.getRecent()));
+        });
+    }
+
+    // Every category's total for one month and type (default: this month's expenses).
+    @GetMapping("/categories")
+    public ResponseEntity<List<CategoryJson>> categories(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+            @RequestParam(required = false, defaultValue = "EXPENSE") String type,
+            @SessionAttribute("userId") Long userId,
+            ServletWebRequest request) {
+
+        YearMonth m = month != null ? month : YearMonth.now();
+        return conditional(userId, key(m, type), request,
+                () -> CategoryJson.of(service.getCategoryTotals(userId, type, m)));
+    }
+
+    // Transactions matching a search (see /transactions?q=), newest first.
+    @GetMapping("/search")
+    public ResponseEntity<List<TransactionJson>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer limit,
+            @SessionAttribute("userId") Long userId,
+            ServletWebRequest request) {
+
+        int max = (limit == null || limit <= 0) ? defaultPageSize : Math.min(limit, maxPageSize);
+        return conditional(userId, key(q, type, from, to, max), request,
+                () -> TransactionJson.of(service.search(userId, q, type, from, to, max)));
+    }
+
+    // The user's categories starting with "prefix", most used first (the form's autocomplete).
+    @GetMapping("/categories/suggest")
+    public ResponseEntity<List<String>> suggestCategories(
+            @RequestParam(required = false, defaultValue = "") String prefix,
+            @RequestParam(required = false, defaultValue = "10") int limit,
+            @SessionAttribute("userId") Long userId,
+            ServletWebRequest request) {
+
+        int max = Math.min(Math.max(limit, 1), 50);
+        return conditional(userId, key(prefix, max), request, () -> service.suggestCategories(userId, prefix, max));
+    }
+
+    // Every budget with this month's spend and level (OK / NEAR / OVER).
+    // No ETag here: changing a budget doesn't change the ledger version. It's read from
+    // memory (see BudgetAlertEngine), so there is no query to save anyway.
+    @GetMapping("/budgets")
+    public ResponseEntity<List<BudgetStatus>> budgets(@SessionAttribute("userId") Long userId) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(budgetService.getStatuses(userId));
+    }
+
+    // Income/expenses per day/week/month/year between two dates (default: the last 12 months
+    // by month), plus the "categories" biggest categories over the same buckets.
+    // Any range costs the same: it's read from prefix sums in memory (see TrendIndex).
+    @GetMapping("/trends")
+    public ResponseEntity<Trend> trends(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false, defaultValue = "MONTH") String granularity,
+            @RequestParam(required = false, defaultValue = "8") int categories,
+            @SessionAttribute("userId") Long userId,
+            ServletWebRequest request) {
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusYears(1).plusDays(1);
+        int maxCategories = Math.min(Math.max(categories, 0), 50);
+
+        // start/end go in resolved: with no "to" the window moves every day.
+        String key = key(start, end, granularity.toUpperCase(), maxCategories);
+        return conditional(userId, key, request, () -> {
+            try {
+                return service.getTrend(userId, start, end, Trend.Granularity.parse(granularity), maxCategories);
+            } catch (IllegalArgumentException e) {
+                // Unknown granularity, "to" before "from", or too many buckets.
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+        });
+    }
+
+    // A parameter the services can't use (an unknown type, a damaged cursor, ...) is the
+    // caller's mistake, so it's a 400 with the reason instead of a 500.
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badParameter(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    // ======================= CONDITIONAL GET =======================
+
+    // Answers 304 when the client's If-None-Match matches the current ledger version and
+    // the same request, otherwise builds the body.
+    //
+    // "key" is every parameter the body depends on, after the defaults are filled in. The
+    // ledger version alone isn't enough: /api/summary with no month means a different month
+    // once the month is over, while the ledger (and so its version) may not have changed.
+    //
+    // The version is read before the body is built. If a save lands in between, the body
+    // is newer than its ETag, and the next request just gets a fresh 200; the other way
+    // round (old data under a new ETag) can't happen.
+    private <T> ResponseEntity<T> conditional(Long userId, String key, ServletWebRequest request,
+                                              Supplier<T> body) {
+        // Weak (W/) because the value says "same data", not "same bytes": Tomcat won't gzip a
+        // response with a strong ETag, and If-None-Match compares weakly anyway.
+        // The parameters go in as a hash so the header stays short whatever the query is.
+        String params = DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+        String etag = "W/\"" + ledgerVersion.tag(userId) + "-" + params + "\"";
+
+        if (request.checkNotModified(etag)) {
+            // checkNotModified already set the 304 status and the ETag header.
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE.getHeaderValue());
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .body(body.get());
+    }
+
+    // The resolved parameters of a request, in order (null for the ones not given).
+    private static String key(Object... params) {
+        return Arrays.toString(params);
+    }
+}
@@ -6,20 +6,31 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.budget.app.auth.LoginThrottle;
 import com.budget.app.model.User;
-import com.budget.app.repository.UserRepository;
+import com.budget.app.service.AuthService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
 @Controller
 public class AuthController {
 
-    // This is my UserRepository so I can talk to the users table in the database.
-    private final UserRepository userRepo;
+    private static final String BUSY_MESSAGE = "The server is busy right now. Please try again in a moment.";
+
+    // Login/registration logic (user lookup + password hashing).
+    private final AuthService authService;
+
+    // Counts failed logins per email and per IP.
+    private final LoginThrottle throttle;
 
-    // I’m using constructor injection here so Spring can give me the UserRepository.
-    public AuthController(UserRepository userRepo) {
-        this.userRepo = userRepo;
+    // I’m using constructor injection here so Spring can give me the services.
+    public AuthController(AuthService authService, LoginThrottle throttle) {
+        this.authService = authService;
+        this.throttle = throttle;
     }
 
     // ======================= LOGIN PAGE =======================
@@ -44,6 +55,10 @@ public class AuthController {
 
     // This method handles the registration form submit.
     // I grab the name, email, and password straight from the form.
+    //
+    // The password is stored as a bcrypt hash. Hashing happens on its own bounded pool
+    // (see PasswordHasher); this thread waits for it, and everything else (the insert, the
+    // redirect) stays on the request thread.
     @PostMapping("/register")
     public String doRegister(
             @RequestParam String name,
@@ -51,13 +66,22 @@ public class AuthController {
             @RequestParam String password,
             RedirectAttributes redirect) {
 
-        // Here I create a new User object with the data from the form.
-        // In a more advanced version, I’d probably validate and hash the password,
-        // but for this project I’m keeping it simple.
-        User user = new User(name, email, password);
-
-        // Save the new user to the database.
-        userRepo.save(user);
+        Optional<User> user;
+        try {
+            user = authService.register(name, email, password);
+        } catch (RuntimeException e) {
+            // Same email registered twice at the same moment (unique index), or the
+            // hashing pool is full.
+            redirect.addFlashAttribute("error", isBusy(e)
+                    ? BUSY_MESSAGE
+                    : "An account with that email already exists.");
+            return "redirect:/register";
+        }
+
+        if (user.isEmpty()) {
+            redirect.addFlashAttribute("error", "An account with that email already exists.");
+            return "redirect:/register";
+        }
 
         // I use RedirectAttributes to send a one-time success message to the login page.
         redirect.addFlashAttribute("message", "Account created! Please log in.");
@@ -69,33 +93,70 @@ public class AuthController {
     // ======================= HANDLE LOGIN =======================
 
     // This method handles the login form POST.
+    // Like registration, only the password check runs on the hashing pool. The session
+    // is changed here on the request thread, never from a pool thread.
     @PostMapping("/login")
     public String doLogin(
             @RequestParam String email,
             @RequestParam String password,
+            HttpServletRequest request,
             HttpSession session,
             RedirectAttributes redirect) {
 
-        // I call my custom repository method to find a user
-        // that matches the email and password.
-        // (Again, simple version – not using password hashing here.)
-        return userRepo.findByEmailAndPassword(email, password)
-                .map(user -> {
-                    // If a match is found, I store the user's name in the session.
-                    // I can use this later to show "Welcome, [name]" in the UI.
-                    session.setAttribute("userName", user.getName());
-
-                    // Then I redirect them to the home page ("/"),
-                    // which in my app is the main dashboard.
-                    return "redirect:/";
-                })
-                .orElseGet(() -> {
-                    // If no user is found, I send an error message back to the login page.
-                    redirect.addFlashAttribute("error", "Invalid email or password");
-
-                    // Redirect back to /login so they can try again.
-                    return "redirect:/login";
-                });
+        String ip = request.getRemoteAddr();
+
+        // Too many wrong passwords for this email or from this address lately:
+        // I turn it away before doing any (slow) password hashing. Otherwise the attempt
+        // counts as a failure until the password turns out to be right.
+        if (!throttle.tryAcquire(email, ip)) {
+            redirect.addFlashAttribute("error", "Too many failed logins. Please wait a few minutes and try again.");
+            return "redirect:/login";
+        }
+
+        // The user is found by email, then the password is checked against the stored hash.
+        Optional<User> found;
+        try {
+            found = authService.login(email, password);
+        } catch (RuntimeException e) {
+            throttle.cancel(email, ip);
+            redirect.addFlashAttribute("error", isBusy(e) ? BUSY_MESSAGE : "Login failed, please try again.");
+            return "redirect:/login";
+        }
+
+        if (found.isEmpty()) {
+            // The attempt already counts as a failure (tryAcquire), so it stays.
+
+            // If no user is found, I send an error message back to the login page.
+            redirect.addFlashAttribute("error", "Invalid email or password");
+
+            // Redirect back to /login so they can try again.
+            return "redirect:/login";
+        }
+
+        User user = found.get();
+        throttle.recordSuccess(email, ip);
+
+        // New session id now that it's a logged-in session. Otherwise an id
+        // someone else planted before the login (session fixation) would
+        // now be logged in as this user, and "userId" is all that decides
+        // whose data a request sees. The attributes stay with the session.
+        request.changeSessionId();
+
+        // If a match is found, I store the user's name in the session.
+        // I can use this later to show "Welcome, [name]" in the UI.
+        session.setAttribute("userName", user.getName());
+
+        // The id is what every page uses to load only this user's transactions.
+        session.setAttribute("userId", user.getId());
+
+        // Then I redirect them to the home page ("/"),
+        // which in my app is the main dashboard.
+        return "redirect:/";
+    }
+
+    // The password hashing queue is full (a burst of logins).
+    private static boolean isBusy(RuntimeException e) {
+        return e instanceof RejectedExecutionException;
     }
 
     // ======================= LOGOUT =======================
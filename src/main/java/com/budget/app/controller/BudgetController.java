@@ -1,30 +1,69 @@
 package com.budget.app.controller;
 
+import com.budget.app.live.LiveDashboardHub;
 import com.budget.app.model.Transaction;
+import com.budget.app.model.TransactionType;
+import com.budget.app.service.BudgetService;
+import com.budget.app.service.DashboardSummary;
+import com.budget.app.service.LedgerVersion;
+import com.budget.app.service.TransactionPage;
 import com.budget.app.service.TransactionService;
-import com.budget.app.service.TransactionService.CategoryTotal;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 @Controller
 public class BudgetController {
 
+    // The categories the form always suggests (they used to be the only choices).
+    private static final List<String> DEFAULT_CATEGORIES = List.of(
+            "Income", "Bills", "Rent", "Food", "Shopping", "Travel", "Transportation", "Groceries", "Other");
+
     // This is my main service for anything related to transactions and totals.
     // I call it "service" because it basically sits in the middle
     // between my controller and the database.
     private final TransactionService service;
 
+    // Live dashboard updates (Server-Sent Events) and the version they're measured against.
+    private final LiveDashboardHub liveHub;
+    private final LedgerVersion ledgerVersion;
+
+    // Monthly category limits; the dashboard shows the ones close to or over their limit.
+    private final BudgetService budgetService;
+
+    // How many rows the transactions page shows by default, and the most a link can ask for.
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
     // Spring injects the TransactionService here using constructor injection.
-    public BudgetController(TransactionService service) {
+    public BudgetController(TransactionService service,
+                            LiveDashboardHub liveHub,
+                            LedgerVersion ledgerVersion,
+                            BudgetService budgetService,
+                            @Value("${budget.transactions.page-size:25}") int defaultPageSize,
+                            @Value("${budget.transactions.max-page-size:200}") int maxPageSize) {
         this.service = service;
+        this.liveHub = liveHub;
+        this.ledgerVersion = ledgerVersion;
+        this.budgetService = budgetService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     // ======================= DASHBOARD (HOME) =======================
@@ -32,14 +71,11 @@ public class BudgetController {
     // This is my main dashboard page: /
     // When the user first logs in, this is what they see.
     @GetMapping("/")
-    public String dashboard(Model model) {
+    public String dashboard(@SessionAttribute("userId") Long userId, Model model) {
 
-        // Pull overall income and expenses across all time.
-        double income = service.getTotalIncome();
-        double expenses = service.getTotalExpenses();
-
-        // Simple overall balance = income - expenses.
-        double balance = income - expenses;
+        // Read first: if a save lands while the page is being built, the live stream's
+        // "hello" will have a newer version and the page reloads its numbers.
+        String version = ledgerVersion.tag(userId);
 
         // Get the current date and figure out which month we’re in.
         LocalDate today = LocalDate.now();
@@ -49,61 +85,112 @@ public class BudgetController {
         String monthLabel = currentMonth.getMonth()
                 .getDisplayName(TextStyle.FULL, Locale.ENGLISH) + " " + currentMonth.getYear();
 
-        // Monthly numbers just for the current month (this is more detailed).
-        double monthlyIncome = service.getMonthlyIncome(currentMonth);
-        double monthlyExpenses = service.getMonthlyExpenses(currentMonth);
-        double monthlyBalance = monthlyIncome - monthlyExpenses;
-
-        // Get the top expense categories for the current month
-        // so I can show a simple breakdown (like a mini analytics section).
-        List<CategoryTotal> topCategories = service.getTopExpenseCategories(currentMonth, 3);
+        // One call gets everything: all-time totals, this month’s numbers,
+        // the top 3 expense categories and the 5 most recent transactions.
+        DashboardSummary summary = service.getDashboardSummary(userId, currentMonth, 3, 5);
 
         // Add all the overall totals to the model so my dashboard.html can display cards.
-        model.addAttribute("income", income);
-        model.addAttribute("expenses", expenses);
-        model.addAttribute("balance", balance);
+        model.addAttribute("income", summary.getTotalIncome());
+        model.addAttribute("expenses", summary.getTotalExpenses());
+        model.addAttribute("balance", summary.getBalance());
+        model.addAttribute("savingsRate", summary.getSavingsRate());
 
         // I also show a small list of the most recent transactions (like a feed).
-        model.addAttribute("recent", service.getRecent(5));
+        model.addAttribute("recent", summary.getRecent());
 
         // All my monthly analytics values
         model.addAttribute("monthLabel", monthLabel);
-        model.addAttribute("monthlyIncome", monthlyIncome);
-        model.addAttribute("monthlyExpenses", monthlyExpenses);
-        model.addAttribute("monthlyBalance", monthlyBalance);
-        model.addAttribute("topCategories", topCategories);
+        model.addAttribute("monthlyIncome", summary.getMonthlyIncome());
+        model.addAttribute("monthlyExpenses", summary.getMonthlyExpenses());
+        model.addAttribute("monthlyBalance", summary.getMonthlyBalance());
+        model.addAttribute("topCategories", summary.getTopCategories());
+
+        // For the live updates: every expense category this month (so the page can re-rank
+        // the top 3 itself when a delta comes in), the month and the ledger version.
+        model.addAttribute("monthCategories", service.getCategoryTotals(userId, "EXPENSE", currentMonth));
+        model.addAttribute("month", currentMonth.toString());
+        model.addAttribute("ledgerVersion", version);
+
+        // Budget warnings come from the alert engine's memory, not from a query per page view.
+        model.addAttribute("budgetAlerts", budgetService.getAlerts(userId));
 
         // This returns my main dashboard Thymeleaf page.
         return "dashboard";
     }
 
+    // ======================= LIVE DASHBOARD STREAM =======================
+
+    // The dashboard opens this with EventSource and gets a small "delta" event after
+    // every save/delete (batched, see LiveDashboardHub) instead of having to reload.
+    @GetMapping(path = "/dashboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter dashboardStream(@SessionAttribute("userId") Long userId) {
+        return liveHub.subscribe(userId);
+    }
+
     // ======================= TRANSACTIONS LIST =======================
 
-    // This shows the full transactions page with optional filtering by type.
+    // This shows the transactions page one page at a time.
+    // Filters (type + optional date range) run in the database, and paging uses
+    // cursors ("after"/"before") instead of loading every transaction at once.
+    // With "q" it shows search results instead (name, note or category words).
     @GetMapping("/transactions")
     public String listTransactions(
             @RequestParam(name = "type", required = false) String type,
+            @RequestParam(name = "from", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "sort", required = false, defaultValue = "newest") String sort,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "before", required = false) String before,
+            @RequestParam(name = "size", required = false) Integer size,
+            @RequestParam(name = "q", required = false) String q,
+            @SessionAttribute("userId") Long userId,
             Model model) {
 
-        // If "type" is null or empty, the service returns all transactions.
-        // Otherwise, it filters by type (like INCOME or EXPENSE).
-        var transactions = service.getByType(type);
+        // An unknown type in the link is a bad request, not "show expenses".
+        TransactionType typeFilter;
+        try {
+            typeFilter = TransactionType.filter(type);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
 
         // I use this to highlight which filter is currently active in the UI.
-        String selectedType = (type == null || type.isBlank()) ? "ALL" : type.toUpperCase();
+        String selectedType = typeFilter == null ? "ALL" : typeFilter.name();
+        boolean oldestFirst = "oldest".equalsIgnoreCase(sort);
+
+        // Page size comes from application.properties unless the link asks for a
+        // different one, and I cap it so nobody can request the whole table.
+        int pageSize = (size == null || size <= 0) ? defaultPageSize : Math.min(size, maxPageSize);
+
+        TransactionPage page;
+        if (q != null && !q.isBlank()) {
+            // A search shows its best matches (newest first) on one page, no cursors.
+            page = new TransactionPage(service.search(userId, q, selectedType, from, to, pageSize), null, null);
+        } else {
+            page = service.getPage(userId, selectedType, from, to, oldestFirst,
+                    TransactionPage.Cursor.parse(after), TransactionPage.Cursor.parse(before), pageSize);
+        }
 
-        model.addAttribute("transactions", transactions);
+        model.addAttribute("transactions", page.getItems());
+        model.addAttribute("q", q == null || q.isBlank() ? null : q.trim());
+        model.addAttribute("page", page);
         model.addAttribute("selectedType", selectedType);
+        model.addAttribute("from", from);
+        model.addAttribute("to", to);
+        model.addAttribute("sort", oldestFirst ? "oldest" : "newest");
+        model.addAttribute("size", pageSize == defaultPageSize ? null : pageSize);
 
         // I also re-use the overall totals here, so the transactions page
         // can still show summary cards at the top.
-        double income = service.getTotalIncome();
-        double expenses = service.getTotalExpenses();
-        double balance = income - expenses;
+        // Same summary the dashboard uses, so this is one pass instead of two.
+        DashboardSummary summary = service.getDashboardSummary(userId, YearMonth.now(), 0, 0);
 
-        model.addAttribute("totalIncome", income);
-        model.addAttribute("totalExpenses", expenses);
-        model.addAttribute("totalBalance", balance);
+        model.addAttribute("totalIncome", summary.getTotalIncome());
+        model.addAttribute("totalExpenses", summary.getTotalExpenses());
+        model.addAttribute("totalBalance", summary.getBalance());
 
         // This maps to transactions.html
         return "transactions";
@@ -113,9 +200,10 @@ public class BudgetController {
 
     // Shows the empty form for adding a new transaction.
     @GetMapping("/transactions/new")
-    public String newTransaction(Model model) {
+    public String newTransaction(@SessionAttribute("userId") Long userId, Model model) {
         // I pass an empty Transaction object so the form can bind to it.
         model.addAttribute("transaction", new Transaction());
+        model.addAttribute("categorySuggestions", categorySuggestions(userId));
 
         // I also pass a title so I can reuse the same form for add vs edit.
         model.addAttribute("formTitle", "Add Transaction");
@@ -124,11 +212,12 @@ public class BudgetController {
 
     // Handles both creating a new transaction and saving edits.
     @PostMapping("/transactions")
-    public String saveTransaction(@ModelAttribute("transaction") Transaction transaction) {
+    public String saveTransaction(@ModelAttribute("transaction") Transaction transaction,
+                                  @SessionAttribute("userId") Long userId) {
 
         // I let the service handle the actual save logic.
         // If the transaction has an ID, it’s an edit; if not, it’s a new one.
-        service.save(transaction);
+        service.save(userId, transaction);
 
         // After saving, I just send the user back to the transactions list.
         return "redirect:/transactions";
@@ -138,10 +227,10 @@ public class BudgetController {
 
     // This loads an existing transaction into the form for editing.
     @GetMapping("/transactions/{id}/edit")
-    public String editTransaction(@PathVariable Long id, Model model) {
+    public String editTransaction(@PathVariable Long id, @SessionAttribute("userId") Long userId, Model model) {
 
         // Ask the service for the transaction by ID.
-        Transaction t = service.getById(id);
+        Transaction t = service.getById(userId, id);
 
         // If we don’t find it, I just send them back to the list page.
         if (t == null) {
@@ -151,6 +240,7 @@ public class BudgetController {
         // Otherwise, I put that transaction into the model so the form
         // can pre-populate with its values.
         model.addAttribute("transaction", t);
+        model.addAttribute("categorySuggestions", categorySuggestions(userId));
 
         // Update the title so the form shows "Edit" instead of "Add".
         model.addAttribute("formTitle", "Edit Transaction");
@@ -158,14 +248,22 @@ public class BudgetController {
         return "transaction_form";
     }
 
+    // The form's category suggestions: the user's own categories (most used first),
+    // then the default ones they haven't used yet.
+    private List<String> categorySuggestions(Long userId) {
+        Set<String> categories = new LinkedHashSet<>(service.suggestCategories(userId, "", 50));
+        categories.addAll(DEFAULT_CATEGORIES);
+        return new ArrayList<>(categories);
+    }
+
     // ======================= DELETE TRANSACTION =======================
 
     // Simple delete endpoint – called when the user removes a transaction.
     @PostMapping("/transactions/{id}/delete")
-    public String deleteTransaction(@PathVariable Long id) {
+    public String deleteTransaction(@PathVariable Long id, @SessionAttribute("userId") Long userId) {
 
         // Let the service handle the delete and then go back to the list.
-        service.delete(id);
+        service.delete(userId, id);
         return "redirect:/transactions";
     }
 
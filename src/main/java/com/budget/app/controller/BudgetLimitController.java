@@ -0,0 +1,69 @@
+package com.budget.app.controller;
+
+import com.budget.app.model.Money;
+import com.budget.app.service.BudgetService;
+import com.budget.app.service.TransactionService;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.SessionAttribute;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+// The budgets page: a monthly limit per expense category, and how this month is going.
+@Controller
+public class BudgetLimitController {
+
+    private final BudgetService budgetService;
+
+    // Only used for the category suggestions in the form.
+    private final TransactionService transactionService;
+
+    public BudgetLimitController(BudgetService budgetService, TransactionService transactionService) {
+        this.budgetService = budgetService;
+        this.transactionService = transactionService;
+    }
+
+    // ======================= BUDGETS PAGE =======================
+
+    @GetMapping("/budgets")
+    public String budgets(@SessionAttribute("userId") Long userId, Model model) {
+        model.addAttribute("budgets", budgetService.getStatuses(userId));
+        model.addAttribute("categorySuggestions", transactionService.suggestCategories(userId, "", 50));
+        return "budgets";
+    }
+
+    // ======================= ADD / CHANGE =======================
+
+    // Setting a limit on a category that already has one just changes it.
+    @PostMapping("/budgets")
+    public String saveBudget(@RequestParam("category") String category,
+                             @RequestParam("limit") String limit,
+                             @SessionAttribute("userId") Long userId,
+                             RedirectAttributes redirect) {
+        Money amount;
+        try {
+            amount = Money.valueOf(limit);
+        } catch (IllegalArgumentException e) {
+            redirect.addFlashAttribute("error", "Enter the monthly limit as an amount, like 250 or 99.50.");
+            return "redirect:/budgets";
+        }
+
+        try {
+            budgetService.save(userId, category, amount);
+        } catch (IllegalArgumentException e) {
+            redirect.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/budgets";
+    }
+
+    // ======================= DELETE =======================
+
+    @PostMapping("/budgets/{id}/delete")
+    public String deleteBudget(@PathVariable Long id, @SessionAttribute("userId") Long userId) {
+        budgetService.delete(userId, id);
+        return "redirect:/budgets";
+    }
+}
@@ -0,0 +1,70 @@
+package com.budget.app.controller;
+
+import com.budget.app.model.TransactionType;
+import com.budget.app.service.TransactionExportService;
+import com.budget.app.service.TransactionExportService.Format;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.SessionAttribute;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+@Controller
+public class ExportController {
+
+    // Big enough that the servlet output stream is written in large pieces
+    // instead of once per field.
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final TransactionExportService exportService;
+
+    public ExportController(TransactionExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    // ======================= DOWNLOAD =======================
+
+    // Downloads the transactions (with the same type/from/to filters as the list page)
+    // as a CSV or NDJSON file. I write straight to the response instead of building
+    // the file in memory first, so the download starts right away and memory stays flat.
+    @GetMapping("/transactions/export")
+    public void export(@RequestParam(required = false) String format,
+                       @RequestParam(required = false) String type,
+                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                       @SessionAttribute("userId") Long userId,
+                       HttpServletResponse response) throws IOException {
+
+        Format f = Format.parse(format);
+        if (f == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "format must be csv or ndjson");
+            return;
+        }
+        // Checked before anything is written, while an error status can still be sent.
+        try {
+            TransactionType.filter(type);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        response.setContentType(f.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"transactions." + f.getExtension() + "\"");
+
+        Writer out = new BufferedWriter(
+                new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), BUFFER_SIZE);
+        exportService.export(userId, f, type, from, to, out);
+        out.flush();
+    }
+}
@@ -0,0 +1,57 @@
+package com.budget.app.controller;
+
+import com.budget.app.importer.ImportResult;
+import com.budget.app.service.StatementImportService;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.SessionAttribute;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Controller
+public class ImportController {
+
+    // Does the actual parsing + saving of statement files.
+    private final StatementImportService importService;
+
+    public ImportController(StatementImportService importService) {
+        this.importService = importService;
+    }
+
+    // ======================= IMPORT PAGE =======================
+
+    // Shows the upload form.
+    @GetMapping("/transactions/import")
+    public String showImport() {
+        return "import";
+    }
+
+    // ======================= HANDLE UPLOAD =======================
+
+    // Takes a CSV or OFX bank statement and imports every valid row.
+    // I stream straight from the uploaded file, so the whole file is never held in memory.
+    @PostMapping("/transactions/import")
+    public String doImport(@RequestParam("file") MultipartFile file,
+                           @SessionAttribute("userId") Long userId,
+                           Model model) {
+        if (file.isEmpty()) {
+            model.addAttribute("error", "Please choose a file to import.");
+            return "import";
+        }
+
+        try (InputStream in = file.getInputStream()) {
+            ImportResult result = importService.importStatement(userId, file.getOriginalFilename(), in);
+            model.addAttribute("result", result);
+            model.addAttribute("fileName", file.getOriginalFilename());
+        } catch (IOException e) {
+            model.addAttribute("error", "Could not read the uploaded file.");
+        }
+
+        return "import";
+    }
+}
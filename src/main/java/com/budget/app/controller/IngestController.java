@@ -0,0 +1,98 @@
+package com.budget.app.controller;
+
+import com.budget.app.ingest.IngestEntry;
+import com.budget.app.ingest.IngestService;
+import com.budget.app.model.Money;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.SessionAttribute;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+// High-rate API for automated feeds (bank sync, scripts): POST a JSON array of
+// transactions, get 202 and their ingest ids back as soon as they're safely journaled.
+// They show up in the ledger once the next group commit runs, normally within
+// budget.ingest.max-delay (see IngestService).
+//
+// A full queue answers 429 with Retry-After; the client should send the same request again.
+// Same login as the rest of /api (session cookie from /login).
+@RestController
+@RequestMapping("/api/ingest")
+public class IngestController {
+
+    // Seconds a client is told to wait after a 429. A full queue drains in about
+    // queue-capacity / max-batch group commits, which is normally well under this.
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final IngestService ingestService;
+
+    public IngestController(IngestService ingestService) {
+        this.ingestService = ingestService;
+    }
+
+    // ======================= JSON SHAPES =======================
+
+    // Same fields as the transaction form; amount is positive, type INCOME or EXPENSE.
+    public record IngestJson(String name, Money amount, String type, String category,
+                             LocalDate date, String note) {
+    }
+
+    // "ids" are in the same order as the request. Everything up to "committedThrough"
+    // is in the database.
+    public record AcceptedJson(List<Long> ids, long committedThrough) {
+    }
+
+    public record StatusJson(int queued, long committedThrough) {
+    }
+
+    // ======================= ENDPOINTS =======================
+
+    @PostMapping
+    public ResponseEntity<AcceptedJson> ingest(@RequestBody List<IngestJson> body,
+                                               @SessionAttribute("userId") Long userId) {
+        List<IngestEntry> entries = new ArrayList<>(body.size());
+        try {
+            for (int i = 0; i < body.size(); i++) {
+                IngestJson j = body.get(i);
+                try {
+                    entries.add(IngestEntry.of(userId, j.name(), j.amount(), j.type(),
+                            j.category(), j.date(), j.note()));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("entry " + i + ": " + e.getMessage());
+                }
+            }
+
+            List<Long> ids = ingestService.accept(entries);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .cacheControl(CacheControl.noStore())
+                    .body(new AcceptedJson(ids, ingestService.getCommittedThrough()));
+        } catch (IllegalArgumentException e) {
+            // Nothing from this request was accepted, so the client can fix it and resend all of it.
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .cacheControl(CacheControl.noStore())
+                    .build();
+        }
+    }
+
+    // How far behind the writer is.
+    @GetMapping
+    public ResponseEntity<StatusJson> status() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(new StatusJson(ingestService.getQueued(), ingestService.getCommittedThrough()));
+    }
+}
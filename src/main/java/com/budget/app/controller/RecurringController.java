@@ -0,0 +1,89 @@
+package com.budget.app.controller;
+
+import com.budget.app.model.RecurringRule;
+import com.budget.app.service.RecurringService;
+import com.budget.app.service.RecurringService.Occurrence;
+import com.budget.app.service.TransactionService;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.SessionAttribute;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// The recurring transactions page: the rules, a form to add one, and what's coming up.
+@Controller
+public class RecurringController {
+
+    private final RecurringService recurringService;
+
+    // Only used for the category suggestions in the form.
+    private final TransactionService transactionService;
+
+    public RecurringController(RecurringService recurringService, TransactionService transactionService) {
+        this.recurringService = recurringService;
+        this.transactionService = transactionService;
+    }
+
+    // ======================= RECURRING PAGE =======================
+
+    // "days" is how far ahead the upcoming list looks (default a month, at most a year).
+    @GetMapping("/recurring")
+    public String recurring(@RequestParam(name = "days", required = false, defaultValue = "30") int days,
+                            @SessionAttribute("userId") Long userId,
+                            Model model) {
+        int horizon = Math.min(Math.max(days, 1), 366);
+        LocalDate today = LocalDate.now();
+        List<Occurrence> upcoming = recurringService.getUpcoming(userId, today, today.plusDays(horizon));
+
+        model.addAttribute("rules", recurringService.getRules(userId));
+        model.addAttribute("upcoming", upcoming);
+        model.addAttribute("upcomingNet", RecurringService.net(upcoming));
+        model.addAttribute("days", horizon);
+        model.addAttribute("frequencies", RecurringRule.Frequency.values());
+        model.addAttribute("categorySuggestions", transactionService.suggestCategories(userId, "", 50));
+        if (!model.containsAttribute("rule")) {
+            RecurringRule empty = new RecurringRule();
+            empty.setStartDate(today);
+            empty.setFrequency(RecurringRule.Frequency.MONTHLY);
+            model.addAttribute("rule", empty);
+        }
+        return "recurring";
+    }
+
+    // ======================= ADD =======================
+
+    @PostMapping("/recurring")
+    public String addRule(@ModelAttribute("rule") RecurringRule rule,
+                          BindingResult binding,
+                          @SessionAttribute("userId") Long userId,
+                          RedirectAttributes redirect) {
+        if (binding.hasErrors()) {
+            // Usually the amount or a date that didn't parse.
+            redirect.addFlashAttribute("error", "Check the amount and dates and try again.");
+            return "redirect:/recurring";
+        }
+        try {
+            recurringService.create(userId, rule);
+            redirect.addFlashAttribute("message", "Saved. Anything already due shows up in a minute or so.");
+        } catch (IllegalArgumentException e) {
+            redirect.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/recurring";
+    }
+
+    // ======================= DELETE =======================
+
+    @PostMapping("/recurring/{id}/delete")
+    public String deleteRule(@PathVariable Long id, @SessionAttribute("userId") Long userId) {
+        recurringService.delete(userId, id);
+        return "redirect:/recurring";
+    }
+}
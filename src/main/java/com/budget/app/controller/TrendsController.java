@@ -0,0 +1,54 @@
+package com.budget.app.controller;
+
+import com.budget.app.analytics.Trend;
+import com.budget.app.service.TransactionService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.SessionAttribute;
+
+import java.time.LocalDate;
+
+// The trends page: income, expenses and the biggest categories over any date range,
+// per day, week, month or year.
+@Controller
+public class TrendsController {
+
+    // How many categories get their own line on the category chart.
+    private static final int CHART_CATEGORIES = 6;
+
+    private final TransactionService service;
+
+    public TrendsController(TransactionService service) {
+        this.service = service;
+    }
+
+    // ======================= TRENDS PAGE =======================
+
+    // Default: the last 12 months, one bucket per month.
+    @GetMapping("/trends")
+    public String trends(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                         @RequestParam(required = false, defaultValue = "MONTH") String granularity,
+                         @SessionAttribute("userId") Long userId,
+                         Model model) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusYears(1).plusDays(1);
+
+        model.addAttribute("from", start);
+        model.addAttribute("to", end);
+        model.addAttribute("granularity", granularity.toUpperCase());
+        model.addAttribute("granularities", Trend.Granularity.values());
+
+        try {
+            Trend trend = service.getTrend(userId, start, end, Trend.Granularity.parse(granularity), CHART_CATEGORIES);
+            model.addAttribute("trend", trend);
+        } catch (IllegalArgumentException e) {
+            // Bad range or too many buckets: show the form again with the message.
+            model.addAttribute("error", e.getMessage());
+        }
+        return "trends";
+    }
+}
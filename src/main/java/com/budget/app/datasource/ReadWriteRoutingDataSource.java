@@ -0,0 +1,74 @@
+package com.budget.app.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Sends @Transactional(readOnly = true) work to the replica and everything else
+// (saves, deletes, registration, reads outside a transaction) to the primary.
+//
+// Which one is decided when a connection is taken from the pool, so this has to sit behind
+// a LazyConnectionDataSourceProxy (see DataSourceConfig): the proxy only takes the real
+// connection at the first statement, after Spring has marked the transaction read-only.
+//
+// A read-only transaction still reads the primary while ReadYourWrites says so (the user
+// just wrote something, or the caller needs data as new as the latest commit).
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private final ReadYourWrites readYourWrites;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica,
+                                      ReadYourWrites readYourWrites, MeterRegistry registry) {
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+
+        // How often each side is used: /actuator/metrics/budget.datasource.connections
+        this.primaryConnections = counter(registry, Route.PRIMARY);
+        this.replicaConnections = counter(registry, Route.REPLICA);
+    }
+
+    private static Counter counter(MeterRegistry registry, Route route) {
+        return Counter.builder("budget.datasource.connections")
+                .description("Connections handed out, by which database they went to")
+                .tag("route", route.name().toLowerCase())
+                .register(registry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && readYourWrites.replicaAllowed()) {
+            replicaConnections.increment();
+            return Route.REPLICA;
+        }
+        primaryConnections.increment();
+        rememberWrite();
+        return Route.PRIMARY;
+    }
+
+    // A write by the request's own user: once it commits, keep that user on the primary
+    // for a while (ReadYourWrites). Read-only transactions on the primary don't count.
+    private void rememberWrite() {
+        Long userId = readYourWrites.currentUser();
+        if (userId == null
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                readYourWrites.wrote(userId);
+            }
+        });
+    }
+}
@@ -0,0 +1,147 @@
+package com.budget.app.datasource;
+
+import com.budget.app.service.LedgerChangedEvent;
+import com.budget.app.service.TransactionSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+// Decides when a read-only transaction has to read the primary anyway, even though a
+// replica is configured (see ReadWriteRoutingDataSource):
+//
+// - Read-your-writes: for "window" after one of a user's writes commits, that user's reads
+//   stay on the primary, so the page they're redirected to after a save shows the save even
+//   if the replica is a little behind.
+// - onPrimary(): code that keeps something in memory in step with the after-commit events
+//   (trend index, budget alerts, search index) has to read data at least as new as the
+//   events it has seen, so it always reads the primary.
+//
+// Whose request is running comes from ReadYourWritesFilter (the session's user id).
+// Without a replica none of this changes anything; everything reads the primary anyway.
+@Component
+public class ReadYourWrites {
+
+    // The logged-in user of the request running on this thread (null for background work).
+    private static final ThreadLocal<Long> currentUser = new ThreadLocal<>();
+
+    // Set while running inside onPrimary().
+    private static final ThreadLocal<Boolean> primaryOnly = new ThreadLocal<>();
+
+    // Users who wrote within the window. An entry's presence is the whole answer,
+    // and it expires on its own when the window is over.
+    private final Cache<Long, Boolean> recentWriters;
+
+    private final long windowNanos;
+
+    // Until when everybody reads the primary (after something that touched every user,
+    // like a rollup rebuild).
+    private volatile long everyoneUntil;
+
+    public ReadYourWrites(@Value("${budget.datasource.read-your-writes-window:5s}") Duration window,
+                          @Value("${budget.datasource.read-your-writes-max-users:100000}") long maxUsers) {
+        this.windowNanos = window.toNanos();
+        this.everyoneUntil = System.nanoTime();
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    // ======================= ROUTING =======================
+
+    // True when a read-only transaction on this thread may use the replica.
+    public boolean replicaAllowed() {
+        if (Boolean.TRUE.equals(primaryOnly.get()) || System.nanoTime() - everyoneUntil < 0) {
+            return false;
+        }
+        Long userId = currentUser.get();
+        return userId == null || recentWriters.getIfPresent(userId) == null;
+    }
+
+    // Runs "work" with every read on the primary.
+    public <T> T onPrimary(Supplier<T> work) {
+        Boolean before = primaryOnly.get();
+        primaryOnly.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (before == null) {
+                primaryOnly.remove();
+            } else {
+                primaryOnly.set(before);
+            }
+        }
+    }
+
+    public void onPrimary(Runnable work) {
+        onPrimary(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // ======================= WHO IS ASKING =======================
+
+    public Long currentUser() {
+        return currentUser.get();
+    }
+
+    // Runs "work" as this user's request. QueryFanOut uses this so queries it moves to
+    // other threads are routed like the request that started them.
+    public <T> T asUser(Long userId, Supplier<T> work) {
+        Long before = enter(userId);
+        try {
+            return work.get();
+        } finally {
+            exit(before);
+        }
+    }
+
+    // enter()/exit() around a whole request (ReadYourWritesFilter). enter() hands back
+    // whoever was set before, for exit() to put back.
+    Long enter(Long userId) {
+        Long before = currentUser.get();
+        if (userId == null) {
+            currentUser.remove();
+        } else {
+            currentUser.set(userId);
+        }
+        return before;
+    }
+
+    void exit(Long before) {
+        if (before == null) {
+            currentUser.remove();
+        } else {
+            currentUser.set(before);
+        }
+    }
+
+    // ======================= WRITES =======================
+
+    // Called after a write transaction commits (by the routing data source for the
+    // request's own user, and below for whoever owns a changed ledger).
+    public void wrote(Long userId) {
+        if (userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    // A ledger can also change without its owner's request (recurring rules, imports on
+    // another thread), and the owner's next dashboard would otherwise be cached from a
+    // replica that hasn't caught up under the new ledger version.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLedgerChanged(LedgerChangedEvent event) {
+        if (event.getBefore() == null && event.getAfter() == null) {
+            everyoneUntil = System.nanoTime() + windowNanos;
+            return;
+        }
+        TransactionSnapshot changed = event.getAfter() != null ? event.getAfter() : event.getBefore();
+        wrote(changed.getUserId());
+    }
+}
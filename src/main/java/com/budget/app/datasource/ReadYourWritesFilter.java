@@ -0,0 +1,38 @@
+package com.budget.app.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Tells ReadYourWrites whose request is running (the logged-in user from the session),
+// so that user's reads stay on the primary right after their own writes.
+// Requests without a session (login page, static files) run as nobody.
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ReadYourWrites readYourWrites;
+
+    public ReadYourWritesFilter(ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        HttpSession session = request.getSession(false);
+        Long userId = session != null && session.getAttribute("userId") instanceof Long id ? id : null;
+
+        Long before = readYourWrites.enter(userId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            readYourWrites.exit(before);
+        }
+    }
+}
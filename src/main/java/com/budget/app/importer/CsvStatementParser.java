@@ -0,0 +1,169 @@
+package com.budget.app.importer;
+
+import com.budget.app.model.Money;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.*;
+
+// Parses CSV bank exports.
+// The first line must be a header. I match columns by name (not position), so
+// exports from different banks work as long as they have a date column and either
+// an amount column or separate debit/credit columns.
+public class CsvStatementParser implements StatementParser {
+
+    // Header names (lower case) I accept for each field.
+    private static final Map<String, List<String>> ALIASES = Map.of(
+            "date", List.of("date", "transaction date", "posted date", "posting date"),
+            "name", List.of("name", "description", "payee", "merchant"),
+            "amount", List.of("amount"),
+            "debit", List.of("debit", "withdrawal"),
+            "credit", List.of("credit", "deposit"),
+            "type", List.of("type"),
+            "category", List.of("category"),
+            "note", List.of("note", "notes", "memo"));
+
+    // Longest record I accept, in characters. A real bank row is a few hundred; this only
+    // trips on a quote that's never closed, which would otherwise pull the whole rest of
+    // the upload into one field.
+    static final int MAX_RECORD_CHARS = 64 * 1024;
+
+    private final BufferedReader reader;
+
+    // Column index for each field, or missing if the file doesn’t have it.
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    // Physical lines read so far, and the line the last record started on (a quoted
+    // field can run over several lines; errors point at where the record begins).
+    private long lineNumber;
+    private long recordLine;
+
+    public CsvStatementParser(BufferedReader reader) throws IOException {
+        this.reader = reader;
+
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("The file is empty");
+        }
+
+        for (int i = 0; i < header.size(); i++) {
+            // Excel likes to put a byte-order mark in front of the first header.
+            String h = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            for (Map.Entry<String, List<String>> alias : ALIASES.entrySet()) {
+                if (alias.getValue().contains(h)) {
+                    columns.putIfAbsent(alias.getKey(), i);
+                }
+            }
+        }
+
+        boolean hasAmount = columns.containsKey("amount")
+                || columns.containsKey("debit") || columns.containsKey("credit");
+        if (!columns.containsKey("date") || !hasAmount) {
+            throw new IllegalArgumentException(
+                    "The CSV header needs a date column and an amount (or debit/credit) column");
+        }
+    }
+
+    @Override
+    public StatementRow next() throws IOException {
+        List<String> record;
+        do {
+            record = readRecord();
+            if (record == null) {
+                return null;
+            }
+            // Skip blank lines (very common at the end of exports).
+        } while (record.size() == 1 && record.get(0).isBlank());
+
+        long line = recordLine;
+        try {
+            Money amount;
+            if (columns.containsKey("amount")) {
+                amount = StatementValues.parseAmount(field(record, "amount"));
+            } else {
+                // Separate columns: money in is positive, money out is negative.
+                String debit = field(record, "debit");
+                String credit = field(record, "credit");
+                Money in = credit == null || credit.isBlank() ? Money.ZERO : StatementValues.parseAmount(credit).abs();
+                Money out = debit == null || debit.isBlank() ? Money.ZERO : StatementValues.parseAmount(debit).abs();
+                amount = in.minus(out);
+            }
+
+            return StatementRow.ok(line, StatementValues.toTransaction(
+                    StatementValues.parseDate(field(record, "date")),
+                    field(record, "name"),
+                    amount,
+                    field(record, "type"),
+                    field(record, "category"),
+                    field(record, "note")));
+        } catch (IllegalArgumentException e) {
+            return StatementRow.failed(line, e.getMessage());
+        }
+    }
+
+    private String field(List<String> record, String name) {
+        Integer index = columns.get(name);
+        return (index == null || index >= record.size()) ? null : record.get(index);
+    }
+
+    // Read one CSV record: commas split fields, "double quotes" can wrap commas,
+    // line breaks and "" (an escaped quote). Returns null at the end of the file.
+    // A record longer than MAX_RECORD_CHARS ends the import with an error (see above).
+    private List<String> readRecord() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNumber++;
+        recordLine = lineNumber;
+        long length = line.length();
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+
+            if (!quoted || length > MAX_RECORD_CHARS) {
+                break;
+            }
+
+            // Still inside quotes: the field continues on the next line.
+            line = reader.readLine();
+            if (line == null) {
+                break;
+            }
+            lineNumber++;
+            length += line.length() + 1;
+            current.append('\n');
+        }
+
+        if (length > MAX_RECORD_CHARS) {
+            throw new IllegalArgumentException("Line " + recordLine + ": the record is longer than "
+                    + MAX_RECORD_CHARS + " characters" + (quoted ? " (a quote is never closed)" : ""));
+        }
+
+        fields.add(current.toString());
+        return fields;
+    }
+}
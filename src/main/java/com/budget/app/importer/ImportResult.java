@@ -0,0 +1,96 @@
+package com.budget.app.importer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Summary of one statement import that I show on the import page.
+public class ImportResult {
+
+    // I only keep this many row errors so a completely wrong file can’t fill up memory.
+    public static final int MAX_ERRORS = 100;
+
+    // One problem row: where it was and what was wrong.
+    public static class RowError {
+        private final long line;
+        private final String message;
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private long rowsRead;
+    private long imported;
+    private long failed;
+    private long elapsedMillis;
+    private String fileError;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public void rowRead() {
+        rowsRead++;
+    }
+
+    public void imported(int count) {
+        imported += count;
+    }
+
+    public void rowFailed(long line, String message) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    // Problem with the whole file (unreadable, wrong header, ...).
+    public void setFileError(String fileError) {
+        this.fileError = fileError;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public String getFileError() {
+        return fileError;
+    }
+
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    // True when there were more errors than I kept.
+    public boolean isErrorsTruncated() {
+        return failed > errors.size();
+    }
+
+    // Throughput of the whole import (parse + validate + insert).
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? imported : imported * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,142 @@
+package com.budget.app.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Parses OFX/QFX statement downloads (both the old SGML style where leaf tags
+// aren’t closed, and the newer XML style).
+// I read the file one tag at a time and only keep the fields of the
+// <STMTTRN> block I’m currently inside, then hand it back as one row.
+public class OfxStatementParser implements StatementParser {
+
+    // Same cap as a CSV record. A tag, a value or a whole <STMTTRN> block longer than this
+    // ends the import with an error: that only happens when a '<' or '>' is missing, and it
+    // would otherwise pull the rest of the upload into memory.
+    static final int MAX_RECORD_CHARS = CsvStatementParser.MAX_RECORD_CHARS;
+
+    private final BufferedReader reader;
+
+    private long lineNumber = 1;
+
+    // Characters read so far, so I can tell how long the current block has got.
+    private long position;
+
+    public OfxStatementParser(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public StatementRow next() throws IOException {
+        Map<String, String> fields = null;
+        long startLine = lineNumber;
+        long startPosition = position;
+
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            if (c != '<') {
+                continue;
+            }
+
+            String tag = readTag().trim().toUpperCase(Locale.ROOT);
+
+            if (tag.equals("STMTTRN")) {
+                fields = new HashMap<>();
+                startLine = lineNumber;
+                startPosition = position;
+            } else if (tag.equals("/STMTTRN") && fields != null) {
+                return toRow(startLine, fields);
+            } else if (fields != null && !tag.startsWith("/")) {
+                String value = readValue(tag).trim();
+                if (!value.isEmpty()) {
+                    fields.put(tag, decode(value));
+                }
+            }
+
+            if (fields != null && position - startPosition > MAX_RECORD_CHARS) {
+                throw new IllegalArgumentException("Line " + startLine + ": the <STMTTRN> block is longer than "
+                        + MAX_RECORD_CHARS + " characters (its </STMTTRN> is missing)");
+            }
+        }
+    }
+
+    private StatementRow toRow(long line, Map<String, String> f) {
+        try {
+            String name = f.getOrDefault("NAME", f.get("MEMO"));
+            String memo = f.get("MEMO");
+
+            // The sign of TRNAMT already says which way the money went,
+            // which is more reliable than the many TRNTYPE values banks use.
+            return StatementRow.ok(line, StatementValues.toTransaction(
+                    StatementValues.parseDate(f.get("DTPOSTED")),
+                    name,
+                    StatementValues.parseAmount(f.get("TRNAMT")),
+                    null,
+                    null,
+                    memo != null && !memo.equals(name) ? memo : null));
+        } catch (IllegalArgumentException e) {
+            return StatementRow.failed(line, e.getMessage());
+        }
+    }
+
+    // The tag name, up to the closing '>'.
+    private String readTag() throws IOException {
+        long line = lineNumber;
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = read()) != -1 && c != '>') {
+            if (sb.length() >= MAX_RECORD_CHARS) {
+                throw new IllegalArgumentException("Line " + line + ": a tag is longer than "
+                        + MAX_RECORD_CHARS + " characters (its '>' is missing)");
+            }
+            sb.append((char) c);
+        }
+        return sb.toString();
+    }
+
+    // The value runs until the next tag starts. I peek at each character so the
+    // '<' of the next tag is left in the reader for the main loop.
+    private String readValue(String tag) throws IOException {
+        long line = lineNumber;
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            reader.mark(1);
+            int c = reader.read();
+            if (c == -1) {
+                break;
+            }
+            if (c == '<') {
+                reader.reset();
+                break;
+            }
+            position++;
+            if (c == '\n') {
+                lineNumber++;
+            }
+            if (sb.length() >= MAX_RECORD_CHARS) {
+                throw new IllegalArgumentException("Line " + line + ": the <" + tag + "> value is longer than "
+                        + MAX_RECORD_CHARS + " characters");
+            }
+            sb.append((char) c);
+        }
+        return sb.toString();
+    }
+
+    private int read() throws IOException {
+        int c = reader.read();
+        position++;
+        if (c == '\n') {
+            lineNumber++;
+        }
+        return c;
+    }
+
+    private static String decode(String value) {
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+    }
+}
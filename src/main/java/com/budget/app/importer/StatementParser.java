@@ -0,0 +1,23 @@
+package com.budget.app.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Locale;
+
+// Reads a bank statement one row at a time.
+// Parsers never hold more than the current row in memory, so a file of any size
+// can be streamed through the importer in fixed-size chunks.
+public interface StatementParser {
+
+    // Returns the next row, or null once the file is finished.
+    StatementRow next() throws IOException;
+
+    // Pick the parser from the file name: .ofx/.qfx are OFX, everything else is CSV.
+    static StatementParser forFile(String fileName, BufferedReader reader) throws IOException {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".ofx") || name.endsWith(".qfx")) {
+            return new OfxStatementParser(reader);
+        }
+        return new CsvStatementParser(reader);
+    }
+}
@@ -0,0 +1,42 @@
+package com.budget.app.importer;
+
+import com.budget.app.model.Transaction;
+
+// One row read from a bank statement file.
+// Either "transaction" is set (the row parsed fine) or "error" says why it didn’t.
+public class StatementRow {
+
+    private final long lineNumber;
+    private final Transaction transaction;
+    private final String error;
+
+    private StatementRow(long lineNumber, Transaction transaction, String error) {
+        this.lineNumber = lineNumber;
+        this.transaction = transaction;
+        this.error = error;
+    }
+
+    public static StatementRow ok(long lineNumber, Transaction transaction) {
+        return new StatementRow(lineNumber, transaction, null);
+    }
+
+    public static StatementRow failed(long lineNumber, String error) {
+        return new StatementRow(lineNumber, null, error);
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isOk() {
+        return error == null;
+    }
+}
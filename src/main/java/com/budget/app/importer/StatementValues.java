@@ -0,0 +1,109 @@
+package com.budget.app.importer;
+
+import com.budget.app.model.Money;
+import com.budget.app.model.Transaction;
+import com.budget.app.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+
+// Shared parsing + validation for the CSV and OFX parsers,
+// so both formats turn into Transactions the exact same way.
+final class StatementValues {
+
+    // Date layouts I’ve seen in bank exports.
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("M/d/yyyy"),
+            DateTimeFormatter.ofPattern("M/d/yy"),
+            DateTimeFormatter.BASIC_ISO_DATE);
+
+    // Longest name/note the transactions table can hold.
+    private static final int MAX_TEXT = 255;
+
+    private StatementValues() {}
+
+    // "1,234.56", "$12.00", "-42.10" and "(42.10)" (accounting negative) all work.
+    // Parsed straight to cents, so "0.10" is exactly 10 cents (no double in between).
+    static Money parseAmount(String raw) {
+        if (raw == null || raw.isBlank()) {
+            throw new IllegalArgumentException("missing amount");
+        }
+
+        String s = raw.trim().replace("$", "").replace(",", "");
+        boolean negative = s.startsWith("(") && s.endsWith(")");
+        if (negative) {
+            s = s.substring(1, s.length() - 1);
+        }
+
+        try {
+            Money value = Money.of(new BigDecimal(s));
+            return negative ? Money.ZERO.minus(value) : value;
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("bad amount '" + raw + "'");
+        }
+    }
+
+    static LocalDate parseDate(String raw) {
+        if (raw == null || raw.isBlank()) {
+            throw new IllegalArgumentException("missing date");
+        }
+
+        // OFX dates can have a time and time zone glued on (20251203120000.000[-5:EST]),
+        // I only need the first 8 digits for those.
+        String s = raw.trim();
+        if (s.length() > 8 && s.chars().limit(8).allMatch(Character::isDigit)) {
+            s = s.substring(0, 8);
+        }
+
+        for (DateTimeFormatter f : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(s, f);
+            } catch (DateTimeParseException ignored) {
+                // try the next layout
+            }
+        }
+        throw new IllegalArgumentException("bad date '" + raw + "'");
+    }
+
+    // Build and validate one Transaction.
+    // If the file doesn’t say INCOME/EXPENSE, the sign of the amount decides
+    // (bank exports use negative numbers for money going out). The stored amount is always positive.
+    static Transaction toTransaction(LocalDate date, String name, Money signedAmount,
+                                     String type, String category, String note) {
+        String resolvedType;
+        if (type == null || type.isBlank()) {
+            resolvedType = signedAmount.isNegative() ? "EXPENSE" : "INCOME";
+        } else {
+            // Banks say CREDIT/DEBIT, the app says INCOME/EXPENSE.
+            switch (type.trim().toUpperCase(Locale.ROOT)) {
+                case "INCOME", "CREDIT" -> resolvedType = "INCOME";
+                case "EXPENSE", "DEBIT" -> resolvedType = "EXPENSE";
+                default -> throw new IllegalArgumentException(
+                        "type must be INCOME, EXPENSE, CREDIT or DEBIT, got '" + type + "'");
+            }
+        }
+
+        String resolvedName = (name == null || name.isBlank()) ? "Imported transaction" : name.trim();
+        String resolvedCategory = (category == null || category.isBlank())
+                ? (resolvedType.equals("INCOME") ? "Income" : "Other")
+                : category.trim();
+
+        Transaction t = new Transaction();
+        t.setDate(date);
+        t.setName(truncate(resolvedName));
+        t.setAmount(signedAmount.abs());
+        t.setType(TransactionType.of(resolvedType));
+        t.setCategory(truncate(resolvedCategory));
+        t.setNote(note == null || note.isBlank() ? null : truncate(note.trim()));
+        return t;
+    }
+
+    private static String truncate(String s) {
+        return s.length() <= MAX_TEXT ? s : s.substring(0, MAX_TEXT);
+    }
+}
@@ -0,0 +1,62 @@
+package com.budget.app.ingest;
+
+import com.budget.app.model.IngestCheckpoint;
+import com.budget.app.model.Transaction;
+import com.budget.app.repository.IngestCheckpointRepository;
+import com.budget.app.service.TransactionService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// The database side of IngestService: one group commit = one database transaction that
+// inserts a whole batch (through saveBatch, so JDBC batches and one rollup update per
+// bucket) and moves the journal's checkpoint past it. Either all of it is saved or none.
+@Component
+public class IngestCommitter {
+
+    private final TransactionService transactionService;
+    private final IngestCheckpointRepository checkpoints;
+
+    public IngestCommitter(TransactionService transactionService, IngestCheckpointRepository checkpoints) {
+        this.transactionService = transactionService;
+        this.checkpoints = checkpoints;
+    }
+
+    // Saves the batch (entries in seq order, all after the checkpoint) and moves the
+    // checkpoint to the last one.
+    @Transactional
+    public void commit(String journalId, List<IngestEntry> batch) {
+        // saveBatch works per user; most batches are one or two feeds anyway.
+        Map<Long, List<Transaction>> byUser = new LinkedHashMap<>();
+        for (IngestEntry e : batch) {
+            byUser.computeIfAbsent(e.userId(), id -> new ArrayList<>()).add(e.toTransaction());
+        }
+        for (Map.Entry<Long, List<Transaction>> user : byUser.entrySet()) {
+            transactionService.saveBatch(user.getKey(), user.getValue());
+        }
+        advance(journalId, batch.get(batch.size() - 1).seq());
+    }
+
+    // Moves the checkpoint past an entry the database will never take (see IngestService).
+    @Transactional
+    public void skip(String journalId, long seq) {
+        advance(journalId, seq);
+    }
+
+    // Read-write on purpose: this is the primary's answer, never a replica's.
+    @Transactional
+    public long committedThrough(String journalId) {
+        return checkpoints.findById(journalId).map(IngestCheckpoint::getLastSeq).orElse(0L);
+    }
+
+    private void advance(String journalId, long seq) {
+        IngestCheckpoint checkpoint = checkpoints.findById(journalId)
+                .orElseGet(() -> new IngestCheckpoint(journalId));
+        checkpoint.setLastSeq(seq);
+        checkpoints.save(checkpoint);
+    }
+}
@@ -0,0 +1,131 @@
+package com.budget.app.ingest;
+
+import com.budget.app.model.Transaction;
+import com.budget.app.model.TransactionType;
+
+import com.budget.app.model.Money;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Locale;
+
+// One accepted transaction, waiting to be written. "seq" is the id it was acknowledged
+// with: numbers only go up, in the order entries were written to the journal.
+//
+// Stored in the journal in a small binary layout (see write/read) rather than JSON:
+// a few fixed-size numbers plus three strings, so encoding a few hundred entries per
+// request costs next to nothing.
+public record IngestEntry(long seq, long userId, String name, long amountCents,
+                          TransactionType type, String category, LocalDate date, String note) {
+
+    // Longest name/note/category the tables can hold.
+    private static final int MAX_TEXT = 255;
+
+    // Checks one entry the way the database would, so a bad one gets a 400 now instead of
+    // being acknowledged and failing later. "type" is INCOME or EXPENSE (default EXPENSE);
+    // the amount is positive, the type says which way it went. The seq is set when the
+    // entry is accepted (withSeq).
+    public static IngestEntry of(long userId, String name, Money amount, String type,
+                                 String category, LocalDate date, String note) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("missing name");
+        }
+        if (amount == null) {
+            throw new IllegalArgumentException("missing amount");
+        }
+        if (amount.isNegative()) {
+            throw new IllegalArgumentException("amount must not be negative, the type says which way it went");
+        }
+        if (date == null) {
+            throw new IllegalArgumentException("missing date");
+        }
+        TransactionType resolvedType;
+        if (type == null || type.isBlank()) {
+            resolvedType = TransactionType.EXPENSE;
+        } else {
+            try {
+                resolvedType = TransactionType.valueOf(type.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("type must be INCOME or EXPENSE, got '" + type + "'");
+            }
+        }
+        return new IngestEntry(0, userId, checkLength("name", name.trim()), amount.getCents(), resolvedType,
+                checkLength("category", category), date, checkLength("note", note));
+    }
+
+    private static String checkLength(String field, String value) {
+        if (value != null && value.length() > MAX_TEXT) {
+            throw new IllegalArgumentException(field + " is longer than " + MAX_TEXT + " characters");
+        }
+        return value;
+    }
+
+    IngestEntry withSeq(long seq) {
+        return new IngestEntry(seq, userId, name, amountCents, type, category, date, note);
+    }
+
+    // A fresh entity for every attempt: a failed attempt leaves an id on the one it used.
+    public Transaction toTransaction() {
+        Transaction t = new Transaction();
+        t.setName(name);
+        t.setAmountCents(amountCents);
+        t.setType(type);
+        t.setCategory(category);
+        t.setDate(date);
+        t.setNote(note);
+        return t;
+    }
+
+    // ======================= BINARY LAYOUT =======================
+
+    // Bytes write() needs for this entry.
+    int size() {
+        return 8 + 8 + 8 + 1 + 8 + size(name) + size(category) + size(note);
+    }
+
+    void write(ByteBuffer out) {
+        out.putLong(seq);
+        out.putLong(userId);
+        out.putLong(amountCents);
+        out.put(type.getCode());
+        out.putLong(date.toEpochDay());
+        put(out, name);
+        put(out, category);
+        put(out, note);
+    }
+
+    static IngestEntry read(ByteBuffer in) {
+        long seq = in.getLong();
+        long userId = in.getLong();
+        long amountCents = in.getLong();
+        TransactionType type = TransactionType.fromCode(in.get());
+        LocalDate date = LocalDate.ofEpochDay(in.getLong());
+        return new IngestEntry(seq, userId, get(in), amountCents, type, get(in), date, get(in));
+    }
+
+    // Strings are a length (-1 for null) and their UTF-8 bytes.
+    private static int size(String s) {
+        return 4 + (s == null ? 0 : s.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static void put(ByteBuffer out, String s) {
+        if (s == null) {
+            out.putInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length);
+        out.put(bytes);
+    }
+
+    private static String get(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
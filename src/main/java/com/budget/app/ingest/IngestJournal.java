@@ -0,0 +1,297 @@
+package com.budget.app.ingest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Append-only files on local disk holding every accepted entry until the database has it.
+// An entry is only acknowledged after the journal is synced to disk (fsync), so a crash
+// right after the "202 Accepted" can't lose it: the next start replays it.
+//
+// Files ("segments") are named after the first seq they hold and are deleted once every
+// entry in them is in the database. Forcing a file only makes its contents durable, not its
+// name in the directory, so the directory is forced too whenever a segment is created. Each record is [length][CRC32C][entry]; a record that
+// was only half written when the machine went down fails its check and ends the replay.
+//
+// Syncing is grouped: a thread that wants its entries on disk forces the file once for
+// everything written so far, and every thread that wrote before that force is done too.
+// Many small requests at the same moment then share one fsync instead of one each.
+class IngestJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestJournal.class);
+
+    private static final String PREFIX = "ingest-";
+    private static final String SUFFIX = ".log";
+    private static final int HEADER = 8;
+
+    // Windows can't open a directory to force it (and doesn't need to).
+    private static final boolean SYNC_DIRECTORY =
+            !System.getProperty("os.name", "").toLowerCase().startsWith("windows");
+
+    private final Path dir;
+    private final long segmentBytes;
+
+    // Guarded by "this": every segment on disk, oldest first (the last one is "current"),
+    // and the segment being appended to.
+    private final ArrayDeque<Path> segments = new ArrayDeque<>();
+    private FileChannel current;
+    private long currentSize;
+    private long lastWritten;
+
+    // Segments that filled up but may not be forced yet; sync() forces and closes them.
+    private final List<FileChannel> retired = new ArrayList<>();
+
+    // Only one thread forces at a time; the others wait and usually find their part done.
+    private final Object syncLock = new Object();
+    private volatile long lastSynced;
+
+    IngestJournal(Path dir, long segmentBytes) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+    }
+
+    // ======================= STARTUP =======================
+
+    // Reads every entry still in the journal, oldest first, and returns the highest seq
+    // seen (0 if none). Must be called once, before the first append.
+    long replay(Consumer<IngestEntry> entry) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            Files.createDirectories(dir);
+            syncDirectory(dir.toAbsolutePath().getParent());
+        }
+        long last = 0;
+        List<Path> files = listSegments();
+        for (int i = 0; i < files.size(); i++) {
+            last = Math.max(last, readSegment(files.get(i), i == files.size() - 1, entry));
+        }
+        synchronized (this) {
+            segments.addAll(files);
+        }
+        lastWritten = last;
+        lastSynced = last;
+        return last;
+    }
+
+    private long readSegment(Path file, boolean newest, Consumer<IngestEntry> entry) throws IOException {
+        long last = 0;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer data = ByteBuffer.allocate((int) ch.size());
+            while (data.hasRemaining() && ch.read(data) >= 0) {
+                // keep reading
+            }
+            data.flip();
+
+            long good = 0;
+            while (data.remaining() >= HEADER) {
+                int length = data.getInt();
+                int crc = data.getInt();
+                if (length <= 0 || length > data.remaining() || crc != crc(data, data.position(), length)) {
+                    break;
+                }
+                ByteBuffer record = data.slice(data.position(), length);
+                data.position(data.position() + length);
+                IngestEntry e = IngestEntry.read(record);
+                entry.accept(e);
+                last = e.seq();
+                good = data.position();
+            }
+
+            if (good < ch.size()) {
+                if (newest) {
+                    // The tail of the newest file was being written when the process stopped;
+                    // nothing in it was ever acknowledged. Cut it off so appends start clean.
+                    log.warn("Ingest journal {}: dropping {} bytes of an unfinished write", file.getFileName(),
+                            ch.size() - good);
+                    ch.truncate(good);
+                    ch.force(true);
+                } else {
+                    log.error("Ingest journal {} is damaged after byte {}; the entries after that are skipped",
+                            file.getFileName(), good);
+                }
+            }
+        }
+        return last;
+    }
+
+    // ======================= WRITING =======================
+
+    // Writes the entries (not yet synced, see sync()). Callers hand in entries in seq order.
+    synchronized void append(List<IngestEntry> entries) throws IOException {
+        if (current == null || currentSize >= segmentBytes) {
+            roll(entries.get(0).seq());
+        }
+
+        int bytes = 0;
+        for (IngestEntry e : entries) {
+            bytes += HEADER + e.size();
+        }
+        ByteBuffer out = ByteBuffer.allocate(bytes);
+        for (IngestEntry e : entries) {
+            int start = out.position();
+            out.position(start + HEADER);
+            e.write(out);
+            int length = out.position() - start - HEADER;
+            out.putInt(start, length);
+            out.putInt(start + 4, crc(out, start + HEADER, length));
+        }
+        out.flip();
+        try {
+            while (out.hasRemaining()) {
+                current.write(out);
+            }
+        } catch (IOException e) {
+            // Don't leave half a record in the middle of the file: replay would stop there
+            // and never reach the records appended after it.
+            current.truncate(currentSize);
+            throw e;
+        }
+        currentSize += bytes;
+        lastWritten = entries.get(entries.size() - 1).seq();
+    }
+
+    // Returns once every entry up to "seq" is on disk.
+    void sync(long seq) throws IOException {
+        if (lastSynced >= seq) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (lastSynced >= seq) {
+                return;
+            }
+            long target;
+            FileChannel ch;
+            List<FileChannel> full;
+            synchronized (this) {
+                target = lastWritten;
+                ch = current;
+                full = new ArrayList<>(retired);
+                retired.clear();
+            }
+            for (FileChannel old : full) {
+                old.force(false);
+                old.close();
+            }
+            ch.force(false);
+            lastSynced = target;
+        }
+    }
+
+    private void roll(long firstSeq) throws IOException {
+        if (current != null) {
+            retired.add(current);
+        }
+        Path file = dir.resolve(String.format("%s%020d%s", PREFIX, firstSeq, SUFFIX));
+        boolean created = !Files.exists(file);
+        current = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (created) {
+            // Before anything in it is acknowledged: sync() only forces the file, and after a
+            // crash a file whose directory entry never reached the disk is simply gone.
+            syncDirectory(dir);
+        }
+        currentSize = current.size();
+        current.position(currentSize);
+        if (!file.equals(segments.peekLast())) {
+            segments.addLast(file);
+        }
+    }
+
+    // ======================= CLEANUP =======================
+
+    // Deletes the segments whose entries are all in the database (seq <= committed).
+    // The segment being written to always stays.
+    synchronized void release(long committed) {
+        while (segments.size() > 1) {
+            Path oldest = segments.pollFirst();
+            // A segment ends right before the next one starts.
+            if (firstSeq(segments.peekFirst()) - 1 > committed) {
+                segments.addFirst(oldest);
+                return;
+            }
+            try {
+                Files.deleteIfExists(oldest);
+            } catch (IOException e) {
+                log.warn("Could not delete ingest journal segment {}", oldest, e);
+            }
+        }
+    }
+
+    // Entries the database refused for good are kept here for someone to look at.
+    void rejected(IngestEntry e, String reason) {
+        String line = String.join("\t", Long.toString(e.seq()), Long.toString(e.userId()),
+                String.valueOf(e.date()), e.type().name(), Long.toString(e.amountCents()),
+                clean(e.name()), clean(e.category()), clean(e.note()), clean(reason)) + "\n";
+        try {
+            Files.writeString(dir.resolve("rejected.tsv"), line, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        long written;
+        synchronized (this) {
+            written = lastWritten;
+        }
+        sync(written);
+        synchronized (this) {
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+        }
+    }
+
+    // ======================= HELPERS =======================
+
+    // Makes the names in this directory (files created or removed in it) durable.
+    private static void syncDirectory(Path directory) throws IOException {
+        if (!SYNC_DIRECTORY || directory == null) {
+            return;
+        }
+        try (FileChannel ch = FileChannel.open(directory, StandardOpenOption.READ)) {
+            ch.force(true);
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long firstSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private static String clean(String s) {
+        return s == null ? "" : s.replace('\t', ' ').replace('\n', ' ');
+    }
+}
@@ -0,0 +1,412 @@
+package com.budget.app.ingest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.DataException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.SQLDataException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Takes transactions from automated feeds (bank sync, scripts) through /api/ingest and
+// writes them in group commits instead of one database transaction per row.
+//
+// accept() numbers the entries, appends them to the journal (IngestJournal), waits for the
+// journal fsync and puts them on a bounded queue. The caller gets the numbers back right
+// away; it doesn't wait for the database. A single writer thread drains the queue: it
+// commits as soon as max-batch entries are waiting, or max-delay after the first one came
+// in, whichever is first. One commit inserts the whole batch and moves the checkpoint
+// (IngestCommitter), so a few hundred rows cost one round of fsyncs on the database.
+//
+// When the queue is full accept() fails right away (RejectedExecutionException, a 429 for
+// the client) instead of letting the backlog grow without limit.
+//
+// On startup everything in the journal past the checkpoint is written before the app takes
+// requests (the web server starts after this), so an acknowledged entry is in the database
+// even if the app was killed with it still in the queue.
+//
+// If the database is down the writer keeps retrying the same batch (backing off up to 30s).
+// If the database refuses the data itself, the batch is retried one entry at a time and
+// the entries that still fail are set aside in the journal's rejected.tsv.
+// Anything else that goes wrong while writing is logged and the same entries are tried
+// again after a back-off, so the writer thread never dies with the queue still filling up.
+@Service
+public class IngestService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestService.class);
+
+    private static final long FIRST_BACKOFF_MS = 100;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final IngestCommitter committer;
+    private final IngestJournal journal;
+    private final String journalId;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final int maxRequestEntries;
+    private final Duration shutdownTimeout;
+
+    private final BlockingQueue<IngestEntry> queue;
+
+    // Seq numbering: guarded by acceptLock, which also keeps the queue in seq order.
+    private final Object acceptLock = new Object();
+    private long lastSeq;
+
+    // Highest seq known to be in the database (everything up to it is).
+    private volatile long committedThrough;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    private final Counter turnedAway;
+    private final Counter rejected;
+    private final Counter retries;
+    private final DistributionSummary batchSize;
+    private final Timer commitTimer;
+
+    public IngestService(IngestCommitter committer,
+                         MeterRegistry registry,
+                         @Value("${budget.ingest.journal-dir:data/ingest}") Path journalDir,
+                         @Value("${budget.ingest.journal-id:local}") String journalId,
+                         @Value("${budget.ingest.segment-bytes:67108864}") long segmentBytes,
+                         @Value("${budget.ingest.queue-capacity:10000}") int queueCapacity,
+                         @Value("${budget.ingest.max-batch:500}") int maxBatch,
+                         @Value("${budget.ingest.max-delay:50ms}") Duration maxDelay,
+                         @Value("${budget.ingest.max-request-entries:1000}") int maxRequestEntries,
+                         @Value("${budget.ingest.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        this.committer = committer;
+        this.journal = new IngestJournal(journalDir, segmentBytes);
+        this.journalId = journalId;
+        this.maxBatch = maxBatch;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.maxRequestEntries = Math.min(maxRequestEntries, queueCapacity);
+        this.shutdownTimeout = shutdownTimeout;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        // All under /actuator/metrics/budget.ingest.*
+        Gauge.builder("budget.ingest.queue.size", queue, BlockingQueue::size)
+                .description("Accepted entries not in the database yet")
+                .register(registry);
+        this.turnedAway = Counter.builder("budget.ingest.turned.away")
+                .description("Requests answered 429 because the queue was full")
+                .register(registry);
+        this.rejected = Counter.builder("budget.ingest.rejected")
+                .description("Entries the database refused (see rejected.tsv in the journal directory)")
+                .register(registry);
+        this.retries = Counter.builder("budget.ingest.retries")
+                .description("Group commits that failed and were tried again")
+                .register(registry);
+        this.batchSize = DistributionSummary.builder("budget.ingest.batch.size")
+                .description("Entries per group commit")
+                .register(registry);
+        this.commitTimer = Timer.builder("budget.ingest.commit")
+                .description("Time per group commit")
+                .register(registry);
+    }
+
+    // ======================= ACCEPTING =======================
+
+    // Journals the entries (already checked, see IngestEntry.of) and queues them for the
+    // writer. Returns their seq numbers once the journal is on disk.
+    // Throws RejectedExecutionException when the queue has no room for all of them.
+    public List<Long> accept(List<IngestEntry> entries) {
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        if (entries.size() > maxRequestEntries) {
+            throw new IllegalArgumentException("at most " + maxRequestEntries + " entries per request");
+        }
+        if (!running) {
+            throw new RejectedExecutionException("ingestion is not running");
+        }
+
+        List<IngestEntry> numbered = new ArrayList<>(entries.size());
+        synchronized (acceptLock) {
+            // Only the writer takes from the queue, so the room checked here is still there below.
+            if (queue.remainingCapacity() < entries.size()) {
+                turnedAway.increment();
+                throw new RejectedExecutionException("ingest queue is full");
+            }
+            for (IngestEntry e : entries) {
+                numbered.add(e.withSeq(++lastSeq));
+            }
+            try {
+                journal.append(numbered);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write the ingest journal", e);
+            }
+            queue.addAll(numbered);
+        }
+
+        // Outside the lock: requests that came in meanwhile share this fsync (or the next one).
+        try {
+            journal.sync(lastOf(numbered));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not sync the ingest journal", e);
+        }
+        return numbered.stream().map(IngestEntry::seq).toList();
+    }
+
+    public long getCommittedThrough() {
+        return committedThrough;
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    // ======================= WRITER =======================
+
+    private void drain() {
+        List<IngestEntry> batch = new ArrayList<>(maxBatch);
+        long backoff = FIRST_BACKOFF_MS;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                // A batch left over from a failed try goes first, before anything newer.
+                if (batch.isEmpty() && !fill(batch)) {
+                    continue;
+                }
+                try {
+                    write(batch);
+                    batch.clear();
+                    backoff = FIRST_BACKOFF_MS;
+                } catch (RuntimeException e) {
+                    // Anything write() doesn't deal with itself (rejected.tsv can't be written,
+                    // a bug). This is the only writer, so it must not die over it: accept()
+                    // would keep answering 202 until the queue is full. I keep the entries
+                    // that aren't in the database yet and try them again.
+                    batch.removeIf(entry -> entry.seq() <= committedThrough);
+                    retries.increment();
+                    log.error("Ingest writer failed with {} entries pending, retrying in {} ms",
+                            batch.size(), backoff, e);
+                    Thread.sleep(backoff);
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+                }
+            } catch (InterruptedException e) {
+                // stop() gave up waiting; what's left is still in the journal for the next start.
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Waits for the next entry and fills the batch until it's full or that first entry has
+    // waited max-delay. False if nothing came in.
+    private boolean fill(List<IngestEntry> batch) throws InterruptedException {
+        IngestEntry first = queue.poll(200, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return false;
+        }
+        batch.add(first);
+
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatch) {
+            queue.drainTo(batch, maxBatch - batch.size());
+            long left = deadline - System.nanoTime();
+            if (batch.size() >= maxBatch || left <= 0) {
+                break;
+            }
+            IngestEntry next = queue.poll(left, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return true;
+    }
+
+    // Commits the batch, retrying until it's in (or set aside, see reject()).
+    private void write(List<IngestEntry> batch) throws InterruptedException {
+        long backoff = FIRST_BACKOFF_MS;
+        while (true) {
+            try {
+                commitTimer.record(() -> committer.commit(journalId, batch));
+                batchSize.record(batch.size());
+                committed(lastOf(batch));
+                return;
+            } catch (RuntimeException e) {
+                if (isDataError(e)) {
+                    if (batch.size() == 1) {
+                        reject(batch.get(0), e);
+                    } else {
+                        // Find the bad entries; the rest still go in (in seq order).
+                        log.warn("Ingest batch {}..{} refused by the database, writing it one entry at a time",
+                                batch.get(0).seq(), lastOf(batch), e);
+                        for (IngestEntry one : batch) {
+                            write(List.of(one));
+                        }
+                    }
+                    return;
+                }
+                retries.increment();
+                log.warn("Ingest batch {}..{} failed, retrying in {} ms", batch.get(0).seq(), lastOf(batch), backoff, e);
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    // An entry the database will never take: keep a copy and move the checkpoint past it,
+    // or it would block everything behind it.
+    private void reject(IngestEntry entry, RuntimeException cause) throws InterruptedException {
+        log.error("Ingest entry {} (user {}) refused by the database, set aside", entry.seq(), entry.userId(), cause);
+        journal.rejected(entry, String.valueOf(rootCause(cause).getMessage()));
+        rejected.increment();
+
+        long backoff = FIRST_BACKOFF_MS;
+        while (true) {
+            try {
+                committer.skip(journalId, entry.seq());
+                committed(entry.seq());
+                return;
+            } catch (RuntimeException e) {
+                retries.increment();
+                log.warn("Could not move the ingest checkpoint past {}, retrying in {} ms", entry.seq(), backoff, e);
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void committed(long seq) {
+        committedThrough = seq;
+        journal.release(seq);
+    }
+
+    // Bad data (too long, constraint broken, the user is gone) as opposed to the database
+    // being unreachable: retrying the same rows won't help.
+    private static boolean isDataError(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof DataIntegrityViolationException
+                    || t instanceof ConstraintViolationException
+                    || t instanceof DataException
+                    || t instanceof SQLIntegrityConstraintViolationException
+                    || t instanceof SQLDataException) {
+                return true;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        Throwable t = e;
+        while (t.getCause() != null && t.getCause() != t) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    private static long lastOf(List<IngestEntry> entries) {
+        return entries.get(entries.size() - 1).seq();
+    }
+
+    // ======================= LIFECYCLE =======================
+
+    // Phase 0: starts before the web server (so the replay is done before the first request)
+    // and stops after it (so no request comes in while the queue drains).
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @Override
+    public void start() {
+        long checkpoint = committer.committedThrough(journalId);
+        List<IngestEntry> pending = new ArrayList<>(maxBatch);
+        long[] replayed = {0};
+        long last;
+        try {
+            last = journal.replay(e -> {
+                if (e.seq() <= checkpoint) {
+                    return;
+                }
+                pending.add(e);
+                replayed[0]++;
+                if (pending.size() >= maxBatch) {
+                    writeReplayed(pending);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the ingest journal", e);
+        }
+        writeReplayed(pending);
+
+        committedThrough = Math.max(committedThrough, checkpoint);
+        journal.release(committedThrough);
+        // Never hand out a seq at or below the checkpoint, even if the journal was wiped.
+        lastSeq = Math.max(last, checkpoint);
+        if (replayed[0] > 0) {
+            log.info("Ingest journal: wrote {} entries left over from the last run (through seq {})",
+                    replayed[0], committedThrough);
+        }
+
+        running = true;
+        writer = new Thread(this::drain, "ingest-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private void writeReplayed(List<IngestEntry> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            write(new ArrayList<>(pending));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying the ingest journal", e);
+        }
+        pending.clear();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread w = writer;
+        if (w != null) {
+            try {
+                w.join(shutdownTimeout.toMillis());
+                if (w.isAlive()) {
+                    log.warn("Ingest queue not drained after {}; {} entries stay in the journal for the next start",
+                            shutdownTimeout, queue.size());
+                    w.interrupt();
+                    w.join(1000);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("Could not close the ingest journal", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
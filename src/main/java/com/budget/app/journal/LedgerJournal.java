@@ -0,0 +1,376 @@
+package com.budget.app.journal;
+
+import com.budget.app.datasource.ReadYourWrites;
+import com.budget.app.repository.MonthlyCategoryTotalRepository;
+import com.budget.app.repository.TransactionRepository;
+import com.budget.app.service.LedgerChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Append-only record of every committed ledger change (create, update with before/after,
+// delete, rollup rebuild), in memory-mapped files under budget.journal.dir (see
+// MappedSegment and LedgerRecord for the format). Files are kept for budget.journal.retention,
+// so they double as an audit trail of who changed what and when.
+//
+// Next to it, the totals the rollup table should hold (RollupState) are kept in memory and
+// written to a snapshot file every snapshot-interval. On startup, MonthlyRollupService asks
+// restore() first: snapshot + the journal records after it give the expected totals, and
+// if the rollup table has exactly those, the full GROUP BY over the transactions table is
+// skipped. If anything doesn't line up (no snapshot, a missing or damaged record, a change
+// to the rollup this instance never saw) it says no and the full check runs like before.
+//
+// The journal only sees changes that went through the app, so it can't vouch for the
+// transactions table itself. One cheap look at it is made: every user's row count (from
+// the index alone) has to match too, which catches rows inserted or deleted behind the
+// app's back, like another instance's saves or a script. A row edited in place (amount,
+// month, type or category) keeps every count, so the startup shortcut can't see it; the
+// periodic full check in MonthlyRollupService is what finds and repairs that.
+@Component
+public class LedgerJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerJournal.class);
+
+    private static final String PREFIX = "ledger-";
+    private static final String SUFFIX = ".log";
+    private static final String SNAPSHOT = "rollup.snapshot";
+
+    private final MonthlyCategoryTotalRepository rollupRepo;
+    private final TransactionRepository transactionRepo;
+    private final ReadYourWrites readYourWrites;
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int segmentBytes;
+    private final Duration retention;
+
+    // Everything below is guarded by "lock".
+    private final Object lock = new Object();
+
+    // Every journal file, oldest first; the last one is "current".
+    private final ArrayDeque<Path> segments = new ArrayDeque<>();
+    private MappedSegment current;
+    private long lastSeq;
+
+    // The rollup as of lastSeq, or null when it isn't known (before restore()/reseed(), or
+    // right after a rebuild until it's read again).
+    private RollupState state;
+    private long snapshotSeq;
+
+    public LedgerJournal(MonthlyCategoryTotalRepository rollupRepo,
+                         TransactionRepository transactionRepo,
+                         ReadYourWrites readYourWrites,
+                         @Value("${budget.journal.enabled:true}") boolean enabled,
+                         @Value("${budget.journal.dir:data/journal}") Path dir,
+                         @Value("${budget.journal.segment-bytes:8388608}") int segmentBytes,
+                         @Value("${budget.journal.retention:30d}") Duration retention) throws IOException {
+        this.rollupRepo = rollupRepo;
+        this.transactionRepo = transactionRepo;
+        this.readYourWrites = readYourWrites;
+        this.enabled = enabled;
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.retention = retention;
+        if (enabled) {
+            open();
+        }
+    }
+
+    // Finds the files and where the last one ends. Nothing is replayed yet (see restore()).
+    private void open() throws IOException {
+        Files.createDirectories(dir);
+        segments.addAll(listSegments());
+        if (!segments.isEmpty()) {
+            Path newest = segments.getLast();
+            current = MappedSegment.open(newest, firstSeq(newest), segmentBytes);
+            lastSeq = current.scan(null);
+        }
+        // Never reuse a seq the snapshot already covers, even if files were deleted. The next
+        // record then starts a new file, since seqs inside one file have no gaps.
+        RollupState.Loaded snapshot = readSnapshot();
+        if (snapshot != null && snapshot.seq() > lastSeq) {
+            lastSeq = snapshot.seq();
+            current = null;
+        }
+    }
+
+    // ======================= RECORDING =======================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLedgerChanged(LedgerChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        boolean reset;
+        synchronized (lock) {
+            LedgerRecord record = LedgerRecord.of(lastSeq + 1, Instant.now(), event);
+            if (!append(record)) {
+                // Not in the journal, so the totals can't follow it either.
+                state = null;
+                return;
+            }
+            lastSeq = record.seq();
+            reset = record.kind() == LedgerRecord.Kind.RESET;
+            if (reset) {
+                state = null;
+            } else if (state != null) {
+                state.apply(record);
+            }
+        }
+        if (reset) {
+            // The rollup was rebuilt and just committed: start over from what it holds now.
+            reseed();
+        }
+    }
+
+    private boolean append(LedgerRecord record) {
+        try {
+            if (current == null || !current.append(record)) {
+                roll(record.seq());
+                if (!current.append(record)) {
+                    log.warn("Ledger record {} is bigger than a whole journal segment, not recorded", record.seq());
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not write the ledger journal", e);
+            return false;
+        }
+    }
+
+    private void roll(long firstSeq) throws IOException {
+        Path file = dir.resolve(String.format("%s%020d%s", PREFIX, firstSeq, SUFFIX));
+        MappedSegment next = MappedSegment.open(file, firstSeq, segmentBytes);
+        next.scan(null);
+        current = next;
+        if (!file.equals(segments.peekLast())) {
+            segments.addLast(file);
+        }
+    }
+
+    // ======================= STARTUP =======================
+
+    // True if the latest snapshot plus the journal after it add up to exactly what's in the
+    // rollup table right now, and every user has as many transactions as those totals count
+    // (MonthlyRollupService then skips its full check).
+    public boolean restore() {
+        if (!enabled) {
+            return false;
+        }
+        long started = System.nanoTime();
+        synchronized (lock) {
+            RollupState.Loaded snapshot = readSnapshot();
+            if (snapshot == null) {
+                log.info("Ledger journal: no snapshot yet, checking the rollup the long way");
+                return false;
+            }
+
+            RollupState replayed = snapshot.state();
+            Replay replay = new Replay(replayed, snapshot.seq());
+            List<Path> files = new ArrayList<>(segments);
+            for (int i = 0; i < files.size() && replay.ok; i++) {
+                // Skip files that end before the snapshot without reading them.
+                if (i + 1 < files.size() && firstSeq(files.get(i + 1)) <= snapshot.seq() + 1) {
+                    continue;
+                }
+                replay.segment(files.get(i));
+            }
+
+            if (!replay.ok || replay.next - 1 != lastSeq) {
+                log.info("Ledger journal doesn't cover everything since the snapshot, checking the rollup the long way");
+                return false;
+            }
+            if (!replayed.matches(readYourWrites.onPrimary(() -> rollupRepo.findAll()))) {
+                log.info("Ledger journal and the rollup table disagree, checking the rollup the long way");
+                return false;
+            }
+            if (!replayed.countsByUser().equals(readYourWrites.onPrimary(this::transactionCounts))) {
+                log.info("Transactions were added or deleted outside the journal, checking the rollup the long way");
+                return false;
+            }
+
+            state = replayed;
+            snapshotSeq = snapshot.seq();
+            log.info("Ledger journal: rollup matches snapshot {} + {} later changes ({} buckets) in {} ms",
+                    snapshot.seq(), lastSeq - snapshot.seq(), replayed.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+            return true;
+        }
+    }
+
+    // Applies journal records after the snapshot, in order, and notes anything missing.
+    private final class Replay {
+        final RollupState state;
+        long next;
+        boolean ok = true;
+
+        Replay(RollupState state, long snapshotSeq) {
+            this.state = state;
+            this.next = snapshotSeq + 1;
+        }
+
+        void segment(Path file) {
+            long first = firstSeq(file);
+            if (first > next) {
+                ok = false;
+                return;
+            }
+            try {
+                MappedSegment segment = current != null && file.equals(current.file()) ? current
+                        : MappedSegment.open(file, first, 0);
+                segment.scan(r -> {
+                    if (!ok || r.seq() < next) {
+                        return;
+                    }
+                    ok = r.seq() == next && state.apply(r);
+                    next++;
+                });
+                // A file that stops early (damaged) leaves a gap the next file shows.
+            } catch (IOException e) {
+                log.warn("Could not read ledger journal file {}", file, e);
+                ok = false;
+            }
+        }
+    }
+
+    // Takes the totals from the rollup table as they are now (after the full check or a
+    // rebuild) and writes a snapshot, so the next start can use the journal.
+    public void reseed() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (lock) {
+            state = RollupState.fromRollup(readYourWrites.onPrimary(() -> rollupRepo.findAll()));
+            log.info("Ledger journal: took the totals from the rollup table ({} buckets) at seq {}",
+                    state.size(), lastSeq);
+        }
+        snapshot();
+    }
+
+    private Map<Long, Long> transactionCounts() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (TransactionRepository.UserCount c : transactionRepo.countByUser()) {
+            counts.put(c.getUserId() == null ? 0L : c.getUserId(), c.getCount());
+        }
+        return counts;
+    }
+
+    // ======================= SNAPSHOTS =======================
+
+    @Scheduled(initialDelayString = "${budget.journal.snapshot-interval-ms:300000}",
+            fixedDelayString = "${budget.journal.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        if (!enabled) {
+            return;
+        }
+        RollupState copy;
+        long seq;
+        synchronized (lock) {
+            if (state == null || (lastSeq == snapshotSeq && Files.exists(dir.resolve(SNAPSHOT)))) {
+                return;
+            }
+            copy = state.copy();
+            seq = lastSeq;
+        }
+
+        try {
+            copy.write(dir.resolve(SNAPSHOT), seq);
+        } catch (IOException e) {
+            log.warn("Could not write the ledger snapshot", e);
+            return;
+        }
+        synchronized (lock) {
+            snapshotSeq = seq;
+            deleteOldSegments();
+        }
+    }
+
+    // Files older than the retention whose records are all in the snapshot.
+    private void deleteOldSegments() {
+        Instant cutoff = Instant.now().minus(retention);
+        while (segments.size() > 1) {
+            Iterator<Path> it = segments.iterator();
+            Path oldest = it.next();
+            Path next = it.next();
+            try {
+                if (firstSeq(next) - 1 > snapshotSeq
+                        || Files.getLastModifiedTime(oldest).compareTo(FileTime.from(cutoff)) > 0) {
+                    return;
+                }
+                Files.deleteIfExists(oldest);
+            } catch (IOException e) {
+                log.warn("Could not delete ledger journal file {}", oldest, e);
+                return;
+            }
+            segments.removeFirst();
+        }
+    }
+
+    private RollupState.Loaded readSnapshot() {
+        Path file = dir.resolve(SNAPSHOT);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            RollupState.Loaded loaded = RollupState.read(file);
+            if (loaded == null) {
+                log.warn("Ledger snapshot {} is damaged, ignoring it", file);
+            }
+            return loaded;
+        } catch (IOException e) {
+            log.warn("Could not read the ledger snapshot {}", file, e);
+            return null;
+        }
+    }
+
+    // A clean shutdown leaves a snapshot of everything, so the next start replays nothing.
+    @PreDestroy
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        snapshot();
+        synchronized (lock) {
+            if (current != null) {
+                current.force();
+            }
+        }
+    }
+
+    // ======================= HELPERS =======================
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long firstSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,123 @@
+package com.budget.app.journal;
+
+import com.budget.app.model.TransactionType;
+import com.budget.app.service.LedgerChangedEvent;
+import com.budget.app.service.TransactionSnapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+
+// One committed ledger change as it's kept in the journal: what happened, when, and the
+// transaction before and/or after (same meaning as LedgerChangedEvent).
+//
+// Binary layout: seq, time (epoch ms), kind, then the snapshot(s) the kind has.
+// A snapshot is id, user, day (epoch day), type code, category id, amount in cents and
+// three strings (length + UTF-8, -1 for null). "No value" for a number is Long.MIN_VALUE
+// or -1.
+public record LedgerRecord(long seq, Instant at, Kind kind, TransactionSnapshot before, TransactionSnapshot after) {
+
+    public enum Kind {
+        CREATE, UPDATE, DELETE,
+        // Everything may have changed (rollup rebuild); totals can't be carried over it.
+        RESET
+    }
+
+    static LedgerRecord of(long seq, Instant at, LedgerChangedEvent event) {
+        TransactionSnapshot before = event.getBefore();
+        TransactionSnapshot after = event.getAfter();
+        Kind kind = before == null ? (after == null ? Kind.RESET : Kind.CREATE)
+                : (after == null ? Kind.DELETE : Kind.UPDATE);
+        return new LedgerRecord(seq, at, kind, before, after);
+    }
+
+    // ======================= BINARY LAYOUT =======================
+
+    int size() {
+        return 8 + 8 + 1 + size(before) + size(after);
+    }
+
+    void write(ByteBuffer out) {
+        out.putLong(seq);
+        out.putLong(at.toEpochMilli());
+        out.put((byte) kind.ordinal());
+        if (before != null) {
+            put(out, before);
+        }
+        if (after != null) {
+            put(out, after);
+        }
+    }
+
+    static LedgerRecord read(ByteBuffer in) {
+        long seq = in.getLong();
+        Instant at = Instant.ofEpochMilli(in.getLong());
+        Kind kind = Kind.values()[in.get()];
+        TransactionSnapshot before = kind == Kind.UPDATE || kind == Kind.DELETE ? get(in) : null;
+        TransactionSnapshot after = kind == Kind.UPDATE || kind == Kind.CREATE ? get(in) : null;
+        return new LedgerRecord(seq, at, kind, before, after);
+    }
+
+    private static int size(TransactionSnapshot t) {
+        if (t == null) {
+            return 0;
+        }
+        return 8 + 8 + 8 + 1 + 4 + 8 + size(t.getCategory()) + size(t.getName()) + size(t.getNote());
+    }
+
+    private static void put(ByteBuffer out, TransactionSnapshot t) {
+        out.putLong(t.getId() == null ? Long.MIN_VALUE : t.getId());
+        out.putLong(t.getUserId() == null ? Long.MIN_VALUE : t.getUserId());
+        out.putLong(t.getDate() == null ? Long.MIN_VALUE : t.getDate().toEpochDay());
+        out.put(t.getType() == null ? -1 : t.getType().getCode());
+        out.putInt(t.getCategoryId() == null ? -1 : t.getCategoryId());
+        out.putLong(t.getAmountCents());
+        put(out, t.getCategory());
+        put(out, t.getName());
+        put(out, t.getNote());
+    }
+
+    private static TransactionSnapshot get(ByteBuffer in) {
+        long id = in.getLong();
+        long userId = in.getLong();
+        long day = in.getLong();
+        byte type = in.get();
+        int categoryId = in.getInt();
+        long amountCents = in.getLong();
+        String category = getString(in);
+        String name = getString(in);
+        String note = getString(in);
+        return TransactionSnapshot.of(
+                id == Long.MIN_VALUE ? null : id,
+                userId == Long.MIN_VALUE ? null : userId,
+                day == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(day),
+                type < 0 ? null : TransactionType.fromCode(type),
+                categoryId < 0 ? null : categoryId,
+                category, amountCents, name, note);
+    }
+
+    private static int size(String s) {
+        return 4 + (s == null ? 0 : s.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static void put(ByteBuffer out, String s) {
+        if (s == null) {
+            out.putInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
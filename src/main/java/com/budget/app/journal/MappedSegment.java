@@ -0,0 +1,119 @@
+package com.budget.app.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+// One journal file, created at its full size and mapped into memory. Appending a record is
+// a copy into the mapping (no system call); the OS writes the pages out on its own.
+//
+// That survives the process being killed (the pages belong to the OS), but not the machine
+// losing power with pages still unwritten. That's fine here: the journal is only a
+// shortcut for startup, and LedgerJournal falls back to the full check whenever the
+// journal and the database disagree.
+//
+// A record is [length][CRC32C][record]. The length goes in last, so a record that was
+// only partly copied when the process stopped still reads as "end of file" (length 0;
+// the file starts out all zeros).
+final class MappedSegment {
+
+    private static final int HEADER = 8;
+
+    private final Path file;
+    private final long firstSeq;
+    private final MappedByteBuffer map;
+
+    // Where the next record goes; only changed under LedgerJournal's lock.
+    private int end;
+
+    private MappedSegment(Path file, long firstSeq, MappedByteBuffer map) {
+        this.file = file;
+        this.firstSeq = firstSeq;
+        this.map = map;
+    }
+
+    // Maps the file (creating it at "size" bytes if it's new).
+    static MappedSegment open(Path file, long firstSeq, int size) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long length = Math.max(ch.size(), size);
+            // The mapping stays valid after the channel is closed.
+            return new MappedSegment(file, firstSeq, ch.map(FileChannel.MapMode.READ_WRITE, 0, length));
+        }
+    }
+
+    Path file() {
+        return file;
+    }
+
+    long firstSeq() {
+        return firstSeq;
+    }
+
+    // ======================= READING =======================
+
+    // Hands every complete record to "record" and leaves the write position after the last
+    // one. Returns the last seq read (firstSeq - 1 if none).
+    long scan(Consumer<LedgerRecord> record) {
+        ByteBuffer data = map.duplicate();
+        int pos = 0;
+        long last = firstSeq - 1;
+        while (pos + HEADER <= data.capacity()) {
+            int length = data.getInt(pos);
+            if (length <= 0 || pos + HEADER + length > data.capacity()
+                    || data.getInt(pos + 4) != crc(data, pos + HEADER, length)) {
+                break;
+            }
+            LedgerRecord r = LedgerRecord.read(data.slice(pos + HEADER, length));
+            if (r.seq() != last + 1) {
+                break;
+            }
+            if (record != null) {
+                record.accept(r);
+            }
+            last = r.seq();
+            pos += HEADER + length;
+        }
+        end = pos;
+        if (pos + HEADER <= data.capacity() && data.getInt(pos) != 0) {
+            // A damaged record (the machine went down mid-write). Clear everything after the
+            // last good one, or old bytes further on could be read as records someday.
+            for (int i = pos; i < data.capacity(); i++) {
+                data.put(i, (byte) 0);
+            }
+        }
+        return last;
+    }
+
+    // ======================= WRITING =======================
+
+    // False when the record doesn't fit (time for a new segment).
+    boolean append(LedgerRecord record) {
+        int length = record.size();
+        if (end + HEADER + length > map.capacity()) {
+            return false;
+        }
+        ByteBuffer body = map.slice(end + HEADER, length);
+        record.write(body);
+        map.putInt(end + 4, crc(map, end + HEADER, length));
+        map.putInt(end, length);
+        end += HEADER + length;
+        return true;
+    }
+
+    // Writes the mapped pages to disk now (on shutdown).
+    void force() {
+        map.force();
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+}
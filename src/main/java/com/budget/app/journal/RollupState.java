@@ -0,0 +1,168 @@
+package com.budget.app.journal;
+
+import com.budget.app.model.MonthlyCategoryTotal;
+import com.budget.app.service.TransactionSnapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+// What the monthly rollup table should hold, worked out from the journal alone: cents and
+// count per (user, month, type, category), i.e. every total, monthly sum and category sum
+// the app shows. Kept in memory and written to a snapshot file now and then, so a restart
+// only replays the journal records after the snapshot.
+//
+// Buckets follow MonthlyRollupService exactly, including dropping one once it's empty.
+final class RollupState {
+
+    private static final int MAGIC = 0x524f4c31; // "ROL1"
+
+    record Key(long userId, int monthKey, byte type, int categoryId) {
+
+        static Key of(TransactionSnapshot t) {
+            return new Key(id(t.getUserId()), MonthlyCategoryTotal.monthKey(t.getDate()),
+                    t.getType().getCode(), t.getCategoryId());
+        }
+
+        static Key of(MonthlyCategoryTotal row) {
+            return new Key(id(row.getUserId()), row.getMonthKey(), row.getType().getCode(), row.getCategoryId());
+        }
+
+        // Rows from before every transaction had an owner (see LedgerOwnerMigration).
+        private static long id(Long userId) {
+            return userId == null ? 0 : userId;
+        }
+    }
+
+    // {total cents, count}
+    private final Map<Key, long[]> buckets;
+
+    private RollupState(Map<Key, long[]> buckets) {
+        this.buckets = buckets;
+    }
+
+    static RollupState fromRollup(List<MonthlyCategoryTotal> rows) {
+        Map<Key, long[]> buckets = new HashMap<>(rows.size() * 2);
+        for (MonthlyCategoryTotal row : rows) {
+            buckets.put(Key.of(row), new long[]{row.getTotalCents(), row.getCount()});
+        }
+        return new RollupState(buckets);
+    }
+
+    RollupState copy() {
+        Map<Key, long[]> copy = new HashMap<>(buckets.size() * 2);
+        buckets.forEach((k, v) -> copy.put(k, v.clone()));
+        return new RollupState(copy);
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    // ======================= APPLYING CHANGES =======================
+
+    // False for a RESET: the totals can't be worked out across one.
+    boolean apply(LedgerRecord r) {
+        if (r.kind() == LedgerRecord.Kind.RESET) {
+            return false;
+        }
+        if (r.before() != null) {
+            add(r.before(), -1);
+        }
+        if (r.after() != null) {
+            add(r.after(), 1);
+        }
+        return true;
+    }
+
+    private void add(TransactionSnapshot t, int sign) {
+        Key key = Key.of(t);
+        long[] bucket = buckets.computeIfAbsent(key, k -> new long[2]);
+        bucket[0] += sign * t.getAmountCents();
+        bucket[1] += sign;
+        if (bucket[1] <= 0) {
+            buckets.remove(key);
+        }
+    }
+
+    // Same buckets with the same cents and counts as these rollup rows.
+    boolean matches(List<MonthlyCategoryTotal> rows) {
+        if (rows.size() != buckets.size()) {
+            return false;
+        }
+        for (MonthlyCategoryTotal row : rows) {
+            long[] bucket = buckets.get(Key.of(row));
+            if (bucket == null || bucket[0] != row.getTotalCents() || bucket[1] != row.getCount()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // How many transactions each user has according to these totals (user 0 = no owner).
+    Map<Long, Long> countsByUser() {
+        Map<Long, Long> counts = new HashMap<>();
+        buckets.forEach((k, v) -> counts.merge(k.userId(), v[1], Long::sum));
+        return counts;
+    }
+
+    // ======================= SNAPSHOT FILE =======================
+    // [magic][seq][bucket count] then per bucket [user][month][type][category][cents][count],
+    // and a CRC32C of all of it at the end. Written to a temp file and renamed, so a
+    // snapshot file is either complete or not there.
+
+    void write(Path file, long seq) throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(4 + 8 + 4 + buckets.size() * (8 + 4 + 1 + 4 + 8 + 8) + 4);
+        out.putInt(MAGIC);
+        out.putLong(seq);
+        out.putInt(buckets.size());
+        buckets.forEach((k, v) -> {
+            out.putLong(k.userId());
+            out.putInt(k.monthKey());
+            out.put(k.type());
+            out.putInt(k.categoryId());
+            out.putLong(v[0]);
+            out.putLong(v[1]);
+        });
+        out.putInt(crc(out.array(), out.position()));
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, out.array());
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // The state and the seq it was taken at, or null if the file is damaged.
+    static Loaded read(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length < 20 || ByteBuffer.wrap(bytes, bytes.length - 4, 4).getInt() != crc(bytes, bytes.length - 4)) {
+            return null;
+        }
+        ByteBuffer in = ByteBuffer.wrap(bytes, 0, bytes.length - 4);
+        if (in.getInt() != MAGIC) {
+            return null;
+        }
+        long seq = in.getLong();
+        int count = in.getInt();
+        Map<Key, long[]> buckets = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            Key key = new Key(in.getLong(), in.getInt(), in.get(), in.getInt());
+            buckets.put(key, new long[]{in.getLong(), in.getLong()});
+        }
+        return new Loaded(new RollupState(buckets), seq);
+    }
+
+    record Loaded(RollupState state, long seq) {
+    }
+
+    private static int crc(byte[] bytes, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,215 @@
+package com.budget.app.live;
+
+import com.budget.app.service.LedgerChangedEvent;
+import com.budget.app.service.LedgerVersion;
+import com.budget.app.service.TransactionSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Keeps the open dashboards (Server-Sent Events connections) and pushes them what changed.
+//
+// After a save/delete commits, the change is added to that user's pending LiveDelta.
+// Every flush-interval, each user with pending changes gets ONE message, built and turned
+// into JSON once and then written to all of that user's open tabs. The numbers come from
+// the change itself, so pushing never runs a query: a burst of writes with many tabs open
+// is still one small message per user per interval, and zero database work.
+//
+// Connections are capped per user and in total. When a user opens one tab too many, their
+// oldest stream is closed with a "bye" event (usually a tab that was closed or reloaded and
+// hasn't been noticed yet), and that page stops reconnecting. Past the overall cap the
+// stream answers 503, which makes the browser's EventSource give up instead of retrying
+// in a loop (the page still works, it just isn't live).
+@Component
+public class LiveDashboardHub {
+
+    private final LedgerVersion ledgerVersion;
+    private final ObjectMapper objectMapper;
+
+    private final int maxConnections;
+    private final int maxPerUser;
+    private final long timeoutMillis;
+
+    private final Map<Long, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    // Changes not pushed yet, per user.
+    private final Map<Long, LiveDelta> pending = new ConcurrentHashMap<>();
+
+    public LiveDashboardHub(LedgerVersion ledgerVersion,
+                            ObjectMapper objectMapper,
+                            @Value("${budget.live.max-connections:500}") int maxConnections,
+                            @Value("${budget.live.max-per-user:5}") int maxPerUser,
+                            @Value("${budget.live.timeout:30m}") Duration timeout,
+                            MeterRegistry registry) {
+        this.ledgerVersion = ledgerVersion;
+        this.objectMapper = objectMapper;
+        this.maxConnections = maxConnections;
+        this.maxPerUser = maxPerUser;
+        this.timeoutMillis = timeout.toMillis();
+
+        Gauge.builder("budget.live.connections", connections, AtomicInteger::get)
+                .description("Open live dashboard streams")
+                .register(registry);
+    }
+
+    // ======================= CONNECT =======================
+
+    // Opens a stream for one dashboard tab. The first event ("hello") carries the current
+    // ledger version, so a page rendered before a change it missed knows to reload its numbers.
+    public SseEmitter subscribe(Long userId) {
+        List<SseEmitter> mine;
+        while ((mine = emitters.getOrDefault(userId, List.of())).size() >= maxPerUser && !mine.isEmpty()) {
+            SseEmitter oldest = mine.get(0);
+            remove(userId, oldest);
+            try {
+                oldest.send(SseEmitter.event().name("bye").data("Too many live dashboards open"));
+                oldest.complete();
+            } catch (IOException | IllegalStateException e) {
+                // Already gone.
+            }
+        }
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many live dashboards open");
+        }
+
+        // When the timeout runs out the browser simply reconnects (and gets a new "hello").
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        // Added under the map's lock for this user, so it can't go into a list that
+        // remove() is dropping from the map at the same moment.
+        emitters.compute(userId, (id, list) -> {
+            List<SseEmitter> l = list != null ? list : new CopyOnWriteArrayList<>();
+            l.add(emitter);
+            return l;
+        });
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> remove(userId, emitter));
+
+        try {
+            emitter.send(SseEmitter.event().name("hello").data(ledgerVersion.tag(userId)));
+        } catch (IOException e) {
+            remove(userId, emitter);
+        }
+        return emitter;
+    }
+
+    // A user's entry goes away with their last stream, so users who closed the dashboard
+    // don't leave an empty list behind for good.
+    private void remove(Long userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (id, mine) -> {
+            if (mine.remove(emitter)) {
+                connections.decrementAndGet();
+            }
+            return mine.isEmpty() ? null : mine;
+        });
+    }
+
+    // ======================= COLLECT =======================
+
+    // Runs after the commit (same as the cache version), so nothing pushed can be rolled back.
+    // Users without an open dashboard are skipped right away.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLedgerChanged(LedgerChangedEvent event) {
+        TransactionSnapshot changed = event.getAfter() != null ? event.getAfter() : event.getBefore();
+
+        if (changed == null) {
+            // Everything may have changed (rollup rebuild): every open dashboard reloads.
+            for (Long userId : emitters.keySet()) {
+                collect(userId, event);
+            }
+            return;
+        }
+
+        Long userId = changed.getUserId();
+        if (userId == null || emitters.getOrDefault(userId, List.of()).isEmpty()) {
+            return;
+        }
+        collect(userId, event);
+    }
+
+    // compute() so a flush can't take the delta away halfway through an update.
+    private void collect(Long userId, LedgerChangedEvent event) {
+        pending.compute(userId, (id, delta) -> {
+            LiveDelta d = delta != null ? delta : new LiveDelta();
+            d.apply(event.getBefore(), event.getAfter());
+            return d;
+        });
+    }
+
+    // ======================= PUSH =======================
+
+    @Scheduled(fixedDelayString = "${budget.live.flush-interval-ms:500}")
+    public void flush() {
+        for (Long userId : pending.keySet()) {
+            LiveDelta delta = pending.remove(userId);
+            if (delta == null) {
+                continue;
+            }
+
+            String json;
+            try {
+                json = objectMapper.writeValueAsString(delta.toMessage(ledgerVersion.tag(userId)));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not write live dashboard update", e);
+            }
+            send(userId, SseEmitter.event().name("delta").data(json));
+        }
+    }
+
+    // For other features that push to the dashboard (ex: budget alerts): one named event
+    // with a JSON body, sent to every open tab of the user. No-op without an open tab.
+    public void push(Long userId, String eventName, Object payload) {
+        if (emitters.getOrDefault(userId, List.of()).isEmpty()) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write live dashboard event " + eventName, e);
+        }
+        send(userId, SseEmitter.event().name(eventName).data(json));
+    }
+
+    // A comment line every so often keeps proxies from closing idle streams,
+    // and finds tabs that were closed without saying goodbye.
+    @Scheduled(fixedRateString = "${budget.live.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        for (Long userId : emitters.keySet()) {
+            send(userId, SseEmitter.event().comment("ping"));
+        }
+    }
+
+    private void send(Long userId, SseEmitter.SseEventBuilder event) {
+        // Built once and shared by all tabs (build() can't be called twice on the same builder).
+        Set<ResponseBodyEmitter.DataWithMediaType> data = event.build();
+        for (SseEmitter emitter : emitters.getOrDefault(userId, List.of())) {
+            try {
+                emitter.send(data);
+            } catch (IOException | IllegalStateException e) {
+                // Tab closed or connection dropped.
+                remove(userId, emitter);
+            }
+        }
+    }
+}
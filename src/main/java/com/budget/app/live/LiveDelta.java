@@ -0,0 +1,105 @@
+package com.budget.app.live;
+
+import com.budget.app.model.TransactionType;
+import com.budget.app.service.TransactionSnapshot;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Everything that changed in one user's ledger since the last push, added up.
+// Ten saves in a row become one message with the summed differences, not ten messages.
+//
+// Only used inside LiveDashboardHub, which makes sure one delta is only touched by
+// one thread at a time (ConcurrentHashMap.compute / remove).
+class LiveDelta {
+
+    // More changed rows than this in one push (ex: a statement import) isn't worth
+    // sending row by row; the dashboard just reloads its numbers once instead.
+    static final int MAX_ROWS = 20;
+
+    private long incomeCents;
+    private long expenseCents;
+
+    // "2025-12|Food" -> cents, expenses only (that's what the dashboard breaks down).
+    private final Map<String, Long> expenseCategories = new LinkedHashMap<>();
+
+    // Added or edited rows (latest values) and deleted ids, for the recent feed.
+    private final Map<Long, TransactionSnapshot> upserts = new LinkedHashMap<>();
+    private final Set<Long> removed = new LinkedHashSet<>();
+
+    // Set when this delta can't describe the change (too many rows, or a rollup rebuild).
+    private boolean resync;
+
+    void apply(TransactionSnapshot before, TransactionSnapshot after) {
+        if (before == null && after == null) {
+            resync = true;
+            return;
+        }
+        if (before != null) {
+            add(before, -1);
+            if (after == null) {
+                upserts.remove(before.getId());
+                removed.add(before.getId());
+            }
+        }
+        if (after != null) {
+            add(after, 1);
+            removed.remove(after.getId());
+            upserts.put(after.getId(), after);
+        }
+
+        if (upserts.size() + removed.size() > MAX_ROWS) {
+            upserts.clear();
+            removed.clear();
+            resync = true;
+        }
+    }
+
+    private void add(TransactionSnapshot t, int sign) {
+        long cents = sign * t.getAmountCents();
+        if (t.getType() == TransactionType.INCOME) {
+            incomeCents += cents;
+        } else {
+            expenseCents += cents;
+            if (t.getDate() != null) {
+                expenseCategories.merge(YearMonth.from(t.getDate()) + "|" + t.getCategory(), cents, Long::sum);
+            }
+        }
+    }
+
+    // ======================= JSON =======================
+    // What actually goes over the wire (one "delta" event).
+
+    record Message(String version, boolean resync, long incomeCents, long expenseCents,
+                   List<CategoryChange> expenseCategories, List<Row> upserts, Set<Long> removed) {
+    }
+
+    record CategoryChange(String month, String category, long cents) {
+    }
+
+    record Row(Long id, String name, long amountCents, String type, String category, LocalDate date) {
+    }
+
+    Message toMessage(String version) {
+        List<CategoryChange> categories = new ArrayList<>(expenseCategories.size());
+        expenseCategories.forEach((key, cents) -> {
+            if (cents != 0) {
+                int split = key.indexOf('|');
+                categories.add(new CategoryChange(key.substring(0, split), key.substring(split + 1), cents));
+            }
+        });
+
+        List<Row> rows = new ArrayList<>(upserts.size());
+        for (TransactionSnapshot t : upserts.values()) {
+            rows.add(new Row(t.getId(), t.getName(), t.getAmountCents(), t.getType().name(), t.getCategory(), t.getDate()));
+        }
+
+        return new Message(version, resync, incomeCents, expenseCents, categories, rows, removed);
+    }
+}
@@ -0,0 +1,40 @@
+package com.budget.app.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+// Counts the SQL statements Hibernate prepares on the current thread.
+// Hibernate hands every statement to inspect() right before it runs
+// (registered in MetricsConfig). SqlStatementCountingFilter starts a count
+// when a request comes in and reads it back when the request is done.
+//
+// Statements on threads that aren't serving a request (startup, scheduled work)
+// aren't counted. A JDBC batch is counted once, since it's prepared once.
+@Component
+public class SqlStatementCounter implements StatementInspector {
+
+    // One counter per request thread. null = this thread isn't counting.
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        // Returning the SQL unchanged; I only want to count it.
+        return sql;
+    }
+
+    // Start counting on this thread (from zero).
+    public void begin() {
+        COUNT.set(new int[1]);
+    }
+
+    // Stop counting on this thread and return how many statements ran since begin().
+    public int end() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count[0] : 0;
+    }
+}
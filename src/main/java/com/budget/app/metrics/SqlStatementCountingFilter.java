@@ -0,0 +1,76 @@
+package com.budget.app.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Records how many SQL statements each request ran, per endpoint, as the
+// "budget.http.sql.statements" metric (count, total, max and percentiles).
+// A page that suddenly runs hundreds of queries (N+1) or one that should
+// run one but runs ten shows up here, and I log a warning when a single
+// request goes over the threshold.
+@Component
+public class SqlStatementCountingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementCountingFilter.class);
+
+    public static final String METRIC = "budget.http.sql.statements";
+
+    private final SqlStatementCounter counter;
+    private final MeterRegistry registry;
+
+    // More statements than this in one request gets a warning in the log.
+    private final int warnThreshold;
+
+    public SqlStatementCountingFilter(SqlStatementCounter counter,
+                                      MeterRegistry registry,
+                                      @Value("${budget.metrics.sql-warn-threshold:20}") int warnThreshold) {
+        this.counter = counter;
+        this.registry = registry;
+        this.warnThreshold = warnThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        counter.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int statements = counter.end();
+            String uri = uriTag(request);
+
+            DistributionSummary.builder(METRIC)
+                    .description("SQL statements executed per HTTP request")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(registry)
+                    .record(statements);
+
+            if (statements > warnThreshold) {
+                log.warn("{} {} ran {} SQL statements (threshold {})",
+                        request.getMethod(), uri, statements, warnThreshold);
+            }
+        }
+    }
+
+    // The mapping pattern (ex: /transactions/edit/{id}) instead of the real path,
+    // so every id doesn't turn into its own metric.
+    private static String uriTag(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,226 @@
+package com.budget.app.migration;
+
+import com.budget.app.model.Category;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Transactions used to store their type ("INCOME"/"EXPENSE") and category name as text on
+// every row. Now the type is a one-byte code (type_code) and the category is an id into the
+// per-user dictionary (categories, see Category). ddl-auto adds the new columns but never
+// drops the old ones (which are NOT NULL, so every new insert would fail), so on a database
+// that still has them I convert once and drop them:
+//
+// - type_code: 1 for "income", 2 for "expense" in any case, and 2 for an empty type (the
+//   form's default, the same as TransactionType.of). Any other value stops the migration
+//   before it changes anything (see checkTypes), instead of filing it as an expense.
+// - category_id: every user's names are folded by Category.key(), so "Groceries",
+//   "groceries" and "GROCERIES " become one dictionary row. The spelling used on the
+//   most rows is the one that's kept.
+//
+// The rollup is keyed by those ids, so MonthlyRollupService's startup check rebuilds it
+// from the converted rows.
+// Skipped when Flyway runs the schema (fast-start profile), like the other two.
+@Component
+@ConditionalOnProperty(name = "spring.flyway.enabled", havingValue = "false", matchIfMissing = true)
+public class CategoryDictionaryMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryDictionaryMigration.class);
+
+    private final JdbcTemplate jdbc;
+
+    // The EntityManagerFactory is only here so Spring runs this after Hibernate
+    // has created/updated the tables. LedgerOwnerMigration has to run first:
+    // rows need their owner (user_id) before they can get that user's category ids.
+    public CategoryDictionaryMigration(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbc,
+                                       LedgerOwnerMigration ledgerOwnerMigration) {
+        this.jdbc = jdbc;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        boolean hasType = columnExists("transactions", "type");
+        boolean hasCategory = columnExists("transactions", "category");
+
+        if (hasType) {
+            checkTypes();
+            convertTypes();
+        }
+        if (hasCategory) {
+            convertCategories();
+        }
+        if (hasType || hasCategory) {
+            dropOldColumns(hasType, hasCategory);
+        }
+    }
+
+    // ======================= TYPE =======================
+
+    // A type that's neither INCOME nor EXPENSE can't be guessed: calling it an expense would
+    // move money from one side of the ledger to the other without anyone noticing, and a row
+    // left at type_code 0 can't be read. So I log every such value with how many rows have
+    // it and stop the startup with the database untouched; once those rows are fixed by hand
+    // the next start converts everything.
+    private void checkTypes() {
+        List<Map<String, Object>> unknown = jdbc.queryForList(
+                "select type, count(*) as uses from transactions "
+                        + "where (type_code = 0 or type_code is null) and trim(type) <> '' "
+                        + "and upper(trim(type)) not in ('INCOME', 'EXPENSE') group by type");
+        if (unknown.isEmpty()) {
+            return;
+        }
+
+        long rows = 0;
+        for (Map<String, Object> u : unknown) {
+            long uses = ((Number) u.get("uses")).longValue();
+            log.error("{} transactions have the type '{}', which is neither INCOME nor EXPENSE",
+                    uses, u.get("type"));
+            rows += uses;
+        }
+        throw new IllegalStateException(rows + " transactions (" + unknown.size() + " distinct values) have a type "
+                + "that is neither INCOME nor EXPENSE; set their transactions.type to one of those and restart");
+    }
+
+    private void convertTypes() {
+        int rows = jdbc.update("update transactions set type_code = "
+                + "case when upper(trim(type)) = 'INCOME' then 1 else 2 end "
+                + "where (type_code = 0 or type_code is null) "
+                + "and (type is null or upper(trim(type)) in ('INCOME', 'EXPENSE', ''))");
+        log.info("Converted {} transaction types to type_code", rows);
+    }
+
+    // ======================= CATEGORY =======================
+
+    // One "user|name" group per spelling, then per user one dictionary row per name key.
+    private void convertCategories() {
+        List<Map<String, Object>> groups = jdbc.queryForList(
+                "select user_id, category, count(*) as uses from transactions "
+                        + "where category_id is null group by user_id, category");
+
+        // "userId|nameKey" -> the spelling with the most rows (first one seen on a tie).
+        Map<String, String> bestName = new LinkedHashMap<>();
+        Map<String, Long> bestUses = new LinkedHashMap<>();
+        for (Map<String, Object> g : groups) {
+            String name = (String) g.get("category");
+            long uses = ((Number) g.get("uses")).longValue();
+            String key = g.get("user_id") + "|" + Category.key(name);
+            if (uses > bestUses.getOrDefault(key, 0L)) {
+                bestUses.put(key, uses);
+                bestName.put(key, Category.clean(name));
+            }
+        }
+
+        int created = 0;
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        for (Map.Entry<String, String> e : bestName.entrySet()) {
+            String[] parts = e.getKey().split("\\|", 2);
+            Long userId = "null".equals(parts[0]) ? null : Long.valueOf(parts[0]);
+            Integer id = findCategory(userId, parts[1]);
+            if (id == null) {
+                jdbc.update("insert into categories (user_id, name, name_key) values (?, ?, ?)",
+                        userId, e.getValue(), parts[1]);
+                id = findCategory(userId, parts[1]);
+                created++;
+            }
+            ids.put(e.getKey(), id);
+        }
+
+        int rows = 0;
+        for (Map<String, Object> g : groups) {
+            Object userId = g.get("user_id");
+            String name = (String) g.get("category");
+            Integer id = ids.get(userId + "|" + Category.key(name));
+            rows += jdbc.update("update transactions set category_id = ? where category_id is null"
+                            + (userId == null ? " and user_id is null" : " and user_id = ?")
+                            + (name == null ? " and category is null" : " and category = ?"),
+                    args(id, userId, name));
+        }
+        log.info("Filed {} transactions ({} spellings) under {} new dictionary categories",
+                rows, groups.size(), created);
+    }
+
+    private Integer findCategory(Long userId, String nameKey) {
+        List<Integer> found = userId == null
+                ? jdbc.queryForList("select id from categories where user_id is null and name_key = ?",
+                        Integer.class, nameKey)
+                : jdbc.queryForList("select id from categories where user_id = ? and name_key = ?",
+                        Integer.class, userId, nameKey);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    private static Object[] args(Integer id, Object userId, String name) {
+        if (userId == null) {
+            return name == null ? new Object[] {id} : new Object[] {id, name};
+        }
+        return name == null ? new Object[] {id, userId} : new Object[] {id, userId, name};
+    }
+
+    // ======================= CLEAN UP =======================
+
+    private void dropOldColumns(boolean hasType, boolean hasCategory) {
+        // Indexes on the old columns go first (H2 won't drop a column an index uses).
+        // That's (user_id, type, date), replaced by the one on type_code, plus whatever
+        // older ones a database still has from before the user_id column existed.
+        for (String index : indexesOn("transactions", "type", "category")) {
+            jdbc.execute(isMySql()
+                    ? "alter table transactions drop index " + index
+                    : "drop index " + index);
+            log.info("Dropped old index {}", index);
+        }
+        if (hasType) {
+            jdbc.execute("alter table transactions drop column type");
+        }
+        if (hasCategory) {
+            jdbc.execute("alter table transactions drop column category");
+        }
+        log.info("Dropped the old text type/category columns from transactions");
+    }
+
+    // ======================= HELPERS =======================
+
+    private boolean columnExists(String table, String column) {
+        return Boolean.TRUE.equals(jdbc.execute((Connection con) -> {
+            try (ResultSet rs = con.getMetaData().getColumns(con.getCatalog(), null, table, column)) {
+                return rs.next();
+            } catch (SQLException e) {
+                return false;
+            }
+        }));
+    }
+
+    // Names of the indexes on this table that use any of these columns.
+    private Set<String> indexesOn(String table, String... columns) {
+        Set<String> wanted = Set.of(columns);
+        return jdbc.execute((Connection con) -> {
+            Set<String> found = new LinkedHashSet<>();
+            try (ResultSet rs = con.getMetaData().getIndexInfo(con.getCatalog(), null, table, false, false)) {
+                while (rs.next()) {
+                    String column = rs.getString("COLUMN_NAME");
+                    String index = rs.getString("INDEX_NAME");
+                    if (index != null && column != null && wanted.contains(column.toLowerCase())) {
+                        found.add(index);
+                    }
+                }
+            }
+            return found;
+        });
+    }
+
+    private boolean isMySql() {
+        return Boolean.TRUE.equals(jdbc.execute((Connection con) ->
+                con.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql")));
+    }
+}
@@ -0,0 +1,81 @@
+package com.budget.app.migration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Transactions used to have no owner; every user saw one shared ledger.
+// Now each row has a user_id. On a database from before that, I give every
+// transaction without an owner to one account, so nothing disappears from view.
+// budget.migration.legacy-owner-email picks the account; without it the rows go to the
+// oldest account (the one that has been using the shared ledger the longest). Either way
+// the log says how many rows went to whom. An email that matches no account stops the
+// startup instead of handing the ledger to someone else.
+// If there are no users yet, the rows stay unowned until this runs again.
+// The rollup picks up the new owners when MonthlyRollupService’s startup check rebuilds it.
+// Like the other classes in this package it only runs when ddl-auto manages the schema;
+// under Flyway (fast-start profile) a database is only ever in the V1 shape or newer.
+@Component
+@ConditionalOnProperty(name = "spring.flyway.enabled", havingValue = "false", matchIfMissing = true)
+public class LedgerOwnerMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerOwnerMigration.class);
+
+    private final JdbcTemplate jdbc;
+
+    // Who gets the old shared ledger (blank = the oldest account).
+    private final String ownerEmail;
+
+    // The EntityManagerFactory is only here so Spring runs this after Hibernate
+    // has created/updated the tables.
+    public LedgerOwnerMigration(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbc,
+                                @Value("${budget.migration.legacy-owner-email:}") String ownerEmail) {
+        this.jdbc = jdbc;
+        this.ownerEmail = ownerEmail.trim();
+    }
+
+    @PostConstruct
+    public void migrate() {
+        assignOrphans();
+    }
+
+    private void assignOrphans() {
+        Integer orphans = jdbc.queryForObject(
+                "select count(*) from transactions where user_id is null", Integer.class);
+        if (orphans == null || orphans == 0) {
+            return;
+        }
+
+        Long owner = owner();
+        if (owner == null) {
+            log.warn("{} transactions have no owner and there are no users yet; "
+                    + "they are assigned on a later startup", orphans);
+            return;
+        }
+
+        String email = jdbc.queryForObject("select email from users where id = ?", String.class, owner);
+        int rows = jdbc.update("update transactions set user_id = ? where user_id is null", owner);
+        log.warn("Gave {} transactions without an owner to user {} ({}){}", rows, owner, email,
+                ownerEmail.isEmpty() ? ", the oldest account; set budget.migration.legacy-owner-email to choose" : "");
+    }
+
+    // The configured account, or the oldest one when none is configured.
+    private Long owner() {
+        if (ownerEmail.isEmpty()) {
+            return jdbc.queryForObject("select min(id) from users", Long.class);
+        }
+        List<Long> found = jdbc.queryForList("select id from users where email = ?", Long.class, ownerEmail);
+        if (found.isEmpty()) {
+            throw new IllegalStateException("budget.migration.legacy-owner-email is " + ownerEmail
+                    + ", but there is no account with that email");
+        }
+        return found.get(0);
+    }
+}
@@ -0,0 +1,62 @@
+package com.budget.app.migration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Amounts used to be stored as doubles ("amount" on transactions). They are now
+// whole cents in "amount_cents". ddl-auto adds the new column (filled with 0) but never
+// drops the old one, so on a database that still has it I copy the values over once and
+// drop the old column. An old NOT NULL double column would otherwise make every new
+// insert fail.
+// Not used with Flyway (fast-start profile): the old double columns never exist there.
+@Component
+@ConditionalOnProperty(name = "spring.flyway.enabled", havingValue = "false", matchIfMissing = true)
+public class MoneyColumnsMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(MoneyColumnsMigration.class);
+
+    private final JdbcTemplate jdbc;
+
+    // The EntityManagerFactory is only here so Spring runs this after Hibernate
+    // has created/updated the tables.
+    public MoneyColumnsMigration(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        moveToCents("transactions", "amount", "amount_cents");
+    }
+
+    private void moveToCents(String table, String oldColumn, String newColumn) {
+        if (!columnExists(table, oldColumn)) {
+            return;
+        }
+
+        int rows = jdbc.update("update " + table + " set " + newColumn
+                + " = round(coalesce(" + oldColumn + ", 0) * 100)");
+        jdbc.execute("alter table " + table + " drop column " + oldColumn);
+
+        log.info("Moved {} {}.{} values to {} (cents) and dropped the old column",
+                rows, table, oldColumn, newColumn);
+    }
+
+    private boolean columnExists(String table, String column) {
+        return Boolean.TRUE.equals(jdbc.execute((Connection con) -> {
+            try (ResultSet rs = con.getMetaData().getColumns(con.getCatalog(), null, table, column)) {
+                return rs.next();
+            } catch (SQLException e) {
+                return false;
+            }
+        }));
+    }
+}
@@ -0,0 +1,58 @@
+package com.budget.app.migration;
+
+import com.budget.app.auth.PasswordHasher;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+// Accounts from before password hashing still have the plain password in users.password.
+// They used to be hashed one by one at the user's next login, so an account nobody logged
+// into kept its plain password forever. Now I hash every one of them on startup; bcrypt
+// of the plain password is exactly what the login would have stored.
+//
+// Unlike the other classes in this package this runs under Flyway too: it's about the
+// data, not the schema shape, and once everything is hashed it's one scan of users.
+@Component
+public class PlainPasswordMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(PlainPasswordMigration.class);
+
+    private final JdbcTemplate jdbc;
+    private final PasswordHasher hasher;
+
+    // The EntityManagerFactory is only here so Spring runs this after Hibernate
+    // has created/updated the tables.
+    public PlainPasswordMigration(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbc,
+                                  PasswordHasher hasher) {
+        this.jdbc = jdbc;
+        this.hasher = hasher;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        // Every bcrypt hash starts with "$2"; the rest are checked properly below.
+        List<Map<String, Object>> rows = jdbc.queryForList(
+                "select id, password from users where password not like '$2%' or length(password) <> 60");
+
+        int hashed = 0;
+        for (Map<String, Object> row : rows) {
+            String plain = (String) row.get("password");
+            if (plain == null || PasswordHasher.isHash(plain)) {
+                continue;
+            }
+            String hash = hasher.hash(plain).join();
+            // Only if it's still the same plain password (nothing else changed it meanwhile).
+            hashed += jdbc.update("update users set password = ? where id = ? and password = ?",
+                    hash, row.get("id"), plain);
+        }
+        if (hashed > 0) {
+            log.info("Hashed the plain-text passwords of {} users", hashed);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.budget.app.migration;
+
+import com.budget.app.model.Transaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Transaction ids used to come from MySQL AUTO_INCREMENT. They now come from the
+// pooled "transactions_seq" generator, which MySQL stores as a one-row table that
+// Hibernate creates starting at 1. On a database that already has transactions,
+// that would hand out ids that are already taken, so before the app serves any
+// request I move the generator past the highest existing id.
+//
+// Databases with real sequences (like H2) only ever get a fresh, empty schema
+// from ddl-auto, so there is nothing to align there.
+// With Flyway (fast-start profile) V1 creates the sequence table itself, so this is off there.
+@Component
+@ConditionalOnProperty(name = "spring.flyway.enabled", havingValue = "false", matchIfMissing = true)
+public class TransactionIdSequenceAligner {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionIdSequenceAligner.class);
+
+    private static final String SEQUENCE_TABLE = "transactions_seq";
+
+    private final JdbcTemplate jdbc;
+
+    // The EntityManagerFactory is only here so Spring runs this after Hibernate
+    // has created/updated the tables.
+    public TransactionIdSequenceAligner(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @PostConstruct
+    public void align() {
+        if (!sequenceTableExists()) {
+            return;
+        }
+
+        long maxId = jdbc.queryForObject("select coalesce(max(id), 0) from transactions", Long.class);
+
+        // The pooled optimizer hands out the block of ids just below the stored value,
+        // so I leave one full block of room above the current max.
+        long floor = maxId + Transaction.ID_ALLOCATION_SIZE + 1;
+        int updated = jdbc.update("update " + SEQUENCE_TABLE + " set next_val = ? where next_val < ?", floor, floor);
+
+        if (updated > 0) {
+            log.info("Moved {} to {} (max transaction id is {})", SEQUENCE_TABLE, floor, maxId);
+        }
+    }
+
+    private boolean sequenceTableExists() {
+        return Boolean.TRUE.equals(jdbc.execute((Connection con) -> {
+            try (ResultSet rs = con.getMetaData().getTables(con.getCatalog(), null, SEQUENCE_TABLE, null)) {
+                return rs.next();
+            } catch (SQLException e) {
+                return false;
+            }
+        }));
+    }
+}
@@ -0,0 +1,70 @@
+package com.budget.app.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+@Entity
+// A monthly spending limit for one of a user's expense categories.
+// One row per (user, category); the budgets page adds, changes and removes them.
+@Table(name = "budgets",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_budgets_user_category",
+                columnNames = {"user_id", "category"}))
+public class Budget {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Whose budget this is. Set by BudgetService from the logged-in user.
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Matched against transaction categories ignoring case ("food" covers "Food").
+    @Column(nullable = false)
+    private String category;
+
+    // Limit per calendar month, in cents (same as Transaction.amountCents).
+    @Column(name = "limit_cents", nullable = false)
+    @ColumnDefault("0")
+    private long limitCents;
+
+    // Empty constructor required by JPA.
+    public Budget() {}
+
+    public Budget(Long userId, String category, long limitCents) {
+        this.userId = userId;
+        this.category = category;
+        this.limitCents = limitCents;
+    }
+
+    // ======================= GETTERS & SETTERS =======================
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public long getLimitCents() {
+        return limitCents;
+    }
+
+    public void setLimitCents(long limitCents) {
+        this.limitCents = limitCents;
+    }
+
+    public Money getLimit() {
+        return Money.ofCents(limitCents);
+    }
+}
@@ -0,0 +1,86 @@
+package com.budget.app.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+
+import java.util.Locale;
+
+@Entity
+// The category dictionary: every distinct category a user has, once, with a small integer id.
+// Transactions and the rollup store that id (4 bytes) instead of repeating the name on every
+// row, and grouping/filtering compares integers.
+//
+// Names are matched by nameKey (trimmed, lower case), so "Groceries", "groceries " and
+// "GROCERIES" are one category; "name" keeps the spelling the user first used.
+// Rows are never changed or deleted once written, which is what lets CategoryDictionary
+// keep them in memory and Hibernate cache them READ_ONLY.
+@Immutable
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+// A page of transactions loads its (few) categories in one query instead of one each.
+@BatchSize(size = 50)
+@Table(name = "categories",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_categories_user_key",
+                columnNames = {"user_id", "name_key"}))
+public class Category {
+
+    // What a missing or blank category is filed under (same as the rollup always did).
+    public static final String OTHER = "Other";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    // Whose category this is. Each user has their own dictionary, so one user's
+    // spelling never shows up in someone else's ledger.
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(name = "name_key", nullable = false)
+    private String nameKey;
+
+    // Empty constructor required by JPA.
+    public Category() {}
+
+    public Category(Long userId, String name) {
+        this.userId = userId;
+        this.name = clean(name);
+        this.nameKey = key(name);
+    }
+
+    // ======================= NAME HELPERS =======================
+
+    // The name as stored: trimmed, and "Other" when there isn't one.
+    public static String clean(String name) {
+        return name == null || name.isBlank() ? OTHER : name.trim();
+    }
+
+    // What two names have to share to be the same category.
+    public static String key(String name) {
+        return clean(name).toLowerCase(Locale.ROOT);
+    }
+
+    // ======================= GETTERS =======================
+
+    public Integer getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getNameKey() {
+        return nameKey;
+    }
+}
@@ -0,0 +1,39 @@
+package com.budget.app.model;
+
+import jakarta.persistence.*;
+
+@Entity
+// How far the ingestion journal of one app instance has been written to the database
+// (see IngestService). Updated in the same database transaction as the rows themselves,
+// so after a crash every journal entry up to lastSeq is known to be saved, and every
+// entry after it is known not to be. Replaying the rest can't save anything twice.
+@Table(name = "ingest_checkpoints")
+public class IngestCheckpoint {
+
+    // budget.ingest.journal-id: one row per journal (one per app instance).
+    @Id
+    @Column(name = "journal_id", length = 64)
+    private String journalId;
+
+    @Column(name = "last_seq", nullable = false)
+    private long lastSeq;
+
+    // Empty constructor required by JPA.
+    public IngestCheckpoint() {}
+
+    public IngestCheckpoint(String journalId) {
+        this.journalId = journalId;
+    }
+
+    public String getJournalId() {
+        return journalId;
+    }
+
+    public long getLastSeq() {
+        return lastSeq;
+    }
+
+    public void setLastSeq(long lastSeq) {
+        this.lastSeq = lastSeq;
+    }
+}
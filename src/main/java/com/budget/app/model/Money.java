@@ -0,0 +1,103 @@
+package com.budget.app.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// An amount of money stored as a whole number of cents.
+// Adding up doubles drifts (0.1 + 0.2 != 0.3), adding up longs doesn’t,
+// so every total in the app is exact. The database and all the sums
+// use plain long cents; this class is what the rest of the app (forms,
+// templates, JSON) sees, so nobody has to remember to divide by 100.
+public final class Money implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    // From a dollar amount. Anything past two decimals is rounded half-up (12.345 -> 12.35).
+    @JsonCreator
+    public static Money of(BigDecimal dollars) {
+        return ofCents(dollars.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact());
+    }
+
+    // From text like "12.5" or "-3.99". Spring also uses this to bind form fields.
+    public static Money valueOf(String dollars) {
+        if (dollars == null || dollars.isBlank()) {
+            throw new IllegalArgumentException("missing amount");
+        }
+        try {
+            return of(new BigDecimal(dollars.trim()));
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("bad amount '" + dollars + "'");
+        }
+    }
+
+    public long getCents() {
+        return cents;
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money abs() {
+        return cents < 0 ? ofCents(-cents) : this;
+    }
+
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    public boolean isPositive() {
+        return cents > 0;
+    }
+
+    // Dollars with exactly two decimals. Templates format this with #numbers.formatCurrency,
+    // and it’s what JSON gets (a plain number like 12.50).
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // What share of "whole" this amount is, in percent (ex: savings rate).
+    // Returns 0 when "whole" is zero instead of dividing by it.
+    public double percentOf(Money whole) {
+        return whole.cents == 0 ? 0.0 : cents * 100.0 / whole.cents;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && other.cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    // "12.50" (no currency sign), which is also what the amount input on the form shows.
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
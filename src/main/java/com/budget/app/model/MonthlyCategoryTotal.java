@@ -0,0 +1,113 @@
+package com.budget.app.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+@Entity
+// This is my rollup table. There is one row per (user, month, type, category)
+// holding the running sum and how many transactions are in it.
+// TransactionService keeps it up to date on every save/delete, so the dashboard
+// only has to read a few of these rows instead of scanning every transaction.
+// The key is all numbers (type code, category dictionary id), so the rows and the
+// unique index are small and grouping never compares strings.
+@Table(name = "monthly_category_totals",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_monthly_category_totals_key",
+                columnNames = {"user_id", "month_key", "type_code", "category_id"}))
+public class MonthlyCategoryTotal {
+
+    // Month key I use for transactions that don’t have a date.
+    // They still count toward the all-time totals, just not toward any real month.
+    public static final int NO_MONTH = 0;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Whose transactions this bucket adds up.
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Month stored as a number like 202512 (year * 100 + month).
+    // It sorts correctly and is a lot smaller than a string.
+    @Column(name = "month_key", nullable = false)
+    private int monthKey;
+
+    @Convert(converter = TransactionType.CodeConverter.class)
+    @Column(name = "type_code", nullable = false)
+    private TransactionType type;
+
+    // Dictionary id (see Category); CategoryDictionary turns it back into the name.
+    @Column(name = "category_id", nullable = false)
+    private int categoryId;
+
+    // Sum of the amounts in this bucket, in cents.
+    @Column(name = "total_cents", nullable = false)
+    @ColumnDefault("0")
+    private long totalCents;
+
+    // How many transactions are in this bucket.
+    @Column(name = "txn_count", nullable = false)
+    private long count;
+
+    // Empty constructor required by JPA.
+    public MonthlyCategoryTotal() {}
+
+    public MonthlyCategoryTotal(Long userId, int monthKey, TransactionType type, int categoryId) {
+        this.userId = userId;
+        this.monthKey = monthKey;
+        this.type = type;
+        this.categoryId = categoryId;
+    }
+
+    // ======================= MONTH KEY HELPERS =======================
+
+    public static int monthKey(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    public static int monthKey(LocalDate date) {
+        return date == null ? NO_MONTH : monthKey(YearMonth.from(date));
+    }
+
+    // ======================= GETTERS & SETTERS =======================
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public int getMonthKey() {
+        return monthKey;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    public void setTotalCents(long totalCents) {
+        this.totalCents = totalCents;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,243 @@
+package com.budget.app.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDate;
+
+@Entity
+// A transaction that repeats (rent, a paycheck, a subscription) and the schedule it repeats on.
+// RecurringScheduler turns due occurrences into real transactions; anything further out is
+// only ever calculated (see occurrence()), never written ahead.
+//
+// next_due is what the scheduler searches on, so it has its own index.
+@Table(name = "recurring_rules",
+        indexes = {
+                @Index(name = "idx_recurring_rules_next_due", columnList = "next_due"),
+                @Index(name = "idx_recurring_rules_user", columnList = "user_id")
+        })
+public class RecurringRule {
+
+    // How far apart occurrences are (times "every", so every 2 WEEKS = every other week).
+    public enum Frequency {
+        DAILY("day"), WEEKLY("week"), MONTHLY("month"), YEARLY("year");
+
+        private final String unit;
+
+        Frequency(String unit) {
+            this.unit = unit;
+        }
+
+        // "day", "week", ... for labels like "every 2 weeks".
+        public String getUnit() {
+            return unit;
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Whose rule this is. Set by RecurringService from the logged-in user.
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // ---- What each occurrence looks like (same fields as a Transaction) ----
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(name = "amount_cents", nullable = false)
+    @ColumnDefault("0")
+    private long amountCents;
+
+    @Column(nullable = false)
+    private String type; // INCOME or EXPENSE
+
+    @Column(nullable = false)
+    private String category;
+
+    private String note;
+
+    // ---- The schedule ----
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Frequency frequency;
+
+    @Column(name = "every_n", nullable = false)
+    @ColumnDefault("1")
+    private int every = 1;
+
+    // First occurrence, and the last day one can fall on (null = no end).
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    // ---- Progress (only the scheduler changes these) ----
+
+    // How many occurrences have been written so far; the next one is occurrence(nextIndex).
+    // I count occurrences instead of stepping from the last date, so "monthly from Jan 31"
+    // gives Feb 28 and then Mar 31 (not Mar 28 forever after).
+    @Column(name = "next_index", nullable = false)
+    @ColumnDefault("0")
+    private long nextIndex;
+
+    // Date of occurrence(nextIndex), or null once the rule is past its end date.
+    @Column(name = "next_due")
+    private LocalDate nextDue;
+
+    // Optimistic lock: two runs that both try to write the same occurrences can't both
+    // commit, so the loser's inserts are rolled back along with its cursor update.
+    @Version
+    private long version;
+
+    // Empty constructor required by JPA.
+    public RecurringRule() {}
+
+    // ======================= SCHEDULE =======================
+
+    // Date of the k-th occurrence (0 = the start date), or null if it's past the end date.
+    public LocalDate occurrence(long k) {
+        long steps = k * every;
+        LocalDate date = switch (frequency) {
+            case DAILY -> startDate.plusDays(steps);
+            case WEEKLY -> startDate.plusWeeks(steps);
+            case MONTHLY -> startDate.plusMonths(steps);
+            case YEARLY -> startDate.plusYears(steps);
+        };
+        return endDate != null && date.isAfter(endDate) ? null : date;
+    }
+
+    // "Every month", "Every 2 weeks until 2026-06-30", ...
+    public String describe() {
+        String text = every == 1
+                ? "Every " + frequency.getUnit()
+                : "Every " + every + " " + frequency.getUnit() + "s";
+        return endDate != null ? text + " until " + endDate : text;
+    }
+
+    // Moves the cursor past "count" written occurrences.
+    public void advance(int count) {
+        nextIndex += count;
+        nextDue = occurrence(nextIndex);
+    }
+
+    // Called once when the rule is created.
+    public void startSchedule() {
+        nextIndex = 0;
+        nextDue = occurrence(0);
+    }
+
+    // A new Transaction for one occurrence (not saved).
+    public Transaction toTransaction(LocalDate date) {
+        Transaction t = new Transaction();
+        t.setName(name);
+        t.setAmountCents(amountCents);
+        t.setType(TransactionType.of(type));
+        t.setCategory(category);
+        t.setNote(note);
+        t.setDate(date);
+        return t;
+    }
+
+    // ======================= GETTERS & SETTERS =======================
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    public Money getAmount() {
+        return Money.ofCents(amountCents);
+    }
+
+    public void setAmount(Money amount) {
+        this.amountCents = amount != null ? amount.getCents() : 0;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getNote() {
+        return note;
+    }
+
+    public void setNote(String note) {
+        this.note = note;
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(Frequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public int getEvery() {
+        return every;
+    }
+
+    public void setEvery(int every) {
+        this.every = every;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public long getNextIndex() {
+        return nextIndex;
+    }
+
+    public LocalDate getNextDue() {
+        return nextDue;
+    }
+}
@@ -1,35 +1,89 @@
 package com.budget.app.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "transactions")
+// Cached in Hibernate's second-level cache so loading one transaction by id
+// (like the edit form does) usually doesn't need a database round trip.
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// Every query in TransactionRepository starts with "user_id = ?", so both indexes lead with it:
+// (user_id, date) for the newest-first list/paging of one user,
+// (user_id, type_code, date) for the same thing filtered to INCOME or EXPENSE.
+// That way a request only ever reads its own user's rows, however big the table gets.
+@Table(name = "transactions",
+        indexes = {
+                @Index(name = "idx_transactions_user_date", columnList = "user_id, date"),
+                @Index(name = "idx_transactions_user_type_code_date", columnList = "user_id, type_code, date")
+        })
 public class Transaction {
 
+    // Allocation size for the id generator below (also used by TransactionIdSequenceAligner).
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     // This is my primary key for each transaction row in the table.
+    // Ids come from a pooled sequence (a one-row table on MySQL) instead of AUTO_INCREMENT:
+    // Hibernate reserves 50 ids per round trip, which is what lets it send inserts
+    // in JDBC batches. With IDENTITY it has to insert rows one at a time to read each id back.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq",
+            allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
+    // The user this transaction belongs to. Set by TransactionService from the
+    // logged-in user (never from the form). Only null for old rows on a database
+    // that has no users yet (see LedgerOwnerMigration).
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Same column as a relationship, only so Hibernate creates the foreign key to users.
+    // It's read-only and never loaded; the code uses userId above.
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(name = "fk_transactions_user"))
+    @JsonIgnore
+    private User user;
+
     // Basic name/label of the transaction (ex: “Paycheck” or “Target run”).
     @Column(nullable = false)
     private String name;
 
-    // Dollar amount for this transaction. I’m using Double to keep it simple.
-    @Column(nullable = false)
-    private Double amount;
+    // Amount in cents (1250 = $12.50), always positive; the type says which way it went.
+    // Whole cents instead of a Double so totals add up exactly.
+    // getAmount()/setAmount() wrap it in a Money for the form and templates.
+    // The default only matters when the column is added to a table that already has rows
+    // (MoneyColumnsMigration then fills in the real values).
+    @Column(name = "amount_cents", nullable = false)
+    @ColumnDefault("0")
+    private long amountCents;
 
     // This tells me if it’s money coming in or going out.
-    // I’m using values like "INCOME" or "EXPENSE" in the app.
-    @Column(nullable = false)
-    private String type; // INCOME or EXPENSE
+    // Stored as a one-byte code (see TransactionType). The default only matters when the
+    // column is added to a table that already has rows (CategoryDictionaryMigration fills it in).
+    @Convert(converter = TransactionType.CodeConverter.class)
+    @Column(name = "type_code", nullable = false)
+    @ColumnDefault("0")
+    private TransactionType type;
 
     // High–level category so I can group and analyze spending
     // (like “Groceries”, “Rent”, “Fun”, etc.).
-    @Column(nullable = false)
+    // The row only stores the dictionary id (see Category); the name comes from the
+    // category row, which is almost always already in the second-level cache.
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "category_id", foreignKey = @ForeignKey(name = "fk_transactions_category"))
+    @JsonIgnore
+    private Category categoryRef;
+
+    // A name typed into the form (or read from an import) that hasn't been looked up
+    // in the dictionary yet. TransactionService swaps it for the category row on save.
+    @Transient
     private String category;
 
     // Actual date of the transaction.
@@ -56,6 +110,14 @@ public class Transaction {
         this.id = id; 
     }
 
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
     public String getName() { 
         return name; 
     }
@@ -64,28 +126,54 @@ public class Transaction {
         this.name = name; 
     }
 
-    public Double getAmount() { 
-        return amount; 
+    public Money getAmount() {
+        return Money.ofCents(amountCents);
+    }
+
+    public void setAmount(Money amount) {
+        this.amountCents = amount != null ? amount.getCents() : 0;
+    }
+
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    public void setAmountCents(long amountCents) {
+        this.amountCents = amountCents;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public void setType(TransactionType type) {
+        this.type = type;
     }
 
-    public void setAmount(Double amount) { 
-        this.amount = amount; 
+    // The name to show: what was typed (if it hasn't been saved yet), otherwise the dictionary's.
+    public String getCategory() {
+        if (category != null) {
+            return category;
+        }
+        return categoryRef != null ? categoryRef.getName() : null;
     }
 
-    public String getType() { 
-        return type; 
+    public void setCategory(String category) {
+        this.category = category;
     }
 
-    public void setType(String type) { 
-        this.type = type; 
+    public Category getCategoryRef() {
+        return categoryRef;
     }
 
-    public String getCategory() { 
-        return category; 
+    public Integer getCategoryId() {
+        return categoryRef != null ? categoryRef.getId() : null;
     }
 
-    public void setCategory(String category) { 
-        this.category = category; 
+    // Set by TransactionService once the typed name has been looked up.
+    public void setCategoryRef(Category categoryRef) {
+        this.categoryRef = categoryRef;
+        this.category = null;
     }
 
     public LocalDate getDate() { 
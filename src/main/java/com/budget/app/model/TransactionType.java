@@ -0,0 +1,78 @@
+package com.budget.app.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Locale;
+
+// Money coming in or going out. Stored as a one-byte code (tinyint) instead of the
+// words "INCOME"/"EXPENSE", so the rows and the (user_id, type_code, date) index are
+// smaller, and filters compare a number instead of a string ignoring case.
+//
+// The codes are written down explicitly (not the enum's ordinal), so reordering the
+// constants can never change what's in the database. 0 means "not converted yet"
+// (see CategoryDictionaryMigration).
+public enum TransactionType {
+    INCOME(1),
+    EXPENSE(2);
+
+    private final byte code;
+
+    TransactionType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public static TransactionType fromCode(int code) {
+        for (TransactionType t : values()) {
+            if (t.code == code) {
+                return t;
+            }
+        }
+        throw new IllegalArgumentException("Unknown transaction type code " + code);
+    }
+
+    // Lenient parse for values typed by people or files: "income", " Income " -> INCOME.
+    // Nothing at all means EXPENSE (the form's default). Anything else is refused instead
+    // of quietly becoming an expense, so a typo can't file income as spending or turn a
+    // filter into "expenses only".
+    public static TransactionType of(String value) {
+        if (value == null || value.isBlank()) {
+            return EXPENSE;
+        }
+        String name = value.trim().toUpperCase(Locale.ROOT);
+        for (TransactionType t : values()) {
+            if (t.name().equals(name)) {
+                return t;
+            }
+        }
+        throw new IllegalArgumentException("type must be INCOME or EXPENSE, got '" + value + "'");
+    }
+
+    // For optional filters: null, blank or "ALL" means no filter (null); anything else has
+    // to be a type (IllegalArgumentException otherwise).
+    public static TransactionType filter(String value) {
+        if (value == null || value.isBlank() || "ALL".equalsIgnoreCase(value.trim())) {
+            return null;
+        }
+        return of(value);
+    }
+
+    // How the entities map the enum to its code (type_code columns).
+    @Converter
+    public static class CodeConverter implements AttributeConverter<TransactionType, Byte> {
+
+        @Override
+        public Byte convertToDatabaseColumn(TransactionType type) {
+            return type == null ? null : type.code;
+        }
+
+        @Override
+        public TransactionType convertToEntityAttribute(Byte code) {
+            return code == null || code == 0 ? null : fromCode(code);
+        }
+    }
+}
@@ -26,9 +26,9 @@ public class User {
     @Column(nullable = false, unique = true, length = 100)
     private String email;
 
-    // This stores the user’s password.
-    // For this project I’m keeping it simple, but in a real app
-    // I would store an encoded/hashed password instead of plain text.
+    // This stores the user’s password as a bcrypt hash (salt and cost are part of the string).
+    // Accounts made before hashing held the plain password; PlainPasswordMigration
+    // replaces those with hashes on startup.
     @Column(nullable = false, length = 255)
     private String password;
 
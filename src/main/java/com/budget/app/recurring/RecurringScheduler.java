@@ -0,0 +1,129 @@
+package com.budget.app.recurring;
+
+import com.budget.app.repository.RecurringRuleRepository;
+import com.budget.app.service.RecurringService;
+import jakarta.persistence.OptimisticLockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+// Writes recurring transactions when they come due, on the scheduler's thread (never on
+// a request).
+//
+// Every poll it asks for the rules that have something due (an indexed next_due lookup) and
+// writes their occurrences in chunks, each chunk its own short database transaction (see
+// RecurringService.materializeDue). After downtime, a rule that's months behind catches up a
+// chunk at a time, and one run stops after max-per-run rows so it can't hog the database;
+// the next poll carries on where it left off.
+//
+// During peak hours the chunks and the per-run cap are smaller: nothing here ever locks the
+// transactions table, but a big catch-up still means row locks on the rollup buckets and a
+// burst of inserts, which is better left to quiet hours. Today's occurrences still go in.
+//
+// Duplicates can't happen: the cursor moves in the same commit as the inserts, and a run
+// that loses the race on a rule (optimistic lock) rolls back and just skips it.
+@Component
+public class RecurringScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(RecurringScheduler.class);
+
+    private final RecurringRuleRepository repo;
+    private final RecurringService service;
+
+    private final int chunkSize;
+    private final int maxPerRun;
+    private final int peakChunkSize;
+    private final int peakMaxPerRun;
+    private final int peakStartHour;
+    private final int peakEndHour;
+
+    public RecurringScheduler(RecurringRuleRepository repo,
+                              RecurringService service,
+                              @Value("${budget.recurring.chunk-size:200}") int chunkSize,
+                              @Value("${budget.recurring.max-per-run:5000}") int maxPerRun,
+                              @Value("${budget.recurring.peak-chunk-size:20}") int peakChunkSize,
+                              @Value("${budget.recurring.peak-max-per-run:200}") int peakMaxPerRun,
+                              @Value("${budget.recurring.peak-start-hour:8}") int peakStartHour,
+                              @Value("${budget.recurring.peak-end-hour:22}") int peakEndHour) {
+        this.repo = repo;
+        this.service = service;
+        this.chunkSize = chunkSize;
+        this.maxPerRun = maxPerRun;
+        this.peakChunkSize = peakChunkSize;
+        this.peakMaxPerRun = peakMaxPerRun;
+        this.peakStartHour = peakStartHour;
+        this.peakEndHour = peakEndHour;
+    }
+
+    // fixedDelay: the next run starts a full interval after this one ENDS,
+    // so runs on one instance never overlap.
+    @Scheduled(initialDelayString = "${budget.recurring.initial-delay-ms:10000}",
+            fixedDelayString = "${budget.recurring.poll-interval-ms:60000}")
+    public void run() {
+        LocalDate today = LocalDate.now();
+        boolean peak = isPeak(LocalTime.now());
+        int chunk = peak ? peakChunkSize : chunkSize;
+        int budget = peak ? peakMaxPerRun : maxPerRun;
+
+        int written = 0;
+        int chunks = 0;
+        long started = System.nanoTime();
+
+        while (written < budget) {
+            // One page of due rules at a time; a rule that's caught up drops out of the next page.
+            List<Long> due = repo.findDueIds(today, Limit.of(100));
+            if (due.isEmpty()) {
+                break;
+            }
+            int writtenThisPage = 0;
+            for (Long ruleId : due) {
+                int n = writeChunk(ruleId, today, Math.min(chunk, budget - written));
+                written += n;
+                writtenThisPage += n;
+                chunks += n > 0 ? 1 : 0;
+                if (written >= budget) {
+                    break;
+                }
+            }
+            if (writtenThisPage == 0) {
+                // Everything left lost a race or failed; try again next poll.
+                break;
+            }
+        }
+
+        if (written > 0) {
+            log.info("Recurring transactions: wrote {} occurrences ({} chunks) in {} ms{}",
+                    written, chunks, (System.nanoTime() - started) / 1_000_000,
+                    written >= budget ? ", more still due (continuing next run)" : "");
+        }
+    }
+
+    private int writeChunk(Long ruleId, LocalDate today, int max) {
+        try {
+            return service.materializeDue(ruleId, today, max);
+        } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+            // Another run wrote these (or the rule was deleted meanwhile). The JPA exception
+            // shows up untranslated because saveBatch flushes the EntityManager directly.
+            log.debug("Recurring rule {} changed while writing occurrences, skipping", ruleId);
+            return 0;
+        } catch (RuntimeException e) {
+            log.warn("Could not write occurrences of recurring rule {}", ruleId, e);
+            return 0;
+        }
+    }
+
+    boolean isPeak(LocalTime now) {
+        int hour = now.getHour();
+        return peakStartHour <= peakEndHour
+                ? hour >= peakStartHour && hour < peakEndHour
+                : hour >= peakStartHour || hour < peakEndHour;   // ex: 20 -> 6
+    }
+}
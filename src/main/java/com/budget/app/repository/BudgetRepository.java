@@ -0,0 +1,22 @@
+package com.budget.app.repository;
+
+import com.budget.app.model.Budget;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+// Repository for the per-category monthly limits.
+// A user only has a handful of these, so every query here is tiny.
+// Declared queries are read-only, like TransactionRepository's.
+@Transactional(readOnly = true)
+public interface BudgetRepository extends JpaRepository<Budget, Long> {
+
+    List<Budget> findByUserIdOrderByCategory(Long userId);
+
+    // Setting a limit on "food" when "Food" already has one updates that row.
+    Optional<Budget> findByUserIdAndCategoryIgnoreCase(Long userId, String category);
+
+    Optional<Budget> findByIdAndUserId(Long id, Long userId);
+}
@@ -0,0 +1,43 @@
+package com.budget.app.repository;
+
+import com.budget.app.model.Category;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+// Repository for the category dictionary. Only CategoryDictionary uses it; everything
+// else goes through that (it keeps the rows in memory).
+// Declared queries are read-only, like TransactionRepository's.
+@Transactional(readOnly = true)
+public interface CategoryRepository extends JpaRepository<Category, Integer> {
+
+    Optional<Category> findByUserIdAndNameKey(Long userId, String nameKey);
+
+    List<Category> findByUserId(Long userId);
+
+    // Adds the row unless the user already has this name key, in the caller's transaction
+    // (see CategoryDictionary.create). Native, since JPA has no "insert if missing". The
+    // flush mode hint keeps Hibernate from flushing the caller's pending changes first.
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query(value = "insert ignore into categories (user_id, name, name_key) values (:userId, :name, :nameKey)",
+            nativeQuery = true)
+    int insertIfMissing(Long userId, String name, String nameKey);
+
+    // findByUserIdAndNameKey as a locking read, so it sees a row another transaction
+    // committed after this one started (a plain read may still show the older snapshot).
+    @Transactional
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select c from Category c where c.userId = :userId and c.nameKey = :nameKey")
+    Optional<Category> findForShare(Long userId, String nameKey);
+}
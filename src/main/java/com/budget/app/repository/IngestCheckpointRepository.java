@@ -0,0 +1,8 @@
+package com.budget.app.repository;
+
+import com.budget.app.model.IngestCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+// One row per ingestion journal; only IngestCommitter uses it.
+public interface IngestCheckpointRepository extends JpaRepository<IngestCheckpoint, String> {
+}
@@ -0,0 +1,89 @@
+package com.budget.app.repository;
+
+import com.budget.app.model.MonthlyCategoryTotal;
+import com.budget.app.model.TransactionType;
+import com.budget.app.repository.TransactionRepository.CategorySum;
+import com.budget.app.repository.TransactionRepository.TypeTotal;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+// Repository for the monthly rollup rows.
+// Every read here touches a handful of rows, no matter how many transactions exist.
+// The queries declared here are read-only, like TransactionRepository's.
+@Transactional(readOnly = true)
+public interface MonthlyCategoryTotalRepository extends JpaRepository<MonthlyCategoryTotal, Long> {
+
+    // Adds a delta to one bucket, creating the row if it isn't there yet, in one statement.
+    // A locked select followed by an insert locks nothing while the row doesn't exist, so two
+    // first saves in the same bucket would both insert and one would fail on the unique key;
+    // the upsert lets the database serialize them on that key instead. Native, since JPA has
+    // no upsert. The flush mode hint keeps Hibernate from flushing the caller's pending
+    // changes first (none of them touch this table). The query space hint tells it the only
+    // table this writes is monthly_category_totals: without it a native update empties the
+    // whole second-level cache (categories included), so every save cost the next pages a refetch.
+    @Transactional
+    @Modifying
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "monthly_category_totals")
+    })
+    @Query(value = "insert into monthly_category_totals " +
+            "(user_id, month_key, type_code, category_id, total_cents, txn_count) " +
+            "values (:userId, :monthKey, :typeCode, :categoryId, :centsDelta, :countDelta) " +
+            "on duplicate key update total_cents = total_cents + values(total_cents), " +
+            "txn_count = txn_count + values(txn_count)",
+            nativeQuery = true)
+    int addToBucket(Long userId, int monthKey, int typeCode, int categoryId, long centsDelta, long countDelta);
+
+    // Drops the bucket if nothing is left in it, so old categories don't pile up as zero rows.
+    @Transactional
+    @Modifying
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "monthly_category_totals")
+    })
+    @Query(value = "delete from monthly_category_totals where user_id = :userId and month_key = :monthKey " +
+            "and type_code = :typeCode and category_id = :categoryId and txn_count <= 0",
+            nativeQuery = true)
+    int deleteIfEmpty(Long userId, int monthKey, int typeCode, int categoryId);
+
+    // All-time totals per type for one user, added up from the rollup rows.
+    @Query("select r.type as type, sum(r.totalCents) as totalCents " +
+            "from MonthlyCategoryTotal r where r.userId = :userId group by r.type")
+    List<TypeTotal> sumByType(Long userId);
+
+    // Totals per type for one user and month.
+    @Query("select r.type as type, sum(r.totalCents) as totalCents " +
+            "from MonthlyCategoryTotal r where r.userId = :userId and r.monthKey = :monthKey group by r.type")
+    List<TypeTotal> sumByTypeForMonth(Long userId, int monthKey);
+
+    // Biggest categories of one type for one user and month.
+    @Query("select r.categoryId as categoryId, r.totalCents as totalCents " +
+            "from MonthlyCategoryTotal r " +
+            "where r.userId = :userId and r.type = :type and r.monthKey = :monthKey " +
+            "order by r.totalCents desc")
+    List<CategorySum> findTopCategories(Long userId, TransactionType type, int monthKey, Limit limit);
+
+    // Month-to-date totals of just the given categories (dictionary ids), for the budget alerts.
+    // Only reads those categories' rows, and nothing is locked.
+    @Query("select r.categoryId as categoryId, r.totalCents as totalCents " +
+            "from MonthlyCategoryTotal r " +
+            "where r.userId = :userId and r.type = :type and r.monthKey = :monthKey " +
+            "and r.categoryId in :categoryIds")
+    List<CategorySum> findCategories(Long userId, TransactionType type, int monthKey, Collection<Integer> categoryIds);
+
+    // Used by the rebuild routine to wipe the table before recomputing it.
+    @Modifying
+    @Transactional
+    @Query("delete from MonthlyCategoryTotal")
+    void deleteAllRows();
+}
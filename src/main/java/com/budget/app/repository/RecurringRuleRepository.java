@@ -0,0 +1,27 @@
+package com.budget.app.repository;
+
+import com.budget.app.model.RecurringRule;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+// Repository for the recurring transaction rules.
+// Declared queries are read-only, like TransactionRepository's.
+@Transactional(readOnly = true)
+public interface RecurringRuleRepository extends JpaRepository<RecurringRule, Long> {
+
+    List<RecurringRule> findByUserIdOrderByNextDueAscNameAsc(Long userId);
+
+    Optional<RecurringRule> findByIdAndUserId(Long id, Long userId);
+
+    // Ids of the rules with an occurrence due on or before "today", most overdue first.
+    // Just the ids (read through idx_recurring_rules_next_due): each rule is then loaded
+    // again inside its own short transaction by RecurringService.
+    @Query("select r.id from RecurringRule r where r.nextDue <= :today order by r.nextDue, r.id")
+    List<Long> findDueIds(LocalDate today, Limit limit);
+}
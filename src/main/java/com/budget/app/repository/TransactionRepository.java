@@ -1,20 +1,279 @@
 package com.budget.app.repository;
 
 import com.budget.app.model.Transaction;
+import com.budget.app.model.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 // This is my repository interface for the Transaction entity.
 // I let Spring Data JPA handle all the basic CRUD (save, findById, delete, etc.)
 // so I don’t have to write SQL by hand.
+// Every query declared here runs read-only (so with a replica configured it reads the
+// replica, see ReadWriteRoutingDataSource). Inside a service's read-write transaction they
+// just join it. save()/delete() keep Spring Data's own read-write transactions.
+@Transactional(readOnly = true)
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
+    // ======================= AGGREGATE PROJECTIONS =======================
+    // These are small "read-only views" of a grouped query.
+    // Spring Data fills them in by matching the "as" aliases to the getter names,
+    // so the database sends back a few summed rows instead of every transaction.
+    // Totals are in cents (SUM of a bigint column comes back as a Long).
+
+    // One row per type (INCOME / EXPENSE) with its summed amount.
+    interface TypeTotal {
+        TransactionType getType();
+        Long getTotalCents();
+    }
+
+    // One row per (year, month, type).
+    interface MonthTypeTotal {
+        Integer getYear();
+        Integer getMonth();
+        TransactionType getType();
+        Long getTotalCents();
+    }
+
+    // One row per (year, month, type, category id), plus how many rows went into it.
+    interface MonthCategoryTotal {
+        Integer getYear();
+        Integer getMonth();
+        TransactionType getType();
+        Integer getCategoryId();
+        Long getTotalCents();
+        Long getCount();
+    }
+
+    // Same as above with the owner in front (used to rebuild the rollup for every user at once).
+    interface UserMonthCategoryTotal extends MonthCategoryTotal {
+        Long getUserId();
+    }
+
+    // One row per (day, type, category) for one user (loads TrendIndex).
+    interface DayCategoryTotal {
+        LocalDate getDate();
+        TransactionType getType();
+        Integer getCategoryId();
+        Long getTotalCents();
+    }
+
+    // One row per owner with how many transactions they have (the ledger journal's startup check).
+    interface UserCount {
+        Long getUserId();
+        Long getCount();
+    }
+
+    // The fields the search index is built from (no amounts, dates or entities).
+    interface SearchRow {
+        Long getId();
+        Long getUserId();
+        String getName();
+        String getNote();
+        String getCategory();
+    }
+
+    // Just enough of a search hit to rank it (newest first) before loading it.
+    interface SearchCandidate {
+        Long getId();
+        LocalDate getDate();
+    }
+
+    // One row per category id (used for the ranked "top categories" list).
+    // CategoryDictionary turns the ids back into names.
+    interface CategorySum {
+        Integer getCategoryId();
+        Long getTotalCents();
+    }
+
     // Custom query method that Spring builds for me based on the name.
     // This will return all transactions and automatically sort them
     // by the date field in DESCENDING order (newest at the top).
     //
     // I use this when I want to show a clean, recent-first list
     // on my dashboard or transactions page.
-    List<Transaction> findAllByOrderByDateDesc();
+    //
+    // Every method in here takes the user id first: a user only ever sees (and the
+    // database only ever reads) their own rows, through idx_transactions_user_date
+    // (user_id, date) or, with a type filter, idx_transactions_user_type_code_date
+    // (user_id, type_code, date).
+    List<Transaction> findByUserIdOrderByDateDesc(Long userId);
+
+    // Same ordering, but the database stops after "limit" rows.
+    // The id is a tie-breaker so rows on the same day always come back in the same order.
+    List<Transaction> findByUserIdOrderByDateDescIdDesc(Long userId, Limit limit);
+
+    // Every transaction of one type, newest first (the type match happens in SQL).
+    List<Transaction> findByUserIdAndTypeOrderByDateDescIdDesc(Long userId, TransactionType type);
+
+    // ======================= KEYSET PAGING =======================
+    // The transactions page walks through (date, id) in order instead of using OFFSET.
+    // Each page starts right after the last row of the previous one, so page 500
+    // costs the same as page 1. A null type/from/to means "don’t filter on it".
+    // Rows without a date come before every dated row on that line (as if their date were
+    // the smallest possible), ordered by id among themselves. The queries below only cover
+    // the dated rows; the findUndated* ones page through the rest, and getPage joins them up.
+
+    // First page, newest first.
+    @Query("select t from Transaction t " +
+            "where t.userId = :userId and t.date is not null " +
+            "and (:type is null or t.type = :type) " +
+            "and (:from is null or t.date >= :from) and (:to is null or t.date <= :to) " +
+            "order by t.date desc, t.id desc")
+    List<Transaction> findNewest(Long userId, TransactionType type, LocalDate from, LocalDate to, Limit limit);
+
+    // First page, oldest first.
+    @Query("select t from Transaction t " +
+            "where t.userId = :userId and t.date is not null " +
+            "and (:type is null or t.type = :type) " +
+            "and (:from is null or t.date >= :from) and (:to is null or t.date <= :to) " +
+            "order by t.date asc, t.id asc")
+    List<Transaction> findOldest(Long userId, TransactionType type, LocalDate from, LocalDate to, Limit limit);
+
+    // Rows that come before the cursor (date, id), walking back in time.
+    @Query("select t from Transaction t " +
+            "where t.userId = :userId and (t.date < :date or (t.date = :date and t.id < :id)) " +
+            "and (:type is null or t.type = :type) " +
+            "and (:from is null or t.date >= :from) and (:to is null or t.date <= :to) " +
+            "order by t.date desc, t.id desc")
+    List<Transaction> findOlderThan(Long userId, LocalDate date, Long id,
+                                    TransactionType type, LocalDate from, LocalDate to, Limit limit);
+
+    // Rows that come after the cursor (date, id), walking forward in time.
+    @Query("select t from Transaction t " +
+            "where t.userId = :userId and (t.date > :date or (t.date = :date and t.id > :id)) " +
+            "and (:type is null or t.type = :type) " +
+            "and (:from is null or t.date >= :from) and (:to is null or t.date <= :to) " +
+            "order by t.date asc, t.id asc")
+    List<Transaction> findNewerThan(Long userId, LocalDate date, Long id,
+                                    TransactionType type, LocalDate from, LocalDate to, Limit limit);
+
+    // Rows without a date, newest id first, below the id (or from the top with a null id).
+    // A from/to filter never matches them, so the caller only asks without one.
+    @Query("select t from Transaction t " +
+            "where t.userId = :userId and t.date is null and (:id is null or t.id < :id) " +
+            "and (:type is null or t.type = :type) " +
+            "order by t.id desc")
+    List<Transaction> findUndatedBefore(Long userId, Long id, TransactionType type, Limit limit);
+
+    // Rows without a date, oldest id first, above the id (or from the bottom with a null id).
+    @Query("select t from Transaction t " +
+            "where t.userId = :userId and t.date is null and (:id is null or t.id > :id) " +
+            "and (:type is null or t.type = :type) " +
+            "order by t.id asc")
+    List<Transaction> findUndatedAfter(Long userId, Long id, TransactionType type, Limit limit);
+
+    // ======================= STREAMING EXPORT =======================
+
+    // Every matching transaction, oldest first, as a Stream instead of a List.
+    // Rows are pulled from the database "fetch size" at a time while the caller
+    // writes them out, so memory doesn't grow with the number of rows.
+    // (The caller has to be inside a transaction and close the stream.)
+    // READ_ONLY skips Hibernate's dirty-check snapshots, and the cache mode keeps
+    // a big export from flushing everything else out of the second-level cache.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("select t from Transaction t " +
+            "where t.userId = :userId and (:type is null or t.type = :type) " +
+            "and (:from is null or t.date >= :from) and (:to is null or t.date <= :to) " +
+            "order by t.date asc, t.id asc")
+    Stream<Transaction> streamForExport(Long userId, TransactionType type, LocalDate from, LocalDate to);
+
+    // ======================= AGGREGATES =======================
+
+    // All-time SUM(amount_cents) grouped by type.
+    @Query("select t.type as type, sum(t.amountCents) as totalCents " +
+            "from Transaction t where t.userId = :userId group by t.type")
+    List<TypeTotal> sumByType(Long userId);
+
+    // SUM(amount_cents) grouped by month and type, for dates in [from, to).
+    // I pass a date range (instead of filtering on month()) so idx_transactions_user_date
+    // (user_id, date) can be used; there's no type filter, so it's that one and not the
+    // (user_id, type_code, date) one.
+    @Query("select year(t.date) as year, month(t.date) as month, t.type as type, sum(t.amountCents) as totalCents " +
+            "from Transaction t " +
+            "where t.userId = :userId and t.date >= :from and t.date < :to " +
+            "group by year(t.date), month(t.date), t.type")
+    List<MonthTypeTotal> sumByMonthAndType(Long userId, LocalDate from, LocalDate to);
+
+    // SUM(amount_cents) and COUNT(*) grouped by month, type and category, for dates in [from, to).
+    @Query("select year(t.date) as year, month(t.date) as month, t.type as type, " +
+            "t.categoryRef.id as categoryId, sum(t.amountCents) as totalCents, count(t) as count " +
+            "from Transaction t " +
+            "where t.userId = :userId and t.date >= :from and t.date < :to " +
+            "group by year(t.date), month(t.date), t.type, t.categoryRef.id")
+    List<MonthCategoryTotal> sumByMonthAndCategory(Long userId, LocalDate from, LocalDate to);
+
+    // Same grouping over the whole table for every user (including rows without a date).
+    // This is what the monthly rollup is rebuilt and checked against, so it's the one
+    // query here that isn't limited to one user.
+    @Query("select t.userId as userId, year(t.date) as year, month(t.date) as month, t.type as type, " +
+            "t.categoryRef.id as categoryId, sum(t.amountCents) as totalCents, count(t) as count " +
+            "from Transaction t " +
+            "group by t.userId, year(t.date), month(t.date), t.type, t.categoryRef.id")
+    List<UserMonthCategoryTotal> sumAllByUserMonthAndCategory();
+
+    // How many transactions every user has. Only counts, so the database can answer it from
+    // idx_transactions_user_date (user_id, date) without reading the rows.
+    @Query("select t.userId as userId, count(t) as count from Transaction t group by t.userId")
+    List<UserCount> countByUser();
+
+    // Top N categories of one type for dates in [from, to), biggest total first.
+    // Reads the range through idx_transactions_user_type_code_date (user_id, type_code, date).
+    @Query("select t.categoryRef.id as categoryId, sum(t.amountCents) as totalCents " +
+            "from Transaction t " +
+            "where t.userId = :userId and t.type = :type and t.date >= :from and t.date < :to " +
+            "group by t.categoryRef.id " +
+            "order by sum(t.amountCents) desc")
+    List<CategorySum> findTopCategories(Long userId, TransactionType type, LocalDate from, LocalDate to, Limit limit);
+
+    // ======================= SEARCH =======================
+
+    // Every row's searchable text, streamed once at startup to build the search index.
+    // (The caller has to be inside a transaction and close the stream.)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select t.id as id, t.userId as userId, t.name as name, t.note as note, c.name as category " +
+            "from Transaction t left join t.categoryRef c where t.userId is not null")
+    Stream<SearchRow> streamSearchRows();
+
+    // Per-day totals of one user, for building their trend index. Reads the user's rows
+    // once through idx_transactions_user_date (user_id, date); after that the index is kept up to date from events.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select t.date as date, t.type as type, t.categoryRef.id as categoryId, sum(t.amountCents) as totalCents " +
+            "from Transaction t where t.userId = :userId and t.date is not null " +
+            "group by t.date, t.type, t.categoryRef.id")
+    List<DayCategoryTotal> sumByDay(Long userId);
+
+    // The id and date of every search hit that passes the same optional type/date filters
+    // as the list page (the ids come from the in-memory index, so these are primary key
+    // lookups). Only two columns, so ranking a lot of hits stays cheap.
+    @Query("select t.id as id, t.date as date from Transaction t " +
+            "where t.userId = :userId and t.id in :ids " +
+            "and (:type is null or t.type = :type) " +
+            "and (:from is null or t.date >= :from) and (:to is null or t.date <= :to)")
+    List<SearchCandidate> findSearchCandidates(Long userId, Collection<Long> ids, TransactionType type,
+                                               LocalDate from, LocalDate to);
+
+    // Loads search hits by primary key (the ids come from the in-memory index),
+    // with the same optional type/date filters as the list page.
+    @Query("select t from Transaction t " +
+            "where t.userId = :userId and t.id in :ids " +
+            "and (:type is null or t.type = :type) " +
+            "and (:from is null or t.date >= :from) and (:to is null or t.date <= :to)")
+    List<Transaction> findSearchHits(Long userId, Collection<Long> ids, TransactionType type, LocalDate from, LocalDate to);
 }
@@ -2,6 +2,10 @@ package com.budget.app.repository;
 
 import com.budget.app.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -10,15 +14,23 @@ import java.util.Optional;
 // like save(), findById(), findAll(), deleteById(), etc. without writing SQL.
 public interface UserRepository extends JpaRepository<User, Long> {
 
-    // This is a custom finder method that Spring Data JPA builds for me
-    // just by reading the method name.
+    // Login looks the user up by email only (email has a unique index, so this is
+    // a single index lookup). The password is then checked against the stored bcrypt
+    // hash in Java, see PasswordHasher.
     //
-    // It looks for a user row where BOTH the email and password match.
-    // I’m using this in my AuthController to handle login.
-    //
-    // In a real production app, I would not check passwords like this directly.
-    // I’d store an encoded password and verify it with a PasswordEncoder.
-    //
-    // I wrap the result in Optional so I can cleanly handle the "not found" case.
-    Optional<User> findByEmailAndPassword(String email, String password);
+    // Both lookups are plain (not read-only) transactions so they always read the primary
+    // when a replica is configured: someone who registered a second ago can't be in a
+    // replica that's behind yet, and there is no logged-in user to keep on the primary.
+    @Transactional
+    Optional<User> findByEmail(String email);
+
+    @Transactional
+    boolean existsByEmail(String email);
+
+    // Used to swap in a new hash (old plain-text password, or a changed bcrypt cost)
+    // with one UPDATE instead of loading and saving the whole user.
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :password where u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
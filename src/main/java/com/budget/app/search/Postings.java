@@ -0,0 +1,121 @@
+package com.budget.app.search;
+
+import java.util.Arrays;
+
+// The ids of every transaction that contains one term, kept sorted in a plain long[]
+// (8 bytes per id, no boxing, no per-entry objects like a TreeSet would have).
+//
+// New transactions get the biggest id so far, so adding is almost always an append.
+// Removing (or adding an old id) shifts the tail with one System.arraycopy.
+final class Postings {
+
+    private long[] ids;
+    private int size;
+
+    Postings() {
+        this.ids = new long[2];
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Returns false if the id was already there.
+    boolean add(long id) {
+        if (size > 0 && ids[size - 1] < id) {
+            ensureCapacity();
+            ids[size++] = id;
+            return true;
+        }
+
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos >= 0) {
+            return false;
+        }
+        int insertAt = -pos - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+        return true;
+    }
+
+    // Returns false if the id wasn't there.
+    boolean remove(long id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        size--;
+
+        // Give memory back when a list shrinks a lot (ex: a big import was deleted).
+        if (ids.length > 16 && size < ids.length / 4) {
+            ids = Arrays.copyOf(ids, Math.max(2, size * 2));
+        }
+        return true;
+    }
+
+    long[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    // Ids of this list that are also in "other" (only call while no one can change either list).
+    long[] intersect(long[] other) {
+        return intersect(other, other.length, ids, size);
+    }
+
+    // Bytes this list takes on the heap: object header + fields, and the array.
+    long footprint() {
+        return 24 + 16 + 8L * ids.length;
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+        }
+    }
+
+    // Ids that are in both sorted arrays. When one side is much shorter I binary-search
+    // its ids in the longer one instead of walking both from the start.
+    static long[] intersect(long[] a, int aLen, long[] b, int bLen) {
+        if (aLen > bLen) {
+            long[] t = a;
+            a = b;
+            b = t;
+            int tl = aLen;
+            aLen = bLen;
+            bLen = tl;
+        }
+        long[] out = new long[aLen];
+        int n = 0;
+
+        if (aLen * 16L < bLen) {
+            int from = 0;
+            for (int i = 0; i < aLen && from < bLen; i++) {
+                int pos = Arrays.binarySearch(b, from, bLen, a[i]);
+                if (pos >= 0) {
+                    out[n++] = a[i];
+                    from = pos + 1;
+                } else {
+                    from = -pos - 1;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < aLen && j < bLen) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    out[n++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+}
@@ -0,0 +1,345 @@
+package com.budget.app.search;
+
+import com.budget.app.datasource.ReadYourWrites;
+import com.budget.app.repository.TransactionRepository;
+import com.budget.app.repository.TransactionRepository.SearchRow;
+import com.budget.app.service.LedgerChangedEvent;
+import com.budget.app.service.TransactionSnapshot;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// In-memory inverted index over each user's transaction names, notes and categories.
+//
+// Every word is stored under all of its prefixes ("coffee" -> "c", "co", "cof", ...),
+// each pointing at a sorted long[] of transaction ids (see Postings). A search is then one
+// HashMap lookup per word typed plus an intersection of sorted arrays, instead of a
+// LIKE '%...%' scan over the whole table on every keystroke.
+//
+// It is built from the database once at startup and then kept up to date from the same
+// after-commit LedgerChangedEvent the caches use, so it never shows rolled-back rows.
+// Each user has their own index, so a search can never return another user's ids.
+@Component
+public class TransactionSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionSearchIndex.class);
+
+    // Longer words are indexed (and searched) by their first MAX_PREFIX characters.
+    static final int MAX_PREFIX = 16;
+
+    // One user's terms and category counts.
+    private static final class UserIndex {
+        final Map<String, Postings> terms = new HashMap<>();
+        // Category -> number of transactions using it, for autocomplete ranking.
+        final Map<String, Integer> categories = new HashMap<>();
+    }
+
+    private final TransactionRepository repo;
+    private final ReadYourWrites readYourWrites;
+
+    // Many searches at once, one writer at a time (one committed change, or the swap at
+    // the end of a build).
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Everything below is guarded by "lock". build() replaces "users" as a whole.
+    private Map<Long, UserIndex> users = new HashMap<>();
+
+    // Changes committed while build() runs (null when it isn't running).
+    private List<LedgerChangedEvent> duringBuild;
+
+    public TransactionSearchIndex(TransactionRepository repo, ReadYourWrites readYourWrites, MeterRegistry registry) {
+        this.repo = repo;
+        this.readYourWrites = readYourWrites;
+
+        Gauge.builder("budget.search.index.bytes", this, TransactionSearchIndex::footprint)
+                .description("Estimated heap used by the transaction search index")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("budget.search.index.terms", this, TransactionSearchIndex::termCount)
+                .description("Distinct terms (word prefixes) in the transaction search index")
+                .register(registry);
+    }
+
+    // ======================= BUILD =======================
+
+    // Streams every transaction's text once (read-only, 1000 rows per fetch) into a new
+    // index, without holding the lock: saves and searches carry on against the current one
+    // meanwhile. Changes committed during the build are applied to the current index as
+    // usual and also kept; once the stream is done they're applied to the new index too,
+    // and it's swapped in, all under the write lock.
+    //
+    // Replaying a change the stream already saw does nothing (adding an id that's there is a
+    // no-op, a remove followed by the same add puts back what it took out), so nothing is
+    // counted twice. That only works if the rows are at least as new as those saves, so this
+    // reads the primary even when there's a replica, and starts keeping changes before the
+    // stream starts.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void build() {
+        long started = System.nanoTime();
+
+        lock.writeLock().lock();
+        try {
+            duringBuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, UserIndex> fresh = new HashMap<>();
+        int rows = -1;
+        int replayed;
+        try {
+            rows = readYourWrites.onPrimary(() -> indexAll(fresh));
+        } finally {
+            lock.writeLock().lock();
+            try {
+                List<LedgerChangedEvent> changes = duringBuild;
+                duringBuild = null;
+                replayed = changes.size();
+                // Only if the stream got to the end; otherwise the current index stays.
+                if (rows >= 0) {
+                    changes.forEach(e -> apply(fresh, e));
+                    users = fresh;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        log.info("Search index built: {} transactions (+{} changes during the build), {} terms, ~{} KB in {} ms",
+                rows, replayed, termCount(), footprint() / 1024, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private int indexAll(Map<Long, UserIndex> into) {
+        int rows = 0;
+        try (Stream<SearchRow> stream = repo.streamSearchRows()) {
+            for (SearchRow r : (Iterable<SearchRow>) stream::iterator) {
+                add(into, r.getUserId(), r.getId(), r.getName(), r.getNote(), r.getCategory());
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    // ======================= KEEP UP TO DATE =======================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLedgerChanged(LedgerChangedEvent event) {
+        if (event.getBefore() == null && event.getAfter() == null) {
+            // A rollup rebuild; the transactions themselves didn't change.
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            apply(users, event);
+            if (duringBuild != null) {
+                duringBuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(Map<Long, UserIndex> users, LedgerChangedEvent event) {
+        TransactionSnapshot before = event.getBefore();
+        TransactionSnapshot after = event.getAfter();
+        if (before != null) {
+            remove(users, before.getUserId(), before.getId(), before.getName(), before.getNote(), before.getCategory());
+        }
+        if (after != null) {
+            add(users, after.getUserId(), after.getId(), after.getName(), after.getNote(), after.getCategory());
+        }
+    }
+
+    private static void add(Map<Long, UserIndex> users, Long userId, Long id, String name, String note,
+                            String category) {
+        if (userId == null || id == null) {
+            return;
+        }
+        UserIndex index = users.computeIfAbsent(userId, u -> new UserIndex());
+        boolean added = false;
+        for (String term : terms(name, note, category)) {
+            added |= index.terms.computeIfAbsent(term, t -> new Postings()).add(id);
+        }
+        // Only count the category if the row is new to the index (see build()).
+        if (added && category != null && !category.isBlank()) {
+            index.categories.merge(category, 1, Integer::sum);
+        }
+    }
+
+    private static void remove(Map<Long, UserIndex> users, Long userId, Long id, String name, String note,
+                               String category) {
+        UserIndex index = userId == null ? null : users.get(userId);
+        if (index == null || id == null) {
+            return;
+        }
+        boolean removed = false;
+        for (String term : terms(name, note, category)) {
+            Postings p = index.terms.get(term);
+            if (p != null && p.remove(id)) {
+                removed = true;
+                if (p.size() == 0) {
+                    index.terms.remove(term);
+                }
+            }
+        }
+        if (removed && category != null && !category.isBlank()) {
+            index.categories.computeIfPresent(category, (c, n) -> n > 1 ? n - 1 : null);
+        }
+    }
+
+    // ======================= SEARCH =======================
+
+    // Ids (ascending) of the user's transactions that contain every word of the query,
+    // each word matching the start of a word in the name, note or category.
+    public long[] search(Long userId, String query) {
+        List<String> words = words(query);
+        if (words.isEmpty()) {
+            return new long[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            UserIndex index = users.get(userId);
+            if (index == null) {
+                return new long[0];
+            }
+
+            // Rarest word first, so the intersections only ever get smaller.
+            List<Postings> lists = new ArrayList<>(words.size());
+            for (String w : words) {
+                Postings p = index.terms.get(w.length() > MAX_PREFIX ? w.substring(0, MAX_PREFIX) : w);
+                if (p == null) {
+                    return new long[0];
+                }
+                lists.add(p);
+            }
+            lists.sort(Comparator.comparingInt(Postings::size));
+
+            long[] result = lists.get(0).toArray();
+            for (int i = 1; i < lists.size() && result.length > 0; i++) {
+                result = lists.get(i).intersect(result);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The user's categories that start with "prefix" (any case), most used first.
+    public List<String> suggestCategories(Long userId, String prefix, int limit) {
+        String p = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+
+        lock.readLock().lock();
+        try {
+            UserIndex index = users.get(userId);
+            if (index == null) {
+                return List.of();
+            }
+            return index.categories.entrySet().stream()
+                    .filter(e -> e.getKey().toLowerCase(Locale.ROOT).startsWith(p))
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ======================= SIZE =======================
+
+    // Rough heap estimate: each term's String + HashMap entry + its Postings array.
+    // (Compact strings: one byte per character for plain ASCII words.)
+    public long footprint() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (UserIndex index : users.values()) {
+                for (Map.Entry<String, Postings> e : index.terms.entrySet()) {
+                    bytes += 32                                  // HashMap.Node
+                            + 8                                  // table slot
+                            + 24 + 16 + align(e.getKey().length()) // String + its byte[]
+                            + e.getValue().footprint();
+                }
+                bytes += index.categories.size() * 96L;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            int n = 0;
+            for (UserIndex index : users.values()) {
+                n += index.terms.size();
+            }
+            return n;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long align(int bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    // ======================= TOKENIZING =======================
+
+    // Lower-cased words: runs of letters/digits, everything else splits.
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    // Every prefix (up to MAX_PREFIX characters) of every word in the three fields, once each.
+    private static Set<String> terms(String name, String note, String category) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String text : new String[] { name, note, category }) {
+            for (String w : words(text)) {
+                int max = Math.min(w.length(), MAX_PREFIX);
+                for (int len = 1; len <= max; len++) {
+                    terms.add(w.substring(0, len));
+                }
+            }
+        }
+        return terms;
+    }
+}
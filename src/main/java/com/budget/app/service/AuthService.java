@@ -0,0 +1,75 @@
+package com.budget.app.service;
+
+import com.budget.app.auth.PasswordHasher;
+import com.budget.app.model.User;
+import com.budget.app.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Login and registration.
+//
+// The database part (one lookup by the unique email index, or one insert) is quick;
+// the bcrypt part runs on PasswordHasher's own pool. Only the hash goes there: the
+// caller's thread waits for it and then does the queries itself, so the hashing threads
+// never sit waiting for a database connection.
+@Service
+public class AuthService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
+    private final UserRepository userRepo;
+    private final PasswordHasher hasher;
+
+    public AuthService(UserRepository userRepo, PasswordHasher hasher) {
+        this.userRepo = userRepo;
+        this.hasher = hasher;
+    }
+
+    // The user when the email and password match, empty otherwise.
+    // Throws RejectedExecutionException when the hashing pool is full.
+    public Optional<User> login(String email, String password) {
+        Optional<User> user = userRepo.findByEmail(email);
+        String stored = user.map(User::getPassword).orElse(null);
+
+        PasswordHasher.Check check = await(hasher.check(password, stored));
+        if (!check.matches() || user.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // The stored hash was made with an old cost: store the new one now that I have
+        // the real password.
+        if (check.newHash() != null) {
+            userRepo.updatePassword(user.get().getId(), check.newHash());
+            log.info("Re-hashed the password of user {}", user.get().getId());
+        }
+        return user;
+    }
+
+    // The new user, or empty if the email is already taken.
+    // Throws RejectedExecutionException when the hashing pool is full.
+    public Optional<User> register(String name, String email, String password) {
+        if (userRepo.existsByEmail(email)) {
+            return Optional.empty();
+        }
+        String hash = await(hasher.hash(password));
+        return Optional.of(userRepo.save(new User(name, email, hash)));
+    }
+
+    // Wait for the hashing pool and throw what it threw (RejectedExecutionException when
+    // it's full) instead of the CompletionException join() wraps it in.
+    private static <T> T await(CompletableFuture<T> work) {
+        try {
+            return work.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
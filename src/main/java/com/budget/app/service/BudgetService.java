@@ -0,0 +1,64 @@
+package com.budget.app.service;
+
+import com.budget.app.alert.BudgetAlertEngine;
+import com.budget.app.alert.BudgetStatus;
+import com.budget.app.model.Budget;
+import com.budget.app.model.Money;
+import com.budget.app.repository.BudgetRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+// Adding, changing and removing a user's monthly category limits.
+//
+// These methods are deliberately not @Transactional: each repository call commits on its
+// own, so by the time the alert engine is told to forget the user's budgets, a reload
+// can only see the new ones.
+@Service
+public class BudgetService {
+
+    private final BudgetRepository repo;
+    private final BudgetAlertEngine alerts;
+
+    public BudgetService(BudgetRepository repo, BudgetAlertEngine alerts) {
+        this.repo = repo;
+        this.alerts = alerts;
+    }
+
+    // Every budget with what's been spent this month (from the alert engine's memory).
+    public List<BudgetStatus> getStatuses(Long userId) {
+        return alerts.statuses(userId);
+    }
+
+    // The NEAR/OVER budgets, worst first.
+    public List<BudgetStatus> getAlerts(Long userId) {
+        return alerts.alerts(userId);
+    }
+
+    // Sets the limit for a category, replacing the old one if that category (any case) has one.
+    public void save(Long userId, String category, Money limit) {
+        if (category == null || category.isBlank()) {
+            throw new IllegalArgumentException("Pick a category for the budget.");
+        }
+        if (limit == null || !limit.isPositive()) {
+            throw new IllegalArgumentException("The monthly limit has to be more than $0.");
+        }
+
+        String name = category.trim();
+        Budget budget = repo.findByUserIdAndCategoryIgnoreCase(userId, name)
+                .orElseGet(() -> new Budget(userId, name, 0));
+        budget.setCategory(name);
+        budget.setLimitCents(limit.getCents());
+        repo.save(budget);
+
+        alerts.forget(userId);
+    }
+
+    // Removes one budget (only if it's this user's).
+    public void delete(Long userId, Long id) {
+        repo.findByIdAndUserId(id, userId).ifPresent(b -> {
+            repo.delete(b);
+            alerts.forget(userId);
+        });
+    }
+}
@@ -0,0 +1,150 @@
+package com.budget.app.service;
+
+import com.budget.app.model.Category;
+import com.budget.app.repository.CategoryRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Turns category names into dictionary ids (and back), see Category.
+//
+// Dictionary rows never change once written, so every committed row I've seen stays in
+// memory: a save looks its category up in a map, and the totals turn ids back into names
+// without a query. A new name is inserted once, as part of the save that first uses it.
+@Component
+public class CategoryDictionary {
+
+    private final CategoryRepository repo;
+
+    // For a new name needed outside a read-write transaction (see create()).
+    private final TransactionTemplate newTransaction;
+
+    private final Map<Integer, Category> byId = new ConcurrentHashMap<>();
+
+    // "userId|nameKey" -> row.
+    private final Map<String, Category> byKey = new ConcurrentHashMap<>();
+
+    public CategoryDictionary(CategoryRepository repo, PlatformTransactionManager transactionManager) {
+        this.repo = repo;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ======================= NAME -> ID =======================
+
+    // The user's category with this name (ignoring case and spaces around it),
+    // added to the dictionary the first time it's used. Blank means "Other".
+    public Category resolve(Long userId, String name) {
+        String key = userId + "|" + Category.key(name);
+        Category known = byKey.get(key);
+        if (known != null) {
+            return known;
+        }
+        Category mine = inserted().get(key);
+        if (mine != null) {
+            return mine;
+        }
+
+        // Not ours (those are in inserted()), so if it's there it's committed.
+        Optional<Category> found = repo.findByUserIdAndNameKey(userId, Category.key(name));
+        if (found.isPresent()) {
+            remember(found.get());
+            return found.get();
+        }
+        return create(userId, name, key);
+    }
+
+    // Inside the save's own transaction when there is one. A separate transaction would
+    // need a second pooled connection while the save holds the first, so enough saves
+    // adding new names at once could take every connection and then wait on each other
+    // until the pool timeout.
+    //
+    // Two saves adding the same new name at once: "insert ignore" makes the second wait on
+    // the unique key (user_id, name_key) until the first commits, then adds nothing, and
+    // the locking read returns the first one's row.
+    private Category create(Long userId, String name, String key) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Only happens off the save paths (startup checks, budgets); the connection
+            // of a read-only transaction may be a replica's, which can't insert.
+            Category created = newTransaction.execute(status -> {
+                repo.insertIfMissing(userId, Category.clean(name), Category.key(name));
+                return repo.findForShare(userId, Category.key(name)).orElseThrow();
+            });
+            remember(created);
+            return created;
+        }
+
+        boolean mine = repo.insertIfMissing(userId, Category.clean(name), Category.key(name)) > 0;
+        Category row = repo.findForShare(userId, Category.key(name)).orElseThrow();
+        if (mine) {
+            // Not committed yet: if the save rolls back, the row is gone again, so it only
+            // goes into the shared maps once the commit went through.
+            inserted().put(key, row);
+        } else {
+            remember(row);
+        }
+        return row;
+    }
+
+    // Rows this transaction inserted and hasn't committed yet, so the rest of a batch with
+    // the same new name finds them without a query.
+    @SuppressWarnings("unchecked")
+    private Map<String, Category> inserted() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return Map.of();
+        }
+        Map<String, Category> rows = (Map<String, Category>) TransactionSynchronizationManager.getResource(this);
+        if (rows == null) {
+            Map<String, Category> bound = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(CategoryDictionary.this);
+                    if (status == STATUS_COMMITTED) {
+                        bound.values().forEach(CategoryDictionary.this::remember);
+                    }
+                }
+            });
+            rows = bound;
+        }
+        return rows;
+    }
+
+    // ======================= ID -> NAME =======================
+
+    public Category get(Integer id) {
+        if (id == null) {
+            return null;
+        }
+        Category known = byId.get(id);
+        if (known != null) {
+            return known;
+        }
+        Category found = repo.findById(id).orElse(null);
+        if (found != null) {
+            remember(found);
+        }
+        return found;
+    }
+
+    // The display name for an id (grouped queries and the rollup only have ids).
+    public String name(Integer id) {
+        Category c = get(id);
+        return c != null ? c.getName() : Category.OTHER;
+    }
+
+    private void remember(Category c) {
+        byId.put(c.getId(), c);
+        byKey.put(c.getUserId() + "|" + c.getNameKey(), c);
+    }
+}
@@ -0,0 +1,92 @@
+package com.budget.app.service;
+
+import com.budget.app.model.Money;
+import com.budget.app.model.Transaction;
+import com.budget.app.service.TransactionService.CategoryTotal;
+
+import java.time.YearMonth;
+import java.util.List;
+
+// This holds every number my dashboard needs in one object.
+// I build it once per page view in TransactionService so the controller
+// doesn’t have to call six different methods (which each loaded the whole table).
+public class DashboardSummary {
+
+    // The month all the "monthly" numbers below belong to.
+    private final YearMonth month;
+
+    // All-time totals.
+    private final Money totalIncome;
+    private final Money totalExpenses;
+
+    // Totals just for the month above.
+    private final Money monthlyIncome;
+    private final Money monthlyExpenses;
+
+    // Ranked expense categories for the month (biggest first).
+    private final List<CategoryTotal> topCategories;
+
+    // Newest transactions for the little activity feed.
+    private final List<Transaction> recent;
+
+    public DashboardSummary(YearMonth month,
+                            Money totalIncome,
+                            Money totalExpenses,
+                            Money monthlyIncome,
+                            Money monthlyExpenses,
+                            List<CategoryTotal> topCategories,
+                            List<Transaction> recent) {
+        this.month = month;
+        this.totalIncome = totalIncome;
+        this.totalExpenses = totalExpenses;
+        this.monthlyIncome = monthlyIncome;
+        this.monthlyExpenses = monthlyExpenses;
+        // Copies that can’t be changed, since one summary can be cached and shared by many requests.
+        this.topCategories = List.copyOf(topCategories);
+        this.recent = List.copyOf(recent);
+    }
+
+    // ======================= GETTERS =======================
+
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    public Money getTotalIncome() {
+        return totalIncome;
+    }
+
+    public Money getTotalExpenses() {
+        return totalExpenses;
+    }
+
+    // Simple overall balance = income - expenses.
+    public Money getBalance() {
+        return totalIncome.minus(totalExpenses);
+    }
+
+    // How much of all-time income is left after expenses, in percent (0 when there is no income).
+    public double getSavingsRate() {
+        return getBalance().percentOf(totalIncome);
+    }
+
+    public Money getMonthlyIncome() {
+        return monthlyIncome;
+    }
+
+    public Money getMonthlyExpenses() {
+        return monthlyExpenses;
+    }
+
+    public Money getMonthlyBalance() {
+        return monthlyIncome.minus(monthlyExpenses);
+    }
+
+    public List<CategoryTotal> getTopCategories() {
+        return topCategories;
+    }
+
+    public List<Transaction> getRecent() {
+        return recent;
+    }
+}
@@ -0,0 +1,28 @@
+package com.budget.app.service;
+
+// Published by TransactionService every time the ledger changes.
+// Listeners that only care about committed data (like the cache version)
+// use @TransactionalEventListener so they run after the database commit.
+//
+// before == null  -> a new transaction was added
+// after  == null  -> a transaction was deleted
+// both set        -> a transaction was edited
+// both null       -> "everything may have changed" (ex: the rollup was rebuilt)
+public class LedgerChangedEvent {
+
+    private final TransactionSnapshot before;
+    private final TransactionSnapshot after;
+
+    public LedgerChangedEvent(TransactionSnapshot before, TransactionSnapshot after) {
+        this.before = before;
+        this.after = after;
+    }
+
+    public TransactionSnapshot getBefore() {
+        return before;
+    }
+
+    public TransactionSnapshot getAfter() {
+        return after;
+    }
+}
@@ -0,0 +1,56 @@
+package com.budget.app.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A counter per user that goes up every time that user's ledger changes.
+// The summary cache puts this number in every key, so after a save/delete
+// the old entries simply stop being looked up (and age out of the cache),
+// which means a read can never see totals from before the latest commit.
+// Each user has their own counter, so one user saving a transaction doesn't
+// throw away everybody else's cached dashboards.
+@Component
+public class LedgerVersion {
+
+    // Bumped when everything may have changed (ex: the rollup was rebuilt).
+    private final AtomicLong global = new AtomicLong();
+
+    private final Map<Long, AtomicLong> perUser = new ConcurrentHashMap<>();
+
+    // The counters start over at 0 when the app restarts, so anything handed out to
+    // clients (ETags) also carries the start time to keep old values from matching again.
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    // Both counters only go up, so their sum changes whenever either one does.
+    public long current(Long userId) {
+        AtomicLong user = userId == null ? null : perUser.get(userId);
+        return global.get() + (user != null ? user.get() : 0);
+    }
+
+    // A value that changes every time the user's ledger does, for ETags.
+    public String tag(Long userId) {
+        return epoch + "-" + current(userId);
+    }
+
+    // I only bump after the commit. If I bumped before, a reader could
+    // cache the old totals under the new version number.
+    // fallbackExecution covers changes made outside a transaction.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLedgerChanged(LedgerChangedEvent event) {
+        if (event.getBefore() == null && event.getAfter() == null) {
+            global.incrementAndGet();
+            return;
+        }
+
+        TransactionSnapshot changed = event.getAfter() != null ? event.getAfter() : event.getBefore();
+        if (changed.getUserId() == null) {
+            global.incrementAndGet();
+        } else {
+            perUser.computeIfAbsent(changed.getUserId(), id -> new AtomicLong()).incrementAndGet();
+        }
+    }
+}
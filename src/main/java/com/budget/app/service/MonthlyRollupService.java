@@ -0,0 +1,269 @@
+package com.budget.app.service;
+
+import com.budget.app.journal.LedgerJournal;
+import com.budget.app.model.MonthlyCategoryTotal;
+import com.budget.app.model.TransactionType;
+import com.budget.app.repository.MonthlyCategoryTotalRepository;
+import com.budget.app.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+@Service
+public class MonthlyRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(MonthlyRollupService.class);
+
+    private final MonthlyCategoryTotalRepository rollupRepo;
+    private final TransactionRepository transactionRepo;
+    private final ApplicationEventPublisher events;
+
+    // Only for rows from before the dictionary that still have no category (see expectedRows).
+    private final CategoryDictionary categories;
+
+    // Lets the startup check skip the full scan when nothing changed behind the app's back.
+    private final LedgerJournal journal;
+
+    // If true, I compare the rollup against the transactions table once on startup
+    // and rebuild it when they don’t match (for example the first time this runs
+    // against an existing database).
+    private final boolean verifyOnStartup;
+
+    public MonthlyRollupService(MonthlyCategoryTotalRepository rollupRepo,
+                                TransactionRepository transactionRepo,
+                                ApplicationEventPublisher events,
+                                CategoryDictionary categories,
+                                LedgerJournal journal,
+                                @Value("${budget.rollup.verify-on-startup:true}") boolean verifyOnStartup) {
+        this.rollupRepo = rollupRepo;
+        this.transactionRepo = transactionRepo;
+        this.events = events;
+        this.categories = categories;
+        this.journal = journal;
+        this.verifyOnStartup = verifyOnStartup;
+    }
+
+    // ======================= INCREMENTAL UPDATES =======================
+    // These are called by TransactionService inside its own transaction,
+    // so the rollup and the transactions table always commit together.
+
+    // A new transaction was added.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(TransactionSnapshot after) {
+        apply(after, 1);
+    }
+
+    // A batch of new transactions was added.
+    // I add them up per bucket first so each rollup row is only touched once.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addAll(List<TransactionSnapshot> batch) {
+        Map<Bucket, MonthlyCategoryTotal> deltas = new LinkedHashMap<>();
+        for (TransactionSnapshot t : batch) {
+            Bucket key = Bucket.of(t);
+            MonthlyCategoryTotal delta = deltas.computeIfAbsent(key, Bucket::newRow);
+            delta.setTotalCents(delta.getTotalCents() + t.getAmountCents());
+            delta.setCount(delta.getCount() + 1);
+        }
+
+        // One upsert per bucket (see applyDelta), in a fixed order so two batches touching
+        // the same buckets take the row locks the same way round and can't deadlock.
+        List<MonthlyCategoryTotal> rows = new ArrayList<>(deltas.values());
+        rows.sort(Comparator.comparing(MonthlyCategoryTotal::getUserId)
+                .thenComparingInt(MonthlyCategoryTotal::getMonthKey)
+                .thenComparingInt(r -> r.getType().getCode())
+                .thenComparingInt(MonthlyCategoryTotal::getCategoryId));
+        for (MonthlyCategoryTotal delta : rows) {
+            rollupRepo.addToBucket(delta.getUserId(), delta.getMonthKey(), delta.getType().getCode(),
+                    delta.getCategoryId(), delta.getTotalCents(), delta.getCount());
+        }
+    }
+
+    // A transaction was deleted.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remove(TransactionSnapshot before) {
+        apply(before, -1);
+    }
+
+    // A transaction was edited.
+    // If it stayed in the same bucket I only apply the difference in amount;
+    // otherwise I take it out of the old bucket and put it in the new one.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void change(TransactionSnapshot before, TransactionSnapshot after) {
+        Bucket bucket = Bucket.of(after);
+        if (bucket.equals(Bucket.of(before))) {
+            if (before.getAmountCents() != after.getAmountCents()) {
+                applyDelta(bucket, after.getAmountCents() - before.getAmountCents(), 0);
+            }
+            return;
+        }
+        apply(before, -1);
+        apply(after, 1);
+    }
+
+    private void apply(TransactionSnapshot t, int sign) {
+        applyDelta(Bucket.of(t), sign * t.getAmountCents(), sign);
+    }
+
+    // The delta goes in with an upsert, so a bucket's first two saves can run at the same
+    // time (a locked select can't lock a row that doesn't exist yet, and both would insert).
+    private void applyDelta(Bucket b, long centsDelta, long countDelta) {
+        int typeCode = b.type().getCode();
+        rollupRepo.addToBucket(b.userId(), b.monthKey(), typeCode, b.categoryId(), centsDelta, countDelta);
+
+        // Once a bucket is empty I drop it so old categories don’t pile up as zero rows.
+        if (countDelta < 0) {
+            rollupRepo.deleteIfEmpty(b.userId(), b.monthKey(), typeCode, b.categoryId());
+        }
+    }
+
+    // ======================= REBUILD + CONSISTENCY CHECK =======================
+
+    // Throw the rollup away and recompute it from the transactions table
+    // with one grouped query. Returns how many rollup rows were written.
+    @Transactional
+    public int rebuild() {
+        rollupRepo.deleteAllRows();
+
+        List<MonthlyCategoryTotal> rows = new ArrayList<>(expectedRows().values());
+        rollupRepo.saveAll(rows);
+
+        // Every total may have moved, so anything cached from the old rollup has to go.
+        events.publishEvent(new LedgerChangedEvent(null, null));
+
+        log.info("Rebuilt monthly rollup: {} rows", rows.size());
+        return rows.size();
+    }
+
+    // Compare every rollup row with what the transactions table says it should be.
+    // Returns a list of human-readable problems (empty list = everything matches).
+    @Transactional(readOnly = true)
+    public List<String> check() {
+        Map<Bucket, MonthlyCategoryTotal> expected = expectedRows();
+        Map<Bucket, MonthlyCategoryTotal> actual = new HashMap<>();
+        for (MonthlyCategoryTotal row : rollupRepo.findAll()) {
+            actual.put(Bucket.of(row), row);
+        }
+
+        List<String> problems = new ArrayList<>();
+        for (Map.Entry<Bucket, MonthlyCategoryTotal> e : expected.entrySet()) {
+            MonthlyCategoryTotal want = e.getValue();
+            MonthlyCategoryTotal got = actual.remove(e.getKey());
+
+            if (got == null) {
+                problems.add("missing " + e.getKey());
+            } else if (got.getCount() != want.getCount() || got.getTotalCents() != want.getTotalCents()) {
+                // Cents are exact, so any difference at all is a real mismatch.
+                problems.add("mismatch " + e.getKey()
+                        + ": rollup=" + got.getTotalCents() + "/" + got.getCount()
+                        + " actual=" + want.getTotalCents() + "/" + want.getCount());
+            }
+        }
+        for (Bucket leftover : actual.keySet()) {
+            problems.add("unexpected " + leftover);
+        }
+        return problems;
+    }
+
+    // On startup: check the rollup and rebuild it if anything is off.
+    // The ledger journal is asked first: if its last snapshot plus the changes recorded
+    // since add up to exactly what the rollup holds, the rollup was kept in step the whole
+    // time and the full scan of the transactions table is skipped.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void verifyOnStartup() {
+        if (!verifyOnStartup) {
+            journal.reseed();
+            return;
+        }
+        if (journal.restore()) {
+            return;
+        }
+
+        List<String> problems = check();
+        if (!problems.isEmpty()) {
+            log.warn("Monthly rollup is out of sync ({} problems, first: {}), rebuilding",
+                    problems.size(), problems.get(0));
+            // The journal starts over from the rebuilt rollup once it's committed.
+            rebuild();
+        } else {
+            journal.reseed();
+        }
+    }
+
+    // Every check-interval-ms (default 6 h) the full check runs anyway. The startup shortcut
+    // above only proves the rollup followed every change the app made; a transaction edited
+    // by hand (or by anything else that bypasses the app) is only found here.
+    // Runs on the primary (not read-only), like the startup check, so replica lag can't
+    // show up as a mismatch. A save committing while it runs can, so a mismatch is checked
+    // a second time before the rollup is rebuilt.
+    @Scheduled(initialDelayString = "${budget.rollup.check-interval-ms:21600000}",
+            fixedDelayString = "${budget.rollup.check-interval-ms:21600000}")
+    @Transactional
+    public void periodicCheck() {
+        if (check().isEmpty()) {
+            return;
+        }
+        List<String> problems = check();
+        if (!problems.isEmpty()) {
+            log.warn("Monthly rollup is out of sync ({} problems, first: {}), rebuilding",
+                    problems.size(), problems.get(0));
+            rebuild();
+        }
+    }
+
+    // Group the transactions table the same way the rollup is keyed.
+    private Map<Bucket, MonthlyCategoryTotal> expectedRows() {
+        Map<Bucket, MonthlyCategoryTotal> rows = new LinkedHashMap<>();
+
+        for (TransactionRepository.UserMonthCategoryTotal g : transactionRepo.sumAllByUserMonthAndCategory()) {
+            Long userId = g.getUserId();
+            int monthKey = g.getYear() == null ? MonthlyCategoryTotal.NO_MONTH : g.getYear() * 100 + g.getMonth();
+            TransactionType type = g.getType() != null ? g.getType() : TransactionType.EXPENSE;
+            // A row without a category can only be one the migration hasn't reached;
+            // it's counted as "Other", the same as it's shown.
+            int categoryId = g.getCategoryId() != null
+                    ? g.getCategoryId() : categories.resolve(userId, null).getId();
+
+            // Groups can still fold into one key that way, so I merge them.
+            MonthlyCategoryTotal row = rows.computeIfAbsent(new Bucket(userId, monthKey, type, categoryId),
+                    Bucket::newRow);
+            row.setTotalCents(row.getTotalCents() + (g.getTotalCents() != null ? g.getTotalCents() : 0L));
+            row.setCount(row.getCount() + g.getCount());
+        }
+        return rows;
+    }
+
+    // ======================= KEY HELPERS =======================
+
+    // Which rollup row a transaction is counted in. A record, so it works as a map key
+    // (equals/hashCode over four numbers, no string building per row).
+    private record Bucket(Long userId, int monthKey, TransactionType type, int categoryId) {
+
+        static Bucket of(TransactionSnapshot t) {
+            return new Bucket(t.getUserId(), MonthlyCategoryTotal.monthKey(t.getDate()),
+                    t.getType(), t.getCategoryId());
+        }
+
+        static Bucket of(MonthlyCategoryTotal row) {
+            return new Bucket(row.getUserId(), row.getMonthKey(), row.getType(), row.getCategoryId());
+        }
+
+        MonthlyCategoryTotal newRow() {
+            return new MonthlyCategoryTotal(userId, monthKey, type, categoryId);
+        }
+
+        @Override
+        public String toString() {
+            return userId + "/" + monthKey + "/" + type + "/" + categoryId;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.budget.app.service;
+
+import com.budget.app.datasource.ReadYourWrites;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+// Runs independent read queries at the same time (the dashboard's totals, monthly
+// numbers, top categories and recent feed don't depend on each other).
+//
+// Every query running on another thread needs its own database connection, so the
+// number of those is capped with a semaphore that is kept smaller than the Hikari pool.
+// If no permit is free right now, the query simply runs on the calling thread like
+// before. That way a busy server falls back to one connection per request instead of
+// queueing for connections, and requests can never wait on each other for the pool.
+//
+// The threads come from Spring Boot's applicationTaskExecutor: a thread pool on Java 17,
+// virtual threads when spring.threads.virtual.enabled=true on Java 21. Each query runs as
+// the request's user, so it goes to the primary or the replica like the request would
+// (see ReadYourWrites).
+@Component
+public class QueryFanOut {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryFanOut.class);
+
+    private final AsyncTaskExecutor executor;
+    private final Semaphore permits;
+    private final ReadYourWrites readYourWrites;
+
+    // Every connection pool there is: just one, or the primary and the replica.
+    public QueryFanOut(@Qualifier("applicationTaskExecutor") AsyncTaskExecutor executor,
+                       List<HikariDataSource> pools,
+                       ReadYourWrites readYourWrites,
+                       @Value("${budget.fan-out.max-parallel-queries:6}") int maxParallel) {
+        this.executor = executor;
+        this.readYourWrites = readYourWrites;
+        this.permits = new Semaphore(guarded(maxParallel, pools));
+    }
+
+    // Leave at least a couple of connections for requests that aren't fanning out
+    // (saves, imports, the calling threads themselves). The queries can end up on either
+    // pool, so the smaller one decides.
+    private static int guarded(int maxParallel, List<HikariDataSource> pools) {
+        for (HikariDataSource hikari : pools) {
+            int limit = Math.max(0, hikari.getMaximumPoolSize() - 2);
+            if (maxParallel > limit) {
+                log.warn("budget.fan-out.max-parallel-queries={} is too close to the connection pool size ({}), using {}",
+                        maxParallel, hikari.getMaximumPoolSize(), limit);
+                maxParallel = limit;
+            }
+        }
+        return Math.max(0, maxParallel);
+    }
+
+    // Starts the query on another thread when a permit is free, otherwise runs it right here.
+    public <T> CompletableFuture<T> submit(Supplier<T> query) {
+        if (permits.tryAcquire()) {
+            Long userId = readYourWrites.currentUser();
+            try {
+                return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return readYourWrites.asUser(userId, query);
+                    } finally {
+                        permits.release();
+                    }
+                }, executor);
+            } catch (RejectedExecutionException e) {
+                permits.release();
+            }
+        }
+        return CompletableFuture.completedFuture(query.get());
+    }
+
+    // Waits for a submitted query and hands back its result, rethrowing its exception as-is.
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.budget.app.service;
+
+import com.budget.app.model.Money;
+import com.budget.app.model.RecurringRule;
+import com.budget.app.model.Transaction;
+import com.budget.app.model.TransactionType;
+import com.budget.app.repository.RecurringRuleRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+// Recurring transactions: the rules themselves, writing their due occurrences, and
+// working out upcoming ones for the forecast (without writing anything).
+@Service
+public class RecurringService {
+
+    // One projected occurrence (not a saved transaction).
+    public record Occurrence(Long ruleId, String name, Money amount, String type, String category,
+                             LocalDate date) {
+    }
+
+    // A daily rule over a long range would otherwise make thousands of rows.
+    private static final int MAX_PROJECTED_PER_RULE = 100;
+
+    private final RecurringRuleRepository repo;
+    private final TransactionService transactionService;
+
+    public RecurringService(RecurringRuleRepository repo, TransactionService transactionService) {
+        this.repo = repo;
+        this.transactionService = transactionService;
+    }
+
+    // ======================= RULES =======================
+
+    @Transactional(readOnly = true)
+    public List<RecurringRule> getRules(Long userId) {
+        return repo.findByUserIdOrderByNextDueAscNameAsc(userId);
+    }
+
+    // Saves a new rule for the user. Occurrences already due (a start date in the past)
+    // are written by the scheduler on its next run, not on this request.
+    @Transactional
+    public RecurringRule create(Long userId, RecurringRule rule) {
+        if (rule.getName() == null || rule.getName().isBlank()) {
+            throw new IllegalArgumentException("Give the recurring transaction a name.");
+        }
+        if (rule.getAmountCents() <= 0) {
+            throw new IllegalArgumentException("The amount has to be more than $0.");
+        }
+        if (rule.getFrequency() == null || rule.getStartDate() == null) {
+            throw new IllegalArgumentException("Pick how often it repeats and when it starts.");
+        }
+        if (rule.getEvery() < 1) {
+            throw new IllegalArgumentException("\"Every\" has to be at least 1.");
+        }
+        if (rule.getEndDate() != null && rule.getEndDate().isBefore(rule.getStartDate())) {
+            throw new IllegalArgumentException("The end date can't be before the start date.");
+        }
+        if (rule.getCategory() == null || rule.getCategory().isBlank()) {
+            throw new IllegalArgumentException("Pick a category.");
+        }
+
+        rule.setUserId(userId);
+        rule.setName(rule.getName().trim());
+        rule.setCategory(rule.getCategory().trim());
+        // Refuses anything but INCOME/EXPENSE (blank = EXPENSE), with a message for the form.
+        rule.setType(TransactionType.of(rule.getType()).name());
+        rule.startSchedule();
+        return repo.save(rule);
+    }
+
+    // Stops the rule. Transactions it already wrote stay in the ledger.
+    @Transactional
+    public void delete(Long userId, Long id) {
+        repo.findByIdAndUserId(id, userId).ifPresent(repo::delete);
+    }
+
+    // ======================= WRITING DUE OCCURRENCES =======================
+
+    // Writes up to "max" of one rule's occurrences that are due on or before "today",
+    // and moves the rule's cursor past them, all in ONE database transaction:
+    // - the inserts go through saveBatch (JDBC batches, one rollup update per bucket,
+    //   and the usual after-commit events for caches, search, live dashboards and alerts);
+    // - the cursor update carries the rule's @Version, so if another run (or another
+    //   instance) already wrote these occurrences, this commit fails and nothing is duplicated.
+    //
+    // Returns how many were written (0 = nothing due, or the rule is gone / finished).
+    @Transactional
+    public int materializeDue(Long ruleId, LocalDate today, int max) {
+        RecurringRule rule = repo.findById(ruleId).orElse(null);
+        if (rule == null) {
+            return 0;
+        }
+
+        List<Transaction> batch = new ArrayList<>();
+        long k = rule.getNextIndex();
+        LocalDate date = rule.getNextDue();
+        while (date != null && !date.isAfter(today) && batch.size() < max) {
+            batch.add(rule.toTransaction(date));
+            date = rule.occurrence(++k);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // Change the rule first: saveBatch flushes (which runs the version-checked UPDATE)
+        // and then clears the persistence context.
+        rule.advance(batch.size());
+        transactionService.saveBatch(rule.getUserId(), batch);
+        return batch.size();
+    }
+
+    // ======================= FORECAST =======================
+
+    // Every occurrence of the user's rules from "from" to "to" that hasn't been written yet,
+    // by date. Calculated from the rules on the fly; nothing is stored ahead of time.
+    @Transactional(readOnly = true)
+    public List<Occurrence> getUpcoming(Long userId, LocalDate from, LocalDate to) {
+        List<Occurrence> upcoming = new ArrayList<>();
+        for (RecurringRule rule : repo.findByUserIdOrderByNextDueAscNameAsc(userId)) {
+            long k = rule.getNextIndex();
+            int added = 0;
+            for (LocalDate date = rule.getNextDue();
+                 date != null && !date.isAfter(to) && added < MAX_PROJECTED_PER_RULE;
+                 date = rule.occurrence(++k)) {
+                if (!date.isBefore(from)) {
+                    upcoming.add(new Occurrence(rule.getId(), rule.getName(), rule.getAmount(),
+                            rule.getType(), rule.getCategory(), date));
+                    added++;
+                }
+            }
+        }
+        upcoming.sort(Comparator.comparing(Occurrence::date).thenComparing(Occurrence::name));
+        return upcoming;
+    }
+
+    // Net of the upcoming occurrences (income minus expenses), for the forecast total.
+    public static Money net(List<Occurrence> occurrences) {
+        long cents = 0;
+        for (Occurrence o : occurrences) {
+            long amount = o.amount().getCents();
+            cents += "INCOME".equals(o.type().toUpperCase(Locale.ROOT)) ? amount : -amount;
+        }
+        return Money.ofCents(cents);
+    }
+}
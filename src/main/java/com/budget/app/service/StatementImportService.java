@@ -0,0 +1,98 @@
+package com.budget.app.service;
+
+import com.budget.app.importer.ImportResult;
+import com.budget.app.importer.StatementParser;
+import com.budget.app.importer.StatementRow;
+import com.budget.app.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Streams a bank statement file (CSV or OFX) into the transactions table.
+// Rows are read one at a time and saved in chunks of "chunk-size", each chunk in
+// its own database transaction with batched inserts, so memory stays flat and
+// a bad row never throws away the rows that were already fine.
+@Service
+public class StatementImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementImportService.class);
+
+    private final TransactionService transactionService;
+    private final int chunkSize;
+
+    public StatementImportService(TransactionService transactionService,
+                                  @Value("${budget.import.chunk-size:500}") int chunkSize) {
+        this.transactionService = transactionService;
+        this.chunkSize = chunkSize;
+    }
+
+    // Every imported row belongs to "userId".
+    public ImportResult importStatement(Long userId, String fileName, InputStream in) {
+        ImportResult result = new ImportResult();
+        long start = System.nanoTime();
+
+        List<Transaction> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            StatementParser parser = StatementParser.forFile(fileName, reader);
+
+            StatementRow row;
+            while ((row = parser.next()) != null) {
+                result.rowRead();
+
+                if (!row.isOk()) {
+                    result.rowFailed(row.getLineNumber(), row.getError());
+                    continue;
+                }
+
+                chunk.add(row.getTransaction());
+                chunkLines.add(row.getLineNumber());
+                if (chunk.size() >= chunkSize) {
+                    flush(userId, chunk, chunkLines, result);
+                }
+            }
+            flush(userId, chunk, chunkLines, result);
+        } catch (IllegalArgumentException | IOException e) {
+            // Problems with the file itself (empty, wrong header, unreadable).
+            // Chunks that were already saved stay saved.
+            result.setFileError(e.getMessage());
+        }
+
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        log.info("Imported {} of {} rows from {} in {} ms ({} rows/s, {} failed)",
+                result.getImported(), result.getRowsRead(), fileName, result.getElapsedMillis(),
+                Math.round(result.getRowsPerSecond()), result.getFailed());
+        return result;
+    }
+
+    // Save one chunk. If the database rejects it (ex: a value too long for a column),
+    // I report every row in the chunk as failed and keep going with the next chunk.
+    private void flush(Long userId, List<Transaction> chunk, List<Long> chunkLines, ImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionService.saveBatch(userId, chunk);
+            result.imported(chunk.size());
+        } catch (RuntimeException e) {
+            log.warn("Import chunk of {} rows failed", chunk.size(), e);
+            for (Long line : chunkLines) {
+                result.rowFailed(line, "not saved: " + e.getMessage());
+            }
+        }
+
+        chunk.clear();
+        chunkLines.clear();
+    }
+}
@@ -0,0 +1,191 @@
+package com.budget.app.service;
+
+import com.budget.app.model.Transaction;
+import com.budget.app.model.TransactionType;
+import com.budget.app.repository.TransactionRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Writes transactions out as CSV or NDJSON (one JSON object per line).
+// Rows are streamed from the database straight into the writer one at a time,
+// so exporting a million rows uses about as much memory as exporting ten.
+@Service
+public class TransactionExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionExportService.class);
+
+    // Same column names the CSV importer understands, so an export can be imported again.
+    private static final String CSV_HEADER = "date,name,amount,type,category,note";
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        // "csv" / "ndjson" from the URL. Returns null for anything else.
+        public static Format parse(String value) {
+            if (value == null || value.isBlank()) {
+                return CSV;
+            }
+            for (Format f : values()) {
+                if (f.name().equalsIgnoreCase(value.trim())) {
+                    return f;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final TransactionRepository repo;
+    private final ObjectMapper objectMapper;
+
+    // Used to detach each row after it is written, so the persistence context
+    // doesn’t keep a reference to every exported transaction until the end.
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TransactionExportService(TransactionRepository repo, ObjectMapper objectMapper) {
+        this.repo = repo;
+        this.objectMapper = objectMapper;
+    }
+
+    // Writes every transaction of this user matching the filters (null = no filter) to "out",
+    // oldest first. The caller owns the writer; I only flush it at the end.
+    // The stream needs an open database transaction for as long as rows are being read.
+    // Returns how many rows were written.
+    @Transactional(readOnly = true)
+    public long export(Long userId, Format format, String type, LocalDate from, LocalDate to,
+                       Writer out) throws IOException {
+        TransactionType typeFilter = TransactionType.filter(type);
+
+        long start = System.nanoTime();
+        long rows;
+        try (Stream<Transaction> stream = repo.streamForExport(userId, typeFilter, from, to)) {
+            rows = format == Format.NDJSON
+                    ? writeNdjson(stream.iterator(), out)
+                    : writeCsv(stream.iterator(), out);
+        }
+        out.flush();
+
+        log.info("Exported {} transactions as {} in {} ms",
+                rows, format, (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    // ======================= CSV =======================
+
+    private long writeCsv(Iterator<Transaction> rows, Writer out) throws IOException {
+        out.write(CSV_HEADER);
+        out.write('\n');
+
+        long count = 0;
+        while (rows.hasNext()) {
+            Transaction t = rows.next();
+            out.write(t.getDate() != null ? t.getDate().toString() : "");
+            out.write(',');
+            writeCsvField(t.getName(), out);
+            out.write(',');
+            out.write(t.getAmount().toString());
+            out.write(',');
+            writeCsvField(t.getType().name(), out);
+            out.write(',');
+            writeCsvField(t.getCategory(), out);
+            out.write(',');
+            writeCsvField(t.getNote(), out);
+            out.write('\n');
+
+            entityManager.detach(t);
+            count++;
+        }
+        return count;
+    }
+
+    // Quotes a value only when it has to (comma, quote or line break inside),
+    // doubling any quotes, which is what Excel and my importer expect.
+    private static void writeCsvField(String value, Writer out) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                needsQuotes = true;
+                break;
+            }
+        }
+        if (!needsQuotes) {
+            out.write(value);
+            return;
+        }
+
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    // ======================= NDJSON =======================
+
+    // One generator for the whole export, writing straight into the same writer.
+    // I don’t let it close the writer because the controller owns the response stream.
+    private long writeNdjson(Iterator<Transaction> rows, Writer out) throws IOException {
+        long count = 0;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Jackson puts a space between top-level values by default; I write my own newline instead.
+            json.setRootValueSeparator(null);
+
+            while (rows.hasNext()) {
+                Transaction t = rows.next();
+                json.writeStartObject();
+                json.writeNumberField("id", t.getId());
+                json.writeStringField("date", t.getDate() != null ? t.getDate().toString() : null);
+                json.writeStringField("name", t.getName());
+                json.writeNumberField("amount", t.getAmount().toBigDecimal());
+                json.writeStringField("type", t.getType().name());
+                json.writeStringField("category", t.getCategory());
+                json.writeStringField("note", t.getNote());
+                json.writeEndObject();
+                json.writeRaw('\n');
+
+                entityManager.detach(t);
+                count++;
+            }
+        }
+        return count;
+    }
+}
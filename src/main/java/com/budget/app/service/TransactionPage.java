@@ -0,0 +1,100 @@
+package com.budget.app.service;
+
+import com.budget.app.model.Transaction;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+// One page of the transactions list plus the cursors to move around.
+// A cursor is just the (date, id) of the row at the edge of the page,
+// written as "2025-12-03_42" so it can go straight into a link. A row without a date
+// is written "none_42"; those rows come before every dated one (see TransactionService.getPage).
+public class TransactionPage {
+
+    // Small value class for the (date, id) position of one row.
+    public static class Cursor {
+        private static final String NO_DATE = "none";
+
+        private final LocalDate date;
+        private final Long id;
+
+        public Cursor(LocalDate date, Long id) {
+            this.date = date;
+            this.id = id;
+        }
+
+        public static Cursor of(Transaction t) {
+            return new Cursor(t.getDate(), t.getId());
+        }
+
+        // Turn "2025-12-03_42" back into a cursor.
+        // Anything that doesn’t parse just gives null, which means "start from the first page".
+        public static Cursor parse(String value) {
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+
+            int split = value.lastIndexOf('_');
+            if (split <= 0) {
+                return null;
+            }
+
+            try {
+                String date = value.substring(0, split);
+                return new Cursor(date.equals(NO_DATE) ? null : LocalDate.parse(date),
+                        Long.parseLong(value.substring(split + 1)));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                return null;
+            }
+        }
+
+        // Null for a row without a date.
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String toString() {
+            return (date == null ? NO_DATE : date) + "_" + id;
+        }
+    }
+
+    private final List<Transaction> items;
+
+    // Cursor to pass as "after" for the next page (null if this is the last page).
+    private final String nextCursor;
+
+    // Cursor to pass as "before" for the previous page (null if this is the first page).
+    private final String previousCursor;
+
+    public TransactionPage(List<Transaction> items, String nextCursor, String previousCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.previousCursor = previousCursor;
+    }
+
+    public List<Transaction> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public String getPreviousCursor() {
+        return previousCursor;
+    }
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+
+    public boolean isHasPrevious() {
+        return previousCursor != null;
+    }
+}
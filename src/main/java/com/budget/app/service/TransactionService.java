@@ -1,23 +1,43 @@
 package com.budget.app.service;
 
+import com.budget.app.analytics.Trend;
+import com.budget.app.analytics.TrendIndex;
+import com.budget.app.config.CacheConfig;
+import com.budget.app.model.Money;
+import com.budget.app.model.MonthlyCategoryTotal;
 import com.budget.app.model.Transaction;
+import com.budget.app.model.TransactionType;
+import com.budget.app.repository.MonthlyCategoryTotalRepository;
 import com.budget.app.repository.TransactionRepository;
+import com.budget.app.search.TransactionSearchIndex;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
+// Every public method is timed as "budget.service" (tagged with the method name),
+// so slow or suddenly busy service calls show up in /actuator/metrics.
 @Service
+@Timed(value = "budget.service", description = "TransactionService calls")
 public class TransactionService {
 
     // Small helper class I use for category analytics.
     // It basically holds "category name" + "total spent in that category".
     public static class CategoryTotal {
         private final String category;
-        private final double total;
+        private final Money total;
 
-        public CategoryTotal(String category, double total) {
+        public CategoryTotal(String category, Money total) {
             this.category = category;
             this.total = total;
         }
@@ -26,7 +46,7 @@ public class TransactionService {
             return category;
         }
 
-        public double getTotal() {
+        public Money getTotal() {
             return total;
         }
     }
@@ -35,123 +55,477 @@ public class TransactionService {
     // I keep all the database calls inside the repository.
     private final TransactionRepository repo;
 
-    // Constructor injection so Spring gives me the repo.
-    public TransactionService(TransactionRepository repo) {
+    // Monthly rollup rows (one per month/type/category) that every total is read from.
+    private final MonthlyCategoryTotalRepository rollupRepo;
+
+    // Keeps the rollup in sync whenever a transaction is saved or deleted.
+    private final MonthlyRollupService rollup;
+
+    // Lets everything that depends on the ledger (like the cache version) know it changed.
+    private final ApplicationEventPublisher events;
+
+    // Runs the dashboard's independent queries at the same time.
+    private final QueryFanOut fanOut;
+
+    // Finds the ids that match a search without touching the database.
+    private final TransactionSearchIndex searchIndex;
+
+    // Prefix sums per day, so a trend over any range doesn't scan the transactions.
+    private final TrendIndex trendIndex;
+
+    // Category names <-> dictionary ids (rows and the rollup only store the id).
+    private final CategoryDictionary categories;
+
+    // Used by saveBatch() to flush and clear after a big insert.
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Constructor injection so Spring gives me the repos.
+    public TransactionService(TransactionRepository repo,
+                              MonthlyCategoryTotalRepository rollupRepo,
+                              MonthlyRollupService rollup,
+                              ApplicationEventPublisher events,
+                              QueryFanOut fanOut,
+                              TransactionSearchIndex searchIndex,
+                              TrendIndex trendIndex,
+                              CategoryDictionary categories) {
         this.repo = repo;
+        this.rollupRepo = rollupRepo;
+        this.rollup = rollup;
+        this.events = events;
+        this.fanOut = fanOut;
+        this.searchIndex = searchIndex;
+        this.trendIndex = trendIndex;
+        this.categories = categories;
     }
 
     // ======================= BASIC CRUD HELPERS =======================
+    // Every method takes the logged-in user's id first and only ever reads or
+    // changes that user's transactions.
 
     // Get every transaction from the database,
     // ordered so the newest ones show up first.
-    public List<Transaction> getAll() {
-        return repo.findAllByOrderByDateDesc();
+    @Transactional(readOnly = true)
+    public List<Transaction> getAll(Long userId) {
+        return repo.findByUserIdOrderByDateDesc(userId);
     }
 
     // Grab only the most recent "limit" number of transactions.
     // I mainly use this for the little recent activity list on the dashboard.
-    public List<Transaction> getRecent(int limit) {
-        return getAll().stream()
-                .limit(limit)
-                .collect(Collectors.toList());
+    // The LIMIT runs in the database, so only "limit" rows are ever loaded.
+    @Transactional(readOnly = true)
+    public List<Transaction> getRecent(Long userId, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        return repo.findByUserIdOrderByDateDescIdDesc(userId, Limit.of(limit));
     }
 
     // Find one transaction by its id.
-    // If it doesn’t exist, I just return null instead of blowing up.
-    public Transaction getById(Long id) {
-        return repo.findById(id).orElse(null);
+    // If it doesn’t exist (or belongs to someone else), I just return null instead of blowing up.
+    // I load by id and check the owner afterwards so the lookup can still come
+    // from the second-level cache.
+    @Transactional(readOnly = true)
+    public Transaction getById(Long userId, Long id) {
+        return findOwned(userId, id).orElse(null);
+    }
+
+    private Optional<Transaction> findOwned(Long userId, Long id) {
+        return repo.findById(id).filter(t -> userId.equals(t.getUserId()));
     }
 
     // Save or update a transaction.
-    // If the entity has an id, JPA treats it like an update;
-    // if it doesn’t, it’s a new insert.
-    public void save(Transaction t) {
-        repo.save(t);
+    // If the entity has an id, it's an edit of that row; if it doesn't, it's a new insert.
+    // The rollup is updated in the same database transaction, so the totals
+    // can never disagree with the rows they were built from.
+    // The owner always comes from the logged-in user, never from the form, and an
+    // edit of a transaction that isn't this user's is ignored.
+    @Transactional
+    public void save(Long userId, Transaction t) {
+        TransactionSnapshot before = null;
+        Transaction target = t;
+        if (t.getId() != null) {
+            Optional<Transaction> existing = findOwned(userId, t.getId());
+            if (existing.isEmpty()) {
+                return;
+            }
+            // For an edit I copy the form's values onto the row I just loaded instead of
+            // merging the form object. A merge would also copy the fields the form doesn't
+            // have (like the read-only user relationship) and Hibernate warns about each one.
+            target = existing.get();
+            before = TransactionSnapshot.of(target);
+            copyFormFields(t, target);
+        }
+        target.setUserId(userId);
+        resolveCategory(userId, target);
+
+        // The loaded row is written back when the transaction commits (dirty checking),
+        // so only a new one needs save().
+        Transaction saved = before == null ? repo.save(target) : target;
+        TransactionSnapshot after = TransactionSnapshot.of(saved);
+
+        if (before == null) {
+            rollup.add(after);
+        } else {
+            rollup.change(before, after);
+        }
+        events.publishEvent(new LedgerChangedEvent(before, after));
+    }
+
+    // Everything the add/edit form can change.
+    private static void copyFormFields(Transaction form, Transaction row) {
+        row.setName(form.getName());
+        row.setAmount(form.getAmount());
+        row.setType(form.getType());
+        row.setCategory(form.getCategory());
+        row.setDate(form.getDate());
+        row.setNote(form.getNote());
+    }
+
+    // Insert a whole batch of NEW transactions in one database transaction.
+    // This is what the statement import uses: with the pooled id generator and
+    // hibernate.jdbc.batch_size, the inserts go out as JDBC batches, and the rollup
+    // gets one update per (month, type, category) instead of one per row.
+    // I also flush and clear the persistence context so a long import
+    // doesn't keep every row it has ever inserted in memory.
+    @Transactional
+    public List<Transaction> saveBatch(Long userId, List<Transaction> batch) {
+        for (Transaction t : batch) {
+            t.setUserId(userId);
+            resolveCategory(userId, t);
+        }
+        List<Transaction> saved = repo.saveAll(batch);
+
+        List<TransactionSnapshot> snapshots = new ArrayList<>(saved.size());
+        for (Transaction t : saved) {
+            snapshots.add(TransactionSnapshot.of(t));
+        }
+
+        // Flush + clear BEFORE touching the rollup. Otherwise every rollup query
+        // auto-flushes and dirty-checks the whole batch again.
+        entityManager.flush();
+        entityManager.clear();
+
+        rollup.addAll(snapshots);
+
+        for (TransactionSnapshot after : snapshots) {
+            events.publishEvent(new LedgerChangedEvent(null, after));
+        }
+        return saved;
     }
 
-    // Delete a transaction based on its id.
-    public void delete(Long id) {
-        repo.deleteById(id);
+    // Swap the typed category name for its dictionary row ("groceries" and "Groceries"
+    // end up as the same category), and fill in a type if the caller didn't.
+    private void resolveCategory(Long userId, Transaction t) {
+        if (t.getType() == null) {
+            t.setType(TransactionType.EXPENSE);
+        }
+        // A map lookup for any category the app has seen before (see CategoryDictionary).
+        t.setCategoryRef(categories.resolve(userId, t.getCategory()));
+    }
+
+    // Delete a transaction based on its id (only if it's this user's).
+    @Transactional
+    public void delete(Long userId, Long id) {
+        findOwned(userId, id).ifPresent(t -> {
+            TransactionSnapshot before = TransactionSnapshot.of(t);
+            rollup.remove(before);
+            repo.delete(t);
+            events.publishEvent(new LedgerChangedEvent(before, null));
+        });
     }
 
     // ======================= OVERALL TOTALS =======================
+    // All of the totals below are read from the monthly rollup table,
+    // so the cost is a few rows per month/category, not one row per transaction.
+    // They are also cached (see CacheConfig); the cache key includes the user's ledger
+    // version, so a save/delete makes every older entry of that user unreachable.
 
     // Total income across all time.
-    public double getTotalIncome() {
-        return getAll().stream()
-                .filter(t -> "INCOME".equalsIgnoreCase(t.getType()))
-                .mapToDouble(t -> t.getAmount() != null ? t.getAmount() : 0.0)
-                .sum();
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.LEDGER_CACHE, keyGenerator = "ledgerKeyGenerator")
+    public Money getTotalIncome(Long userId) {
+        return totalFor(TransactionType.INCOME, rollupRepo.sumByType(userId));
     }
 
     // Total expenses across all time.
-    public double getTotalExpenses() {
-        return getAll().stream()
-                .filter(t -> "EXPENSE".equalsIgnoreCase(t.getType()))
-                .mapToDouble(t -> t.getAmount() != null ? t.getAmount() : 0.0)
-                .sum();
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.LEDGER_CACHE, keyGenerator = "ledgerKeyGenerator")
+    public Money getTotalExpenses(Long userId) {
+        return totalFor(TransactionType.EXPENSE, rollupRepo.sumByType(userId));
+    }
+
+    // ======================= DASHBOARD SUMMARY =======================
+
+    // Build every number the dashboard needs from the rollup:
+    // totals by type, this month by type and the top categories,
+    // plus a LIMITed query for the recent feed.
+    //
+    // The four queries don't depend on each other, so they run at the same time
+    // (see QueryFanOut) and the page waits for the slowest one instead of all four
+    // in a row. Each one runs in its own short read-only repository transaction,
+    // which is why this method isn't @Transactional itself: a transaction here would
+    // hold one more connection for the whole time while the others do the work.
+    @Cacheable(cacheNames = CacheConfig.LEDGER_CACHE, keyGenerator = "ledgerKeyGenerator")
+    public DashboardSummary getDashboardSummary(Long userId, YearMonth month, int topLimit, int recentLimit) {
+        int monthKey = MonthlyCategoryTotal.monthKey(month);
+
+        CompletableFuture<List<TransactionRepository.TypeTotal>> allTime =
+                fanOut.submit(() -> rollupRepo.sumByType(userId));
+        CompletableFuture<List<TransactionRepository.TypeTotal>> monthly =
+                fanOut.submit(() -> rollupRepo.sumByTypeForMonth(userId, monthKey));
+        CompletableFuture<List<CategoryTotal>> top = topLimit > 0
+                ? fanOut.submit(() -> getTopExpenseCategories(userId, month, topLimit))
+                : CompletableFuture.completedFuture(List.of());
+        CompletableFuture<List<Transaction>> recent = recentLimit > 0
+                ? fanOut.submit(() -> getRecent(userId, recentLimit))
+                : CompletableFuture.completedFuture(List.of());
+
+        return new DashboardSummary(month,
+                totalFor(TransactionType.INCOME, QueryFanOut.join(allTime)),
+                totalFor(TransactionType.EXPENSE, QueryFanOut.join(allTime)),
+                totalFor(TransactionType.INCOME, QueryFanOut.join(monthly)),
+                totalFor(TransactionType.EXPENSE, QueryFanOut.join(monthly)),
+                QueryFanOut.join(top),
+                QueryFanOut.join(recent));
     }
 
     // ======================= MONTHLY HELPERS =======================
 
     // Total income for a specific month (ex: December 2025).
-    public double getMonthlyIncome(YearMonth month) {
-        return getAll().stream()
-                .filter(t -> t.getDate() != null &&
-                        YearMonth.from(t.getDate()).equals(month) &&
-                        "INCOME".equalsIgnoreCase(t.getType()))
-                .mapToDouble(t -> t.getAmount() != null ? t.getAmount() : 0.0)
-                .sum();
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.LEDGER_CACHE, keyGenerator = "ledgerKeyGenerator")
+    public Money getMonthlyIncome(Long userId, YearMonth month) {
+        return totalFor(TransactionType.INCOME, rollupRepo.sumByTypeForMonth(userId, MonthlyCategoryTotal.monthKey(month)));
     }
 
     // Total expenses for a specific month.
-    public double getMonthlyExpenses(YearMonth month) {
-        return getAll().stream()
-                .filter(t -> t.getDate() != null &&
-                        YearMonth.from(t.getDate()).equals(month) &&
-                        "EXPENSE".equalsIgnoreCase(t.getType()))
-                .mapToDouble(t -> t.getAmount() != null ? t.getAmount() : 0.0)
-                .sum();
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.LEDGER_CACHE, keyGenerator = "ledgerKeyGenerator")
+    public Money getMonthlyExpenses(Long userId, YearMonth month) {
+        return totalFor(TransactionType.EXPENSE, rollupRepo.sumByTypeForMonth(userId, MonthlyCategoryTotal.monthKey(month)));
     }
 
     // Build a ranked list of top expense categories for a given month.
     // I use this for my little "Top Categories" summary on the dashboard.
-    public List<CategoryTotal> getTopExpenseCategories(YearMonth month, int limit) {
-        Map<String, Double> totals = new HashMap<>();
-
-        getAll().stream()
-                .filter(t -> t.getDate() != null &&
-                        YearMonth.from(t.getDate()).equals(month) &&
-                        "EXPENSE".equalsIgnoreCase(t.getType()))
-                .forEach(t -> {
-                    double amt = t.getAmount() != null ? t.getAmount() : 0.0;
-                    String cat = t.getCategory() != null ? t.getCategory() : "Other";
-
-                    // Add the amount into the matching category bucket.
-                    totals.merge(cat, amt, Double::sum);
-                });
-
-        // Convert the map into a list of CategoryTotal and sort it by total DESC.
-        return totals.entrySet().stream()
-                .map(e -> new CategoryTotal(e.getKey(), e.getValue()))
-                .sorted((a, b) -> Double.compare(b.getTotal(), a.getTotal()))
-                .limit(limit)
+    // The rollup already has one row per category, so this is just ORDER BY + LIMIT.
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.LEDGER_CACHE, keyGenerator = "ledgerKeyGenerator")
+    public List<CategoryTotal> getTopExpenseCategories(Long userId, YearMonth month, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        return toCategoryTotals(rollupRepo.findTopCategories(userId, TransactionType.EXPENSE,
+                MonthlyCategoryTotal.monthKey(month), Limit.of(limit)));
+    }
+
+    // Every category of one type for a month with its total, biggest first (for the JSON API).
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.LEDGER_CACHE, keyGenerator = "ledgerKeyGenerator")
+    public List<CategoryTotal> getCategoryTotals(Long userId, String type, YearMonth month) {
+        return toCategoryTotals(rollupRepo.findTopCategories(userId, TransactionType.of(type),
+                MonthlyCategoryTotal.monthKey(month), Limit.unlimited()));
+    }
+
+    // The rollup groups by dictionary id; the names come from memory, not a join.
+    private List<CategoryTotal> toCategoryTotals(List<TransactionRepository.CategorySum> rows) {
+        return rows.stream()
+                .map(c -> new CategoryTotal(categories.name(c.getCategoryId()),
+                        Money.ofCents(c.getTotalCents() != null ? c.getTotalCents() : 0L)))
                 .collect(Collectors.toList());
     }
 
+    // ======================= GROUPED ROW HELPERS =======================
+
+    // Pick the total for one type out of the grouped rows.
+    // Plain loop with a long so nothing gets boxed while adding up.
+    private Money totalFor(TransactionType type, List<TransactionRepository.TypeTotal> rows) {
+        long cents = 0;
+        for (TransactionRepository.TypeTotal r : rows) {
+            if (r.getType() == type && r.getTotalCents() != null) {
+                cents += r.getTotalCents();
+            }
+        }
+        return Money.ofCents(cents);
+    }
+
+    // ======================= PAGED LISTING =======================
+
+    // One page of the transactions list using keyset (cursor) paging on (date, id).
+    // type/from/to are optional filters that run in SQL.
+    // "after" moves to the next page, "before" moves back to the previous one;
+    // with neither I return the first page.
+    @Transactional(readOnly = true)
+    public TransactionPage getPage(Long userId, String type, LocalDate from, LocalDate to, boolean oldestFirst,
+                                   TransactionPage.Cursor after, TransactionPage.Cursor before, int size) {
+        TransactionType typeFilter = TransactionType.filter(type);
+
+        // I ask for one extra row so I know if there is another page past this one.
+        Limit limit = Limit.of(size + 1);
+
+        List<Transaction> rows;
+        boolean hasNext;
+        boolean hasPrevious;
+
+        if (before != null) {
+            // Walk backwards from the cursor, then flip the rows into display order.
+            rows = new ArrayList<>(oldestFirst
+                    ? older(userId, before, typeFilter, from, to, limit)
+                    : newer(userId, before, typeFilter, from, to, limit));
+            hasPrevious = rows.size() > size;
+            rows = trim(rows, size);
+            Collections.reverse(rows);
+            hasNext = true;
+        } else if (after != null) {
+            rows = oldestFirst
+                    ? newer(userId, after, typeFilter, from, to, limit)
+                    : older(userId, after, typeFilter, from, to, limit);
+            hasNext = rows.size() > size;
+            rows = trim(rows, size);
+            hasPrevious = true;
+        } else {
+            rows = oldestFirst
+                    ? newer(userId, null, typeFilter, from, to, limit)
+                    : older(userId, null, typeFilter, from, to, limit);
+            hasNext = rows.size() > size;
+            rows = trim(rows, size);
+            hasPrevious = false;
+        }
+
+        if (rows.isEmpty()) {
+            return new TransactionPage(rows, null, null);
+        }
+
+        String next = hasNext ? TransactionPage.Cursor.of(rows.get(rows.size() - 1)).toString() : null;
+        String previous = hasPrevious ? TransactionPage.Cursor.of(rows.get(0)).toString() : null;
+        return new TransactionPage(rows, next, previous);
+    }
+
+    // Rows without a date sit before every dated row on the (date, id) line, ordered by id.
+    // So walking back in time goes through the dated rows first and then on into the undated
+    // ones, and walking forward does the opposite. A from/to filter leaves them out anyway.
+
+    // Up to "limit" rows before the cursor (or from the newest with none), newest first.
+    private List<Transaction> older(Long userId, TransactionPage.Cursor cursor, TransactionType type,
+                                    LocalDate from, LocalDate to, Limit limit) {
+        boolean undated = from == null && to == null;
+        if (cursor != null && cursor.getDate() == null) {
+            return undated ? repo.findUndatedBefore(userId, cursor.getId(), type, limit) : List.of();
+        }
+        List<Transaction> rows = cursor == null
+                ? repo.findNewest(userId, type, from, to, limit)
+                : repo.findOlderThan(userId, cursor.getDate(), cursor.getId(), type, from, to, limit);
+        if (undated && rows.size() < limit.max()) {
+            rows = new ArrayList<>(rows);
+            rows.addAll(repo.findUndatedBefore(userId, null, type, Limit.of(limit.max() - rows.size())));
+        }
+        return rows;
+    }
+
+    // Up to "limit" rows after the cursor (or from the oldest with none), oldest first.
+    private List<Transaction> newer(Long userId, TransactionPage.Cursor cursor, TransactionType type,
+                                    LocalDate from, LocalDate to, Limit limit) {
+        if (cursor != null && cursor.getDate() != null) {
+            return repo.findNewerThan(userId, cursor.getDate(), cursor.getId(), type, from, to, limit);
+        }
+        List<Transaction> rows = new ArrayList<>();
+        if (from == null && to == null) {
+            rows.addAll(repo.findUndatedAfter(userId, cursor == null ? null : cursor.getId(), type, limit));
+        }
+        if (rows.size() < limit.max()) {
+            rows.addAll(repo.findOldest(userId, type, from, to, Limit.of(limit.max() - rows.size())));
+        }
+        return rows;
+    }
+
+    // Drop the extra "is there more?" row if the query returned it.
+    private static List<Transaction> trim(List<Transaction> rows, int size) {
+        return rows.size() > size ? new ArrayList<>(rows.subList(0, size)) : rows;
+    }
+
+    // ======================= SEARCH =======================
+
+    // How many ids I check per query while ranking search hits.
+    private static final int SEARCH_CHUNK = 1000;
+
+    // Newest first; rows without a date go last (same as the search results are shown).
+    private static final Comparator<TransactionRepository.SearchCandidate> NEWEST_CANDIDATE_FIRST =
+            Comparator.comparing(TransactionRepository.SearchCandidate::getDate,
+                            Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(TransactionRepository.SearchCandidate::getId, Comparator.reverseOrder());
+
+    // Transactions matching every word of the query (see TransactionSearchIndex),
+    // with the same optional type/date filters as the list page, newest first.
+    //
+    // The index gives me the matching ids, so the database only does primary key lookups.
+    // Ids follow insert order, not dates (an import can add old rows after newer ones), so
+    // I can't stop at the first "limit" ids. Instead I read just the id and date of every
+    // hit that passes the filters, a chunk at a time, keep the "limit" newest in a small
+    // heap, and only load those rows.
+    @Transactional(readOnly = true)
+    public List<Transaction> search(Long userId, String query, String type, LocalDate from, LocalDate to, int limit) {
+        TransactionType typeFilter = TransactionType.filter(type);
+        if (limit <= 0) {
+            return List.of();
+        }
+
+        long[] ids = searchIndex.search(userId, query);
+        // Head = the one that would be shown last, so it's the one to drop.
+        PriorityQueue<TransactionRepository.SearchCandidate> newest =
+                new PriorityQueue<>(NEWEST_CANDIDATE_FIRST.reversed());
+
+        for (int start = 0; start < ids.length; start += SEARCH_CHUNK) {
+            int end = Math.min(ids.length, start + SEARCH_CHUNK);
+            List<Long> chunk = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                chunk.add(ids[i]);
+            }
+            for (TransactionRepository.SearchCandidate c : repo.findSearchCandidates(userId, chunk, typeFilter, from, to)) {
+                newest.add(c);
+                if (newest.size() > limit) {
+                    newest.poll();
+                }
+            }
+        }
+        if (newest.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> top = newest.stream().map(TransactionRepository.SearchCandidate::getId).toList();
+        List<Transaction> hits = new ArrayList<>(repo.findSearchHits(userId, top, null, null, null));
+        hits.sort(Comparator.comparing(Transaction::getDate, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(Transaction::getId, Comparator.reverseOrder()));
+        return hits;
+    }
+
+    // The user's own categories starting with "prefix", most used first (for autocomplete).
+    public List<String> suggestCategories(Long userId, String prefix, int limit) {
+        return searchIndex.suggestCategories(userId, prefix, limit);
+    }
+
+    // ======================= TRENDS =======================
+
+    // Income/expenses (and the biggest categories) over any date range, per day/week/month/year.
+    // Answered from memory by TrendIndex. Deliberately not @Transactional: the index's first
+    // load for a user has to see only committed rows (see TrendIndex.load).
+    public Trend getTrend(Long userId, LocalDate from, LocalDate to, Trend.Granularity granularity,
+                          int maxCategories) {
+        return trendIndex.trend(userId, from, to, granularity, maxCategories);
+    }
+
     // ======================= FILTER BY TYPE =======================
 
     // This method supports my transactions page filter.
-    // If type is null/blank, I just return everything.
-    // Otherwise I only return transactions that match that type (INCOME/EXPENSE).
-    public List<Transaction> getByType(String type) {
-        if (type == null || type.isBlank()) {
-            return getAll();
+    // If type is null/blank (or ALL), I just return everything.
+    // Otherwise the database only returns transactions of that type (INCOME/EXPENSE).
+    @Transactional(readOnly = true)
+    public List<Transaction> getByType(Long userId, String type) {
+        TransactionType filter = TransactionType.filter(type);
+        if (filter == null) {
+            return getAll(userId);
         }
 
-        return getAll().stream()
-                .filter(t -> t.getType() != null &&
-                        t.getType().equalsIgnoreCase(type))
-                .collect(Collectors.toList());
+        return repo.findByUserIdAndTypeOrderByDateDescIdDesc(userId, filter);
     }
 }
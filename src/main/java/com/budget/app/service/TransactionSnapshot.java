@@ -0,0 +1,96 @@
+package com.budget.app.service;
+
+import com.budget.app.model.Transaction;
+import com.budget.app.model.TransactionType;
+
+import java.time.LocalDate;
+
+// Frozen copy of the fields that decide where a transaction is counted.
+// When I edit a transaction, JPA overwrites the managed entity with the new values,
+// so I take one of these first to know what to subtract from the rollup.
+// The name and note are along for the live dashboard's recent feed and the search index.
+// The category is both the dictionary id (what the rollup and the in-memory totals key on)
+// and its name (for the feed and the search index).
+public final class TransactionSnapshot {
+
+    private final Long id;
+    private final Long userId;
+    private final LocalDate date;
+    private final TransactionType type;
+    private final Integer categoryId;
+    private final String category;
+    private final long amountCents;
+    private final String name;
+    private final String note;
+
+    private TransactionSnapshot(Long id, Long userId, LocalDate date, TransactionType type,
+                                Integer categoryId, String category,
+                                long amountCents, String name, String note) {
+        this.id = id;
+        this.userId = userId;
+        this.date = date;
+        this.type = type;
+        this.categoryId = categoryId;
+        this.category = category;
+        this.amountCents = amountCents;
+        this.name = name;
+        this.note = note;
+    }
+
+    // Copy the values out of an entity.
+    public static TransactionSnapshot of(Transaction t) {
+        return new TransactionSnapshot(
+                t.getId(),
+                t.getUserId(),
+                t.getDate(),
+                t.getType(),
+                t.getCategoryId(),
+                t.getCategory(),
+                t.getAmountCents(),
+                t.getName(),
+                t.getNote());
+    }
+
+    // Rebuild one from stored values (the ledger journal reads them back this way).
+    public static TransactionSnapshot of(Long id, Long userId, LocalDate date, TransactionType type,
+                                         Integer categoryId, String category,
+                                         long amountCents, String name, String note) {
+        return new TransactionSnapshot(id, userId, date, type, categoryId, category, amountCents, name, note);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getNote() {
+        return note;
+    }
+}
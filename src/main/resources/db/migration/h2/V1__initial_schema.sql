@@ -0,0 +1,88 @@
+-- Same schema as db/migration/mysql/V1__initial_schema.sql, for the embedded H2 database
+-- (local-h2, the load test and the startup benchmark). The differences are only what H2
+-- needs: identity columns and a real sequence for the transaction ids.
+
+create table users (
+    id       bigint generated by default as identity,
+    name     varchar(100) not null,
+    email    varchar(100) not null,
+    password varchar(255) not null,
+    primary key (id),
+    constraint uk_users_email unique (email)
+);
+
+create table categories (
+    id       integer generated by default as identity,
+    user_id  bigint,
+    name     varchar(255) not null,
+    name_key varchar(255) not null,
+    primary key (id),
+    constraint uk_categories_user_key unique (user_id, name_key)
+);
+
+create table transactions (
+    id           bigint       not null,
+    user_id      bigint,
+    name         varchar(255) not null,
+    amount_cents bigint       default 0 not null,
+    type_code    tinyint      default 0 not null,
+    category_id  integer,
+    date         date,
+    note         varchar(255),
+    primary key (id),
+    constraint fk_transactions_user foreign key (user_id) references users (id),
+    constraint fk_transactions_category foreign key (category_id) references categories (id)
+);
+
+create index idx_transactions_user_date on transactions (user_id, date);
+create index idx_transactions_user_type_code_date on transactions (user_id, type_code, date);
+
+create sequence transactions_seq start with 1 increment by 50;
+
+create table monthly_category_totals (
+    id           bigint generated by default as identity,
+    user_id      bigint,
+    month_key    integer not null,
+    type_code    tinyint not null,
+    category_id  integer not null,
+    total_cents  bigint  default 0 not null,
+    txn_count    bigint  not null,
+    primary key (id),
+    constraint uk_monthly_category_totals_key unique (user_id, month_key, type_code, category_id)
+);
+
+create table budgets (
+    id          bigint generated by default as identity,
+    user_id     bigint       not null,
+    category    varchar(255) not null,
+    limit_cents bigint       default 0 not null,
+    primary key (id),
+    constraint uk_budgets_user_category unique (user_id, category)
+);
+
+create table recurring_rules (
+    id           bigint generated by default as identity,
+    user_id      bigint       not null,
+    name         varchar(255) not null,
+    amount_cents bigint       default 0 not null,
+    type         varchar(255) not null,
+    category     varchar(255) not null,
+    note         varchar(255),
+    frequency    enum ('DAILY','MONTHLY','WEEKLY','YEARLY') not null,
+    every_n      integer      default 1 not null,
+    start_date   date         not null,
+    end_date     date,
+    next_index   bigint       default 0 not null,
+    next_due     date,
+    version      bigint       not null,
+    primary key (id)
+);
+
+create index idx_recurring_rules_next_due on recurring_rules (next_due);
+create index idx_recurring_rules_user on recurring_rules (user_id);
+
+create table ingest_checkpoints (
+    journal_id varchar(64) not null,
+    last_seq   bigint      not null,
+    primary key (journal_id)
+);
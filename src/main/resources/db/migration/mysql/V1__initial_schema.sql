@@ -0,0 +1,106 @@
+-- The schema as the entities describe it (what ddl-auto=update has been creating), for the
+-- fast-start profile where Flyway owns the schema instead of Hibernate.
+-- A database ddl-auto already set up is baselined at this version (nothing here runs on it).
+-- Keep db/migration/h2 in step with this file.
+
+create table users (
+    id       bigint       not null auto_increment,
+    name     varchar(100) not null,
+    email    varchar(100) not null,
+    password varchar(255) not null,
+    primary key (id),
+    -- login and register look accounts up by email
+    constraint uk_users_email unique (email)
+) engine=InnoDB;
+
+-- Per-user category dictionary (see Category).
+create table categories (
+    id       integer      not null auto_increment,
+    user_id  bigint,
+    name     varchar(255) not null,
+    name_key varchar(255) not null,
+    primary key (id),
+    -- CategoryDictionary.resolve and the category suggestions (user_id first)
+    constraint uk_categories_user_key unique (user_id, name_key)
+) engine=InnoDB;
+
+create table transactions (
+    id           bigint       not null,
+    user_id      bigint,
+    name         varchar(255) not null,
+    amount_cents bigint       default 0 not null,
+    type_code    tinyint      default 0 not null,
+    category_id  integer,
+    date         date,
+    note         varchar(255),
+    primary key (id),
+    constraint fk_transactions_user foreign key (user_id) references users (id),
+    constraint fk_transactions_category foreign key (category_id) references categories (id)
+) engine=InnoDB;
+
+-- Every TransactionRepository query starts with user_id:
+-- newest-first lists, keyset paging, date ranges and trends
+create index idx_transactions_user_date on transactions (user_id, date);
+-- the same filtered to INCOME or EXPENSE, and the top categories of a month
+create index idx_transactions_user_type_code_date on transactions (user_id, type_code, date);
+
+-- Pooled id generator for transactions (MySQL has no sequences, so Hibernate keeps the
+-- next value in a one-row table). Allocation size 50, see Transaction.
+create table transactions_seq (
+    next_val bigint
+) engine=InnoDB;
+insert into transactions_seq values (1);
+
+-- Monthly rollup (see MonthlyCategoryTotal).
+create table monthly_category_totals (
+    id           bigint  not null auto_increment,
+    user_id      bigint,
+    month_key    integer not null,
+    type_code    tinyint not null,
+    category_id  integer not null,
+    total_cents  bigint  default 0 not null,
+    txn_count    bigint  not null,
+    primary key (id),
+    -- one row per bucket; also serves every rollup read (user, month, type)
+    constraint uk_monthly_category_totals_key unique (user_id, month_key, type_code, category_id)
+) engine=InnoDB;
+
+create table budgets (
+    id          bigint       not null auto_increment,
+    user_id     bigint       not null,
+    category    varchar(255) not null,
+    limit_cents bigint       default 0 not null,
+    primary key (id),
+    -- one limit per category; the budgets page lists by user
+    constraint uk_budgets_user_category unique (user_id, category)
+) engine=InnoDB;
+
+create table recurring_rules (
+    id           bigint       not null auto_increment,
+    user_id      bigint       not null,
+    name         varchar(255) not null,
+    amount_cents bigint       default 0 not null,
+    type         varchar(255) not null,
+    category     varchar(255) not null,
+    note         varchar(255),
+    frequency    enum ('DAILY','MONTHLY','WEEKLY','YEARLY') not null,
+    every_n      integer      default 1 not null,
+    start_date   date         not null,
+    end_date     date,
+    next_index   bigint       default 0 not null,
+    next_due     date,
+    version      bigint       not null,
+    primary key (id)
+) engine=InnoDB;
+
+-- RecurringScheduler's "what's due" poll
+create index idx_recurring_rules_next_due on recurring_rules (next_due);
+-- the recurring page lists one user's rules
+create index idx_recurring_rules_user on recurring_rules (user_id);
+
+-- How far each ingest journal has been committed (see IngestCommitter).
+create table ingest_checkpoints (
+    journal_id varchar(64) not null,
+    last_seq   bigint      not null,
+    primary key (journal_id)
+) engine=InnoDB;
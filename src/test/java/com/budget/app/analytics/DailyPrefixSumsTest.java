@@ -0,0 +1,111 @@
+package com.budget.app.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DailyPrefixSumsTest {
+
+    private static LocalDate d(String date) {
+        return LocalDate.parse(date);
+    }
+
+    @Test
+    void rangeSumsAreInclusiveOnBothEnds() {
+        DailyPrefixSums s = new DailyPrefixSums();
+        s.add(0, d("2025-01-01"), 100);
+        s.add(0, d("2025-01-02"), 20);
+        s.add(0, d("2025-01-31"), 3);
+
+        assertEquals(123, s.sum(0, d("2025-01-01"), d("2025-01-31")));
+        assertEquals(120, s.sum(0, d("2025-01-01"), d("2025-01-02")));
+        assertEquals(20, s.sum(0, d("2025-01-02"), d("2025-01-02")));
+        assertEquals(0, s.sum(0, d("2024-01-01"), d("2024-12-31")));
+        // A range reaching past the days the trees cover still counts what's inside.
+        assertEquals(123, s.sum(0, d("1900-01-01"), d("2200-01-01")));
+    }
+
+    @Test
+    void seriesAreIndependentAndUnknownSeriesAreEmpty() {
+        DailyPrefixSums s = new DailyPrefixSums();
+        s.add(0, d("2025-01-01"), 100);
+        s.add(3, d("2025-01-01"), 7);
+        assertEquals(100, s.sum(0, d("2025-01-01"), d("2025-01-01")));
+        assertEquals(0, s.sum(1, d("2025-01-01"), d("2025-01-01")));
+        assertEquals(7, s.sum(3, d("2025-01-01"), d("2025-01-01")));
+        assertEquals(0, s.sum(9, d("2025-01-01"), d("2025-01-01")));
+    }
+
+    // Dates arriving further and further out make the trees re-lay; the sums must not move.
+    @Test
+    void growingKeepsEveryDayValue() {
+        DailyPrefixSums s = new DailyPrefixSums();
+        Random random = new Random(7);
+        long[] perDay = new long[4000];
+        LocalDate start = d("2020-01-01");
+        // Start in the middle, then add days on both sides.
+        for (int i = 0; i < 3000; i++) {
+            int day = 2000 + (i % 2 == 0 ? 1 : -1) * random.nextInt(Math.min(2000, 50 + i));
+            long cents = random.nextInt(1000) - 300;
+            perDay[day] += cents;
+            s.add(0, start.plusDays(day), cents);
+        }
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(4000);
+            int to = from + random.nextInt(4000 - from);
+            long expected = 0;
+            for (int day = from; day <= to; day++) {
+                expected += perDay[day];
+            }
+            assertEquals(expected, s.sum(0, start.plusDays(from), start.plusDays(to)));
+        }
+    }
+
+    @Test
+    void farOffDatesDoNotStretchTheTrees() {
+        DailyPrefixSums s = new DailyPrefixSums();
+        s.anchor(List.of(d("0202-05-01"), d("2025-01-01"), d("2025-06-01"), d("2026-01-01"), d("9999-01-01")));
+        s.add(0, d("2025-01-01"), 100);
+        s.add(0, d("2025-06-01"), 10);
+        s.add(0, d("2026-01-01"), 1);
+        long dense = s.footprint();
+
+        s.add(0, d("0202-05-01"), 1000);
+        s.add(0, d("9999-01-01"), 10000);
+        // Two outliers cost a few bytes each, not centuries of days.
+        assertTrue(s.footprint() - dense < 1000, "footprint grew by " + (s.footprint() - dense));
+
+        assertEquals(11111, s.sum(0, LocalDate.of(1, 1, 1), d("9999-12-31")));
+        assertEquals(1000, s.sum(0, d("0200-01-01"), d("0300-01-01")));
+        assertEquals(111, s.sum(0, d("2025-01-01"), d("2026-01-01")));
+    }
+
+    @Test
+    void anchorPicksWhereMostDatesAreEvenIfATypoComesFirst() {
+        DailyPrefixSums s = new DailyPrefixSums();
+        s.anchor(List.of(d("1900-01-01"), d("2024-01-01"), d("2024-02-01"), d("2025-03-01")));
+        s.add(0, d("1900-01-01"), 5);
+        long withTypo = s.footprint();
+        s.add(0, d("2024-01-01"), 1);
+        s.add(0, d("2025-03-01"), 1);
+        // The real dates were inside the anchored range already: nothing had to grow.
+        assertEquals(withTypo, s.footprint());
+        assertEquals(2, s.sum(0, d("2024-01-01"), d("2025-12-31")));
+    }
+
+    @Test
+    void anOutlierEditedBackToZeroIsDropped() {
+        DailyPrefixSums s = new DailyPrefixSums();
+        s.add(0, d("2025-01-01"), 100);
+        long before = s.footprint();
+        s.add(0, d("2205-01-01"), 50);
+        assertTrue(s.footprint() > before);
+        s.add(0, d("2205-01-01"), -50);
+        assertEquals(before, s.footprint());
+        assertEquals(100, s.sum(0, LocalDate.of(1, 1, 1), d("9999-12-31")));
+    }
+}
@@ -0,0 +1,137 @@
+package com.budget.app.analytics;
+
+import com.budget.app.datasource.ReadYourWrites;
+import com.budget.app.model.Money;
+import com.budget.app.model.TransactionType;
+import com.budget.app.repository.TransactionRepository;
+import com.budget.app.repository.TransactionRepository.DayCategoryTotal;
+import com.budget.app.service.CategoryDictionary;
+import com.budget.app.service.LedgerChangedEvent;
+import com.budget.app.service.TransactionSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+// The bucket math of TrendIndex, with the repository and the dictionary mocked out.
+class TrendIndexTest {
+
+    private static final long USER = 1L;
+
+    private TransactionRepository repo;
+    private TrendIndex index;
+
+    private static DayCategoryTotal day(String date, TransactionType type, int categoryId, long cents) {
+        return new DayCategoryTotal() {
+            public LocalDate getDate() { return LocalDate.parse(date); }
+            public TransactionType getType() { return type; }
+            public Integer getCategoryId() { return categoryId; }
+            public Long getTotalCents() { return cents; }
+        };
+    }
+
+    private static LocalDate d(String date) {
+        return LocalDate.parse(date);
+    }
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(TransactionRepository.class);
+        CategoryDictionary categories = mock(CategoryDictionary.class);
+        when(categories.name(anyInt())).thenAnswer(call -> "cat" + call.getArgument(0));
+        index = new TrendIndex(repo, categories, new ReadYourWrites(Duration.ofSeconds(5), 100),
+                10, Duration.ofMinutes(30), 1500, new SimpleMeterRegistry());
+
+        when(repo.sumByDay(USER)).thenReturn(List.of(
+                day("2025-01-15", TransactionType.INCOME, 1, 300_000),
+                day("2025-01-20", TransactionType.EXPENSE, 2, 5_000),
+                day("2025-02-03", TransactionType.EXPENSE, 2, 7_000),
+                day("2025-02-28", TransactionType.EXPENSE, 3, 100_000),
+                day("2025-03-01", TransactionType.EXPENSE, 2, 1_000)));
+    }
+
+    @Test
+    void monthBucketsAddUpEachMonth() {
+        Trend t = index.trend(USER, d("2025-01-01"), d("2025-03-31"), Trend.Granularity.MONTH, 10);
+
+        assertEquals(List.of("Jan 2025", "Feb 2025", "Mar 2025"), t.getLabels());
+        assertEquals(Money.ofCents(300_000), t.buckets().get(0).income());
+        assertEquals(Money.ofCents(5_000), t.buckets().get(0).expenses());
+        assertEquals(Money.ofCents(107_000), t.buckets().get(1).expenses());
+        assertEquals(Money.ofCents(1_000), t.buckets().get(2).expenses());
+        assertEquals(Money.ofCents(-1_000), t.buckets().get(2).getNet());
+
+        // Biggest category first, each with one value per bucket.
+        assertEquals(List.of("cat1", "cat3", "cat2"), t.categories().stream().map(Trend.CategorySeries::category).toList());
+        Trend.CategorySeries cat2 = t.categories().get(2);
+        assertEquals("EXPENSE", cat2.type());
+        assertEquals(Money.ofCents(13_000), cat2.total());
+        assertEquals(List.of(Money.ofCents(5_000), Money.ofCents(7_000), Money.ofCents(1_000)), cat2.values());
+    }
+
+    @Test
+    void firstAndLastBucketsAreCutToTheRange() {
+        Trend t = index.trend(USER, d("2025-01-18"), d("2025-02-10"), Trend.Granularity.MONTH, 10);
+
+        assertEquals(d("2025-01-18"), t.buckets().get(0).start());
+        assertEquals(d("2025-01-31"), t.buckets().get(0).end());
+        assertEquals(d("2025-02-01"), t.buckets().get(1).start());
+        assertEquals(d("2025-02-10"), t.buckets().get(1).end());
+        // The income on the 15th is before the range.
+        assertEquals(Money.ZERO, t.buckets().get(0).income());
+        assertEquals(Money.ofCents(5_000), t.buckets().get(0).expenses());
+        assertEquals(Money.ofCents(7_000), t.buckets().get(1).expenses());
+        // Categories with nothing in the range are left out.
+        assertEquals(List.of("cat2"), t.categories().stream().map(Trend.CategorySeries::category).toList());
+    }
+
+    @Test
+    void weeksStartOnMonday() {
+        // 2025-02-28 is a Friday; its week started on Monday the 24th.
+        Trend t = index.trend(USER, d("2025-02-28"), d("2025-03-03"), Trend.Granularity.WEEK, 10);
+        assertEquals(List.of("Wk of 2025-02-24", "Wk of 2025-03-03"), t.getLabels());
+        assertEquals(Money.ofCents(101_000), t.buckets().get(0).expenses());
+        assertEquals(Money.ZERO, t.buckets().get(1).expenses());
+    }
+
+    @Test
+    void categoriesAreCutToTheMaximum() {
+        Trend t = index.trend(USER, d("2025-01-01"), d("2025-12-31"), Trend.Granularity.YEAR, 1);
+        assertEquals(1, t.buckets().size());
+        assertEquals(List.of("cat1"), t.categories().stream().map(Trend.CategorySeries::category).toList());
+    }
+
+    @Test
+    void tooManyBucketsOrABackwardsRangeAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> index.trend(USER, d("2025-03-01"), d("2025-01-01"), Trend.Granularity.DAY, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> index.trend(USER, d("2000-01-01"), d("2025-01-01"), Trend.Granularity.DAY, 10));
+    }
+
+    @Test
+    void loadsOnceThenFollowsCommittedChanges() {
+        index.trend(USER, d("2025-01-01"), d("2025-03-31"), Trend.Granularity.MONTH, 10);
+
+        // An edit moves 7,000 from February (category 2) to a new, far-off typo date.
+        TransactionSnapshot before = TransactionSnapshot.of(9L, USER, d("2025-02-03"), TransactionType.EXPENSE,
+                2, "cat2", 7_000, "x", null);
+        TransactionSnapshot after = TransactionSnapshot.of(9L, USER, d("0205-02-03"), TransactionType.EXPENSE,
+                2, "cat2", 7_000, "x", null);
+        index.onLedgerChanged(new LedgerChangedEvent(before, after));
+
+        Trend t = index.trend(USER, d("2025-01-01"), d("2025-03-31"), Trend.Granularity.MONTH, 10);
+        assertEquals(Money.ofCents(100_000), t.buckets().get(1).expenses());
+        Trend old = index.trend(USER, d("0205-01-01"), d("0205-12-31"), Trend.Granularity.YEAR, 10);
+        assertEquals(Money.ofCents(7_000), old.buckets().get(0).expenses());
+
+        verify(repo, times(1)).sumByDay(USER);
+    }
+}
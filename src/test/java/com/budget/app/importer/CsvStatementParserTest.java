@@ -0,0 +1,113 @@
+package com.budget.app.importer;
+
+import com.budget.app.model.Money;
+import com.budget.app.model.Transaction;
+import com.budget.app.model.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvStatementParserTest {
+
+    private static CsvStatementParser parser(String csv) throws IOException {
+        return new CsvStatementParser(new BufferedReader(new StringReader(csv)));
+    }
+
+    private static List<StatementRow> rows(String csv) throws IOException {
+        CsvStatementParser p = parser(csv);
+        List<StatementRow> rows = new ArrayList<>();
+        StatementRow row;
+        while ((row = p.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // ======================= HEADER =======================
+
+    @Test
+    void matchesColumnsByNameInAnyOrder() throws IOException {
+        // With the byte-order mark Excel puts in front of the first header.
+        List<StatementRow> rows = rows("\uFEFFMemo,Amount,Payee,Posted Date\nfor lunch,-12.50,Cafe,2025-03-04\n");
+        assertEquals(1, rows.size());
+        Transaction t = rows.get(0).getTransaction();
+        assertEquals(LocalDate.of(2025, 3, 4), t.getDate());
+        assertEquals("Cafe", t.getName());
+        assertEquals("for lunch", t.getNote());
+        assertEquals(Money.ofCents(1250), t.getAmount());
+        assertEquals(TransactionType.EXPENSE, t.getType());
+    }
+
+    @Test
+    void rejectsEmptyFileAndMissingColumns() {
+        assertEquals("The file is empty",
+                assertThrows(IllegalArgumentException.class, () -> parser("")).getMessage());
+        assertThrows(IllegalArgumentException.class, () -> parser("Description,Amount\n"));
+        assertThrows(IllegalArgumentException.class, () -> parser("Date,Description\n"));
+    }
+
+    // ======================= ROWS =======================
+
+    @Test
+    void debitAndCreditColumnsGiveTheSign() throws IOException {
+        List<StatementRow> rows = rows("Date,Description,Debit,Credit\n"
+                + "2025-01-02,Rent,1200.00,\n"
+                + "2025-01-03,Salary,,\"2,500.00\"\n");
+        assertEquals(TransactionType.EXPENSE, rows.get(0).getTransaction().getType());
+        assertEquals(Money.ofCents(120000), rows.get(0).getTransaction().getAmount());
+        assertEquals(TransactionType.INCOME, rows.get(1).getTransaction().getType());
+        assertEquals(Money.ofCents(250000), rows.get(1).getTransaction().getAmount());
+    }
+
+    @Test
+    void quotesCanHoldCommasEscapedQuotesAndLineBreaks() throws IOException {
+        List<StatementRow> rows = rows("Date,Description,Amount\n"
+                + "2025-01-02,\"Smith, \"\"Bob\"\"\nsecond line\",-1\n");
+        assertEquals("Smith, \"Bob\"\nsecond line", rows.get(0).getTransaction().getName());
+    }
+
+    @Test
+    void skipsBlankLinesAndReportsBadRowsByLine() throws IOException {
+        List<StatementRow> rows = rows("Date,Description,Amount\n"
+                + "2025-01-02,Ok,-1\n"
+                + "\n"
+                + "not a date,Bad,-1\n"
+                + "2025-01-04,Bad amount,abc\n");
+        assertEquals(3, rows.size());
+        assertTrue(rows.get(0).isOk());
+        assertEquals(2, rows.get(0).getLineNumber());
+        assertEquals(4, rows.get(1).getLineNumber());
+        assertEquals("bad date 'not a date'", rows.get(1).getError());
+        assertEquals(5, rows.get(2).getLineNumber());
+        assertEquals("bad amount 'abc'", rows.get(2).getError());
+    }
+
+    @Test
+    void multiLineRecordReportsTheLineItStartsOn() throws IOException {
+        List<StatementRow> rows = rows("Date,Description,Amount\n"
+                + "2025-01-02,\"one\ntwo\nthree\",oops\n"
+                + "2025-01-03,After,oops\n");
+        assertEquals(2, rows.get(0).getLineNumber());
+        assertEquals(5, rows.get(1).getLineNumber());
+    }
+
+    @Test
+    void unclosedQuoteStopsAtTheRecordLimit() throws IOException {
+        String csv = "Date,Description,Amount\n"
+                + "2025-01-02,Ok,-1\n"
+                + "2025-01-03,\"never closed,-1\n"
+                + "filler line\n".repeat(CsvStatementParser.MAX_RECORD_CHARS / 10);
+        CsvStatementParser p = parser(csv);
+        assertTrue(p.next().isOk());
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, p::next);
+        assertTrue(e.getMessage().startsWith("Line 3: "), e.getMessage());
+        assertTrue(e.getMessage().contains("never closed"), e.getMessage());
+    }
+}
@@ -0,0 +1,101 @@
+package com.budget.app.importer;
+
+import com.budget.app.model.Money;
+import com.budget.app.model.Transaction;
+import com.budget.app.model.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OfxStatementParserTest {
+
+    private static OfxStatementParser parser(String ofx) {
+        return new OfxStatementParser(new BufferedReader(new StringReader(ofx)));
+    }
+
+    private static List<StatementRow> rows(String ofx) throws IOException {
+        OfxStatementParser p = parser(ofx);
+        List<StatementRow> rows = new ArrayList<>();
+        StatementRow row;
+        while ((row = p.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // ======================= ROWS =======================
+
+    @Test
+    void readsSgmlStyleBlocksWithUnclosedLeafTags() throws IOException {
+        List<StatementRow> rows = rows("OFXHEADER:100\n<OFX><BANKTRANLIST>\n"
+                + "<STMTTRN>\n<TRNTYPE>DEBIT\n<DTPOSTED>20250304120000\n<TRNAMT>-12.50\n"
+                + "<NAME>Cafe &amp; Bar\n<MEMO>lunch\n</STMTTRN>\n"
+                + "<STMTTRN>\n<DTPOSTED>20250305\n<TRNAMT>2500.00\n<NAME>Paycheck\n</STMTTRN>\n"
+                + "</BANKTRANLIST></OFX>\n");
+
+        assertEquals(2, rows.size());
+        Transaction t = rows.get(0).getTransaction();
+        assertEquals(3, rows.get(0).getLineNumber());
+        assertEquals("Cafe & Bar", t.getName());
+        assertEquals("lunch", t.getNote());
+        assertEquals(LocalDate.of(2025, 3, 4), t.getDate());
+        assertEquals(Money.ofCents(1250), t.getAmount());
+        assertEquals(TransactionType.EXPENSE, t.getType());
+        assertEquals(TransactionType.INCOME, rows.get(1).getTransaction().getType());
+    }
+
+    @Test
+    void readsXmlStyleClosedTags() throws IOException {
+        List<StatementRow> rows = rows("<OFX><STMTTRN><DTPOSTED>20250304</DTPOSTED>"
+                + "<TRNAMT>-3.00</TRNAMT><NAME>Bus</NAME></STMTTRN></OFX>");
+
+        assertEquals(1, rows.size());
+        assertEquals("Bus", rows.get(0).getTransaction().getName());
+    }
+
+    @Test
+    void badValuesFailOnlyTheirRow() throws IOException {
+        List<StatementRow> rows = rows("<STMTTRN><DTPOSTED>someday<TRNAMT>-1.00<NAME>A</STMTTRN>\n"
+                + "<STMTTRN><DTPOSTED>20250304<TRNAMT>-2.00<NAME>B</STMTTRN>\n");
+
+        assertFalse(rows.get(0).isOk());
+        assertTrue(rows.get(1).isOk());
+    }
+
+    // ======================= LENGTH CAP =======================
+
+    @Test
+    void failsOnATagThatIsNeverClosed() throws IOException {
+        OfxStatementParser p = parser("<OFX>\n<STMTTRN\n" + "x".repeat(OfxStatementParser.MAX_RECORD_CHARS + 10));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, p::next);
+        assertTrue(e.getMessage().startsWith("Line 2: "), e.getMessage());
+        assertTrue(e.getMessage().contains("'>' is missing"), e.getMessage());
+    }
+
+    @Test
+    void failsOnAValueThatNeverEnds() throws IOException {
+        OfxStatementParser p = parser("<STMTTRN>\n<NAME>" + "x".repeat(OfxStatementParser.MAX_RECORD_CHARS + 10));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, p::next);
+        assertTrue(e.getMessage().startsWith("Line 2: the <NAME> value"), e.getMessage());
+    }
+
+    @Test
+    void failsOnABlockThatIsNeverClosed() throws IOException {
+        String ofx = "<STMTTRN><DTPOSTED>20250304<TRNAMT>-2.00<NAME>B</STMTTRN>\n"
+                + "<STMTTRN>\n" + "<MEMO>filler\n".repeat(OfxStatementParser.MAX_RECORD_CHARS / 10);
+        OfxStatementParser p = parser(ofx);
+
+        assertTrue(p.next().isOk());
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, p::next);
+        assertTrue(e.getMessage().startsWith("Line 2: the <STMTTRN> block"), e.getMessage());
+    }
+}
@@ -0,0 +1,114 @@
+package com.budget.app.ingest;
+
+import com.budget.app.model.Money;
+import com.budget.app.model.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestJournalTest {
+
+    private static IngestEntry entry(long seq) {
+        return IngestEntry.of(3, "Coffee " + seq, Money.ofCents(seq * 10), "expense", "Food",
+                LocalDate.of(2025, 1, 1).plusDays(seq), seq % 2 == 0 ? null : "note").withSeq(seq);
+    }
+
+    private static List<IngestEntry> replay(Path dir) throws IOException {
+        List<IngestEntry> entries = new ArrayList<>();
+        try (IngestJournal journal = new IngestJournal(dir, 1 << 20)) {
+            journal.replay(entries::add);
+        }
+        return entries;
+    }
+
+    private static List<Path> segments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    @Test
+    void entryRoundTrips() {
+        IngestEntry e = IngestEntry.of(9, " Café ", Money.ofCents(1234), "INCOME", null,
+                LocalDate.of(2024, 2, 29), "ünïcode").withSeq(77);
+        ByteBuffer buffer = ByteBuffer.allocate(e.size());
+        e.write(buffer);
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        IngestEntry back = IngestEntry.read(buffer);
+        assertEquals(e, back);
+        assertEquals("Café", back.name());
+        assertEquals(TransactionType.INCOME, back.type());
+    }
+
+    @Test
+    void replaysWhatWasAppended(@TempDir Path dir) throws IOException {
+        try (IngestJournal journal = new IngestJournal(dir, 1 << 20)) {
+            assertEquals(0, journal.replay(e -> fail("nothing to replay yet")));
+            journal.append(List.of(entry(1), entry(2)));
+            journal.append(List.of(entry(3)));
+            journal.sync(3);
+        }
+        assertEquals(List.of(entry(1), entry(2), entry(3)), replay(dir));
+    }
+
+    // The newest segment's tail was mid-write when the process stopped: the complete entries
+    // replay, the half one is cut off, and appends after that replay too.
+    @Test
+    void tornTailIsDroppedOnReplay(@TempDir Path dir) throws IOException {
+        try (IngestJournal journal = new IngestJournal(dir, 1 << 20)) {
+            journal.replay(e -> { });
+            journal.append(List.of(entry(1), entry(2), entry(3)));
+            journal.sync(3);
+        }
+        Path segment = segments(dir).get(0);
+        long full = Files.size(segment);
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ch.truncate(full - 5);
+        }
+
+        try (IngestJournal journal = new IngestJournal(dir, 1 << 20)) {
+            List<IngestEntry> seen = new ArrayList<>();
+            assertEquals(2, journal.replay(seen::add));
+            assertEquals(List.of(entry(1), entry(2)), seen);
+            assertEquals(full - 8 - entry(3).size(), Files.size(segment));
+
+            journal.append(List.of(entry(3)));
+            journal.sync(3);
+        }
+        assertEquals(List.of(entry(1), entry(2), entry(3)), replay(dir));
+    }
+
+    @Test
+    void releaseDeletesOnlyFullyCommittedSegments(@TempDir Path dir) throws IOException {
+        // Tiny segments: every append after the first goes into a new file.
+        try (IngestJournal journal = new IngestJournal(dir, 1)) {
+            journal.replay(e -> { });
+            journal.append(List.of(entry(1), entry(2)));
+            journal.append(List.of(entry(3), entry(4)));
+            journal.append(List.of(entry(5)));
+            journal.sync(5);
+            assertEquals(3, segments(dir).size());
+
+            // Entry 3 isn't in the database yet, so the segment holding 3 and 4 stays.
+            journal.release(2);
+            assertEquals(2, segments(dir).size());
+            // The newest segment always stays, even when everything is committed.
+            journal.release(5);
+            assertEquals(1, segments(dir).size());
+        }
+        assertEquals(List.of(entry(5)), replay(dir));
+    }
+}
@@ -0,0 +1,84 @@
+package com.budget.app.journal;
+
+import com.budget.app.model.TransactionType;
+import com.budget.app.service.LedgerChangedEvent;
+import com.budget.app.service.TransactionSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerRecordTest {
+
+    static TransactionSnapshot snapshot(long id, long userId, String date, TransactionType type,
+                                        int categoryId, long cents) {
+        return TransactionSnapshot.of(id, userId, LocalDate.parse(date), type, categoryId,
+                "Food", cents, "Lunch", null);
+    }
+
+    private static LedgerRecord roundTrip(LedgerRecord r) {
+        ByteBuffer buffer = ByteBuffer.allocate(r.size());
+        r.write(buffer);
+        // size() has to be exact, or records in a segment would overlap.
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        return LedgerRecord.read(buffer);
+    }
+
+    static void assertSameSnapshot(TransactionSnapshot want, TransactionSnapshot got) {
+        if (want == null) {
+            assertNull(got);
+            return;
+        }
+        assertEquals(want.getId(), got.getId());
+        assertEquals(want.getUserId(), got.getUserId());
+        assertEquals(want.getDate(), got.getDate());
+        assertEquals(want.getType(), got.getType());
+        assertEquals(want.getCategoryId(), got.getCategoryId());
+        assertEquals(want.getCategory(), got.getCategory());
+        assertEquals(want.getAmountCents(), got.getAmountCents());
+        assertEquals(want.getName(), got.getName());
+        assertEquals(want.getNote(), got.getNote());
+    }
+
+    @Test
+    void kindFollowsBeforeAndAfter() {
+        TransactionSnapshot t = snapshot(1, 2, "2025-03-04", TransactionType.EXPENSE, 3, 450);
+        Instant at = Instant.ofEpochMilli(1_700_000_000_000L);
+        assertEquals(LedgerRecord.Kind.CREATE, LedgerRecord.of(1, at, new LedgerChangedEvent(null, t)).kind());
+        assertEquals(LedgerRecord.Kind.UPDATE, LedgerRecord.of(1, at, new LedgerChangedEvent(t, t)).kind());
+        assertEquals(LedgerRecord.Kind.DELETE, LedgerRecord.of(1, at, new LedgerChangedEvent(t, null)).kind());
+        assertEquals(LedgerRecord.Kind.RESET, LedgerRecord.of(1, at, new LedgerChangedEvent(null, null)).kind());
+    }
+
+    @Test
+    void everyKindRoundTrips() {
+        TransactionSnapshot before = snapshot(10, 2, "2025-03-04", TransactionType.EXPENSE, 3, 450);
+        TransactionSnapshot after = TransactionSnapshot.of(10L, 2L, LocalDate.of(2025, 4, 1),
+                TransactionType.INCOME, 4, "Café ☕", 99_999_999L, "Refund", "note with ünïcode");
+        Instant at = Instant.ofEpochMilli(1_700_000_000_123L);
+
+        for (LedgerRecord r : new LedgerRecord[] {
+                new LedgerRecord(5, at, LedgerRecord.Kind.CREATE, null, after),
+                new LedgerRecord(6, at, LedgerRecord.Kind.UPDATE, before, after),
+                new LedgerRecord(7, at, LedgerRecord.Kind.DELETE, before, null),
+                new LedgerRecord(8, at, LedgerRecord.Kind.RESET, null, null)}) {
+            LedgerRecord back = roundTrip(r);
+            assertEquals(r.seq(), back.seq());
+            assertEquals(r.at(), back.at());
+            assertEquals(r.kind(), back.kind());
+            assertSameSnapshot(r.before(), back.before());
+            assertSameSnapshot(r.after(), back.after());
+        }
+    }
+
+    @Test
+    void missingValuesStayMissing() {
+        TransactionSnapshot empty = TransactionSnapshot.of(null, null, null, null, null, null, 0, null, null);
+        LedgerRecord back = roundTrip(new LedgerRecord(1, Instant.EPOCH, LedgerRecord.Kind.CREATE, null, empty));
+        assertSameSnapshot(empty, back.after());
+    }
+}
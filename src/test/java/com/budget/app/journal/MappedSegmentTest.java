@@ -0,0 +1,92 @@
+package com.budget.app.journal;
+
+import com.budget.app.model.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.budget.app.journal.LedgerRecordTest.snapshot;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedSegmentTest {
+
+    private static LedgerRecord record(long seq) {
+        return new LedgerRecord(seq, Instant.ofEpochMilli(seq), LedgerRecord.Kind.CREATE, null,
+                snapshot(seq, 1, "2025-01-01", TransactionType.EXPENSE, 2, seq * 100));
+    }
+
+    private static List<Long> seqs(MappedSegment segment) {
+        List<Long> seqs = new ArrayList<>();
+        segment.scan(r -> seqs.add(r.seq()));
+        return seqs;
+    }
+
+    @Test
+    void recordsSurviveReopening(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("segment");
+        MappedSegment segment = MappedSegment.open(file, 1, 64 * 1024);
+        assertEquals(0, segment.scan(null));
+        for (long seq = 1; seq <= 3; seq++) {
+            assertTrue(segment.append(record(seq)));
+        }
+
+        MappedSegment reopened = MappedSegment.open(file, 1, 64 * 1024);
+        assertEquals(List.of(1L, 2L, 3L), seqs(reopened));
+        // Appends carry on after the last record.
+        assertTrue(reopened.append(record(4)));
+        assertEquals(4, MappedSegment.open(file, 1, 64 * 1024).scan(null));
+    }
+
+    @Test
+    void aFullSegmentRefusesTheRecord(@TempDir Path dir) throws IOException {
+        int oneRecord = 8 + record(1).size();
+        MappedSegment segment = MappedSegment.open(dir.resolve("segment"), 1, oneRecord * 2 + 4);
+        segment.scan(null);
+        assertTrue(segment.append(record(1)));
+        assertTrue(segment.append(record(2)));
+        assertFalse(segment.append(record(3)));
+    }
+
+    // A record cut off halfway (the machine went down) ends the scan there, and everything
+    // after it is cleared so new appends can't run into old bytes.
+    @Test
+    void damagedTailIsCutOff(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("segment");
+        MappedSegment segment = MappedSegment.open(file, 1, 4096);
+        segment.scan(null);
+        for (long seq = 1; seq <= 3; seq++) {
+            segment.append(record(seq));
+        }
+        segment.force();
+
+        // Flip a byte inside the third record's body: its CRC no longer matches.
+        long thirdBody = 2L * (8 + record(1).size()) + 8 + 20;
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(thirdBody);
+            int b = raf.read();
+            raf.seek(thirdBody);
+            raf.write(b ^ 0xff);
+        }
+
+        MappedSegment reopened = MappedSegment.open(file, 1, 4096);
+        assertEquals(List.of(1L, 2L), seqs(reopened));
+        assertTrue(reopened.append(record(3)));
+        assertEquals(List.of(1L, 2L, 3L), seqs(MappedSegment.open(file, 1, 4096)));
+    }
+
+    @Test
+    void aGapInSeqsEndsTheScan(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("segment");
+        MappedSegment segment = MappedSegment.open(file, 1, 4096);
+        segment.scan(null);
+        segment.append(record(1));
+        segment.append(record(3));
+        assertEquals(1, MappedSegment.open(file, 1, 4096).scan(null));
+    }
+}
@@ -0,0 +1,108 @@
+package com.budget.app.journal;
+
+import com.budget.app.model.MonthlyCategoryTotal;
+import com.budget.app.model.TransactionType;
+import com.budget.app.service.TransactionSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static com.budget.app.journal.LedgerRecordTest.snapshot;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollupStateTest {
+
+    private static MonthlyCategoryTotal row(long userId, int monthKey, TransactionType type, int categoryId,
+                                            long cents, long count) {
+        MonthlyCategoryTotal row = new MonthlyCategoryTotal(userId, monthKey, type, categoryId);
+        row.setTotalCents(cents);
+        row.setCount(count);
+        return row;
+    }
+
+    private static LedgerRecord create(long seq, TransactionSnapshot t) {
+        return new LedgerRecord(seq, Instant.EPOCH, LedgerRecord.Kind.CREATE, null, t);
+    }
+
+    @Test
+    void appliesChangesTheWayTheRollupDoes() {
+        RollupState state = RollupState.fromRollup(List.of());
+        TransactionSnapshot lunch = snapshot(1, 7, "2025-03-04", TransactionType.EXPENSE, 3, 450);
+        TransactionSnapshot dinner = snapshot(2, 7, "2025-03-05", TransactionType.EXPENSE, 3, 1200);
+        TransactionSnapshot moved = snapshot(2, 7, "2025-04-01", TransactionType.EXPENSE, 3, 1000);
+
+        assertTrue(state.apply(create(1, lunch)));
+        assertTrue(state.apply(create(2, dinner)));
+        assertTrue(state.apply(new LedgerRecord(3, Instant.EPOCH, LedgerRecord.Kind.UPDATE, dinner, moved)));
+
+        assertTrue(state.matches(List.of(
+                row(7, 202503, TransactionType.EXPENSE, 3, 450, 1),
+                row(7, 202504, TransactionType.EXPENSE, 3, 1000, 1))));
+        assertEquals(Map.of(7L, 2L), state.countsByUser());
+
+        // Deleting the last row of a bucket drops it, like MonthlyRollupService does.
+        assertTrue(state.apply(new LedgerRecord(4, Instant.EPOCH, LedgerRecord.Kind.DELETE, lunch, null)));
+        assertTrue(state.matches(List.of(row(7, 202504, TransactionType.EXPENSE, 3, 1000, 1))));
+        assertEquals(1, state.size());
+    }
+
+    @Test
+    void aResetCannotBeApplied() {
+        RollupState state = RollupState.fromRollup(List.of());
+        assertFalse(state.apply(new LedgerRecord(1, Instant.EPOCH, LedgerRecord.Kind.RESET, null, null)));
+    }
+
+    @Test
+    void anyDifferenceIsAMismatch() {
+        RollupState state = RollupState.fromRollup(List.of(row(1, 202501, TransactionType.INCOME, 2, 500, 2)));
+        assertTrue(state.matches(List.of(row(1, 202501, TransactionType.INCOME, 2, 500, 2))));
+        assertFalse(state.matches(List.of(row(1, 202501, TransactionType.INCOME, 2, 501, 2))));
+        assertFalse(state.matches(List.of(row(1, 202501, TransactionType.INCOME, 2, 500, 3))));
+        assertFalse(state.matches(List.of(row(1, 202501, TransactionType.EXPENSE, 2, 500, 2))));
+        assertFalse(state.matches(List.of()));
+    }
+
+    @Test
+    void copyIsIndependent() {
+        RollupState state = RollupState.fromRollup(List.of(row(1, 202501, TransactionType.EXPENSE, 2, 500, 1)));
+        RollupState copy = state.copy();
+        copy.apply(create(1, snapshot(9, 1, "2025-01-09", TransactionType.EXPENSE, 2, 100)));
+        assertTrue(state.matches(List.of(row(1, 202501, TransactionType.EXPENSE, 2, 500, 1))));
+        assertTrue(copy.matches(List.of(row(1, 202501, TransactionType.EXPENSE, 2, 600, 2))));
+    }
+
+    @Test
+    void snapshotFileRoundTrips(@TempDir Path dir) throws IOException {
+        List<MonthlyCategoryTotal> rows = List.of(
+                row(1, 202501, TransactionType.EXPENSE, 2, 500, 1),
+                row(1, MonthlyCategoryTotal.NO_MONTH, TransactionType.INCOME, 3, 70_000, 4),
+                row(2, 202412, TransactionType.EXPENSE, 2, -5, 1));
+        Path file = dir.resolve("rollup.snapshot");
+        RollupState.fromRollup(rows).write(file, 42);
+
+        RollupState.Loaded loaded = RollupState.read(file);
+        assertEquals(42, loaded.seq());
+        assertTrue(loaded.state().matches(rows));
+        assertFalse(Files.exists(dir.resolve("rollup.snapshot.tmp")));
+    }
+
+    @Test
+    void damagedSnapshotReadsAsNone(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("rollup.snapshot");
+        RollupState.fromRollup(List.of(row(1, 202501, TransactionType.EXPENSE, 2, 500, 1))).write(file, 1);
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[20] ^= 1;
+        Files.write(file, bytes);
+        assertNull(RollupState.read(file));
+
+        Files.write(file, new byte[] {1, 2, 3});
+        assertNull(RollupState.read(file));
+    }
+}
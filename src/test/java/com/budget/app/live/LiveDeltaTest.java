@@ -0,0 +1,90 @@
+package com.budget.app.live;
+
+import com.budget.app.model.TransactionType;
+import com.budget.app.service.TransactionSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveDeltaTest {
+
+    private static TransactionSnapshot row(long id, String date, TransactionType type, String category, long cents) {
+        return TransactionSnapshot.of(id, 1L, date == null ? null : LocalDate.parse(date), type,
+                1, category, cents, "row " + id, null);
+    }
+
+    @Test
+    void addsUpSeveralChangesIntoOneMessage() {
+        LiveDelta d = new LiveDelta();
+        d.apply(null, row(1, "2025-03-01", TransactionType.INCOME, "Income", 10000));
+        d.apply(null, row(2, "2025-03-02", TransactionType.EXPENSE, "Food", 1500));
+        d.apply(null, row(3, "2025-03-03", TransactionType.EXPENSE, "Food", 500));
+
+        LiveDelta.Message m = d.toMessage("v1");
+        assertEquals("v1", m.version());
+        assertFalse(m.resync());
+        assertEquals(10000, m.incomeCents());
+        assertEquals(2000, m.expenseCents());
+        assertEquals(List.of(new LiveDelta.CategoryChange("2025-03", "Food", 2000)), m.expenseCategories());
+        assertEquals(List.of(1L, 2L, 3L), m.upserts().stream().map(LiveDelta.Row::id).toList());
+    }
+
+    @Test
+    void anEditMovesTheAmountBetweenMonthsAndCategories() {
+        LiveDelta d = new LiveDelta();
+        d.apply(row(1, "2025-03-01", TransactionType.EXPENSE, "Food", 1000),
+                row(1, "2025-04-01", TransactionType.EXPENSE, "Rent", 1200));
+
+        LiveDelta.Message m = d.toMessage("v");
+        assertEquals(200, m.expenseCents());
+        assertEquals(List.of(
+                new LiveDelta.CategoryChange("2025-03", "Food", -1000),
+                new LiveDelta.CategoryChange("2025-04", "Rent", 1200)), m.expenseCategories());
+        assertEquals(1, m.upserts().size());
+    }
+
+    @Test
+    void addThenDeleteLeavesOnlyTheRemovedId() {
+        LiveDelta d = new LiveDelta();
+        TransactionSnapshot r = row(7, "2025-03-01", TransactionType.EXPENSE, "Food", 1000);
+        d.apply(null, r);
+        d.apply(r, null);
+
+        LiveDelta.Message m = d.toMessage("v");
+        assertEquals(0, m.expenseCents());
+        // Categories that net out to zero aren't sent.
+        assertTrue(m.expenseCategories().isEmpty());
+        assertTrue(m.upserts().isEmpty());
+        assertEquals(Set.of(7L), m.removed());
+    }
+
+    @Test
+    void undatedExpenseCountsInTheTotalButNoMonth() {
+        LiveDelta d = new LiveDelta();
+        d.apply(null, row(1, null, TransactionType.EXPENSE, "Food", 300));
+        LiveDelta.Message m = d.toMessage("v");
+        assertEquals(300, m.expenseCents());
+        assertTrue(m.expenseCategories().isEmpty());
+    }
+
+    @Test
+    void tooManyRowsOrARebuildAskForAResync() {
+        LiveDelta d = new LiveDelta();
+        for (long id = 1; id <= LiveDelta.MAX_ROWS + 1; id++) {
+            d.apply(null, row(id, "2025-03-01", TransactionType.EXPENSE, "Food", 100));
+        }
+        LiveDelta.Message m = d.toMessage("v");
+        assertTrue(m.resync());
+        assertTrue(m.upserts().isEmpty());
+        // The totals are still right.
+        assertEquals(100L * (LiveDelta.MAX_ROWS + 1), m.expenseCents());
+
+        LiveDelta rebuilt = new LiveDelta();
+        rebuilt.apply(null, null);
+        assertTrue(rebuilt.toMessage("v").resync());
+    }
+}
@@ -0,0 +1,80 @@
+package com.budget.app.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    // ======================= PARSING =======================
+
+    @Test
+    void parsesDollarsIntoCents() {
+        assertEquals(1250, Money.valueOf("12.5").getCents());
+        assertEquals(-399, Money.valueOf(" -3.99 ").getCents());
+        assertEquals(700, Money.valueOf("7").getCents());
+    }
+
+    @Test
+    void roundsPastTwoDecimalsHalfUp() {
+        assertEquals(1235, Money.valueOf("12.345").getCents());
+        assertEquals(1234, Money.valueOf("12.3449").getCents());
+        assertEquals(-1235, Money.valueOf("-12.345").getCents());
+    }
+
+    @Test
+    void rejectsMissingAndBadAmounts() {
+        assertEquals("missing amount", assertThrows(IllegalArgumentException.class, () -> Money.valueOf(null)).getMessage());
+        assertEquals("missing amount", assertThrows(IllegalArgumentException.class, () -> Money.valueOf("  ")).getMessage());
+        assertEquals("bad amount '12,50'", assertThrows(IllegalArgumentException.class, () -> Money.valueOf("12,50")).getMessage());
+        // Too many cents to fit in a long.
+        assertThrows(IllegalArgumentException.class, () -> Money.valueOf("1e30"));
+    }
+
+    // ======================= ARITHMETIC =======================
+
+    @Test
+    void addsAndSubtractsExactly() {
+        // The classic double problem: 0.1 + 0.2 is exactly 0.3 here.
+        assertEquals(Money.valueOf("0.3"), Money.valueOf("0.1").plus(Money.valueOf("0.2")));
+        assertEquals(Money.ofCents(-50), Money.ofCents(100).minus(Money.ofCents(150)));
+        assertEquals(Money.ofCents(50), Money.ofCents(-50).abs());
+    }
+
+    @Test
+    void overflowThrowsInsteadOfWrapping() {
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MIN_VALUE).minus(Money.ofCents(1)));
+    }
+
+    @Test
+    void zeroIsTheSharedConstant() {
+        assertSame(Money.ZERO, Money.ofCents(0));
+        assertSame(Money.ZERO, Money.ofCents(5).minus(Money.ofCents(5)));
+        assertFalse(Money.ZERO.isNegative());
+        assertFalse(Money.ZERO.isPositive());
+    }
+
+    @Test
+    void percentOfZeroIsZero() {
+        assertEquals(25.0, Money.ofCents(250).percentOf(Money.ofCents(1000)), 1e-9);
+        assertEquals(0.0, Money.ofCents(250).percentOf(Money.ZERO));
+    }
+
+    // ======================= OUTPUT =======================
+
+    @Test
+    void printsTwoDecimals() {
+        assertEquals("12.50", Money.valueOf("12.5").toString());
+        assertEquals("-0.05", Money.ofCents(-5).toString());
+        assertEquals(new BigDecimal("12.50"), Money.ofCents(1250).toBigDecimal());
+    }
+
+    @Test
+    void ordersByCents() {
+        assertTrue(Money.ofCents(-1).compareTo(Money.ZERO) < 0);
+        assertEquals(Money.ofCents(7).hashCode(), Money.valueOf("0.07").hashCode());
+    }
+}
@@ -0,0 +1,82 @@
+package com.budget.app.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostingsTest {
+
+    @Test
+    void keepsIdsSortedAndUnique() {
+        Postings p = new Postings();
+        assertTrue(p.add(5));
+        assertTrue(p.add(9));
+        assertTrue(p.add(1));
+        assertTrue(p.add(7));
+        assertFalse(p.add(5));
+        assertArrayEquals(new long[] {1, 5, 7, 9}, p.toArray());
+
+        assertTrue(p.remove(5));
+        assertFalse(p.remove(5));
+        assertArrayEquals(new long[] {1, 7, 9}, p.toArray());
+        assertEquals(3, p.size());
+    }
+
+    @Test
+    void shrinksAfterMostIdsAreRemoved() {
+        Postings p = new Postings();
+        for (long id = 1; id <= 1000; id++) {
+            p.add(id);
+        }
+        long full = p.footprint();
+        for (long id = 1; id <= 990; id++) {
+            p.remove(id);
+        }
+        assertTrue(p.footprint() < full / 10);
+        assertArrayEquals(new long[] {991, 992, 993, 994, 995, 996, 997, 998, 999, 1000}, p.toArray());
+    }
+
+    @Test
+    void intersectsWalkingBothLists() {
+        long[] a = {1, 3, 5, 7, 9};
+        long[] b = {2, 3, 4, 5, 10};
+        assertArrayEquals(new long[] {3, 5}, Postings.intersect(a, a.length, b, b.length));
+        assertArrayEquals(new long[] {3, 5}, Postings.intersect(b, b.length, a, a.length));
+    }
+
+    @Test
+    void intersectsOnlyTheUsedPartOfTheArrays() {
+        long[] a = {1, 2, 3, 99};
+        long[] b = {2, 3, 99, 0};
+        assertArrayEquals(new long[] {2, 3}, Postings.intersect(a, 3, b, 2));
+        assertArrayEquals(new long[0], Postings.intersect(a, 0, b, 4));
+    }
+
+    // A short list against a long one takes the binary search path; both paths have to agree
+    // with a plain set intersection.
+    @Test
+    void bothPathsMatchASetIntersection() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            TreeSet<Long> small = new TreeSet<>();
+            TreeSet<Long> big = new TreeSet<>();
+            int smallSize = round % 2 == 0 ? 5 : 500;
+            while (small.size() < smallSize) {
+                small.add((long) random.nextInt(5000));
+            }
+            while (big.size() < 2000) {
+                big.add((long) random.nextInt(5000));
+            }
+            long[] a = small.stream().mapToLong(Long::longValue).toArray();
+            long[] b = big.stream().mapToLong(Long::longValue).toArray();
+
+            TreeSet<Long> expected = new TreeSet<>(small);
+            expected.retainAll(big);
+            assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(),
+                    Postings.intersect(a, a.length, b, b.length));
+        }
+    }
+}
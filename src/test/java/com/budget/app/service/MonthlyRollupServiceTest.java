@@ -0,0 +1,206 @@
+package com.budget.app.service;
+
+import com.budget.app.journal.LedgerJournal;
+import com.budget.app.model.Category;
+import com.budget.app.model.MonthlyCategoryTotal;
+import com.budget.app.model.Transaction;
+import com.budget.app.model.TransactionType;
+import com.budget.app.model.User;
+import com.budget.app.repository.MonthlyCategoryTotalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The rollup against a real database: the upsert and the empty-bucket delete are native
+// MySQL statements, so this runs on H2 in MySQL mode instead of mocking the repository.
+// Every test runs in its own rolled-back transaction (add/change/remove need one).
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rollup;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "budget.rollup.verify-on-startup=false"
+})
+@Import(MonthlyRollupService.class)
+class MonthlyRollupServiceTest {
+
+    @Autowired
+    private MonthlyRollupService rollup;
+
+    @Autowired
+    private MonthlyCategoryTotalRepository rollupRepo;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @MockBean
+    private CategoryDictionary categories;
+
+    @MockBean
+    private LedgerJournal journal;
+
+    private Long user;
+    private Category food;
+    private Category rent;
+
+    @BeforeEach
+    void setUp() {
+        user = em.persist(new User("Test", "t@x.com", "hash")).getId();
+        food = em.persist(new Category(user, "Food"));
+        rent = em.persist(new Category(user, "Rent"));
+    }
+
+    private TransactionSnapshot snapshot(long id, String date, Category category, long cents) {
+        return TransactionSnapshot.of(id, user, date == null ? null : LocalDate.parse(date),
+                TransactionType.EXPENSE, category.getId(), category.getName(), cents, "t" + id, null);
+    }
+
+    // The native statements go around the persistence context, so I read the rows fresh.
+    private List<MonthlyCategoryTotal> rows() {
+        em.flush();
+        em.clear();
+        return rollupRepo.findAll().stream()
+                .sorted(Comparator.comparingInt(MonthlyCategoryTotal::getMonthKey)
+                        .thenComparingInt(MonthlyCategoryTotal::getCategoryId))
+                .toList();
+    }
+
+    private static MonthlyCategoryTotal bucket(List<MonthlyCategoryTotal> rows, int monthKey, Category category) {
+        return rows.stream()
+                .filter(r -> r.getMonthKey() == monthKey && r.getCategoryId() == category.getId())
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("no bucket " + monthKey + "/" + category.getName()));
+    }
+
+    private static void assertRow(MonthlyCategoryTotal row, int monthKey, int categoryId, long cents, long count) {
+        assertEquals(monthKey, row.getMonthKey());
+        assertEquals(categoryId, row.getCategoryId());
+        assertEquals(cents, row.getTotalCents());
+        assertEquals(count, row.getCount());
+    }
+
+    @Test
+    void addCreatesTheBucketThenAddsToIt() {
+        rollup.add(snapshot(1, "2025-03-02", food, 1_250));
+        rollup.add(snapshot(2, "2025-03-20", food, 750));
+
+        List<MonthlyCategoryTotal> rows = rows();
+        assertEquals(1, rows.size());
+        assertRow(rows.get(0), 202503, food.getId(), 2_000, 2);
+    }
+
+    @Test
+    void undatedRowsGoInTheNoMonthBucket() {
+        rollup.add(snapshot(1, null, food, 500));
+
+        assertRow(rows().get(0), MonthlyCategoryTotal.NO_MONTH, food.getId(), 500, 1);
+    }
+
+    @Test
+    void removeKeepsTheBucketUntilItIsEmpty() {
+        rollup.add(snapshot(1, "2025-03-02", food, 1_250));
+        rollup.add(snapshot(2, "2025-03-20", food, 750));
+
+        rollup.remove(snapshot(1, "2025-03-02", food, 1_250));
+        assertRow(rows().get(0), 202503, food.getId(), 750, 1);
+
+        rollup.remove(snapshot(2, "2025-03-20", food, 750));
+        assertTrue(rows().isEmpty());
+    }
+
+    @Test
+    void changeInTheSameBucketOnlyMovesTheAmount() {
+        rollup.add(snapshot(1, "2025-03-02", food, 1_000));
+
+        rollup.change(snapshot(1, "2025-03-02", food, 1_000), snapshot(1, "2025-03-28", food, 1_500));
+
+        List<MonthlyCategoryTotal> rows = rows();
+        assertEquals(1, rows.size());
+        assertRow(rows.get(0), 202503, food.getId(), 1_500, 1);
+    }
+
+    @Test
+    void changeToAnotherBucketMovesTheRow() {
+        rollup.add(snapshot(1, "2025-03-02", food, 1_000));
+
+        rollup.change(snapshot(1, "2025-03-02", food, 1_000), snapshot(1, "2025-04-01", rent, 90_000));
+
+        List<MonthlyCategoryTotal> rows = rows();
+        assertEquals(1, rows.size());
+        assertRow(rows.get(0), 202504, rent.getId(), 90_000, 1);
+    }
+
+    @Test
+    void addAllMergesPerBucketAndAddsToExistingRows() {
+        rollup.add(snapshot(1, "2025-03-02", food, 100));
+
+        rollup.addAll(List.of(
+                snapshot(2, "2025-03-05", food, 200),
+                snapshot(3, "2025-03-06", food, 300),
+                snapshot(4, "2025-03-07", rent, 90_000),
+                snapshot(5, "2025-04-01", food, 50)));
+
+        List<MonthlyCategoryTotal> rows = rows();
+        assertEquals(3, rows.size());
+        assertRow(bucket(rows, 202503, food), 202503, food.getId(), 600, 3);
+        assertRow(bucket(rows, 202503, rent), 202503, rent.getId(), 90_000, 1);
+        assertRow(bucket(rows, 202504, food), 202504, food.getId(), 50, 1);
+    }
+
+    @Test
+    void rebuildMatchesTheTransactionsTable() {
+        persist("2025-03-02", food, 1_000);
+        persist("2025-03-09", food, 2_000);
+        persist("2025-04-01", rent, 90_000);
+        persist(null, food, 500);
+
+        assertEquals(3, rollup.rebuild());
+        assertTrue(rollup.check().isEmpty());
+        assertRow(bucket(rows(), 202503, food), 202503, food.getId(), 3_000, 2);
+    }
+
+    @Test
+    void checkReportsMismatchedMissingAndUnexpectedBuckets() {
+        persist("2025-03-02", food, 1_000);
+        persist("2025-04-01", rent, 90_000);
+        rollup.rebuild();
+
+        // One bucket off by a cent, one gone and one that shouldn't be there.
+        rollupRepo.addToBucket(user, 202503, TransactionType.EXPENSE.getCode(), food.getId(), 1, 0);
+        rollupRepo.addToBucket(user, 202504, TransactionType.EXPENSE.getCode(), rent.getId(), -90_000, -1);
+        rollupRepo.deleteIfEmpty(user, 202504, TransactionType.EXPENSE.getCode(), rent.getId());
+        rollupRepo.addToBucket(user, 202505, TransactionType.EXPENSE.getCode(), food.getId(), 10, 1);
+        rows();
+
+        List<String> problems = rollup.check();
+        assertEquals(3, problems.size());
+        assertTrue(problems.stream().anyMatch(p -> p.startsWith("mismatch " + user + "/202503/")));
+        assertTrue(problems.stream().anyMatch(p -> p.startsWith("missing " + user + "/202504/")));
+        assertTrue(problems.stream().anyMatch(p -> p.startsWith("unexpected " + user + "/202505/")));
+    }
+
+    private void persist(String date, Category category, long cents) {
+        Transaction t = new Transaction();
+        t.setUserId(user);
+        t.setName("row");
+        t.setAmountCents(cents);
+        t.setType(TransactionType.EXPENSE);
+        t.setCategoryRef(category);
+        t.setDate(date == null ? null : LocalDate.parse(date));
+        em.persist(t);
+    }
+}
@@ -0,0 +1,45 @@
+package com.budget.app.service;
+
+import com.budget.app.service.TransactionPage.Cursor;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionPageTest {
+
+    @Test
+    void cursorRoundTrips() {
+        Cursor c = Cursor.parse("2025-12-03_42");
+        assertEquals(LocalDate.of(2025, 12, 3), c.getDate());
+        assertEquals(42L, c.getId());
+        assertEquals("2025-12-03_42", c.toString());
+    }
+
+    @Test
+    void cursorWithoutADateRoundTrips() {
+        Cursor c = Cursor.parse("none_7");
+        assertNull(c.getDate());
+        assertEquals(7L, c.getId());
+        assertEquals("none_7", new Cursor(null, 7L).toString());
+    }
+
+    @Test
+    void anythingThatDoesNotParseMeansFirstPage() {
+        assertNull(Cursor.parse(null));
+        assertNull(Cursor.parse(""));
+        assertNull(Cursor.parse("   "));
+        assertNull(Cursor.parse("_42"));
+        assertNull(Cursor.parse("2025-12-03"));
+        assertNull(Cursor.parse("2025-13-03_42"));
+        assertNull(Cursor.parse("2025-12-03_abc"));
+        assertNull(Cursor.parse("2025-12-03_"));
+    }
+
+    @Test
+    void onlyTheLastUnderscoreSplits() {
+        // The date part never has one, so a second underscore makes the date unparseable.
+        assertNull(Cursor.parse("2025_12_03_42"));
+    }
+}